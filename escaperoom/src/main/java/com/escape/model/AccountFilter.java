@@ -0,0 +1,266 @@
+package com.escape.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * A Bloom filter over the usernames and emails that are already taken,
+ * kept in a small file (accounts.bloom) next to the player store's data.
+ *
+ * A miss means the name is certainly free, so sign-up can skip reading the
+ * player store; a hit only means it may be taken and the caller does the
+ * exact check. Keys are case-folded, so a hit for "Ana" also covers "ana".
+ * Names are never removed: a deleted account just leaves a false positive.
+ *
+ * The filter is sized for twice the accounts it was built from (two keys
+ * each) at about a 1% false positive rate. Once more keys than that have
+ * been added, isOverfull() tells the owner to build a bigger one.
+ *
+ * Processes sharing the data directory add to the same file under a
+ * CrossProcessLock, and each check first reloads the file if another process
+ * has written it since, so a name taken elsewhere is never reported free.
+ * If the file cannot be read or written the filter carries on in memory.
+ *
+ * Not thread-safe; Accounts calls it while holding its own lock.
+ *
+ * @author Rudra Patel
+ */
+final class AccountFilter {
+
+    static final String FILE = "accounts.bloom";
+
+    private static final int MAGIC = 0x424c4f4d; // "BLOM"
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 256;
+
+    private final Path file;
+    private final CrossProcessLock fileLock;
+    private long[] bits;
+    private int hashes;
+    private int capacity;
+    private int count;
+    private long seenVersion = -1;
+
+    private AccountFilter(Path file, int capacity) {
+        this.file = file;
+        this.fileLock = CrossProcessLock.forFile(file);
+        size(capacity);
+    }
+
+    /**
+     * Open the filter file and make sure it covers the given accounts,
+     * building a new file if there is none or it is too small.
+     *
+     * @param file  the filter file
+     * @param users accounts known to exist
+     * @return the filter
+     */
+    static AccountFilter open(Path file, Collection<User> users) {
+        int wanted = Math.max(MIN_CAPACITY, users.size() * 4);
+        AccountFilter f = new AccountFilter(file, wanted);
+        f.fileLock.lock();
+        try {
+            AccountFilter onDisk = new AccountFilter(file, MIN_CAPACITY);
+            if (onDisk.read() && onDisk.capacity >= wanted / 2 && !onDisk.isOverfull())
+                f = onDisk;
+            boolean changed = false;
+            for (User u : users)
+                changed |= f.set(u);
+            if (changed || f.seenVersion < 0)
+                f.write();
+        } finally {
+            f.fileLock.unlock();
+        }
+        return f;
+    }
+
+    /**
+     * @param username a username
+     * @return false if no account has this name (ignoring case)
+     */
+    boolean mightContainUsername(String username) {
+        return username == null || mightContain("u:" + username);
+    }
+
+    /**
+     * @param email an email address
+     * @return false if no account uses this email (ignoring case)
+     */
+    boolean mightContainEmail(String email) {
+        return email == null || mightContain("e:" + email);
+    }
+
+    /**
+     * Record an account's username and email, and save the filter.
+     *
+     * @param user the account
+     */
+    void add(User user) {
+        fileLock.lock();
+        try {
+            refresh();
+            if (set(user))
+                write();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * @return true once more keys were added than the filter was sized for
+     */
+    boolean isOverfull() {
+        return count > capacity;
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private void size(int capacity) {
+        this.capacity = capacity;
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacity * Math.log(FALSE_POSITIVE_RATE) / (ln2 * ln2));
+        this.bits = new long[(int) ((m + 63) / 64)];
+        this.hashes = Math.max(1, (int) Math.round((double) bits.length * 64 / capacity * ln2));
+        this.count = 0;
+    }
+
+    private boolean mightContain(String key) {
+        refresh();
+        long h = hash(key);
+        long m = (long) bits.length * 64;
+        for (int i = 0; i < hashes; i++) {
+            long bit = probe(h, i, m);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    private boolean set(User user) {
+        boolean changed = false;
+        if (user.getUsername() != null)
+            changed |= set("u:" + user.getUsername());
+        if (user.getEmail() != null)
+            changed |= set("e:" + user.getEmail());
+        return changed;
+    }
+
+    private boolean set(String key) {
+        long h = hash(key);
+        long m = (long) bits.length * 64;
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = probe(h, i, m);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                changed = true;
+            }
+        }
+        if (changed)
+            count++;
+        return changed;
+    }
+
+    // double hashing: the two halves of one 64-bit hash give every probe
+    private static long probe(long h, int i, long m) {
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        return Math.floorMod(h1 + (long) i * h2, m);
+    }
+
+    // FNV-1a over the case-folded key, then a murmur3 finalizer to spread it
+    private static long hash(String key) {
+        String folded = key.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < folded.length(); i++) {
+            h ^= folded.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** Reload the file if another process wrote it since we last looked. */
+    private void refresh() {
+        long v = fileLock.version();
+        if (v == seenVersion || !Files.exists(file))
+            return;
+        AccountFilter onDisk = new AccountFilter(file, MIN_CAPACITY);
+        if (!onDisk.read())
+            return;
+        if (onDisk.bits.length == bits.length && onDisk.hashes == hashes) {
+            for (int i = 0; i < bits.length; i++)
+                bits[i] |= onDisk.bits[i];
+            count = Math.max(count, onDisk.count);
+        } else {
+            // another process rebuilt it bigger; everything we added is in it
+            bits = onDisk.bits;
+            hashes = onDisk.hashes;
+            capacity = onDisk.capacity;
+            count = onDisk.count;
+        }
+        seenVersion = onDisk.seenVersion;
+    }
+
+    private boolean read() {
+        if (!Files.exists(file))
+            return false;
+        long v = fileLock.version();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                return false;
+            int k = in.readInt();
+            int cap = in.readInt();
+            int n = in.readInt();
+            int words = in.readInt();
+            if (k < 1 || cap < 1 || words < 1)
+                return false;
+            long[] b = new long[words];
+            for (int i = 0; i < words; i++)
+                b[i] = in.readLong();
+            hashes = k;
+            capacity = cap;
+            count = n;
+            bits = b;
+            seenVersion = v;
+            return true;
+        } catch (IOException e) {
+            System.out.println("Could not read " + file + ", rebuilding: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void write() {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(hashes);
+                out.writeInt(capacity);
+                out.writeInt(count);
+                out.writeInt(bits.length);
+                for (long w : bits)
+                    out.writeLong(w);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            seenVersion = fileLock.bump();
+        } catch (IOException e) {
+            System.out.println("Could not save " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,21 +1,57 @@
 package com.escape.model;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * Singleton class that manages user accounts in the escape game system.
  * Provides methods to create, delete, and retrieve user accounts.
+ * Methods are synchronized: accounts are created from the background
+ * persistence threads as well as the FX thread.
+ *
+ * The list keeps accounts in creation order; lookups go through hash indexes
+ * on username, case-folded username, email and userID, which createAccount
+ * and deleteAccount keep in step with the list, and User.setEmail re-keys.
+ * Where several accounts share a key (only possible in hand-edited data) the
+ * earliest one wins, as it did with the old linear scans; only deleting the
+ * holder of such a key costs a scan, to find who takes it over.
+ *
+ * An AccountFilter (a Bloom filter persisted next to the active player
+ * store's data, reopened if PlayerStores switches store) answers most "is
+ * this name free" questions for sign-up; only when it reports a possible
+ * match are the indexes and the player store consulted.
  * 
  * @author Jacob Kinard
  */
 public class Accounts {
 
     private ArrayList<User> accounts = new ArrayList<>();
+    private final Index<String> byUsername = new Index<>(User::getUsername, true);
+    private final Index<String> byFoldedUsername = new Index<>(u -> fold(u.getUsername()), false);
+    private final Index<String> byEmail = new Index<>(u -> fold(u.getEmail()), false);
+    private final Index<UUID> byId = new Index<>(u -> u.userID, false);
+    private AccountFilter taken;
+    // the store the filter describes; it is reopened when PlayerStores switches
+    private PlayerStore takenStore;
     private static Accounts instance;
 
     private Accounts() {
-        GameDataLoader loader = new GameDataLoader();
-        this.accounts = loader.getUsers();
+        PlayerStore store = PlayerStores.get();
+        this.accounts = store.getUsers();
+        for (User user : accounts)
+            index(user);
+        this.takenStore = store;
+        this.taken = AccountFilter.open(filterPath(store), accounts);
     }
 
     /**
@@ -23,7 +59,7 @@ public class Accounts {
      *
      * @return the shared Accounts instance
      */
-    public static Accounts getInstance() {
+    public static synchronized Accounts getInstance() {
         if (instance == null) {
             instance = new Accounts();
         }
@@ -37,28 +73,22 @@ public class Accounts {
      * @param password the desired password
      * @param email    the desired email
      */
-    public void createAccount(String username, String password, String email) {
+    public synchronized void createAccount(String username, String password, String email) {
         if (getUser(username) != null) {
             System.out.println("Account already exists for username: " + username);
             return;
         }
         // Also check persisted users on disk to avoid creating duplicates when
-        // the in-memory list hasn't been populated from disk.
-        try {
-            GameDataLoader loader = new GameDataLoader();
-            for (User u : loader.getUsers()) {
-                if (u.getUsername() != null && u.getUsername().equals(username)) {
-                    System.out.println("Account already exists for username (persisted): " + username);
-                    return;
-                }
-            }
-        } catch (Exception e) {
-            // If loader fails, continue with creation (we don't want to block account
-            // creation)
-            // but log for visibility.
-            System.out.println("Warning: could not check persisted users: " + e.getMessage());
+        // the in-memory list hasn't been populated from disk. The filter
+        // rules out almost every free name without reading the store.
+        if (isPersisted(username)) {
+            System.out.println("Account already exists for username (persisted): " + username);
+            return;
         }
-        accounts.add(new User(Driver.getUUID(), username, password, email));
+        User created = new User(Driver.getUUID(), username, password, email);
+        accounts.add(created);
+        index(created);
+        remember(created);
         Accounts.toString("Account created for username: " + username);
 
     }
@@ -68,10 +98,11 @@ public class Accounts {
      *
      * @param username the username of the account to delete
      */
-    public void deleteAccount(String username) {
+    public synchronized void deleteAccount(String username) {
         User userToRemove = getUser(username);
         if (userToRemove != null) {
             accounts.remove(userToRemove);
+            unindex(userToRemove);
             System.out.println("Account deleted for username: " + username);
         } else {
             System.out.println("No account found for username: " + username);
@@ -84,19 +115,63 @@ public class Accounts {
      * @param username the username of the account to retrieve
      * @return the User object (currently commented out)
      */
-    public User getUser(String username) {
-        for (User user : accounts) {
-            if (username == null) {
-                if (user.getUsername() == null) {
-                    return user;
-                }
-            } else {
-                if (username.equals(user.getUsername())) {
-                    return user;
-                }
-            }
-        }
-        return null;
+    public synchronized User getUser(String username) {
+        return byUsername.get(username);
+    }
+
+    /**
+     * Retrieves the user account with the given id.
+     *
+     * @param userID the id to look up
+     * @return the User, or null if there is none
+     */
+    public synchronized User getUserById(UUID userID) {
+        return byId.get(userID);
+    }
+
+    /**
+     * Adds an account that was found in the player store but is not known
+     * here yet, e.g. one created by another game process since startup.
+     * Does nothing if an account with the same id is already present.
+     *
+     * @param user the persisted account
+     */
+    public synchronized void register(User user) {
+        if (user == null || (user.userID != null && byId.get(user.userID) != null))
+            return;
+        accounts.add(user);
+        index(user);
+        remember(user);
+    }
+
+    /**
+     * Checks whether a username can still be registered (exact match, as in
+     * createAccount). Usually answered by the filter alone.
+     *
+     * @param username the wanted username
+     * @return true if no account, in memory or persisted, has this name
+     */
+    public synchronized boolean isUsernameAvailable(String username) {
+        if (username == null)
+            return false;
+        if (!taken().mightContainUsername(username))
+            return true;
+        return getUser(username) == null && !isPersisted(username);
+    }
+
+    /**
+     * Checks whether an email is still unused (ignoring case).
+     * Usually answered by the filter alone.
+     *
+     * @param email the wanted email
+     * @return true if no account uses this email
+     */
+    public synchronized boolean isEmailAvailable(String email) {
+        if (email == null)
+            return false;
+        if (!taken().mightContainEmail(email))
+            return true;
+        return getUserByEmail(email) == null;
     }
 
     /**
@@ -104,7 +179,7 @@ public class Accounts {
      * 
      * @return list of users
      */
-    public ArrayList<User> getAccounts() {
+    public synchronized ArrayList<User> getAccounts() {
         return new ArrayList<>(accounts);
     }
 
@@ -125,17 +200,13 @@ public class Accounts {
         String password = "testpass";
 
         // Check persisted users first to avoid duplicates
-        GameDataLoader loader = new GameDataLoader();
+        PlayerStore store = PlayerStores.get();
         boolean exists = false;
         try {
-            for (User u : loader.getUsers()) {
-                if (u.getUsername() != null && u.getUsername().equals(username)) {
-                    exists = true;
-                    break;
-                }
-            }
+            User u = store.findUser(username);
+            exists = u != null && username.equals(u.getUsername());
         } catch (Exception e) {
-            // If loader fails (file missing), we'll proceed to create user
+            // If the store fails (file missing), we'll proceed to create user
             System.out.println("Warning: could not read existing users; proceeding to create. " + e.getMessage());
         }
 
@@ -150,8 +221,7 @@ public class Accounts {
         User user = accounts.getUser(username);
         if (user != null)
             users.add(user);
-        GameDataWriter writer = new GameDataWriter();
-        writer.saveUsers(users);
+        store.saveUsers(users);
         System.out.println("Test user created and written to json/test.json");
 
     }
@@ -162,16 +232,11 @@ public class Accounts {
      * @param uNorm the username to search for (case-insensitive)
      * @return the User object associated with the username if found, null otherwise
      */
-    public User getUserCaseInsensitive(String uNorm) {
-        if (uNorm == null || accounts.isEmpty()) {
+    public synchronized User getUserCaseInsensitive(String uNorm) {
+        if (uNorm == null) {
             return null;
         }
-        for (User user : accounts) {
-            if (user.getUsername() != null && user.getUsername().equalsIgnoreCase(uNorm)) {
-                return user;
-            }
-        }
-        return null;
+        return byFoldedUsername.get(fold(uNorm));
     }
 
     /**
@@ -180,15 +245,150 @@ public class Accounts {
      * @param email the email to search for (case-insensitive)
      * @return the User object associated with the email if found, null otherwise
      */
-    public User getUserByEmail(String email) {
-        if (email == null || accounts.isEmpty()) {
+    public synchronized User getUserByEmail(String email) {
+        if (email == null) {
             return null;
         }
-        for (User user : accounts) {
-            if (user.getEmail() != null && user.getEmail().equalsIgnoreCase(email)) {
-                return user;
+        return byEmail.get(fold(email));
+    }
+
+    /**
+     * Called by User.setEmail: moves an account to its new email key.
+     *
+     * @param user     the user whose email changed
+     * @param oldEmail the email it had before
+     */
+    static void emailChanged(User user, String oldEmail) {
+        Accounts a;
+        synchronized (Accounts.class) {
+            a = instance;
+        }
+        if (a != null)
+            a.rekeyEmail(user, oldEmail);
+    }
+
+    /* ----------------- Indexes ----------------- */
+
+    // next to the store's data: beside playerData.json, or in the store's directory
+    private static Path filterPath(PlayerStore store) {
+        Path data = store.getLockPath().toAbsolutePath();
+        return (Files.isDirectory(data) ? data : data.getParent()).resolve(AccountFilter.FILE);
+    }
+
+    private AccountFilter taken() {
+        PlayerStore store = PlayerStores.get();
+        if (store != takenStore) {
+            takenStore = store;
+            taken = openFilter(store);
+        }
+        return taken;
+    }
+
+    // from the store too, so other processes' accounts stay covered
+    private AccountFilter openFilter(PlayerStore store) {
+        Map<UUID, User> all = new HashMap<>();
+        for (User u : store.getUsers())
+            all.put(u.userID, u);
+        for (User u : accounts)
+            all.put(u.userID, u);
+        return AccountFilter.open(filterPath(store), all.values());
+    }
+
+    private boolean isPersisted(String username) {
+        if (username == null || !taken().mightContainUsername(username))
+            return false;
+        try {
+            User persisted = PlayerStores.get().findUser(username);
+            return persisted != null && username.equals(persisted.getUsername());
+        } catch (Exception e) {
+            // If the store fails, continue with creation (we don't want to block
+            // account creation) but log for visibility.
+            System.out.println("Warning: could not check persisted users: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void remember(User user) {
+        AccountFilter filter = taken();
+        filter.add(user);
+        if (filter.isOverfull())
+            taken = openFilter(takenStore); // rebuilt bigger
+    }
+
+    /*
+     * Case folding that agrees with equalsIgnoreCase, which compares both the
+     * upper- and lower-case forms of each character.
+     */
+    private static String fold(String s) {
+        return s == null ? null : s.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    private void index(User user) {
+        byUsername.add(user);
+        byFoldedUsername.add(user);
+        byEmail.add(user);
+        byId.add(user);
+    }
+
+    // call after the user left the list
+    private void unindex(User user) {
+        byUsername.remove(user, byUsername.keyOf.apply(user), accounts);
+        byFoldedUsername.remove(user, byFoldedUsername.keyOf.apply(user), accounts);
+        byEmail.remove(user, byEmail.keyOf.apply(user), accounts);
+        byId.remove(user, byId.keyOf.apply(user), accounts);
+    }
+
+    private synchronized void rekeyEmail(User user, String oldEmail) {
+        // only accounts managed here, not copies of them
+        if (user.userID == null || byId.get(user.userID) != user)
+            return;
+        byEmail.remove(user, fold(oldEmail), accounts);
+        byEmail.add(user);
+        remember(user);
+    }
+
+    /**
+     * One hash index over the accounts. Keys that several accounts share are
+     * remembered, so removing an account only scans the list for the ones
+     * that need a new holder.
+     */
+    private static final class Index<K> {
+        final Function<User, K> keyOf;
+        // whether accounts without this key are indexed under null
+        final boolean nullKey;
+        final Map<K, User> map = new HashMap<>();
+        // keys held by more than one account
+        final Set<K> shared = new HashSet<>();
+
+        Index(Function<User, K> keyOf, boolean nullKey) {
+            this.keyOf = keyOf;
+            this.nullKey = nullKey;
+        }
+
+        User get(K key) {
+            return key == null && !nullKey ? null : map.get(key);
+        }
+
+        void add(User user) {
+            K key = keyOf.apply(user);
+            if (key == null && !nullKey)
+                return;
+            User held = map.putIfAbsent(key, user);
+            if (held != null && held != user)
+                shared.add(key);
+        }
+
+        void remove(User user, K key, List<User> rest) {
+            if ((key == null && !nullKey) || !map.remove(key, user) || !shared.contains(key))
+                return;
+            // the earliest other holder takes over
+            int holders = 0;
+            for (User other : rest) {
+                if (Objects.equals(key, keyOf.apply(other)) && holders++ == 0)
+                    map.put(key, other);
             }
+            if (holders < 2)
+                shared.remove(key);
         }
-        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,219 @@
+package com.escape.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Debounced autosave: coalesces a player's rapid in-game saves (solved
+ * puzzle, hint, ...) into one write.
+ *
+ * request() remembers the newest save per key (normally the user's id) and
+ * runs it once no new request came for the debounce window, but never later
+ * than the max staleness after the first unsaved request. So a fast player
+ * gets one write per pause instead of one per action, and a crash loses at
+ * most maxStaleMillis of progress. Saves run on the PersistenceExecutor lane
+ * of their key, so they stay in order with the user's other saves.
+ *
+ * Deadlines are kept per key and read against the clock: the timer only
+ * wakes flushDue(), which writes whatever is due by then.
+ *
+ * Callers force a flush at the points that must not lose anything: room
+ * transition, pause, end of game and logout. A JVM shutdown hook flushes
+ * whatever is still pending.
+ *
+ * Policy (per deployment): -Descaperoom.autosave.debounceMs (default 2000)
+ * and -Descaperoom.autosave.maxStaleMs (default 10000), or setPolicy().
+ * A debounce of 0 writes every request right away.
+ *
+ * @author Rudra Patel
+ */
+public final class Autosave {
+
+    static final long DEFAULT_DEBOUNCE_MS = 2000;
+    static final long DEFAULT_MAX_STALE_MS = 10000;
+
+    private static final Autosave SHARED = new Autosave(PersistenceExecutor.shared(),
+            Long.getLong("escaperoom.autosave.debounceMs", DEFAULT_DEBOUNCE_MS),
+            Long.getLong("escaperoom.autosave.maxStaleMs", DEFAULT_MAX_STALE_MS));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            SHARED.flushAll();
+            PersistenceExecutor.shared().flush(5, TimeUnit.SECONDS);
+        }, "autosave-flush"));
+    }
+
+    /** The newest unsaved request of one key. */
+    private static final class Pending {
+        Runnable save;
+        final long firstMillis;
+        // when the save is due, by the clock
+        long dueMillis;
+        ScheduledFuture<?> due;
+
+        Pending(long firstMillis) {
+            this.firstMillis = firstMillis;
+        }
+    }
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "autosave");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final PersistenceExecutor executor;
+    private final LongSupplier clock;
+    // key -> pending save, guarded by this
+    private final Map<Object, Pending> pending = new HashMap<>();
+    private volatile long debounceMillis;
+    private volatile long maxStaleMillis;
+
+    Autosave(PersistenceExecutor executor, long debounceMillis, long maxStaleMillis) {
+        this(executor, System::currentTimeMillis, debounceMillis, maxStaleMillis);
+    }
+
+    Autosave(PersistenceExecutor executor, LongSupplier clock, long debounceMillis, long maxStaleMillis) {
+        this.executor = executor;
+        this.clock = clock;
+        setPolicy(debounceMillis, maxStaleMillis);
+    }
+
+    /**
+     * @return the autosaver the game shares
+     */
+    public static Autosave shared() {
+        return SHARED;
+    }
+
+    /**
+     * Change the policy; applies to requests made from now on.
+     *
+     * @param debounceMillis quiet time before a save runs (0 = right away)
+     * @param maxStaleMillis longest a requested save may wait in total
+     */
+    public void setPolicy(long debounceMillis, long maxStaleMillis) {
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.maxStaleMillis = Math.max(this.debounceMillis, maxStaleMillis);
+    }
+
+    /**
+     * @return quiet time before a save runs, in milliseconds
+     */
+    public long getDebounceMillis() {
+        return debounceMillis;
+    }
+
+    /**
+     * @return longest a requested save may wait, in milliseconds
+     */
+    public long getMaxStaleMillis() {
+        return maxStaleMillis;
+    }
+
+    /**
+     * Ask for a save. It replaces any pending save of the same key, so it
+     * must capture everything it writes (a snapshot), not read live state
+     * later.
+     *
+     * @param key  ordering key (e.g. the user's id); null shares one lane
+     * @param save the write
+     */
+    public void request(Object key, Runnable save) {
+        Object k = key == null ? "" : key;
+        if (debounceMillis == 0) {
+            synchronized (this) {
+                drop(k);
+            }
+            submit(k, save);
+            return;
+        }
+        synchronized (this) {
+            long now = clock.getAsLong();
+            Pending p = pending.get(k);
+            if (p == null) {
+                p = new Pending(now);
+                pending.put(k, p);
+            } else {
+                p.due.cancel(false);
+            }
+            p.save = save;
+            p.dueMillis = Math.min(now + debounceMillis, p.firstMillis + maxStaleMillis);
+            p.due = TIMER.schedule(this::flushDue, Math.max(0, p.dueMillis - now), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Run the pending save of a key now (room change, pause, end of game).
+     *
+     * @param key ordering key given to request()
+     * @return completes once the save is written (at once if none pending)
+     */
+    public CompletableFuture<Boolean> flush(Object key) {
+        Object k = key == null ? "" : key;
+        Pending p;
+        synchronized (this) {
+            p = drop(k);
+        }
+        return p == null ? CompletableFuture.completedFuture(true) : submit(k, p.save);
+    }
+
+    /**
+     * Run every pending save now (shutdown).
+     */
+    public void flushAll() {
+        Object[] keys;
+        synchronized (this) {
+            keys = pending.keySet().toArray();
+        }
+        for (Object k : keys)
+            flush(k);
+    }
+
+    /**
+     * Run the pending saves whose debounce or max staleness ran out.
+     */
+    void flushDue() {
+        List<Object> keys = new ArrayList<>();
+        synchronized (this) {
+            long now = clock.getAsLong();
+            for (Map.Entry<Object, Pending> e : pending.entrySet()) {
+                if (e.getValue().dueMillis <= now)
+                    keys.add(e.getKey());
+            }
+        }
+        for (Object k : keys)
+            flush(k);
+    }
+
+    /**
+     * @return number of keys with a save waiting
+     */
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private Pending drop(Object key) {
+        Pending p = pending.remove(key);
+        if (p != null)
+            p.due.cancel(false);
+        return p;
+    }
+
+    private CompletableFuture<Boolean> submit(Object key, Runnable save) {
+        return executor.submit(key, () -> {
+            save.run();
+            return true;
+        });
+    }
+}
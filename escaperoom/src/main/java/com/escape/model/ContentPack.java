@@ -0,0 +1,393 @@
+package com.escape.model;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Compiled, read-only form of game.json (story, rooms, puzzles).
+ *
+ * game.json never changes while the game runs, so instead of re-parsing it
+ * for every getRooms()/getStory()/loadPuzzlesForRoom() call we compile it
+ * once into a small binary pack next to it (game.json -> game.pack) and
+ * memory-map that. Strings are decoded only when asked for, and a room's
+ * puzzles can be read without touching the other rooms.
+ *
+ * Layout (all ints/longs big-endian):
+ * header - magic, version, source size, source mtime (ns), section offsets
+ * story - present flag + one string index per STORY_FIELDS entry
+ * rooms - count, then {roomID, title, firstPuzzle, puzzleCount} per room
+ * puzzles - count, then one string index per PUZZLE_FIELDS entry per puzzle
+ * strings - count, offsets[count + 1], UTF-8 blob
+ * A string index of -1 means the JSON value was missing/null.
+ *
+ * The header stores the size and mtime of the game.json it was built from.
+ * If game.json no longer matches, the pack is stale: it is rebuilt from the
+ * JSON, or - if the pack cannot be written - the freshly compiled bytes are
+ * used from memory. Either way game.json stays the source of truth.
+ *
+ * A pack can also be built ahead of time with main(gameJson).
+ *
+ * @author Rudra Patel
+ */
+public final class ContentPack {
+
+    static final int MAGIC = 0x45525043; // "ERPC"
+    static final int VERSION = 1;
+
+    /** story keys, in pack order */
+    static final String[] STORY_FIELDS = {
+            "intro", "roomOneIntro", "roomOneConc", "roomTwoIntro", "roomTwoBetween",
+            "roomTwoConc", "roomThreeIntro", "roomThreeBetween", "roomThreeConc",
+            "finalPuzzle", "conclusion"
+    };
+
+    /** puzzle keys, in pack order */
+    static final String[] PUZZLE_FIELDS = {
+            "id", "category", "type", "title", "objective", "solution", "hint", "prompt", "rewardLetter"
+    };
+
+    // Indexes into PUZZLE_FIELDS
+    static final int P_ID = 0, P_CATEGORY = 1, P_TYPE = 2, P_TITLE = 3, P_OBJECTIVE = 4,
+            P_SOLUTION = 5, P_HINT = 6, P_PROMPT = 7, P_REWARD = 8;
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 * 4;
+    private static final int ROOM_INTS = 4;
+
+    private static final Map<Path, ContentPack> PACKS = new HashMap<>();
+
+    private final ByteBuffer buf;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final int storyAt;
+    private final int roomsAt;
+    private final int puzzlesAt;
+    private final int stringsAt;
+    private final int stringCount;
+    private final String[] strings; // decoded lazily
+
+    private ContentPack(ByteBuffer buf) {
+        if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION)
+            throw new IllegalArgumentException("not a content pack");
+        this.buf = buf;
+        this.sourceSize = buf.getLong(8);
+        this.sourceModified = buf.getLong(16);
+        this.storyAt = buf.getInt(24);
+        this.roomsAt = buf.getInt(28);
+        this.puzzlesAt = buf.getInt(32);
+        this.stringsAt = buf.getInt(36);
+        this.stringCount = buf.getInt(stringsAt);
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * Returns an up-to-date pack for the given game.json, compiling it if the
+     * pack is missing or stale.
+     *
+     * @param source game.json on disk
+     * @return the pack, or null if game.json cannot be read
+     */
+    public static synchronized ContentPack forSource(Path source) {
+        long[] stat = stat(source);
+        if (stat == null)
+            return null;
+
+        ContentPack pack = PACKS.get(source);
+        if (pack != null && pack.builtFrom(stat))
+            return pack;
+
+        Path packFile = packFileFor(source);
+        pack = map(packFile);
+        if (pack == null || !pack.builtFrom(stat)) {
+            byte[] bytes = compile(readJson(source), stat[0], stat[1]);
+            pack = writeAndMap(packFile, bytes);
+        }
+        PACKS.put(source, pack);
+        return pack;
+    }
+
+    /**
+     * Compile a parsed game.json in memory (used when there is no file to
+     * pack, e.g. game.json inside a jar).
+     *
+     * @param gameRoot parsed game.json
+     * @return an in-memory pack
+     */
+    public static ContentPack fromJson(JSONObject gameRoot) {
+        return new ContentPack(ByteBuffer.wrap(compile(gameRoot, -1, -1)));
+    }
+
+    /**
+     * @param source game.json
+     * @return where its pack lives (game.json -> game.pack)
+     */
+    static Path packFileFor(Path source) {
+        String name = source.getFileName().toString();
+        String base = name.endsWith(".json") ? name.substring(0, name.length() - 5) : name;
+        return source.resolveSibling(base + ".pack");
+    }
+
+    /* ----------------- Story ----------------- */
+
+    /**
+     * @return true if game.json had a "story" section
+     */
+    public boolean hasStory() {
+        return buf.getInt(storyAt) != 0;
+    }
+
+    /**
+     * @param field index into STORY_FIELDS
+     * @return the story text, or null
+     */
+    public String story(int field) {
+        return string(buf.getInt(storyAt + 4 + 4 * field));
+    }
+
+    /* ----------------- Rooms ----------------- */
+
+    /**
+     * @return number of rooms
+     */
+    public int roomCount() {
+        return buf.getInt(roomsAt);
+    }
+
+    public String roomId(int room) {
+        return string(roomInt(room, 0));
+    }
+
+    public String roomTitle(int room) {
+        return string(roomInt(room, 1));
+    }
+
+    /**
+     * @param room room index
+     * @return index of the room's first puzzle
+     */
+    public int firstPuzzle(int room) {
+        return roomInt(room, 2);
+    }
+
+    /**
+     * @param room room index
+     * @return number of puzzles in the room
+     */
+    public int puzzleCount(int room) {
+        return roomInt(room, 3);
+    }
+
+    /* ----------------- Puzzles ----------------- */
+
+    /**
+     * @param puzzle global puzzle index
+     * @param field  index into PUZZLE_FIELDS (P_*)
+     * @return the field's text, or null
+     */
+    public String puzzle(int puzzle, int field) {
+        int at = puzzlesAt + 4 + 4 * (puzzle * PUZZLE_FIELDS.length + field);
+        return string(buf.getInt(at));
+    }
+
+    /* ----------------- Build ----------------- */
+
+    /**
+     * Build a pack ahead of time: java com.escape.model.ContentPack path/to/game.json
+     */
+    public static void main(String[] args) {
+        Path source = Path.of(args.length > 0 ? args[0] : "escaperoom/src/main/resources/json/game.json");
+        ContentPack pack = forSource(source);
+        if (pack == null) {
+            System.out.println("Cannot read " + source);
+            return;
+        }
+        System.out.println("Packed " + pack.roomCount() + " room(s), " + pack.stringCount
+                + " string(s) into " + packFileFor(source));
+    }
+
+    /**
+     * Serialize the parts of game.json the loader uses.
+     */
+    static byte[] compile(JSONObject root, long sourceSize, long sourceModified) {
+        List<String> table = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+
+        JSONObject story = root.get("story") instanceof JSONObject ? (JSONObject) root.get("story") : null;
+        int[] storyIdx = new int[STORY_FIELDS.length];
+        for (int i = 0; i < STORY_FIELDS.length; i++)
+            storyIdx[i] = story == null ? -1 : intern(story.get(STORY_FIELDS[i]), table, ids);
+
+        List<int[]> rooms = new ArrayList<>();
+        List<int[]> puzzles = new ArrayList<>();
+        if (root.get("rooms") instanceof JSONArray) {
+            for (Object r : (JSONArray) root.get("rooms")) {
+                if (!(r instanceof JSONObject))
+                    continue;
+                JSONObject ro = (JSONObject) r;
+                int first = puzzles.size();
+                if (ro.get("puzzles") instanceof JSONArray) {
+                    for (Object p : (JSONArray) ro.get("puzzles")) {
+                        if (!(p instanceof JSONObject))
+                            continue;
+                        int[] rec = new int[PUZZLE_FIELDS.length];
+                        for (int f = 0; f < rec.length; f++)
+                            rec[f] = intern(((JSONObject) p).get(PUZZLE_FIELDS[f]), table, ids);
+                        puzzles.add(rec);
+                    }
+                }
+                rooms.add(new int[] { intern(ro.get("roomID"), table, ids), intern(ro.get("title"), table, ids),
+                        first, puzzles.size() - first });
+            }
+        }
+
+        byte[][] utf8 = new byte[table.size()][];
+        for (int i = 0; i < utf8.length; i++)
+            utf8[i] = table.get(i).getBytes(StandardCharsets.UTF_8);
+
+        int storyAt = HEADER_BYTES;
+        int roomsAt = storyAt + 4 + 4 * STORY_FIELDS.length;
+        int puzzlesAt = roomsAt + 4 + 4 * ROOM_INTS * rooms.size();
+        int stringsAt = puzzlesAt + 4 + 4 * PUZZLE_FIELDS.length * puzzles.size();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            out.writeInt(storyAt);
+            out.writeInt(roomsAt);
+            out.writeInt(puzzlesAt);
+            out.writeInt(stringsAt);
+
+            out.writeInt(story == null ? 0 : 1);
+            for (int idx : storyIdx)
+                out.writeInt(idx);
+
+            out.writeInt(rooms.size());
+            for (int[] room : rooms)
+                for (int v : room)
+                    out.writeInt(v);
+
+            out.writeInt(puzzles.size());
+            for (int[] rec : puzzles)
+                for (int v : rec)
+                    out.writeInt(v);
+
+            out.writeInt(utf8.length);
+            int offset = 0;
+            for (byte[] s : utf8) {
+                out.writeInt(offset);
+                offset += s.length;
+            }
+            out.writeInt(offset);
+            for (byte[] s : utf8)
+                out.write(s);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+        }
+        return bytes.toByteArray();
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private boolean builtFrom(long[] stat) {
+        return sourceSize == stat[0] && sourceModified == stat[1];
+    }
+
+    private int roomInt(int room, int slot) {
+        return buf.getInt(roomsAt + 4 + 4 * (room * ROOM_INTS + slot));
+    }
+
+    private String string(int idx) {
+        if (idx < 0 || idx >= stringCount)
+            return null;
+        String s = strings[idx];
+        if (s == null) {
+            int offsets = stringsAt + 4;
+            int blob = offsets + 4 * (stringCount + 1);
+            int start = buf.getInt(offsets + 4 * idx);
+            int end = buf.getInt(offsets + 4 * (idx + 1));
+            byte[] b = new byte[end - start];
+            buf.get(blob + start, b);
+            s = new String(b, StandardCharsets.UTF_8);
+            strings[idx] = s;
+        }
+        return s;
+    }
+
+    private static int intern(Object value, List<String> table, Map<String, Integer> ids) {
+        if (value == null)
+            return -1;
+        String s = value.toString();
+        Integer id = ids.get(s);
+        if (id == null) {
+            id = table.size();
+            table.add(s);
+            ids.put(s, id);
+        }
+        return id;
+    }
+
+    private static long[] stat(Path source) {
+        try {
+            BasicFileAttributes a = Files.readAttributes(source, BasicFileAttributes.class);
+            return new long[] { a.size(), a.lastModifiedTime().to(TimeUnit.NANOSECONDS) };
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static JSONObject readJson(Path source) {
+        try (BufferedReader r = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            Object parsed = new JSONParser().parse(r);
+            return parsed instanceof JSONObject ? (JSONObject) parsed : new JSONObject();
+        } catch (Exception e) {
+            System.out.println("Error reading " + source + " - packing empty content: " + e.getMessage());
+            return new JSONObject();
+        }
+    }
+
+    private static ContentPack map(Path packFile) {
+        if (!Files.exists(packFile))
+            return null;
+        try (FileChannel ch = FileChannel.open(packFile, StandardOpenOption.READ)) {
+            return new ContentPack(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } catch (Exception e) {
+            // unreadable or from another version; rebuild it
+            return null;
+        }
+    }
+
+    private static ContentPack writeAndMap(Path packFile, byte[] bytes) {
+        Path tmp = packFile.resolveSibling(packFile.getFileName() + ".tmp");
+        try {
+            Files.write(tmp, bytes);
+            Files.move(tmp, packFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            ContentPack mapped = map(packFile);
+            if (mapped != null)
+                return mapped;
+        } catch (IOException e) {
+            System.out.println("Cannot write " + packFile + " - using in-memory pack: " + e.getMessage());
+        }
+        return new ContentPack(ByteBuffer.wrap(bytes));
+    }
+}
@@ -0,0 +1,148 @@
+package com.escape.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock on a data file that holds across JVMs, plus a version stamp.
+ *
+ * Several game processes (kiosks) can share one data directory. Each data
+ * file gets a small companion, e.g. playerData.json.lock, and every
+ * read-modify-write of the data file happens while holding a FileChannel
+ * lock on it. Inside one JVM a ReentrantLock serializes threads first, since
+ * FileChannel locks are held per process, not per thread.
+ *
+ * The first 8 bytes of the lock file are a version counter that every
+ * committed write bumps. A process compares it with the version its
+ * in-memory copy was loaded at: if they differ, someone else wrote in
+ * between and the copy must be reloaded before it is used or merged into.
+ * The lock itself sits on a byte far past the counter, so the counter can be
+ * read without the lock even where file locks are mandatory.
+ *
+ * If the OS refuses the file lock, the error is logged and work carries on
+ * with the in-process lock only, as it did before.
+ *
+ * @author Rudra Patel
+ */
+public final class CrossProcessLock {
+
+    static final String SUFFIX = ".lock";
+    private static final long LOCK_POSITION = Long.MAX_VALUE - 1;
+
+    private static final Map<Path, CrossProcessLock> LOCKS = new HashMap<>();
+
+    private final Path file;
+    private final ReentrantLock threads = new ReentrantLock();
+    private FileChannel channel;
+    private FileLock held;
+
+    private CrossProcessLock(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the lock that guards the given data file.
+     *
+     * @param dataFile the file being protected (not the .lock file)
+     * @return the shared lock for that file
+     */
+    public static synchronized CrossProcessLock forFile(Path dataFile) {
+        Path lockFile = DataRoot.withSuffix(dataFile.toAbsolutePath().normalize(), SUFFIX);
+        return LOCKS.computeIfAbsent(lockFile, CrossProcessLock::new);
+    }
+
+    /**
+     * Take the lock, waiting for other threads and processes. Reentrant.
+     */
+    public void lock() {
+        threads.lock();
+        if (threads.getHoldCount() > 1)
+            return;
+        try {
+            held = channel().lock(LOCK_POSITION, 1, false);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.out.println("Could not lock " + file + ", continuing unlocked: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Release one level of the lock.
+     */
+    public void unlock() {
+        try {
+            if (threads.getHoldCount() == 1 && held != null) {
+                held.release();
+                held = null;
+            }
+        } catch (IOException e) {
+            System.out.println("Error unlocking " + file + ": " + e.getMessage());
+        } finally {
+            threads.unlock();
+        }
+    }
+
+    /**
+     * @return true if the current thread holds the lock
+     */
+    public boolean isHeldByCurrentThread() {
+        return threads.isHeldByCurrentThread();
+    }
+
+    /**
+     * Read the version stamp. Does not need the lock.
+     *
+     * @return the current version, 0 if nothing was committed yet
+     */
+    public long version() {
+        ByteBuffer b = ByteBuffer.allocate(Long.BYTES);
+        try {
+            FileChannel ch = channel();
+            while (b.hasRemaining()) {
+                if (ch.read(b, b.position()) < 0)
+                    return 0;
+            }
+            return b.getLong(0);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Record a committed write: increment the version stamp.
+     * Must be called while holding the lock.
+     *
+     * @return the new version
+     */
+    public long bump() {
+        long next = Math.max(version(), 0) + 1;
+        ByteBuffer b = ByteBuffer.allocate(Long.BYTES).putLong(0, next);
+        try {
+            FileChannel ch = channel();
+            while (b.hasRemaining())
+                ch.write(b, b.position());
+            ch.force(false);
+        } catch (IOException e) {
+            System.out.println("Error updating version in " + file + ": " + e.getMessage());
+        }
+        return next;
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private synchronized FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,66 @@
+package com.escape.model;
+
+import java.nio.file.Path;
+
+/**
+ * Where player data lives: the directory holding playerData.json (and its
+ * journal, players/ shards, history/, store/, backups/ and accounts.bloom).
+ *
+ * GameDataWriter and GameDataLoader take a root in their constructors, so a
+ * test or benchmark can give each instance its own directory (on any
+ * java.nio FileSystem) and run side by side with others. Code that does not
+ * pass one uses the default root: -Descaperoom.dataRoot, or
+ * escaperoom/src/main/resources/json, changeable with set().
+ *
+ * @author Rudra Patel
+ */
+public final class DataRoot {
+
+    static final String PLAYER_DATA = "playerData.json";
+
+    private static volatile Path root = Path.of(
+            System.getProperty("escaperoom.dataRoot", "escaperoom/src/main/resources/json"));
+
+    private DataRoot() {
+    }
+
+    /**
+     * @return the default data directory
+     */
+    public static Path get() {
+        return root;
+    }
+
+    /**
+     * Change the default data directory for everything created afterwards.
+     *
+     * @param dir the new directory (any FileSystem)
+     */
+    public static void set(Path dir) {
+        root = dir;
+    }
+
+    /**
+     * @return playerData.json in the default data directory
+     */
+    public static Path playerData() {
+        return playerData(root);
+    }
+
+    /**
+     * @param dir a data directory
+     * @return playerData.json in it
+     */
+    public static Path playerData(Path dir) {
+        return dir.resolve(PLAYER_DATA);
+    }
+
+    /**
+     * @param file   a file
+     * @param suffix text to append to its name (e.g. ".tmp")
+     * @return the sibling file, on the same FileSystem
+     */
+    static Path withSuffix(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+}
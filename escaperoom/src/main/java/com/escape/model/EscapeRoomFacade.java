@@ -2,7 +2,10 @@ package com.escape.model;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Facade class to organize the Escape Room.
@@ -22,10 +25,14 @@ public class EscapeRoomFacade {
     private Rooms currentRoom;
     private Timer timer;
     private GameDataLoader loader;
-    private GameDataWriter writer;
+    private PlayerStore store;
     private Accounts accounts;
     private Score score;
     private Progress progress;
+    // Login state resolved in one read; loadGame() consumes it
+    private SessionBootstrap bootstrap;
+    private long loginStartNanos;
+    private double timeToFirstRoomMillis = -1;
 
     /**
      * Checks if a user is currently logged in.
@@ -41,18 +48,82 @@ public class EscapeRoomFacade {
     }
 
     /**
-     * Ensures that core components like loader, writer, and accounts are
+     * Ensures that core components like loader, player store, and accounts are
      * initialized.
      */
     private void ensureCore() {
         if (loader == null)
             loader = new GameDataLoader();
-        if (writer == null)
-            writer = new GameDataWriter();
+        if (store == null)
+            store = PlayerStores.get();
         if (accounts == null)
             accounts = Accounts.getInstance();
     }
 
+    private static PersistenceExecutor persistence() {
+        return PersistenceExecutor.shared();
+    }
+
+    private static Autosave autosave() {
+        return Autosave.shared();
+    }
+
+    // Write the current user's debounced progress save now (room change,
+    // pause, end of game, logout); it lands before anything submitted later
+    private CompletableFuture<Boolean> flushAutosave() {
+        return currentUser == null ? CompletableFuture.completedFuture(true)
+                : autosave().flush(laneOf(currentUser));
+    }
+
+    // Saves of one user run in order on the PersistenceExecutor. Keyed by the
+    // folded username, which login and sign-up know before the account is
+    // resolved, so they queue behind that player's pending saves too
+    private static Object laneOf(User user) {
+        return user == null ? null : laneOf(user.getUsername());
+    }
+
+    private static Object laneOf(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
+
+    // Copies handed to background saves, so later changes on the FX thread
+    // cannot race with the write
+    private static User snapshotOf(User u) {
+        if (u == null)
+            return null;
+        User copy = new User(u.userID, u.getUsername(), u.getPassword(), u.getEmail());
+        Inventory inv = u.getInventory();
+        if (inv == null) {
+            copy.setInventory(null);
+        } else {
+            Inventory items = new Inventory(inv.getCapacity());
+            for (String it : inv.getItems())
+                items.addItem(it);
+            copy.setInventory(items);
+        }
+        return copy;
+    }
+
+    private static Progress snapshotOf(Progress p) {
+        if (p == null)
+            return null;
+        Progress copy = new Progress(p.getProgressUUID(), p.getUserUUID());
+        copy.setStoryPos(p.getStoryPos());
+        copy.setQuestionsAnswered(p.getQuestionsAnswered());
+        copy.setHintsUsed(p.getHintsUsed());
+        copy.setCurrentRoomID(p.getCurrentRoomID());
+        copy.setTimeRemainingSeconds(p.getTimeRemainingSeconds());
+        copy.setDifficulty(p.getDifficulty());
+        copy.setHintedPuzzles(p.getHintedPuzzles());
+        return copy;
+    }
+
+    private static Score snapshotOf(Score s) {
+        Score copy = new Score(s.getUsername(), s.getDifficulty(), s.getTimeLeftSec(), s.getDate(), s.getScore());
+        copy.setDate(s.getDate());
+        return copy;
+    }
+
     // Ensure 'progress' exists for the current user
     private void ensureProgressExists() {
         if (progress == null && currentUser != null) {
@@ -60,12 +131,9 @@ public class EscapeRoomFacade {
         }
     }
 
-    // Persist a snapshot of progress to playerData.json
+    // Persist a snapshot of progress to the player store (debounced)
     private void saveProgressSnapshot() {
-        if (writer == null)
-            writer = new GameDataWriter();
-        if (progress != null)
-            writer.saveProgress(progress);
+        autosaveProgress(progress);
     }
 
     /**
@@ -94,9 +162,7 @@ public class EscapeRoomFacade {
         // If progress wasn’t set by login (e.g., direct start), restore or create now
         if (progress == null && currentUser != null) {
             // Try a late restore in case login came from a different spot
-            if (loader == null)
-                loader = new GameDataLoader();
-            Progress restored = loader.loadProgressForUser(currentUser.userID);
+            Progress restored = store.loadProgress(currentUser.userID);
             progress = (restored != null) ? restored
                     : new Progress(java.util.UUID.randomUUID(), currentUser.userID);
         }
@@ -116,12 +182,9 @@ public class EscapeRoomFacade {
         }
         timer.start();
 
-        // Ensure rooms are loaded for the GUI
-        if (allRooms == null) {
-            if (loader == null)
-                loader = new GameDataLoader();
-            allRooms = loader.getRooms();
-        }
+        // Ensure rooms are loaded for the GUI; a fresh run picks up edited content
+        if (allRooms == null || (currentRoom == null && content != GameContent.current()))
+            pinContent();
 
         // Set current room to the first room if not set
         if (currentRoom == null && allRooms != null && !allRooms.isEmpty()) {
@@ -233,8 +296,33 @@ public class EscapeRoomFacade {
     // in EscapeRoomFacade
     public void saveProgressForCurrentUser(Progress p) {
         ensureCore();
+        // a pending autosave holds older state; it must not land after this
+        flushAutosave().join();
         if (p != null)
-            writer.saveProgress(p);
+            store.saveProgress(p);
+    }
+
+    /**
+     * Save progress after an in-game action (solved puzzle, hint). The write
+     * is debounced by the Autosave policy, so a burst of actions costs one
+     * write; it is forced out at the next room change, pause or end of game.
+     *
+     * @param p the progress to save (a snapshot is taken now)
+     */
+    public void autosaveProgress(Progress p) {
+        if (store == null)
+            store = PlayerStores.get();
+        if (p == null || !p.isDirty())
+            return;
+        long version = p.getVersion();
+        Progress snapshot = snapshotOf(p);
+        PlayerStore target = store;
+        autosave().request(laneOf(currentUser), () -> {
+            target.saveProgress(snapshot);
+            // the writer marks what it wrote; carry that over to the live object
+            if (!snapshot.isDirty())
+                p.markSaved(version);
+        });
     }
 
     /**
@@ -244,12 +332,74 @@ public class EscapeRoomFacade {
      * Does nothing if the user is not logged in.
      */
     public void restoreProgressForCurrentUser() {
+        restoreProgressAsync().join();
+    }
+
+    /**
+     * Background version of restoreProgressForCurrentUser(): the lookup runs
+     * on the PersistenceExecutor, after any save of this user still pending.
+     *
+     * @return completes with the restored progress, or null if there was none
+     */
+    public CompletableFuture<Progress> restoreProgressAsync() {
         ensureCore();
-        if (currentUser == null)
-            return;
-        Progress p = loader.loadProgressForUser(currentUser.userID);
-        if (p != null)
-            this.progress = p;
+        User user = currentUser;
+        if (user == null)
+            return CompletableFuture.completedFuture(null);
+        return persistence().submit(laneOf(user), () -> {
+            Progress p = store.loadProgress(user.userID);
+            if (p != null && user == currentUser)
+                this.progress = p;
+            return p;
+        });
+    }
+
+    /**
+     * Look an account up and restore its progress without blocking the
+     * caller. The username must match exactly and the password must be
+     * right; on success the account becomes the current user.
+     *
+     * @param username the username as typed
+     * @param password the password as typed
+     * @return completes with the logged-in user, or null if the credentials
+     *         are wrong
+     */
+    public CompletableFuture<User> loginAsync(String username, String password) {
+        ensureCore();
+        if (username == null || password == null)
+            return CompletableFuture.completedFuture(null);
+        long start = System.nanoTime();
+        return persistence().submit(laneOf(username),
+                () -> startSession(accounts.getUser(username), username, password, true, start));
+    }
+
+    /**
+     * Create an account and save it in the background.
+     *
+     * @param username the new username
+     * @param password the password
+     * @param email    the email address
+     * @return completes with true if the account was created and saved,
+     *         false if the username is taken; fails if the account was
+     *         rejected or could not be saved
+     */
+    public CompletableFuture<Boolean> createAccountAsync(String username, String password, String email) {
+        ensureCore();
+        return persistence().submit(laneOf(username), () -> {
+            if (!accounts.isUsernameAvailable(username))
+                return false;
+            accounts.createAccount(username, password, email);
+            User created = accounts.getUser(username);
+            if (created == null)
+                throw new IllegalStateException("Account was not created for " + username);
+            store.saveUser(created);
+            if (store.findUser(username) == null) {
+                // not on disk: forget it so the name can be tried again
+                accounts.deleteAccount(username);
+                throw new IllegalStateException("Account could not be saved for " + username);
+            }
+            return true;
+        });
     }
 
     /**
@@ -272,6 +422,16 @@ public class EscapeRoomFacade {
      * Ends a game session.
      */
     public void endGame() {
+        endGameAsync().join();
+    }
+
+    /**
+     * Ends a game session. The final score is worked out right away; the
+     * score history and leaderboard are saved on the PersistenceExecutor.
+     *
+     * @return completes with true once the result is saved
+     */
+    public CompletableFuture<Boolean> endGameAsync() {
         System.out.println("END GAME CALLED! User = " +
                 (currentUser == null ? "NULL" : currentUser.getUsername()));
 
@@ -279,7 +439,7 @@ public class EscapeRoomFacade {
 
         if (!isLoggedIn()) {
             System.out.println("ERROR: No user logged in. Nothing to end.");
-            return;
+            return CompletableFuture.completedFuture(false);
         }
 
         // Pause timer
@@ -301,39 +461,51 @@ public class EscapeRoomFacade {
         score.setTimeLeftSec(timeLeft);
         long finalScore = calculateFinalScore();
         score.setScore(finalScore);
+        System.out.println("Game ended. Final score: " + finalScore);
 
-        // Save score history
-        writer.saveScore(score);
-
-        Leaderboard lb = loader.getLeaderboard();
-        if (lb == null) {
-            lb = new Leaderboard();
-        }
-
-        // Build a clean dedupe map of username → best/latest score
-        LinkedHashMap<String, Score> cleanMap = new LinkedHashMap<>();
+        Score result = snapshotOf(score);
+        User user = currentUser;
 
-        for (Score s : lb.getAllScores()) {
-            if (s == null || s.getUsername() == null)
-                continue;
-            cleanMap.put(s.getUsername().toLowerCase(), s);
-        }
+        // Cleanup
+        currentRoom = null;
+        flushAutosave();
+
+        return persistence().submit(laneOf(user), () -> {
+            // the player's stripe first, then the leaderboard (PlayerLocks order);
+            // other players' progress saves are not held up meanwhile
+            PlayerLocks locks = PlayerLocks.forPath(store.getLockPath());
+            String player = locks.keyOf(user.userID, user.getUsername());
+            return locks.withPlayers(List.of(player), () -> locks.withLeaderboard(() -> {
+                Leaderboard lb = store.getLeaderboard();
+                if (lb == null) {
+                    lb = new Leaderboard();
+                }
 
-        // Overwrite the current user's entry
-        cleanMap.put(currentUser.getUsername().toLowerCase(), score);
+                // Build a clean dedupe map of username → best/latest score
+                LinkedHashMap<String, Score> cleanMap = new LinkedHashMap<>();
 
-        // Build a fresh leaderboard
-        Leaderboard cleanLB = new Leaderboard();
-        cleanLB.setEntries(new ArrayList<>(cleanMap.values()));
+                for (Score s : lb.getAllScores()) {
+                    if (s == null || s.getUsername() == null)
+                        continue;
+                    cleanMap.put(s.getUsername().toLowerCase(), s);
+                }
 
-        // Save the cleaned leaderboard
-        writer.saveLeaderboard(cleanLB);
+                // Overwrite the current user's entry
+                cleanMap.put(user.getUsername().toLowerCase(), result);
 
-        System.out.println("Leaderboard cleaned + updated.");
-        System.out.println("Game ended. Final score: " + finalScore);
+                // Build a fresh leaderboard
+                Leaderboard cleanLB = new Leaderboard();
+                cleanLB.setEntries(new ArrayList<>(cleanMap.values()));
 
-        // Cleanup
-        currentRoom = null;
+                // Score history + cleaned leaderboard are saved together
+                boolean ok = store.recordResult(result, cleanLB);
+                // still under the leaderboard lock, so partitions see results in save order
+                if (ok)
+                    LeaderboardEngine.forStore(store).record(result);
+                System.out.println("Leaderboard cleaned + updated.");
+                return ok;
+            }));
+        });
     }
 
     /**
@@ -342,6 +514,7 @@ public class EscapeRoomFacade {
     public void pauseGame() {
         if (timer != null)
             timer.pause();
+        flushAutosave();
 
     }
 
@@ -358,11 +531,24 @@ public class EscapeRoomFacade {
      * Saves the current game.
      */
     public void saveGame() {
+        saveGameAsync().join();
+    }
+
+    /**
+     * Saves the current game. The game state is captured right away; the
+     * write runs on the PersistenceExecutor, after any earlier save of this
+     * user.
+     *
+     * @return completes with true once the save reached disk
+     */
+    public CompletableFuture<Boolean> saveGameAsync() {
         ensureCore();
         if (!isLoggedIn()) {
             System.out.println("ERROR: No user logged in. Cannot save.");
-            return;
+            return CompletableFuture.completedFuture(false);
         }
+        // older debounced progress goes first, so it cannot overwrite this save
+        flushAutosave();
         
         // Ensure progress exists
         ensureProgressExists();
@@ -389,15 +575,30 @@ public class EscapeRoomFacade {
             }
         }
         
-        // Save progress with all state
-        saveProgressSnapshot();
-        
-        // Save user data including collected letters in inventory
-        if (currentUser != null && writer != null) {
-            writer.saveUser(currentUser);
-            System.out.println("[SaveGame] User inventory saved (collected letters: " + 
-                (currentUser.getCollectedLetters() != null ? currentUser.getCollectedLetters().size() : 0) + ")");
+        // Save progress with all state and the user (inventory letters)
+        // together, so a save is a single write. Only what changed since the
+        // last save goes out; the live objects are marked clean afterwards.
+        User liveUser = currentUser;
+        Progress liveProgress = progress;
+        long userVersion = liveUser.getVersion();
+        long progressVersion = liveProgress == null ? 0 : liveProgress.getVersion();
+        User user = liveUser.isDirty() ? snapshotOf(liveUser) : null;
+        Progress saved = liveProgress != null && liveProgress.isDirty() ? snapshotOf(liveProgress) : null;
+        if (user == null && saved == null) {
+            System.out.println("[SaveGame] Nothing changed since the last save");
+            return CompletableFuture.completedFuture(true);
         }
+        return persistence().submit(laneOf(liveUser), () -> {
+            boolean ok = store.saveGame(user, saved);
+            if (ok && user != null)
+                liveUser.markSaved(userVersion);
+            if (ok && saved != null)
+                liveProgress.markSaved(progressVersion);
+            if (user != null)
+                System.out.println("[SaveGame] User inventory saved (collected letters: " +
+                        (user.getCollectedLetters() != null ? user.getCollectedLetters().size() : 0) + ")");
+            return ok;
+        });
     }
 
     /**
@@ -406,12 +607,24 @@ public class EscapeRoomFacade {
      * This allows the user to start a completely fresh game.
      */
     public void resetGameState() {
+        resetGameStateAsync().join();
+    }
+
+    /**
+     * Background version of resetGameState(): the in-memory state is reset
+     * right away, the reset save runs on the PersistenceExecutor (after the
+     * endGame() save of the same user).
+     *
+     * @return completes with true once the reset state is saved
+     */
+    public CompletableFuture<Boolean> resetGameStateAsync() {
         ensureCore();
         
         if (!isLoggedIn()) {
             System.out.println("[ResetGameState] No user logged in");
-            return;
+            return CompletableFuture.completedFuture(false);
         }
+        flushAutosave();
         
         System.out.println("[ResetGameState] Resetting game state for user: " + currentUser.getUsername());
         
@@ -431,37 +644,37 @@ public class EscapeRoomFacade {
             System.out.println("[ResetGameState] User inventory cleared");
         }
         
-        // Save the reset state to persistence
-        try {
-            // Save reset progress
-            if (writer != null && progress != null) {
-                writer.saveProgress(progress);
-                System.out.println("[ResetGameState] Reset progress saved to playerData.json");
-            }
-            
-            // Save user with cleared inventory
-            if (writer != null && currentUser != null) {
-                writer.saveUser(currentUser);
-                System.out.println("[ResetGameState] User with cleared inventory saved");
-            }
-            
-            System.out.println("[ResetGameState] Game state successfully reset and saved");
-        } catch (Exception e) {
-            System.err.println("[ResetGameState] Failed to save reset state: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        // persist minimal saved data via writer for backward compatibility
-        if (writer == null)
-            writer = new GameDataWriter();
+        // persist minimal saved data for backward compatibility
         SavedData sd = new SavedData();
         sd.room = (currentRoom == null ? null : currentRoom.getRoomID());
         sd.score = (score == null ? 0 : (int) score.getScore());
         sd.hints = (progress == null ? 0 : progress.getHintsUsed());
         sd.puzzle = null;
-        writer.saveSavedData(sd);
-        
-        System.out.println("[SaveGame] Complete game state saved successfully");
+
+        // Save the reset state to persistence
+        Progress reset = snapshotOf(progress);
+        User user = snapshotOf(currentUser);
+        return persistence().submit(laneOf(currentUser), () -> {
+            try {
+                // Save reset progress
+                store.saveProgress(reset);
+                System.out.println("[ResetGameState] Reset progress saved");
+
+                // Save user with cleared inventory
+                store.saveUser(user);
+                System.out.println("[ResetGameState] User with cleared inventory saved");
+
+                System.out.println("[ResetGameState] Game state successfully reset and saved");
+            } catch (Exception e) {
+                System.err.println("[ResetGameState] Failed to save reset state: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+            store.saveSavedData(sd);
+
+            System.out.println("[SaveGame] Complete game state saved successfully");
+            return true;
+        });
     }
     
     /**
@@ -486,50 +699,62 @@ public class EscapeRoomFacade {
             return;
         }
 
-        // Refresh this user from disk by username (if present)
-        ArrayList<User> users = loader.getUsers();
-        if (users != null) {
-            for (User u : users) {
-                if (u.getUsername() != null && u.getUsername().equals(currentUser.getUsername())) {
-                    currentUser = u;
-                    break;
-                }
-            }
-        }
+        // Use what login resolved; on a later load, resolve it again (one read)
+        SessionBootstrap boot = bootstrap;
+        bootstrap = null;
+        boolean fromLogin = boot != null;
+        if (boot == null)
+            boot = store.hydrate(currentUser.getUsername());
+        if (boot != null && boot.getUser().getUsername().equals(currentUser.getUsername()))
+            adoptInventory(currentUser, boot.getUser());
+        else
+            boot = null;
 
         // Load rooms
-        allRooms = loader.getRooms();
+        pinContent();
         if (allRooms == null || allRooms.isEmpty()) {
             System.out.println("ERROR: No rooms found to load.");
             return;
         }
 
-        // Pick room1 or the first as a simple “resume”
+        // Resume in the saved room, else room1 or the first
         currentRoom = null;
+        String savedRoom = boot == null ? null : boot.getSavedRoomID();
         for (Rooms r : allRooms) {
-            if ("room1".equalsIgnoreCase(r.getRoomID())) {
+            if (savedRoom != null && savedRoom.equalsIgnoreCase(r.getRoomID())) {
                 currentRoom = r;
                 break;
             }
         }
+        if (currentRoom == null) {
+            for (Rooms r : allRooms) {
+                if ("room1".equalsIgnoreCase(r.getRoomID())) {
+                    currentRoom = r;
+                    break;
+                }
+            }
+        }
         if (currentRoom == null)
             currentRoom = allRooms.get(0);
 
         // Load puzzles into the room (so UI can run them)
         var textMap = new java.util.HashMap<String, String>();
-        var puzzles = loader.loadPuzzlesForRoom(currentRoom.getRoomID(), textMap);
+        var puzzles = loader.loadPuzzlesForRoom(content, currentRoom.getRoomID(), textMap);
         currentRoom.setPuzzles(new ArrayList<>(puzzles));
 
-        // If timer/progress/score are null (first load), initialize them
+        // If timer/progress/score are null (first load), initialize them,
+        // from the saved difficulty and time left when there are some
         if (currentDifficulty == null)
-            currentDifficulty = Difficulty.EASY;
-        if (timer == null)
-            timer = new Timer(getSecondsForDifficulty(currentDifficulty));
-        // Load persisted progress for this user (if present) and use it so the
+            currentDifficulty = boot != null && boot.getDifficulty() != null ? boot.getDifficulty() : Difficulty.EASY;
+        if (timer == null) {
+            long left = boot == null ? 0 : boot.getTimeRemainingSeconds();
+            timer = new Timer(left > 0 ? (int) left : getSecondsForDifficulty(currentDifficulty));
+        }
+        // Use the persisted progress for this user (if present) so the
         // subsequent Rooms.startGame() call resumes from that saved point.
-        Progress restored = loader.loadProgressForUser(currentUser.userID);
-        if (restored != null) {
-            this.progress = restored;
+        if (boot != null && boot.isRestored()) {
+            if (!fromLogin)
+                this.progress = boot.getProgress();
             System.out
                     .println("Restored progress (pos=" + progress.getStoryPos() + ") for " + currentUser.getUsername());
         } else if (progress == null) {
@@ -540,6 +765,10 @@ public class EscapeRoomFacade {
 
         System.out.println("Game loaded for " + currentUser.getUsername()
                 + ". Room: " + (currentRoom.getTitle() == null ? currentRoom.getRoomID() : currentRoom.getTitle()));
+        if (fromLogin) {
+            timeToFirstRoomMillis = (System.nanoTime() - loginStartNanos) / 1_000_000.0;
+            System.out.println(String.format("[LoadGame] First room ready %.2f ms after login", timeToFirstRoomMillis));
+        }
 
         // Now start the interactive game loop; Rooms.startGame will consult
         // facade.getProgress() and fast-forward puzzles to the saved storyPos.
@@ -625,10 +854,10 @@ public class EscapeRoomFacade {
         if (accounts == null)
             accounts = Accounts.getInstance();
         Accounts.getInstance().createAccount(username, password, "default@example.com");
-        // persist accounts to disk if writer available
-        if (writer == null)
-            writer = new GameDataWriter();
-        writer.saveAccounts(accounts);
+        // persist accounts to the player store
+        if (store == null)
+            store = PlayerStores.get();
+        store.saveUsers(accounts.getAccounts());
         // Make the newly created account the active user so subsequent save/load
         // operate on it.
         try {
@@ -646,9 +875,9 @@ public class EscapeRoomFacade {
         if (accounts == null)
             accounts = Accounts.getInstance();
         accounts.deleteAccount(username);
-        if (writer == null)
-            writer = new GameDataWriter();
-        writer.saveAccounts(accounts);
+        if (store == null)
+            store = PlayerStores.get();
+        store.saveUsers(accounts.getAccounts());
     }
 
     /**
@@ -661,62 +890,104 @@ public class EscapeRoomFacade {
             return;
         }
         String uNorm = username.trim();
+        long start = System.nanoTime();
 
-        // Check persisted users
-        if (loader == null)
-            loader = new GameDataLoader();
-        for (User u : loader.getUsers()) {
-            if (u.getUsername() != null && u.getPassword() != null
-                    && u.getUsername().equalsIgnoreCase(uNorm)
-                    && u.getPassword().equals(password)) {
-                currentUser = u;
-                // After we have a currentUser, try to restore progress
-                if (currentUser != null) {
-                    if (loader == null)
-                        loader = new GameDataLoader();
-                    Progress restored = loader.loadProgressForUser(currentUser.userID);
-                    if (restored != null) {
-                        this.progress = restored;
-                        System.out.println("Restored progress for " + currentUser.getUsername()
-                                + " (pos=" + progress.getStoryPos()
-                                + ", hints=" + progress.getHintsUsed() + ")");
-                    } else {
-                        // First time login (no save yet) — create a fresh progress record.
-                        this.progress = new Progress(java.util.UUID.randomUUID(), currentUser.userID);
-                    }
-                }
-
-                return;
-            }
-        }
-
-        // Check in-memory accounts
         if (accounts == null)
             accounts = Accounts.getInstance();
-        User u = accounts.getUserCaseInsensitive(uNorm); // or scan accounts list and equalsIgnoreCase
-        if (u != null && password.equals(u.getPassword()))
-            currentUser = u;
-        // After we have a currentUser, try to restore progress
-        if (currentUser != null) {
-            if (loader == null)
-                loader = new GameDataLoader();
-            Progress restored = loader.loadProgressForUser(currentUser.userID);
-            if (restored != null) {
-                this.progress = restored;
-                System.out.println("Restored progress for " + currentUser.getUsername()
-                        + " (pos=" + progress.getStoryPos()
-                        + ", hints=" + progress.getHintsUsed()
-                        + ", solved=" + progress.getQuestionsAnswered() + ")");
-            } else {
-                this.progress = new Progress(java.util.UUID.randomUUID(), currentUser.userID);
-            }
+        if (store == null)
+            store = PlayerStores.get();
+        startSession(accounts.getUserCaseInsensitive(uNorm), uNorm, password, false, start);
+    }
+
+    /**
+     * Shared by login() and loginAsync(). The password is checked against the
+     * Accounts entry first, so a wrong password costs no read of player data;
+     * then one hydrate() resolves inventory, progress, saved room and timer.
+     *
+     * The session user is always the Accounts instance. The hydrated
+     * inventory is copied onto it (unless it has unsaved changes of its own),
+     * and an account whose first save has not landed yet still logs in, with
+     * a fresh progress.
+     *
+     * @param known     the Accounts entry, or null if it has none
+     * @param username  the username as typed
+     * @param password  the password as typed
+     * @param exactName true if a stored account must match the name exactly
+     * @param start     System.nanoTime() when the login began
+     * @return the logged-in user, or null if the credentials are wrong
+     */
+    private User startSession(User known, String username, String password, boolean exactName, long start) {
+        if (known != null && (known.getPassword() == null || !known.getPassword().equals(password)))
+            return null;
+
+        // One read for user, inventory, progress, saved room and timer
+        SessionBootstrap boot = store.hydrate(username);
+        if (known == null) {
+            // created by another process since startup
+            if (boot == null || (exactName && !username.equals(boot.getUser().getUsername())))
+                return null;
+            known = boot.getUser();
+            if (known.getPassword() == null || !known.getPassword().equals(password))
+                return null;
+            accounts.register(known);
+        } else if (boot != null && !known.getUsername().equalsIgnoreCase(boot.getUser().getUsername())) {
+            boot = null;
         }
+        double ms = boot != null ? boot.getHydrateMillis() : (System.nanoTime() - start) / 1_000_000.0;
+        if (boot != null)
+            adoptInventory(known, boot.getUser());
+        boot = new SessionBootstrap(known, boot != null && boot.isRestored() ? boot.getProgress() : null, ms);
+
+        // the session's username-only records (scores) lock by the user's id
+        PlayerLocks.forPath(store.getLockPath()).remember(known.userID, known.getUsername());
+        currentUser = known;
+        progress = boot.getProgress();
+        bootstrap = boot;
+        loginStartNanos = start;
+        timeToFirstRoomMillis = -1;
+
+        if (boot.isRestored()) {
+            System.out.println("Restored progress for " + currentUser.getUsername()
+                    + " (pos=" + progress.getStoryPos()
+                    + ", hints=" + progress.getHintsUsed()
+                    + ", solved=" + progress.getQuestionsAnswered() + ")");
+        }
+        System.out.println(String.format("[Login] Session hydrated in %.2f ms", boot.getHydrateMillis()));
+        return known;
+    }
+
+    /**
+     * Copy the inventory read from disk onto the session's own User, unless
+     * that one has changes not saved yet (then it is the newer of the two).
+     */
+    private static void adoptInventory(User live, User persisted) {
+        if (live == persisted || persisted == null || live.isDirty())
+            return;
+        live.setInventory(persisted.getInventory());
+        live.markSaved(live.getVersion());
+    }
 
+    /**
+     * @return what login resolved for this session, or null once loadGame()
+     *         has used it (or before login)
+     */
+    public SessionBootstrap getSessionBootstrap() {
+        return bootstrap;
+    }
+
+    /**
+     * @return milliseconds from the start of login() to the end of the
+     *         loadGame() that followed it, or -1 if not measured yet
+     */
+    public double getTimeToFirstRoomMillis() {
+        return timeToFirstRoomMillis;
     }
 
     /** Log out current user. */
     public void logout() {
+        flushAutosave();
         currentUser = null;
+        bootstrap = null;
     }
 
     private Difficulty currentDifficulty;
@@ -751,6 +1022,8 @@ public class EscapeRoomFacade {
         }
     }
 
+    /** The game.json snapshot this session was started from. */
+    private GameContent content;
     private ArrayList<Rooms> allRooms;
     private String roomOneRiddle;
     private String roomOneAnswer;
@@ -916,6 +1189,17 @@ public class EscapeRoomFacade {
         return "All puzzles solved in this room";
     }
 
+    /**
+     * Build this session's rooms from the newest game.json snapshot. The
+     * session keeps that snapshot even if game.json is reloaded meanwhile.
+     */
+    private void pinContent() {
+        if (loader == null)
+            loader = new GameDataLoader();
+        content = GameContent.current();
+        allRooms = loader.getRooms(content);
+    }
+
     /**
      * Move to a room specified by its roomID.
      * 
@@ -923,12 +1207,13 @@ public class EscapeRoomFacade {
      * @return true if the room is found and moved to, false otherwise
      */
     public boolean moveToRoom(String roomID) {
-        if (allRooms == null) {
-            allRooms = loader.getRooms();
-        }
+        if (allRooms == null)
+            pinContent();
 
         for (Rooms room : allRooms) {
             if (roomID.equals(room.getRoomID())) {
+                if (room != currentRoom)
+                    flushAutosave();
                 currentRoom = room;
                 System.out.println("Moved to room: " + room.getTitle());
                 return true;
@@ -1089,10 +1374,46 @@ public class EscapeRoomFacade {
         return score;
     }
 
+    /**
+     * @return the top of the overall leaderboard, for the leaderboard screens
+     *         (from the small materialized view, not all of player data)
+     */
     public Leaderboard getLeaderboard() {
-        if (loader == null)
-            loader = new GameDataLoader();
-        return loader.getLeaderboard();
+        return getLeaderboard(null);
+    }
+
+    /**
+     * @param difficulty a difficulty, or null for the overall list
+     * @return the top entries for that difficulty
+     */
+    public Leaderboard getLeaderboard(Difficulty difficulty) {
+        if (store == null)
+            store = PlayerStores.get();
+        return store.getTopScores(difficulty);
+    }
+
+    /**
+     * @param difficulty a difficulty, or null for all of them
+     * @param window     today, this week or all time
+     * @return the top entries of that partition (LeaderboardEngine)
+     */
+    public Leaderboard getLeaderboard(Difficulty difficulty, LeaderboardEngine.Window window) {
+        if (store == null)
+            store = PlayerStores.get();
+        return LeaderboardEngine.forStore(store).top(difficulty, window, LeaderboardView.N);
+    }
+
+    /**
+     * @param difficulty a difficulty, or null for all of them
+     * @param window     today, this week or all time
+     * @return the logged-in player's rank there (1 = best), or -1
+     */
+    public int getLeaderboardRank(Difficulty difficulty, LeaderboardEngine.Window window) {
+        if (!isLoggedIn())
+            return -1;
+        if (store == null)
+            store = PlayerStores.get();
+        return LeaderboardEngine.forStore(store).rankOf(currentUser.getUsername(), difficulty, window);
     }
 
     /**
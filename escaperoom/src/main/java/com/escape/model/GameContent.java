@@ -0,0 +1,134 @@
+package com.escape.model;
+
+import java.nio.file.Path;
+
+/**
+ * One immutable snapshot of game.json (story, rooms, puzzles), and the
+ * snapshot new sessions start from.
+ *
+ * current() is a single volatile read, so content lookups take no lock. A
+ * GameContentWatcher watches game.json; when it changes, the file is compiled
+ * into a new ContentPack off the game threads, validated, and only then
+ * swapped in. An edit that does not parse or lacks rooms, puzzle ids,
+ * solutions or the story is logged and ignored, and the old snapshot stays.
+ *
+ * A session keeps the snapshot it started with (EscapeRoomFacade holds on to
+ * it), so a player mid-game never sees a room change under them; the next
+ * session picks up the new content. An old snapshot stays readable after the
+ * swap: its pack is either in memory or a mapping of the replaced file.
+ *
+ * Watching can be turned off with -Descaperoom.watchContent=false; game.json
+ * inside a jar is read once and never watched.
+ *
+ * @author Rudra Patel
+ */
+public final class GameContent {
+
+    private static volatile GameContent current;
+    private static long versions;
+    private static GameContentWatcher watcher;
+
+    private final ContentPack pack;
+    private final long version;
+
+    private GameContent(ContentPack pack, long version) {
+        this.pack = pack;
+        this.version = version;
+    }
+
+    /**
+     * @return the snapshot new sessions should use (loaded on first call)
+     */
+    public static GameContent current() {
+        GameContent c = current;
+        return c != null ? c : init();
+    }
+
+    /**
+     * Re-read game.json now and swap it in if it is valid.
+     *
+     * @return true if a new snapshot was installed
+     */
+    public static boolean reload() {
+        Path source = GameDataLoader.locateGameJson();
+        return source != null && reload(source);
+    }
+
+    /**
+     * @return the compiled content
+     */
+    public ContentPack pack() {
+        return pack;
+    }
+
+    /**
+     * @return increases with every snapshot installed
+     */
+    public long version() {
+        return version;
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private static synchronized GameContent init() {
+        if (current != null)
+            return current;
+        current = new GameContent(GameDataLoader.loadGamePack(), ++versions);
+        String problem = validate(current.pack);
+        if (problem != null)
+            System.out.println("Warning: game.json " + problem);
+
+        Path source = GameDataLoader.locateGameJson();
+        if (source != null && watcher == null && Boolean.parseBoolean(System.getProperty("escaperoom.watchContent", "true")))
+            watcher = GameContentWatcher.start(source, () -> reload(source));
+        return current;
+    }
+
+    /**
+     * Compile game.json at source, validate it, and install it.
+     *
+     * @param source game.json on disk
+     * @return true if a new snapshot was installed
+     */
+    static boolean reload(Path source) {
+        ContentPack pack = ContentPack.forSource(source);
+        String problem = pack == null ? "could not be read" : validate(pack);
+        if (problem != null) {
+            System.out.println("Ignoring edit to " + source + ": game.json " + problem);
+            return false;
+        }
+        synchronized (GameContent.class) {
+            current = new GameContent(pack, ++versions);
+            System.out.println("Reloaded " + source + " (content version " + current.version + ")");
+        }
+        return true;
+    }
+
+    /** Drop the snapshot; the next current() loads game.json again. */
+    static synchronized void reset() {
+        current = null;
+    }
+
+    /**
+     * @param pack compiled content
+     * @return what is wrong with it, or null if it is usable
+     */
+    static String validate(ContentPack pack) {
+        if (!pack.hasStory())
+            return "has no story";
+        if (pack.roomCount() == 0)
+            return "has no rooms";
+        for (int r = 0; r < pack.roomCount(); r++) {
+            if (pack.roomId(r) == null)
+                return "has a room without a roomID";
+            int first = pack.firstPuzzle(r);
+            for (int i = first; i < first + pack.puzzleCount(r); i++) {
+                if (pack.puzzle(i, ContentPack.P_ID) == null)
+                    return "has a puzzle without an id in " + pack.roomId(r);
+                if (pack.puzzle(i, ContentPack.P_SOLUTION) == null)
+                    return "has no solution for puzzle " + pack.puzzle(i, ContentPack.P_ID);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.escape.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches one file (game.json) and runs a callback on a background thread
+ * after it changes.
+ *
+ * The parent directory is watched, because editors usually save by writing
+ * a new file and renaming it over the old one. Events are debounced: the
+ * callback runs once the file has been quiet for QUIET_MS, so a save that
+ * arrives as several writes causes only one reload.
+ *
+ * @author Rudra Patel
+ */
+final class GameContentWatcher implements Closeable {
+
+    static final long QUIET_MS = 200;
+
+    private final WatchService service;
+    private final Path name;
+    private final Runnable onChange;
+
+    private GameContentWatcher(WatchService service, Path file, Runnable onChange) {
+        this.service = service;
+        this.name = file.getFileName();
+        this.onChange = onChange;
+    }
+
+    /**
+     * Start watching file on a daemon thread.
+     *
+     * @param file     the file to watch
+     * @param onChange run after each (debounced) change
+     * @return the watcher, or null if the directory cannot be watched
+     */
+    static GameContentWatcher start(Path file, Runnable onChange) {
+        Path dir = file.toAbsolutePath().getParent();
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            GameContentWatcher w = new GameContentWatcher(service, file, onChange);
+            Thread t = new Thread(w::run, "content-watcher");
+            t.setDaemon(true);
+            t.start();
+            return w;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Not watching " + file + " for changes: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private void run() {
+        try {
+            while (true) {
+                if (!concernsFile(service.take()))
+                    continue;
+                // wait until the writes stop
+                WatchKey more;
+                while ((more = service.poll(QUIET_MS, TimeUnit.MILLISECONDS)) != null)
+                    concernsFile(more);
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    System.out.println("Error reloading " + name + ": " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed or shutting down
+        }
+    }
+
+    /**
+     * Drain key's events and re-arm it.
+     *
+     * @return true if any event may be for the watched file
+     */
+    private boolean concernsFile(WatchKey key) {
+        boolean hit = false;
+        for (WatchEvent<?> ev : key.pollEvents()) {
+            if (ev.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(ev.context()))
+                hit = true;
+        }
+        key.reset();
+        return hit;
+    }
+}
@@ -1,12 +1,9 @@
 package com.escape.model;
 
 import java.io.FileReader;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -21,11 +18,16 @@ import org.json.simple.parser.JSONParser;
  *
  * Notes:
  * • Loader is intentionally "read-only": it never writes back to JSON.
- * • We keep the loader tolerant to teammates' in-progress classes:
- * - Reflection is used to call setters only when they exist.
- * - A public no-arg constructor is required for instantiated types.
+ * • Scores are mapped through a fixed table of direct setter calls
+ * (SCORE_MAPPING) built once, not through reflection per field per record.
  * • We try both classpath resources and filesystem paths so it works from IDE
  * or build.
+ * • playerData.json is read through the shared PlayerDocumentStore: parsed
+ * once, reloaded only when the file changes on disk, and updated in place by
+ * GameDataWriter (including records still waiting in the save journal).
+ * • playerData.json lives in a data directory (DataRoot.get() unless one is
+ * passed to the constructor); only the default one falls back to the
+ * bundled classpath copy.
  *
  * @author Kirtan Patel
  * @author Rudra Patel
@@ -60,6 +62,31 @@ public class GameDataLoader {
             "playerData.json"
     };
 
+    // playerData.json this loader reads, and whether it is the default one
+    private final java.nio.file.Path playerPath;
+    private final boolean defaultRoot;
+
+    /**
+     * Loader for the default data directory (see DataRoot).
+     */
+    public GameDataLoader() {
+        this(DataRoot.get(), true);
+    }
+
+    /**
+     * Loader for its own data directory, on any java.nio FileSystem.
+     *
+     * @param root directory holding playerData.json
+     */
+    public GameDataLoader(java.nio.file.Path root) {
+        this(root, false);
+    }
+
+    private GameDataLoader(java.nio.file.Path root, boolean defaultRoot) {
+        this.playerPath = DataRoot.playerData(root);
+        this.defaultRoot = defaultRoot;
+    }
+
     // import at top of file (if not already there)
     // import org.json.simple.JSONObject;
     // import org.json.simple.JSONArray;
@@ -92,8 +119,40 @@ public class GameDataLoader {
      * Builds minimal User objects (UUID/username/password). Inventory is
      * parsed but only wired in if/when the User/Inventory APIs exist.
      */
+    @SuppressWarnings("unchecked")
     public ArrayList<User> getUsers() {
-        JSONObject data = readObjectFromCandidates(PLAYER_CANDIDATES);
+        if (shardedPlayerData()) {
+            // Index entries from the global file, inventories from each shard
+            PlayerShards shards = PlayerShards.forPath(playerPath);
+            JSONObject view = withPlayerData(GameDataLoader::copyUsers);
+            for (Object o : (JSONArray) view.get("users")) {
+                JSONObject uo = (JSONObject) o;
+                JSONObject shard = shards.readShard(parseUuid(str(uo.get("userID"))));
+                if (shard != null && shard.get("inventory") != null)
+                    uo.put("inventory", shard.get("inventory"));
+            }
+            return usersFrom(view);
+        }
+        return withPlayerData(GameDataLoader::usersFrom);
+    }
+
+    /** Shallow copies of the "users" entries, so they can be decorated safely. */
+    @SuppressWarnings("unchecked")
+    private static JSONObject copyUsers(JSONObject data) {
+        JSONArray users = new JSONArray();
+        Object arr = data.get("users");
+        if (arr instanceof JSONArray) {
+            for (Object o : (JSONArray) arr) {
+                if (o instanceof JSONObject)
+                    users.add(new JSONObject((JSONObject) o));
+            }
+        }
+        JSONObject view = new JSONObject();
+        view.put("users", users);
+        return view;
+    }
+
+    private static ArrayList<User> usersFrom(JSONObject data) {
         JSONArray arr = (JSONArray) data.get("users");
 
         ArrayList<User> out = new ArrayList<>();
@@ -101,50 +160,59 @@ public class GameDataLoader {
             return out; // no users section -- empty list
 
         for (Object o : arr) {
-            if (!(o instanceof JSONObject))
-                continue;
-            JSONObject uo = (JSONObject) o;
-
-            // Parse UUID if present and well-formed
-            String idStr = uo.get("userID") == null ? null : uo.get("userID").toString();
-            java.util.UUID id = null;
-            try {
-                if (idStr != null && !idStr.isEmpty())
-                    id = java.util.UUID.fromString(idStr);
-            } catch (Exception ignore) {
-                // Malformed id is ignored; we still create a User
-            }
+            if (o instanceof JSONObject)
+                out.add(userFrom((JSONObject) o));
+        }
+        return out;
+    }
 
-            String username = uo.get("username") == null ? null : uo.get("username").toString();
-            String password = uo.get("password") == null ? null : uo.get("password").toString();
-            String email = uo.get("email") == null ? null : uo.get("email").toString();
-
-            // Our User constructor (UUID, username, password, email)
-            User u = new User(id, username, password, email);
-
-            // Inventory block is read for future use,
-            // but we don’t enforce any Inventory APIs here.
-            // Inventory block: construct Inventory(capacity) and populate items
-            JSONObject invObj = (JSONObject) uo.get("inventory");
-            if (invObj != null) {
-                int capacity = toInt(invObj.get("capacity"));
-                // If capacity is zero, pick a sensible default based on items length
-                JSONArray items = (JSONArray) invObj.get("items");
-                if (capacity <= 0)
-                    capacity = (items == null) ? 26 : Math.max(26, items.size());
-                Inventory inv = new Inventory(capacity);
-                if (items != null) {
-                    for (Object it : items) {
-                        if (it != null)
-                            inv.addItem(it.toString());
-                    }
+    /**
+     * Build one User from a "users" entry.
+     *
+     * @param uo the JSON entry
+     * @return the user (id is null if missing or malformed)
+     */
+    static User userFrom(JSONObject uo) {
+        // Parse UUID if present and well-formed
+        String idStr = uo.get("userID") == null ? null : uo.get("userID").toString();
+        java.util.UUID id = null;
+        try {
+            if (idStr != null && !idStr.isEmpty())
+                id = java.util.UUID.fromString(idStr);
+        } catch (Exception ignore) {
+            // Malformed id is ignored; we still create a User
+        }
+
+        String username = uo.get("username") == null ? null : uo.get("username").toString();
+        String password = uo.get("password") == null ? null : uo.get("password").toString();
+        String email = uo.get("email") == null ? null : uo.get("email").toString();
+
+        // Our User constructor (UUID, username, password, email)
+        User u = new User(id, username, password, email);
+
+        // Inventory block is read for future use,
+        // but we don’t enforce any Inventory APIs here.
+        // Inventory block: construct Inventory(capacity) and populate items
+        JSONObject invObj = (JSONObject) uo.get("inventory");
+        if (invObj != null) {
+            int capacity = toInt(invObj.get("capacity"));
+            // If capacity is zero, pick a sensible default based on items length
+            JSONArray items = (JSONArray) invObj.get("items");
+            if (capacity <= 0)
+                capacity = (items == null) ? 26 : Math.max(26, items.size());
+            Inventory inv = new Inventory(capacity);
+            if (items != null) {
+                for (Object it : items) {
+                    if (it != null)
+                        inv.addItem(it.toString());
                 }
-                u.setInventory(inv);
             }
-
-            out.add(u);
+            u.setInventory(inv);
         }
-        return out;
+
+        // as on disk, so an unchanged user is not written back
+        u.markSaved(u.getVersion());
+        return u;
     }
 
     /**
@@ -159,59 +227,40 @@ public class GameDataLoader {
      */
     public java.util.List<Puzzle> loadPuzzlesForRoom(String roomId,
             java.util.Map<String, String> textOut) {
-        java.util.List<Puzzle> out = new java.util.ArrayList<>();
+        return puzzlesOf(loadGamePack(), roomId, textOut);
+    }
 
-        org.json.simple.JSONObject root = readObjectFromCandidates(GAME_CANDIDATES);
-        org.json.simple.JSONArray rooms = (org.json.simple.JSONArray) root.get("rooms");
-        if (rooms == null)
-            return out;
+    /**
+     * Same as {@link #loadPuzzlesForRoom(String, java.util.Map)}, from the
+     * given content snapshot instead of game.json as it is now.
+     */
+    public java.util.List<Puzzle> loadPuzzlesForRoom(GameContent content, String roomId,
+            java.util.Map<String, String> textOut) {
+        return puzzlesOf(content.pack(), roomId, textOut);
+    }
 
-        // find the room by id (or fallback to index roomN)
-        org.json.simple.JSONObject target = null;
-        for (Object rObj : rooms) {
-            org.json.simple.JSONObject ro = (org.json.simple.JSONObject) rObj;
-            String id = ro.get("roomID") == null ? null : ro.get("roomID").toString();
-            if (roomId != null && roomId.equals(id)) {
-                target = ro;
-                break;
-            }
-        }
-        if (target == null && roomId != null && roomId.startsWith("room")) {
-            try {
-                int idx = Integer.parseInt(roomId.substring(4)) - 1; // "room1" -> 0
-                if (idx >= 0 && idx < rooms.size())
-                    target = (org.json.simple.JSONObject) rooms.get(idx);
-            } catch (NumberFormatException ignore) {
-            }
-        }
-        if (target == null)
-            return out;
+    private java.util.List<Puzzle> puzzlesOf(ContentPack pack, String roomId,
+            java.util.Map<String, String> textOut) {
+        java.util.List<Puzzle> out = new java.util.ArrayList<>();
 
-        org.json.simple.JSONArray puzzles = (org.json.simple.JSONArray) target.get("puzzles");
-        if (puzzles == null)
+        int room = findRoom(pack, roomId);
+        if (room < 0)
             return out;
 
-        for (Object pObj : puzzles) {
-            org.json.simple.JSONObject po = (org.json.simple.JSONObject) pObj;
-
-            String id = po.get("id") == null ? null : po.get("id").toString();
-            String category = po.get("category") == null ? "" : po.get("category").toString();
-            String type = po.get("type") == null ? "" : po.get("type").toString();
-            String title = po.get("title") == null ? "" : po.get("title").toString();
-            String objective = po.get("objective") == null ? "" : po.get("objective").toString();
-            String solution = po.get("solution") == null ? "" : po.get("solution").toString();
-            String hint = po.get("hint") == null ? "" : po.get("hint").toString();
-            String prompt = po.get("prompt") == null ? "" : po.get("prompt").toString();
-            String reward = po.get("rewardLetter") == null ? "" : po.get("rewardLetter").toString();
-
-            Puzzle p;
-            if ("NUMBER".equalsIgnoreCase(category)) {
-                p = new NumberPuzzle(id, title, objective, solution, category, type);
-            } else if ("AUDIO".equalsIgnoreCase(category)) {
-                p = new AudioPuzzle(id, title, objective, solution, category, type);
-            } else { // default to WORD for RIDDLE / LETTER_DECIPHER / ARROW_DECIPHER / FINAL_LOCK
-                p = new WordPuzzle(id, title, objective, solution, category, type);
-            }
+        // Only this room's puzzle records are decoded
+        int first = pack.firstPuzzle(room);
+        for (int i = first; i < first + pack.puzzleCount(room); i++) {
+            String id = pack.puzzle(i, ContentPack.P_ID);
+            String category = orEmpty(pack.puzzle(i, ContentPack.P_CATEGORY));
+            String hint = orEmpty(pack.puzzle(i, ContentPack.P_HINT));
+            String prompt = orEmpty(pack.puzzle(i, ContentPack.P_PROMPT));
+            String reward = orEmpty(pack.puzzle(i, ContentPack.P_REWARD));
+
+            Puzzle p = newPuzzle(category, id,
+                    orEmpty(pack.puzzle(i, ContentPack.P_TITLE)),
+                    orEmpty(pack.puzzle(i, ContentPack.P_OBJECTIVE)),
+                    orEmpty(pack.puzzle(i, ContentPack.P_SOLUTION)),
+                    orEmpty(pack.puzzle(i, ContentPack.P_TYPE)));
             out.add(p);
 
             // stash text(prompt/hint/reward) if requested
@@ -228,82 +277,78 @@ public class GameDataLoader {
         return out;
     }
 
+    /**
+     * Find a room by its roomID, falling back to the N-th room for ids of the
+     * form "roomN" (1-based).
+     *
+     * @return the room's index in the pack, or -1
+     */
+    private static int findRoom(ContentPack pack, String roomId) {
+        if (roomId == null)
+            return -1;
+        for (int r = 0; r < pack.roomCount(); r++) {
+            if (roomId.equals(pack.roomId(r)))
+                return r;
+        }
+        if (roomId.startsWith("room")) {
+            try {
+                int idx = Integer.parseInt(roomId.substring(4)) - 1; // "room1" -> 0
+                if (idx >= 0 && idx < pack.roomCount())
+                    return idx;
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return -1;
+    }
+
     /**
      * Parse rooms from game.json -- "rooms" array.
-     * We only set simple metadata (roomID, difficulty) and an optional list
-     * of puzzleIDs; we do not instantiate concrete Puzzle subclasses here.
+     * Each room gets its roomID, title and freshly built Puzzle objects
+     * (prompt, first hint and reward letter filled in).
      */
     public ArrayList<Rooms> getRooms() {
-        JSONObject gameRoot = readObjectFromCandidates(GAME_CANDIDATES);
-        JSONArray roomsArray = (JSONArray) gameRoot.get("rooms");
-
-        ArrayList<Rooms> rooms = new ArrayList<>();
-        if (roomsArray == null)
-            return rooms;
+        return roomsOf(loadGamePack());
+    }
 
-        for (Object roomObj : roomsArray) {
-            if (!(roomObj instanceof JSONObject))
-                continue;
-            JSONObject roomJson = (JSONObject) roomObj;
+    /**
+     * Same as {@link #getRooms()}, from the given content snapshot instead of
+     * game.json as it is now.
+     */
+    public ArrayList<Rooms> getRooms(GameContent content) {
+        return roomsOf(content.pack());
+    }
 
+    private ArrayList<Rooms> roomsOf(ContentPack pack) {
+        ArrayList<Rooms> rooms = new ArrayList<>();
+        for (int r = 0; r < pack.roomCount(); r++) {
             Rooms room = new Rooms();
-            room.setRoomID((String) roomJson.get("roomID"));
-            room.setTitle((String) roomJson.get("title"));
+            room.setRoomID(pack.roomId(r));
+            room.setTitle(pack.roomTitle(r));
 
             ArrayList<Puzzle> puzzleList = new ArrayList<>();
-            JSONArray puzzleArray = (JSONArray) roomJson.get("puzzles");
-            if (puzzleArray == null) {
-                room.setPuzzles(puzzleList);
-                rooms.add(room);
-                continue;
-            }
-
-            for (Object pObj : puzzleArray) {
-                if (!(pObj instanceof JSONObject))
-                    continue;
-                JSONObject pJson = (JSONObject) pObj;
-
-                String category = (String) pJson.get("category");
-                String type = (String) pJson.get("type");
-                Puzzle puzzle = null;
-
-                if ("AUDIO".equalsIgnoreCase(category)) {
-                    puzzle = new AudioPuzzle(
-                            (String) pJson.get("id"),
-                            (String) pJson.get("title"),
-                            (String) pJson.get("objective"),
-                            (String) pJson.get("solution"),
-                            category, type);
-                } else if ("NUMBER".equalsIgnoreCase(category)) {
-                    puzzle = new NumberPuzzle(
-                            (String) pJson.get("id"),
-                            (String) pJson.get("title"),
-                            (String) pJson.get("objective"),
-                            (String) pJson.get("solution"),
-                            category, type);
-                } else {
-                    // Default to word puzzles
-                    puzzle = new WordPuzzle(
-                            (String) pJson.get("id"),
-                            (String) pJson.get("title"),
-                            (String) pJson.get("objective"),
-                            (String) pJson.get("solution"),
-                            category, type);
-                }
-
-                if (pJson.get("prompt") != null)
-                    puzzle.setPrompt((String) pJson.get("prompt"));
-
-                if (pJson.get("hint") != null) {
-                    String hintText = (String) pJson.get("hint");
-                    if (hintText != null && !hintText.isEmpty()) {
-                        Hints h = new Hints("hint1", 1, false, hintText);
-                        puzzle.getHints().add(h);
-                    }
+            int first = pack.firstPuzzle(r);
+            for (int i = first; i < first + pack.puzzleCount(r); i++) {
+                Puzzle puzzle = newPuzzle(
+                        pack.puzzle(i, ContentPack.P_CATEGORY),
+                        pack.puzzle(i, ContentPack.P_ID),
+                        pack.puzzle(i, ContentPack.P_TITLE),
+                        pack.puzzle(i, ContentPack.P_OBJECTIVE),
+                        pack.puzzle(i, ContentPack.P_SOLUTION),
+                        pack.puzzle(i, ContentPack.P_TYPE));
+
+                String prompt = pack.puzzle(i, ContentPack.P_PROMPT);
+                if (prompt != null)
+                    puzzle.setPrompt(prompt);
+
+                String hintText = pack.puzzle(i, ContentPack.P_HINT);
+                if (hintText != null && !hintText.isEmpty()) {
+                    Hints h = new Hints("hint1", 1, false, hintText);
+                    puzzle.getHints().add(h);
                 }
 
-                if (pJson.get("rewardLetter") != null)
-                    setIfPresent(puzzle, "setRewardLetter", String.class, (String) pJson.get("rewardLetter"));
+                String reward = pack.puzzle(i, ContentPack.P_REWARD);
+                if (reward != null)
+                    puzzle.setRewardLetter(reward);
 
                 puzzleList.add(puzzle);
             }
@@ -320,42 +365,128 @@ public class GameDataLoader {
      * from game.json and returns a populated StoryElements object.
      */
     public StoryElements getStory() {
-        JSONObject gameRoot = readObjectFromCandidates(GAME_CANDIDATES);
-        JSONObject storyJson = (JSONObject) gameRoot.get("story");
+        return storyOf(loadGamePack());
+    }
 
+    /**
+     * Same as {@link #getStory()}, from the given content snapshot instead of
+     * game.json as it is now.
+     */
+    public StoryElements getStory(GameContent content) {
+        return storyOf(content.pack());
+    }
+
+    private StoryElements storyOf(ContentPack pack) {
         StoryElements story = new StoryElements();
 
-        if (storyJson == null) {
+        if (!pack.hasStory()) {
             System.out.println("Warning: No 'story' section found in JSON.");
             return story;
         }
 
-        story.setIntro((String) storyJson.get("intro"));
-        story.setRoomOneIntro((String) storyJson.get("roomOneIntro"));
-        story.setRoomOneConc((String) storyJson.get("roomOneConc"));
-        story.setRoomTwoIntro((String) storyJson.get("roomTwoIntro"));
-        story.setRoomTwoBetween((String) storyJson.get("roomTwoBetween"));
-        story.setRoomTwoConc((String) storyJson.get("roomTwoConc"));
-        story.setRoomThreeIntro((String) storyJson.get("roomThreeIntro"));
-        story.setRoomThreeBetween((String) storyJson.get("roomThreeBetween"));
-        story.setRoomThreeConc((String) storyJson.get("roomThreeConc"));
-        story.setFinalPuzzle((String) storyJson.get("finalPuzzle"));
-        story.setConclusion((String) storyJson.get("conclusion"));
+        // Same order as ContentPack.STORY_FIELDS
+        story.setIntro(pack.story(0));
+        story.setRoomOneIntro(pack.story(1));
+        story.setRoomOneConc(pack.story(2));
+        story.setRoomTwoIntro(pack.story(3));
+        story.setRoomTwoBetween(pack.story(4));
+        story.setRoomTwoConc(pack.story(5));
+        story.setRoomThreeIntro(pack.story(6));
+        story.setRoomThreeBetween(pack.story(7));
+        story.setRoomThreeConc(pack.story(8));
+        story.setFinalPuzzle(pack.story(9));
+        story.setConclusion(pack.story(10));
 
         return story;
     }
 
+    /** Builds a concrete puzzle from its game.json fields. */
+    @FunctionalInterface
+    private interface PuzzleFactory {
+        Puzzle create(String id, String title, String objective, String solution, String category, String type);
+    }
+
+    // Puzzle class per category; anything else (RIDDLE / LETTER_DECIPHER /
+    // ARROW_DECIPHER / FINAL_LOCK ...) is a word puzzle
+    private static final java.util.Map<String, PuzzleFactory> PUZZLE_TYPES = java.util.Map.of(
+            "NUMBER", NumberPuzzle::new,
+            "AUDIO", AudioPuzzle::new);
+
+    private static Puzzle newPuzzle(String category, String id, String title, String objective,
+            String solution, String type) {
+        PuzzleFactory factory = category == null ? null
+                : PUZZLE_TYPES.get(category.toUpperCase(java.util.Locale.ROOT));
+        if (factory == null)
+            factory = WordPuzzle::new;
+        return factory.create(id, title, objective, solution, category, type);
+    }
+
+    private static String orEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    /**
+     * Compile game.json as it is now: what the no-arg content getters read,
+     * and how the first GameContent snapshot is built.
+     * A file on disk (including the classpath copy under target/classes) is
+     * served from its memory-mapped pack, rebuilt whenever game.json changes.
+     * game.json inside a jar is compiled in memory.
+     */
+    static ContentPack loadGamePack() {
+        java.nio.file.Path source = locateGameJson();
+        ContentPack pack = source == null ? null : ContentPack.forSource(source);
+        return pack != null ? pack : ContentPack.fromJson(readObjectFromCandidates(GAME_CANDIDATES));
+    }
+
+    /**
+     * Resolve game.json the same way readObjectFromCandidates does (classpath
+     * first, then filesystem).
+     *
+     * @return the file, or null if it is not a plain file (e.g. inside a jar)
+     */
+    static java.nio.file.Path locateGameJson() {
+        for (String c : GAME_CANDIDATES) {
+            java.net.URL url = GameDataLoader.class.getClassLoader().getResource(c);
+            if (url != null) {
+                try {
+                    return "file".equals(url.getProtocol()) ? java.nio.file.Path.of(url.toURI()) : null;
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+            java.nio.file.Path fs = java.nio.file.Path.of(c);
+            if (java.nio.file.Files.isRegularFile(fs))
+                return fs;
+        }
+        return null;
+    }
+
     /**
      * Choose a single "best" score from playerData.json -- "scores".
      * Here “best” is the minimal timeSeconds (fastest completion).
      */
     public Score getScore() {
-        JSONObject data = readObjectFromCandidates(PLAYER_CANDIDATES);
+        java.nio.file.Path file = streamablePlayerData();
+        if (file != null) {
+            // One streaming pass; only the running best entry is kept
+            Score[] best = new Score[1];
+            boolean ok = PlayerDataCodec.scanArray(file, "scores", PlayerDataCodec::readScore, s -> {
+                if (best[0] == null || s.getTimeLeftSec() < best[0].getTimeLeftSec())
+                    best[0] = s;
+                return true;
+            });
+            if (ok)
+                return best[0] == null ? new Score() : best[0];
+        }
+        return withPlayerData(GameDataLoader::bestScoreFrom);
+    }
+
+    private static Score bestScoreFrom(JSONObject data) {
         JSONArray scores = (JSONArray) data.get("scores");
 
         if (scores == null || scores.isEmpty()) {
             // If there are no scores, still return a Score object to avoid null checks.
-            return newInstance(Score.class);
+            return new Score();
         }
 
         // Single pass to find the minimal timeSeconds
@@ -374,32 +505,162 @@ public class GameDataLoader {
         if (best == null)
             best = (JSONObject) scores.get(0);
 
-        // Populate a Score object using whichever setters exist
-        Score s = newInstance(Score.class);
-        setIfPresent(s, "setUsername", String.class, str(best.get("username")));
-        setIfPresent(s, "setDifficulty", String.class, str(best.get("difficulty")));
-        setIfPresent(s, "setTimeSeconds", long.class, toLong(best.get("timeSeconds")));
-        setIfPresent(s, "setTimeLeftSec", long.class, toLong(best.get("timeLeftSec"))); // tolerant alias
-        setIfPresent(s, "setHintsUsed", int.class, toInt(best.get("hintsUsed")));
-        setIfPresent(s, "setPuzzlesSolved", int.class, toInt(best.get("puzzlesSolved")));
-        setIfPresent(s, "setDate", String.class, str(best.get("date")));
-        setIfPresent(s, "setScore", long.class, toLong(best.get("score")));
-        return s;
+        return scoreFrom(best);
+    }
+
+    /**
+     * Every score recorded for a user, oldest first: entries already moved to
+     * the HistoryArchive followed by the ones still in playerData.json.
+     *
+     * @param username the player (case-insensitive)
+     * @return the user's score history
+     */
+    public ArrayList<Score> getScoreHistory(String username) {
+        ArrayList<Score> out = new ArrayList<>();
+        if (username == null)
+            return out;
+        Predicate<JSONObject> mine = so -> username.equalsIgnoreCase(str(so.get("username")));
+        for (JSONObject so : HistoryArchive.forPath(playerPath).query("scores", null, null, mine))
+            out.add(scoreFrom(so));
+        out.addAll(withPlayerData(root -> {
+            ArrayList<Score> hot = new ArrayList<>();
+            Object scores = root.get("scores");
+            if (scores instanceof JSONArray) {
+                for (Object o : (JSONArray) scores) {
+                    if (o instanceof JSONObject && mine.test((JSONObject) o))
+                        hot.add(scoreFrom((JSONObject) o));
+                }
+            }
+            return hot;
+        }));
+        return out;
+    }
+
+    /**
+     * Visit every recorded score once, oldest first: the HistoryArchive, then
+     * playerData.json's "scores" (streamed when the file is cold).
+     *
+     * @param visitor called with each score
+     */
+    public void scanScores(java.util.function.Consumer<Score> visitor) {
+        for (JSONObject so : HistoryArchive.forPath(playerPath).query("scores", null, null, so -> true))
+            visitor.accept(scoreFrom(so));
+        java.nio.file.Path file = streamablePlayerData();
+        if (file != null) {
+            ArrayList<Score> hot = new ArrayList<>();
+            if (PlayerDataCodec.scanArray(file, "scores", PlayerDataCodec::readScore, hot::add)) {
+                hot.forEach(visitor);
+                return;
+            }
+        }
+        ArrayList<Score> hot = withPlayerData(root -> {
+            ArrayList<Score> out = new ArrayList<>();
+            Object scores = root.get("scores");
+            if (scores instanceof JSONArray) {
+                for (Object o : (JSONArray) scores) {
+                    if (o instanceof JSONObject)
+                        out.add(scoreFrom((JSONObject) o));
+                }
+            }
+            return out;
+        });
+        hot.forEach(visitor);
+    }
+
+    /**
+     * Resolve a login in one pass: the user's entry and their progress entry
+     * are taken from the same read of playerData.json (in the sharded layout,
+     * the index entry plus the user's one shard, which holds both inventory
+     * and progress).
+     *
+     * @param username the username (case-insensitive)
+     * @return the session bootstrap, or null if there is no such user
+     */
+    @SuppressWarnings("unchecked")
+    public SessionBootstrap hydrate(String username) {
+        if (username == null)
+            return null;
+        long start = System.nanoTime();
+        if (!shardedPlayerData()) {
+            return withPlayerData(root -> {
+                JSONObject uo = userEntry(root, username);
+                if (uo == null)
+                    return null;
+                User u = userFrom(uo);
+                Progress saved = u.userID == null ? null : progressFrom(root, u.userID);
+                return new SessionBootstrap(u, saved, (System.nanoTime() - start) / 1_000_000.0);
+            });
+        }
+        JSONObject uo = withPlayerData(root -> {
+            JSONObject entry = userEntry(root, username);
+            return entry == null ? null : new JSONObject(entry);
+        });
+        if (uo == null)
+            return null;
+        java.util.UUID id = parseUuid(str(uo.get("userID")));
+        JSONObject shard = PlayerShards.forPath(playerPath).readShard(id);
+        JSONObject view = new JSONObject();
+        JSONArray one = new JSONArray();
+        if (shard != null) {
+            if (shard.get("inventory") != null)
+                uo.put("inventory", shard.get("inventory"));
+            if (shard.get("progress") instanceof JSONObject)
+                one.add(shard.get("progress"));
+        }
+        view.put("progress", one);
+        User u = userFrom(uo);
+        return new SessionBootstrap(u, progressFrom(view, id), (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /** The "users" entry with this username (case-insensitive), or null. */
+    private static JSONObject userEntry(JSONObject root, String username) {
+        Object arr = root.get("users");
+        if (!(arr instanceof JSONArray))
+            return null;
+        for (Object o : (JSONArray) arr) {
+            if (o instanceof JSONObject && username.equalsIgnoreCase(str(((JSONObject) o).get("username"))))
+                return (JSONObject) o;
+        }
+        return null;
     }
 
     /**
      * Loads a saved progress snapshot for the given user from playerData.json.
      * Returns null if no entry exists.
      */
+    @SuppressWarnings("unchecked")
     public Progress loadProgressForUser(java.util.UUID userId) {
         if (userId == null)
             return null;
 
-        final String PATH = "escaperoom/src/main/resources/json/playerData.json";
-        org.json.simple.JSONObject root = readJsonObject(PATH);
-        if (root == null)
-            return null;
+        if (shardedPlayerData()) {
+            // Only this user's shard is read
+            JSONObject shard = PlayerShards.forPath(playerPath).readShard(userId);
+            if (shard != null && shard.get("progress") instanceof JSONObject) {
+                JSONArray one = new JSONArray();
+                one.add(shard.get("progress"));
+                JSONObject view = new JSONObject();
+                view.put("progress", one);
+                return progressFrom(view, userId);
+            }
+        }
+        java.nio.file.Path file = streamablePlayerData();
+        if (file != null) {
+            // Stream "progress" and stop at this user's entry
+            Progress[] match = new Progress[1];
+            boolean ok = PlayerDataCodec.scanArray(file, "progress", PlayerDataCodec::readProgress, p -> {
+                if (!userId.equals(p.getUserUUID()))
+                    return true;
+                match[0] = p;
+                return false;
+            });
+            if (ok)
+                return match[0];
+        }
+        return withPlayerData(root -> progressFrom(root, userId));
+    }
 
+    static Progress progressFrom(JSONObject root, java.util.UUID userId) {
         org.json.simple.JSONArray arr = (org.json.simple.JSONArray) root.get("progress");
         if (arr == null)
             return null;
@@ -429,7 +690,8 @@ public class GameDataLoader {
                 p.setCurrentRoomID(roomID);
                 p.setTimeRemainingSeconds(timeRemaining);
                 p.setDifficulty(diff);
-                
+                p.markSaved(p.getVersion());
+
                 return p;
             }
         }
@@ -471,37 +733,52 @@ public class GameDataLoader {
      * date).
      */
     public Leaderboard getLeaderboard() {
-        JSONObject data = readObjectFromCandidates(PLAYER_CANDIDATES);
+        return withPlayerData(GameDataLoader::leaderboardFrom);
+    }
+
+    static Leaderboard leaderboardFrom(JSONObject data) {
         JSONArray arr = (JSONArray) data.get("leaderboard");
 
-        Leaderboard lb = newInstance(Leaderboard.class);
+        Leaderboard lb = new Leaderboard();
         if (arr == null)
             return lb;
 
-        ArrayList<Score> list = new ArrayList<>();
+        ArrayList<Score> list = new ArrayList<>(arr.size());
         for (Object o : arr) {
-            if (!(o instanceof JSONObject))
-                continue;
-            JSONObject jo = (JSONObject) o;
-
-            Score s = newInstance(Score.class);
-            setIfPresent(s, "setUsername", String.class, str(jo.get("username")));
-            setIfPresent(s, "setDifficulty", String.class, str(jo.get("difficulty")));
-            setIfPresent(s, "setTimeSeconds", long.class, toLong(jo.get("timeSeconds")));
-            setIfPresent(s, "setTimeLeftSec", long.class, toLong(jo.get("timeLeftSec")));
-            setIfPresent(s, "setScore", long.class, toLong(jo.get("score")));
-            setIfPresent(s, "setDate", String.class, str(jo.get("date")));
-            list.add(s);
-
+            if (o instanceof JSONObject)
+                list.add(scoreFrom((JSONObject) o));
         }
-
-        // Prefer a bulk setter; if not present we already tried addEntry above
-        boolean ok = setIfPresent(lb, "setEntries", List.class, list);
-        if (!ok)
-            setIfPresent(lb, "setLB", List.class, list);
+        lb.setEntries(list);
         return lb;
     }
 
+    /**
+     * How each "scores"/"leaderboard" JSON field maps onto a Score.
+     * Built once; mapping a record is a handful of direct setter calls.
+     * The two time keys are aliases, so each is only applied when present.
+     */
+    private static final List<java.util.function.BiConsumer<Score, JSONObject>> SCORE_MAPPING = List.of(
+            (s, jo) -> s.setUsername(str(jo.get("username"))),
+            (s, jo) -> s.setDifficulty(str(jo.get("difficulty"))),
+            (s, jo) -> {
+                if (jo.containsKey("timeSeconds"))
+                    s.setTimeSeconds(toLong(jo.get("timeSeconds")));
+            },
+            (s, jo) -> {
+                if (jo.containsKey("timeLeftSec"))
+                    s.setTimeLeftSec(toLong(jo.get("timeLeftSec")));
+            },
+            (s, jo) -> s.setDate(str(jo.get("date"))),
+            (s, jo) -> s.setScore(toLong(jo.get("score"))));
+
+    static Score scoreFrom(JSONObject jo) {
+        Score s = new Score();
+        for (java.util.function.BiConsumer<Score, JSONObject> field : SCORE_MAPPING)
+            field.accept(s, jo);
+        s.markSaved(s.getVersion());
+        return s;
+    }
+
     /* ========================= HELPERS ========================= */
     private static java.util.UUID parseUuid(String s) {
         try {
@@ -535,6 +812,46 @@ public class GameDataLoader {
         return new JSONObject();
     }
 
+    /**
+     * Run a reader against playerData.json.
+     * The writable file is served from the shared PlayerDocumentStore (parsed
+     * once, kept in sync with the writer). Only when it does not exist do we
+     * fall back to the candidate locations, e.g. the bundled classpath copy.
+     */
+    private <T> T withPlayerData(java.util.function.Function<JSONObject, T> reader) {
+        PlayerDocumentStore store = PlayerDocumentStore.forPath(playerPath);
+        if (store.exists())
+            return store.read(reader);
+        JSONObject root = defaultRoot ? readObjectFromCandidates(PLAYER_CANDIDATES) : new JSONObject();
+        PlayerDataJournal.replay(root, playerPath);
+        return reader.apply(root);
+    }
+
+    /**
+     * True when the sharded layout is on and the writable playerData.json
+     * exists; a monolithic file is migrated first.
+     */
+    private boolean shardedPlayerData() {
+        if (!GameDataWriter.isShardedLayout() || !PlayerDocumentStore.forPath(playerPath).exists())
+            return false;
+        PlayerShards.forPath(playerPath).ensureMigrated();
+        return true;
+    }
+
+    /**
+     * The playerData.json to stream from, or null when a streaming scan would
+     * not see the current state (or would be wasted work): the store already
+     * holds a fresh parsed copy, the file does not exist, or records are
+     * still waiting in the journal.
+     */
+    private java.nio.file.Path streamablePlayerData() {
+        PlayerDocumentStore store = PlayerDocumentStore.forPath(playerPath);
+        if (!store.exists() || store.hasJournal() || store.isWarm())
+            return null;
+        java.nio.file.Path file = store.snapshotPath();
+        return java.nio.file.Files.isRegularFile(file) ? file : null;
+    }
+
     private static String str(Object o) {
         return (o == null ? null : o.toString());
     }
@@ -588,94 +905,6 @@ public class GameDataLoader {
         }
     }
 
-    /**
-     * Try to call a single-arg method (e.g., a setter) if it exists on the target.
-     * Returns true when successfully invoked, false if the method is absent or
-     * fails.
-     */
-    private static boolean setIfPresent(Object target, String setter, Class<?> param, Object value) {
-        if (target == null || setter == null)
-            return false;
-        try {
-            Method m = target.getClass().getMethod(setter, param);
-            m.invoke(target, value);
-            return true;
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException nsme) {
-            return false;
-        }
-    }
-
-    /** Variant for a fixed signature like addEntry(u, d, t, s, date). */
-    private static boolean setIfPresent(Object target, String method, Class<?>[] params, Object[] values) {
-        if (target == null || method == null)
-            return false;
-        try {
-            Method m = target.getClass().getMethod(method, params);
-            m.invoke(target, values);
-            return true;
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException nsme) {
-            return false;
-        }
-    }
-
-    /**
-     * Create an instance using the public no-arg constructor.
-     * We throw a clear message if a class cannot be constructed this way.
-     */
-    private static <T> T newInstance(Class<T> type) {
-        try {
-            if (Modifier.isAbstract(type.getModifiers()) || type.isInterface()) {
-                throw new UnsupportedOperationException("Cannot instantiate abstract/interface: " + type.getName());
-            }
-            Constructor<T> c = type.getDeclaredConstructor();
-            c.setAccessible(true);
-            return c.newInstance();
-        } catch (UnsupportedOperationException uoe) {
-            throw uoe;
-        } catch (IllegalAccessException | IllegalArgumentException | InstantiationException | NoSuchMethodException
-                | InvocationTargetException e) {
-            throw new RuntimeException(
-                    "Class " + type.getName() + " needs a public no-arg constructor for the loader.", e);
-        }
-    }
-
-    /**
-     * Helper method to safely retrieve a string value from an object.
-     * Invokes a getter method with the given name and returns the result as a
-     * string.
-     * If an exception occurs while invoking the getter, null is returned.
-     * 
-     * @param obj        the object to retrieve the value from
-     * @param getterName the name of the getter method to invoke
-     * @return the retrieved value as a string, or null if an exception occurs
-     */
-    private static String sSafe(Object obj, String getterName) {
-        try {
-            Object v = obj.getClass().getMethod(getterName).invoke(obj);
-            return v == null ? null : v.toString();
-        } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
-            return null;
-        }
-    }
-
-    /**
-     * Helper method to safely retrieve a long value from an object.
-     * Invokes a getter method with the given name and returns the result as a long.
-     * If an exception occurs while invoking the getter, 0L is returned.
-     * 
-     * @param obj        the object to retrieve the value from
-     * @param getterName the name of the getter method to invoke
-     * @return the retrieved value as a long, or 0L if an exception occurs
-     */
-    private static long nSafe(Object obj, String getterName) {
-        try {
-            Object v = obj.getClass().getMethod(getterName).invoke(obj);
-            return toLong(v);
-        } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
-            return 0L;
-        }
-    }
-
     /**
      * Test the GameDataLoader class by loading and printing some sample data.
      *
@@ -693,43 +922,8 @@ public class GameDataLoader {
         System.out.println("=== DATA LOADER TESTING ===");
         System.out.println("users=" + users.size());
         System.out.println("rooms=" + rooms.size());
-        System.out.println("bestUser=" + safe(best, "getUsername"));
-        System.out.println("leaderboardSize=" + getLbSize(lb));
-    }
-
-    // helper for printing without depending on concrete API
-    private static String safe(Object o, String getter) {
-        try {
-            Object v = o.getClass().getMethod(getter).invoke(o);
-            return v == null ? null : v.toString();
-        } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
-            return null;
-        }
-    }
-
-    /**
-     * Returns the number of entries in the leaderboard.
-     * If the leaderboard does not support getEntries() or getLB(), returns 0.
-     * 
-     * @param lb the leaderboard
-     * @return the number of entries in the leaderboard
-     */
-    private static int getLbSize(Leaderboard lb) {
-        try {
-            var m = lb.getClass().getMethod("getEntries");
-            Object v = m.invoke(lb);
-            if (v instanceof java.util.List<?>)
-                return ((java.util.List<?>) v).size();
-        } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException ignore) {
-        }
-        try {
-            var m = lb.getClass().getMethod("getLB");
-            Object v = m.invoke(lb);
-            if (v instanceof java.util.List<?>)
-                return ((java.util.List<?>) v).size();
-        } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException ignore) {
-        }
-        return 0;
+        System.out.println("bestUser=" + best.getUsername());
+        System.out.println("leaderboardSize=" + lb.size());
     }
 
     public static class TextPuzzle extends Puzzle {
@@ -1,7 +1,10 @@
 package com.escape.model;
 
-import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -18,135 +21,203 @@ import org.json.simple.JSONObject;
  * Design goals:
  * Idempotent updates: if a user with same userID/username exists, update
  * instead of duplicating.
- * Pretty-printed output for readable diffs.
+ * Pretty-printed output for readable diffs (or compact output in production,
+ * see setCompactOutput); both are streamed by JsonStreamWriter.
  * Fail-quietly for missing files (create new JSON objects when needed).
  *
+ * playerData.json saves are applied to the shared PlayerDocumentStore, which
+ * keeps the parsed document in memory and writes each change through, so a
+ * save no longer re-reads and re-parses the file first.
+ *
+ * Sharded layout:
+ * When enabled, progress and inventories are kept in one small file per user
+ * (see PlayerShards) and playerData.json only holds the user index, scores,
+ * leaderboard and savedData. Enable with setShardedLayout(true) or
+ * -Descaperoom.sharded=true; the monolithic file is migrated on first use.
+ *
+ * History retention:
+ * "scores" and "savedData" only ever grow. compactHistory() moves entries
+ * past the RetentionPolicy (last N per user / last D days) into gzip,
+ * month-partitioned segments (see HistoryArchive) that stay queryable.
+ *
+ * Journal mode:
+ * When enabled, each playerData.json mutation is appended as one small record
+ * to playerData.json.journal instead of rewriting the whole file. The
+ * PlayerDataJournal compacts the log into a fresh snapshot in the background,
+ * and GameDataLoader replays snapshot + log on read. Enable with
+ * setJournalEnabled(true) or -Descaperoom.journal=true.
+ *
+ * Data root:
+ * Everything is saved under one directory: DataRoot.get() by default, or
+ * the one given to the constructor. It may be on any java.nio FileSystem, so
+ * tests and benchmarks can each write to their own isolated store.
+ *
+ * Change tracking:
+ * User (with its Inventory), Progress and Score count their changes. Saves
+ * skip records that are clean, i.e. unchanged since they were loaded or
+ * last written, and mark what they write as clean once it is on disk, so
+ * saveUsers(all accounts) only rewrites the accounts that changed.
+ *
+ * Concurrency:
+ * Saves lock only the players they touch (striped PlayerLocks, keyed by
+ * each player's userID), plus a short leaderboard lock for leaderboard records.
+ * Saves of different players proceed in parallel: shards are written
+ * side by side and playerData.json writes are group-committed.
+ *
  * Authors: Dylan Diaz
  * Tweaks: Kirtan Patel
- * 
+ *
  * @author Rudra Patel
  *         Version: 6.0
  */
 public class GameDataWriter {
 
-    /* ========================= USERS ========================= */
+    // Record kinds shared by the direct writer, the journal and replay
+    static final String OP_USER = "user";
+    static final String OP_SCORE = "score";
+    static final String OP_PROGRESS = "progress";
+    static final String OP_LEADERBOARD = "leaderboard";
+    static final String OP_SAVED_DATA = "savedData";
+    static final String OP_LAYOUT = "layout";
+    static final String OP_TRIM = "trim";
+    // playerData.json.scores.lock holds the "scores" version stamp
+    static final String SCORES_STAMP = ".scores";
+
+    private static volatile boolean journalEnabled = Boolean.getBoolean("escaperoom.journal");
+    private static volatile boolean shardedLayout = Boolean.getBoolean("escaperoom.sharded");
+    private static volatile RetentionPolicy retention = RetentionPolicy.fromSystemProperties();
+    private static volatile boolean compactOutput = Boolean.getBoolean("escaperoom.compactJson");
+
+    // Data directory this writer saves into, and its playerData.json
+    private final Path root;
+    private final Path playerPath;
 
     /**
-     * Merge a list of users into playerData.json - "users".
-     * If an entry matches by userID or username, it is replaced/updated; otherwise,
-     * it is appended.
+     * Writer for the default data directory (see DataRoot).
      */
-    public void saveUsers(ArrayList<User> users) {
-        JSONObject root = readJsonObject("escaperoom/src/main/resources/json/playerData.json");
-        JSONArray usersArray = (JSONArray) root.getOrDefault("users", new JSONArray());
+    public GameDataWriter() {
+        this(DataRoot.get());
+    }
 
-        for (User user : users) {
-            // Build a minimal JSON record for a user
-            JSONObject userObj = new JSONObject();
-            userObj.put("userID", user.userID == null ? null : user.userID.toString());
-            userObj.put("username", user.getUsername());
-            userObj.put("password", user.getPassword());
-            userObj.put("email", user.getEmail());
-            // Inventory block (capacity + items)
-            JSONObject invObj = new JSONObject();
-            JSONArray items = new JSONArray();
-            if (user.getInventory() != null && user.getInventory().getItems() != null) {
-                for (String it : user.getInventory().getItems())
-                    items.add(it);
-                invObj.put("capacity", user.getInventory().getCapacity());
-            } else {
-                invObj.put("capacity", 0);
-            }
-            invObj.put("items", items);
-            userObj.put("inventory", invObj);
-
-            // Replace existing entry if same userID or username; else append
-            boolean replaced = false;
-            for (Object o : new ArrayList<>(usersArray)) {
-                if (!(o instanceof JSONObject))
-                    continue;
-                JSONObject existing = (JSONObject) o;
-
-                // Prefer to match by userID when available
-                if (user.userID != null && user.userID.toString().equals(existing.get("userID"))) {
-                    usersArray.remove(existing);
-                    usersArray.add(userObj);
-                    replaced = true;
-                    break;
-                }
+    /**
+     * Writer for its own data directory, e.g. a temp directory or an
+     * in-memory FileSystem in tests and benchmarks.
+     *
+     * @param root directory holding playerData.json
+     */
+    public GameDataWriter(Path root) {
+        this.root = root;
+        this.playerPath = DataRoot.playerData(root);
+    }
 
-                // Fallback: match by username if IDs are not set
-                if (user.getUsername() != null && user.getUsername().equals(existing.get("username"))) {
-                    // Preserve existing userID if new object lacks one
-                    Object existingID = existing.get("userID");
-                    if (existingID != null && userObj.get("userID") == null) {
-                        userObj.put("userID", existingID);
-                    }
-                    usersArray.remove(existing);
-                    usersArray.add(userObj);
-                    replaced = true;
-                    break;
-                }
-            }
+    /**
+     * Version stamp of the "scores" history, shared by every process using
+     * the file: bumped after each commit that appended scores, so in-memory
+     * views of the history (LeaderboardEngine) can tell when another process
+     * recorded a result.
+     *
+     * @param playerPath the playerData.json file
+     * @return the stamp (read it with version())
+     */
+    static CrossProcessLock scoresStamp(Path playerPath) {
+        return CrossProcessLock.forFile(DataRoot.withSuffix(playerPath, SCORES_STAMP));
+    }
 
-            if (!replaced)
-                usersArray.add(userObj);
-        }
+    /**
+     * @return the playerData.json this writer saves to
+     */
+    public Path getPlayerPath() {
+        return playerPath;
+    }
 
-        root.put("users", usersArray);
-        writeFile("escaperoom/src/main/resources/json/playerData.json", root);
+    /**
+     * Switch between append-only journal saves and full-file rewrites.
+     *
+     * @param enabled true to append mutations to the journal
+     */
+    public static void setJournalEnabled(boolean enabled) {
+        journalEnabled = enabled;
     }
 
     /**
-     * Merge a single user into playerData.json - "users".
-     * Same replace-or-append behavior as saveUsers(List).
+     * @return true when saves are appended to the journal
      */
-    public void saveUser(User user) {
-        JSONObject root = readJsonObject("escaperoom/src/main/resources/json/playerData.json");
-        JSONArray usersArray = (JSONArray) root.getOrDefault("users", new JSONArray());
+    public static boolean isJournalEnabled() {
+        return journalEnabled;
+    }
 
-        JSONObject userObj = new JSONObject();
-        userObj.put("userID", user.userID == null ? null : user.userID.toString());
-        userObj.put("username", user.getUsername());
-        userObj.put("password", user.getPassword());
-        userObj.put("email", user.getEmail());
-        // Persist inventory (capacity + items)
-        JSONObject invObj = new JSONObject();
-        JSONArray items = new JSONArray();
-        if (user.getInventory() != null && user.getInventory().getItems() != null) {
-            for (String it : user.getInventory().getItems())
-                items.add(it);
-            invObj.put("capacity", user.getInventory().getCapacity());
-        } else {
-            invObj.put("capacity", 0);
-        }
-        invObj.put("items", items);
-        userObj.put("inventory", invObj);
+    /**
+     * Switch between the sharded layout (per-user progress/inventory files,
+     * see PlayerShards) and the single monolithic playerData.json.
+     *
+     * @param sharded true to use per-user shards
+     */
+    public static void setShardedLayout(boolean sharded) {
+        shardedLayout = sharded;
+    }
 
-        boolean replaced = false;
-        for (Object o : new ArrayList<>(usersArray)) {
-            if (!(o instanceof JSONObject))
-                continue;
-            JSONObject existing = (JSONObject) o;
+    /**
+     * @return true when progress and inventories live in per-user shards
+     */
+    public static boolean isShardedLayout() {
+        return shardedLayout;
+    }
 
-            if (user.userID != null && user.userID.toString().equals(existing.get("userID"))) {
-                usersArray.remove(existing);
-                usersArray.add(userObj);
-                replaced = true;
-                break;
-            }
-            if (user.getUsername() != null && user.getUsername().equals(existing.get("username"))) {
-                usersArray.remove(existing);
-                usersArray.add(userObj);
-                replaced = true;
-                break;
-            }
+    /**
+     * Switch between compact JSON files (no whitespace, smaller and faster to
+     * write) and the default pretty-printed, diff-friendly layout.
+     *
+     * @param compact true to write compact JSON
+     */
+    public static void setCompactOutput(boolean compact) {
+        compactOutput = compact;
+    }
+
+    /**
+     * @return true when JSON files are written without indentation
+     */
+    public static boolean isCompactOutput() {
+        return compactOutput;
+    }
+
+    /* ========================= USERS ========================= */
+
+    /**
+     * Merge a list of users into playerData.json - "users".
+     * If an entry matches by userID or username, it is replaced/updated; otherwise,
+     * it is appended. Users that have not changed since they were loaded or
+     * saved are skipped.
+     */
+    public void saveUsers(ArrayList<User> users) {
+        ArrayList<PlayerDocumentStore.Mutation> records = new ArrayList<>();
+        ArrayList<User> dirty = new ArrayList<>();
+        ArrayList<Long> versions = new ArrayList<>();
+        for (User user : users) {
+            if (user == null || !user.isDirty())
+                continue;
+            versions.add(user.getVersion());
+            dirty.add(user);
+            records.add(new PlayerDocumentStore.Mutation(OP_USER, userToJson(user)));
+        }
+        if (records.isEmpty())
+            return;
+        if (persist(records)) {
+            for (int i = 0; i < dirty.size(); i++)
+                dirty.get(i).markSaved(versions.get(i));
         }
-        if (!replaced)
-            usersArray.add(userObj);
+    }
 
-        root.put("users", usersArray);
-        writeFile("escaperoom/src/main/resources/json/playerData.json", root);
+    /**
+     * Merge a single user into playerData.json - "users".
+     * Same replace-or-append behavior as saveUsers(List), and likewise
+     * skipped if the user is unchanged.
+     */
+    public void saveUser(User user) {
+        if (user == null || !user.isDirty())
+            return;
+        long version = user.getVersion();
+        if (commit(OP_USER, userToJson(user)))
+            user.markSaved(version);
     }
 
     /* ========================= ROOMS (MINIMAL) ========================= */
@@ -222,30 +293,23 @@ public class GameDataWriter {
         timer.put("HARD", 1200);
         gameData.put("timer", timer);
 
-        writeFile("escaperoom/src/main/resources/json/game.json", gameData);
+        writeFile(root.resolve("game.json"), gameData);
     }
 
     /* ========================= SCORES & LEADERBOARD ========================= */
 
     /**
      * Append a score entry to playerData.json -- "scores".
-     * We do not deduplicate here; scores are historical records.
+     * We do not deduplicate here; scores are historical records. A score
+     * that was loaded, or already saved and not changed since, is not
+     * appended again.
      */
     public void saveScore(Score score) {
-        JSONObject root = readJsonObject("escaperoom/src/main/resources/json/playerData.json");
-        JSONArray scoresArray = (JSONArray) root.getOrDefault("scores", new JSONArray());
-
-        JSONObject scoreObj = new JSONObject();
-        scoreObj.put("username", score.getUsername());
-        scoreObj.put("difficulty", score.getDifficulty() == null ? null : score.getDifficulty().toString());
-        // Some models use "timeLeftSec", some "timeSeconds"; we persist "timeSeconds"
-        scoreObj.put("timeSeconds", score.getTimeLeftSec());
-        scoreObj.put("score", score.getScore());
-        scoreObj.put("date", score.getDate() == null ? null : score.getDate().toString());
-
-        scoresArray.add(scoreObj);
-        root.put("scores", scoresArray);
-        writeFile("escaperoom/src/main/resources/json/playerData.json", root);
+        if (score == null || !score.isDirty())
+            return;
+        long version = score.getVersion();
+        if (commit(OP_SCORE, scoreToJson(score)))
+            score.markSaved(version);
     }
 
     /**
@@ -262,85 +326,22 @@ public class GameDataWriter {
      * }
      */
     public void saveProgress(Progress p) {
-        if (p == null)
+        if (p == null || !p.isDirty())
             return;
-
-        final String PATH = "escaperoom/src/main/resources/json/playerData.json";
-
-        // 1) Load or create root
-        org.json.simple.JSONObject root = readJsonObject(PATH);
-        if (root == null)
-            root = new org.json.simple.JSONObject();
-
-        // Resolve "progress" array
-        org.json.simple.JSONArray arr = (org.json.simple.JSONArray) root.getOrDefault("progress",
-                new org.json.simple.JSONArray());
-
-        // Build entry for this user
-        org.json.simple.JSONObject jo = new org.json.simple.JSONObject();
-        jo.put("userUUID", p.getUserUUID() == null ? null : p.getUserUUID().toString());
-        jo.put("progressUUID", p.getProgressUUID() == null ? null : p.getProgressUUID().toString());
-        jo.put("c", Integer.valueOf(p.getStoryPos()));
-        jo.put("answered", Integer.valueOf(p.getQuestionsAnswered()));
-        jo.put("hints", Integer.valueOf(p.getHintsUsed()));
-        
-        // Save complete game state for save/restore functionality
-        jo.put("currentRoomID", p.getCurrentRoomID());
-        jo.put("timeRemainingSeconds", Long.valueOf(p.getTimeRemainingSeconds()));
-        jo.put("difficulty", p.getDifficulty());
-
-        // Upsert by userUUID
-        boolean replaced = false;
-        for (int i = 0; i < arr.size(); i++) {
-            org.json.simple.JSONObject existing = (org.json.simple.JSONObject) arr.get(i);
-            Object uid = existing.get("userUUID");
-            if (uid != null && uid.equals(jo.get("userUUID"))) {
-                arr.set(i, jo);
-                replaced = true;
-                break;
-            }
-        }
-        if (!replaced)
-            arr.add(jo);
-
-        // Write back
-        root.put("progress", arr);
-        writeFile(PATH, root);
+        long version = p.getVersion();
+        if (commit(OP_PROGRESS, progressToJson(p)))
+            p.markSaved(version);
     }
 
     /**
-     * Persist a simplified leaderboard to playerData.json -- "leaderboard".
+     * Persist a simplified leaderboard to playerData.json -- "leaderboard",
+     * and refresh the top-N view (leaderboard.view.json) from it.
      * This implementation serializes user identity/username; extend with
      * per-entry score/timing as your Leaderboard design stabilizes.
      */
     public void saveLeaderboard(Leaderboard leaderboard) {
-    // Load full playerData.json
-        JSONObject root = readJsonObject("escaperoom/src/main/resources/json/playerData.json");
-
-    // ALWAYS create a fresh array 
-        JSONArray leaderboardArray = new JSONArray();
-
-        if (leaderboard != null) {
-            ArrayList<Score> scores = leaderboard.getLB();
-            if (scores != null) {
-                for (Score s : scores) {
-                    JSONObject entryObj = new JSONObject();
-                    entryObj.put("username", s.getUsername());
-                    entryObj.put("difficulty", s.getDifficulty() == null ? null : s.getDifficulty().toString());
-                    entryObj.put("timeLeftSec", s.getTimeLeftSec());
-                    entryObj.put("score", s.getScore());
-                    entryObj.put("date", (s.getDate() == null) ? null : s.getDate().toString());
-
-                    leaderboardArray.add(entryObj);
-                }
-            }
-        }
-
-    // REPLACE, not append
-    root.put("leaderboard", leaderboardArray);
-    writeFile("escaperoom/src/main/resources/json/playerData.json", root);
-}
-
+        commit(OP_LEADERBOARD, leaderboardToJson(leaderboard));
+    }
 
     /*
      * SAVED DATA & ACCOUNTS
@@ -350,18 +351,7 @@ public class GameDataWriter {
      * Fields mirror the SavedData structure we use in this project.
      */
     public void saveSavedData(SavedData data) {
-        JSONObject root = readJsonObject("escaperoom/src/main/resources/json/playerData.json");
-        JSONArray savedDataArray = (JSONArray) root.getOrDefault("savedData", new JSONArray());
-
-        JSONObject saveObj = new JSONObject();
-        saveObj.put("room", data.room);
-        saveObj.put("score", data.score);
-        saveObj.put("hints", data.hints);
-        saveObj.put("puzzle", data.puzzle);
-
-        savedDataArray.add(saveObj);
-        root.put("savedData", savedDataArray);
-        writeFile("escaperoom/src/main/resources/json/playerData.json", root);
+        commit(OP_SAVED_DATA, savedDataToJson(data));
     }
 
     /**
@@ -376,165 +366,454 @@ public class GameDataWriter {
         }
     }
 
-    /*
-     * I/O & PRINT HELPERS
-     * 
-     * /**
-     * Read JSON object from path. If file does not exist, return an empty JSON
-     * object.
-     * This keeps writer calls simple: read; mutate; write.
-     */
-    private JSONObject readJsonObject(String path) {
-        try (java.io.FileReader r = new java.io.FileReader(path)) {
-            return (JSONObject) new org.json.simple.parser.JSONParser().parse(r);
-        } catch (java.io.FileNotFoundException fnf) {
-            return new JSONObject(); // start from an empty JSON object
-        } catch (Exception e) {
-            System.out.println("Error reading " + path + " - returning empty object: " + e.getMessage());
-            return new JSONObject();
+    /* ========================= HISTORY ========================= */
+
+    /**
+     * Set how much scores/savedData history stays in playerData.json.
+     *
+     * @param policy retention limits (null keeps everything)
+     */
+    public static void setRetentionPolicy(RetentionPolicy policy) {
+        retention = policy == null ? RetentionPolicy.KEEP_ALL : policy;
+    }
+
+    /**
+     * @return the current retention policy
+     */
+    public static RetentionPolicy getRetentionPolicy() {
+        return retention;
+    }
+
+    /**
+     * Move scores/savedData entries past the retention policy into the
+     * gzip archive next to playerData.json. Does nothing when no limit is set.
+     *
+     * @return number of entries archived
+     */
+    public int compactHistory() {
+        return HistoryArchive.forPath(playerPath).compact(retention);
+    }
+
+    /* ========================= BATCHES ========================= */
+
+    /**
+     * Start a batch of playerData.json saves that commit together.
+     *
+     * @return an empty batch
+     */
+    public Batch begin() {
+        return new Batch(this);
+    }
+
+    /**
+     * Group commit of several playerData.json records.
+     *
+     * Records are serialized when staged (so later changes to the model objects
+     * are not picked up; clean ones are not staged at all) and applied on
+     * commit() with one read of the document and one fsync'd write: a single
+     * rewrite, or one journal append of all records in journal mode.
+     *
+     * Usage:
+     * writer.begin().stageProgress(p).stageUser(u).commit();
+     */
+    public static final class Batch {
+        private final GameDataWriter writer;
+        private final ArrayList<PlayerDocumentStore.Mutation> records = new ArrayList<>();
+        // mark the staged model objects clean once their records are on disk
+        private final ArrayList<Runnable> onSaved = new ArrayList<>();
+        private double latencyMillis = -1;
+
+        private Batch(GameDataWriter writer) {
+            this.writer = writer;
+        }
+
+        public Batch stageUser(User user) {
+            if (user == null || !user.isDirty())
+                return this;
+            long version = user.getVersion();
+            onSaved.add(() -> user.markSaved(version));
+            return stage(OP_USER, userToJson(user));
+        }
+
+        public Batch stageScore(Score score) {
+            if (score == null || !score.isDirty())
+                return this;
+            long version = score.getVersion();
+            onSaved.add(() -> score.markSaved(version));
+            return stage(OP_SCORE, scoreToJson(score));
+        }
+
+        public Batch stageProgress(Progress p) {
+            if (p == null || !p.isDirty())
+                return this;
+            long version = p.getVersion();
+            onSaved.add(() -> p.markSaved(version));
+            return stage(OP_PROGRESS, progressToJson(p));
+        }
+
+        public Batch stageLeaderboard(Leaderboard leaderboard) {
+            return stage(OP_LEADERBOARD, leaderboardToJson(leaderboard));
+        }
+
+        public Batch stageSavedData(SavedData data) {
+            return stage(OP_SAVED_DATA, savedDataToJson(data));
+        }
+
+        /**
+         * @return number of records staged and not yet committed
+         */
+        public int size() {
+            return records.size();
+        }
+
+        /**
+         * Apply every staged record and write them out in one go.
+         * The batch is empty afterwards and can be reused.
+         *
+         * @return true if the records reached disk
+         */
+        public boolean commit() {
+            long start = System.nanoTime();
+            boolean ok = writer.persist(records);
+            latencyMillis = (System.nanoTime() - start) / 1_000_000.0;
+            if (ok)
+                onSaved.forEach(Runnable::run);
+            records.clear();
+            onSaved.clear();
+            return ok;
+        }
+
+        /**
+         * @return wall-clock time of the last commit() in milliseconds,
+         *         or -1 if the batch was never committed
+         */
+        public double getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        private Batch stage(String op, Object data) {
+            records.add(new PlayerDocumentStore.Mutation(op, data));
+            return this;
         }
     }
 
+    /* ========================= RECORDS ========================= */
+
     /**
-     * Write a JSON object/array to disk with stable, human-readable formatting.
-     * The pretty-printer below is intentionally simple: it preserves order within
-     * a single run and produces two-space indentation to keep diffs short.
-     */
-    private void writeFile(String filename, Object jsonData) {
-        try (FileWriter file = new FileWriter(filename)) {
-            String out = prettyPrint(jsonData);
-            file.write(out);
-            System.out.println("Saved to " + filename);
-        } catch (Exception e) {
-            System.out.println("Error saving to " + filename);
-            e.printStackTrace();
+     * Apply one mutation to the shared in-memory document, which writes it
+     * through to disk (journal append or full rewrite).
+     */
+    private boolean commit(String op, Object data) {
+        return persist(List.of(new PlayerDocumentStore.Mutation(op, data)));
+    }
+
+    /**
+     * Write records out: per-user parts go to their shards when the sharded
+     * layout is on, everything else to the shared playerData.json document.
+     *
+     * Runs holding the PlayerLocks stripes of the players involved (and the
+     * leaderboard lock for a leaderboard record), so one player's saves stay
+     * in order while other players' saves run alongside.
+     *
+     * @return true if every record reached disk
+     */
+    private boolean persist(List<PlayerDocumentStore.Mutation> records) {
+        PlayerShards shards = shardedLayout ? PlayerShards.forPath(playerPath) : null;
+        if (shards != null)
+            shards.ensureMigrated(); // takes player locks itself, so before ours
+
+        PlayerLocks locks = PlayerLocks.forPath(playerPath);
+        List<Object> players = new ArrayList<>();
+        boolean leaderboard = false, scores = false;
+        for (PlayerDocumentStore.Mutation m : records) {
+            players.add(playerKey(m, locks));
+            leaderboard |= OP_LEADERBOARD.equals(m.op);
+            scores |= OP_SCORE.equals(m.op);
         }
+        boolean shared = leaderboard;
+        boolean ok = locks.withPlayers(players, () -> shared
+                ? locks.withLeaderboard(() -> writeWithView(records, shards))
+                : write(records, shards));
+        if (ok && scores) {
+            // after the write, so whoever sees the new stamp also sees the scores
+            CrossProcessLock stamp = scoresStamp(playerPath);
+            stamp.lock();
+            try {
+                stamp.bump();
+            } finally {
+                stamp.unlock();
+            }
+        }
+        return ok;
     }
 
-    // pretty printing
+    // A saved leaderboard also refreshes the top-N view (LeaderboardView)
+    private boolean writeWithView(List<PlayerDocumentStore.Mutation> records, PlayerShards shards) {
+        boolean ok = write(records, shards);
+        if (!ok)
+            return false;
+        Object latest = null;
+        for (PlayerDocumentStore.Mutation m : records) {
+            if (OP_LEADERBOARD.equals(m.op))
+                latest = m.data;
+        }
+        if (latest instanceof JSONArray)
+            LeaderboardView.forPath(playerPath).write((JSONArray) latest);
+        return true;
+    }
 
-    private String prettyPrint(Object json) {
-        return prettyPrint(json, 0) + System.lineSeparator();
+    private boolean write(List<PlayerDocumentStore.Mutation> records, PlayerShards shards) {
+        if (shards == null)
+            return PlayerDocumentStore.forPath(playerPath).apply(records);
+        List<PlayerDocumentStore.Mutation> global = new ArrayList<>();
+        boolean ok = shards.route(records, global);
+        return PlayerDocumentStore.forPath(playerPath).apply(global) && ok;
     }
 
     /**
-     * Pretty-print a JSON object/array with stable, human-readable formatting.
-     * Preserves order within a single run and produces two-space indentation to
-     * keep diffs short.
-     * 
-     * @param json   the object to pretty-print
-     * @param indent the number of spaces to indent the output
-     * @return the pretty-printed string
-     */
-    private String prettyPrint(Object json, int indent) {
-        if (json == null)
-            return "null";
-        if (json instanceof JSONObject)
-            return prettyPrintObject((JSONObject) json, indent);
-        if (json instanceof JSONArray)
-            return prettyPrintArray((JSONArray) json, indent);
-        if (json instanceof String)
-            return '"' + escapeJson((String) json) + '"';
-        return json.toString();
+     * @return the canonical PlayerLocks key of the player a record belongs
+     *         to, or null for shared records (leaderboard, savedData, ...)
+     */
+    private static Object playerKey(PlayerDocumentStore.Mutation m, PlayerLocks locks) {
+        if (!(m.data instanceof JSONObject))
+            return null;
+        JSONObject data = (JSONObject) m.data;
+        switch (m.op) {
+            case OP_USER:
+                // carries both, so later username-only records find the id
+                locks.remember(data.get("userID"), str(data.get("username")));
+                return locks.keyOf(data.get("userID"), str(data.get("username")));
+            case OP_PROGRESS:
+                return locks.keyOf(data.get("userUUID"), null);
+            case OP_SCORE:
+                return locks.keyOf(null, str(data.get("username")));
+            default:
+                return null;
+        }
+    }
+
+    private static String str(Object o) {
+        return o == null ? null : o.toString();
     }
 
     /**
-     * Pretty-print a JSON object with stable, human-readable formatting.
-     * Preserves order within a single run and produces two-space indentation to
-     * keep diffs short.
-     * 
-     * @param obj    the object to pretty-print
-     * @param indent the number of spaces to indent the output
-     * @return the pretty-printed string
-     */
-    private String prettyPrintObject(JSONObject obj, int indent) {
-        StringBuilder sb = new StringBuilder();
-        sb.append('{').append('\n');
-        int i = 0;
-        String pad = "  ".repeat(indent + 1);
-        for (Object keyObj : obj.keySet()) {
-            String key = keyObj == null ? "null" : keyObj.toString();
-            Object val = obj.get(keyObj);
-            sb.append(pad).append('"').append(escapeJson(key)).append('"').append(": ");
-            sb.append(prettyPrint(val, indent + 1));
-            if (i < obj.size() - 1)
-                sb.append(',');
-            sb.append('\n');
-            i++;
+     * Apply a single mutation record to a playerData.json root object.
+     * This is the only place that knows how each record kind merges into the
+     * document, so direct saves and journal replay always agree.
+     *
+     * @param root the playerData.json root to mutate
+     * @param op   one of the OP_* record kinds
+     * @param data the record payload built by the *ToJson helpers
+     */
+    @SuppressWarnings("unchecked")
+    static void applyRecord(JSONObject root, String op, Object data) {
+        if (root == null || op == null)
+            return;
+        switch (op) {
+            case OP_USER:
+                upsertUser(root, (JSONObject) data);
+                break;
+            case OP_SCORE:
+                arrayOf(root, "scores").add(data);
+                break;
+            case OP_PROGRESS:
+                upsertByKey(arrayOf(root, "progress"), "userUUID", (JSONObject) data);
+                break;
+            case OP_LEADERBOARD:
+                // REPLACE, not append
+                root.put("leaderboard", data == null ? new JSONArray() : data);
+                break;
+            case OP_SAVED_DATA:
+                arrayOf(root, "savedData").add(data);
+                break;
+            case OP_LAYOUT:
+                PlayerShards.stripShardedFields(root);
+                break;
+            case OP_TRIM:
+                HistoryArchive.applyTrim(root, (JSONObject) data);
+                break;
+            default:
+                System.out.println("Unknown playerData record '" + op + "' - skipped");
         }
-        sb.append("  ".repeat(indent)).append('}');
-        return sb.toString();
+    }
+
+    /** Resolve (and attach) a top-level array in the root object. */
+    @SuppressWarnings("unchecked")
+    private static JSONArray arrayOf(JSONObject root, String key) {
+        Object existing = root.get(key);
+        if (existing instanceof JSONArray)
+            return (JSONArray) existing;
+        JSONArray arr = new JSONArray();
+        root.put(key, arr);
+        return arr;
     }
 
     /**
-     * Pretty-print a JSON array with stable, human-readable formatting.
-     * Preserves order within a single run and produces two-space indentation to
-     * keep diffs short.
-     * 
-     * @param arr    the array to pretty-print
-     * @param indent the number of spaces to indent the output
-     * @return the pretty-printed string
-     */
-    private String prettyPrintArray(JSONArray arr, int indent) {
-        StringBuilder sb = new StringBuilder();
-        sb.append('[').append('\n');
-        String pad = "  ".repeat(indent + 1);
+     * Replace the existing user with the same userID (or, failing that, the same
+     * username); otherwise append. An existing userID is preserved when the new
+     * record lacks one.
+     */
+    @SuppressWarnings("unchecked")
+    private static void upsertUser(JSONObject root, JSONObject userObj) {
+        JSONArray usersArray = arrayOf(root, "users");
+        Object id = userObj.get("userID");
+        Object name = userObj.get("username");
+        for (int i = 0; i < usersArray.size(); i++) {
+            if (!(usersArray.get(i) instanceof JSONObject))
+                continue;
+            JSONObject existing = (JSONObject) usersArray.get(i);
+
+            // Prefer to match by userID when available
+            if (id != null && id.equals(existing.get("userID"))) {
+                usersArray.set(i, userObj);
+                return;
+            }
+
+            // Fallback: match by username if IDs are not set
+            if (name != null && name.equals(existing.get("username"))) {
+                Object existingID = existing.get("userID");
+                if (existingID != null && id == null)
+                    userObj.put("userID", existingID);
+                usersArray.set(i, userObj);
+                return;
+            }
+        }
+        usersArray.add(userObj);
+    }
+
+    /** Replace the entry whose key matches, or append. */
+    @SuppressWarnings("unchecked")
+    private static void upsertByKey(JSONArray arr, String key, JSONObject entry) {
+        Object value = entry.get(key);
         for (int i = 0; i < arr.size(); i++) {
-            sb.append(pad).append(prettyPrint(arr.get(i), indent + 1));
-            if (i < arr.size() - 1)
-                sb.append(',');
-            sb.append('\n');
+            if (!(arr.get(i) instanceof JSONObject))
+                continue;
+            Object existing = ((JSONObject) arr.get(i)).get(key);
+            if (existing != null && existing.equals(value)) {
+                arr.set(i, entry);
+                return;
+            }
+        }
+        arr.add(entry);
+    }
+
+    /** Build the "users" entry for a user, including inventory (capacity + items). */
+    @SuppressWarnings("unchecked")
+    static JSONObject userToJson(User user) {
+        JSONObject userObj = new JSONObject();
+        userObj.put("userID", user.userID == null ? null : user.userID.toString());
+        userObj.put("username", user.getUsername());
+        userObj.put("password", user.getPassword());
+        userObj.put("email", user.getEmail());
+        JSONObject invObj = new JSONObject();
+        JSONArray items = new JSONArray();
+        if (user.getInventory() != null && user.getInventory().getItems() != null) {
+            for (String it : user.getInventory().getItems())
+                items.add(it);
+            invObj.put("capacity", user.getInventory().getCapacity());
+        } else {
+            invObj.put("capacity", 0);
         }
-        sb.append("  ".repeat(indent)).append(']');
-        return sb.toString();
+        invObj.put("items", items);
+        userObj.put("inventory", invObj);
+        return userObj;
+    }
+
+    /** Build a "scores" history entry. */
+    @SuppressWarnings("unchecked")
+    static JSONObject scoreToJson(Score score) {
+        JSONObject scoreObj = new JSONObject();
+        scoreObj.put("username", score.getUsername());
+        scoreObj.put("difficulty", score.getDifficulty() == null ? null : score.getDifficulty().toString());
+        // Some models use "timeLeftSec", some "timeSeconds"; we persist "timeSeconds"
+        scoreObj.put("timeSeconds", score.getTimeLeftSec());
+        scoreObj.put("score", score.getScore());
+        scoreObj.put("date", score.getDate() == null ? null : score.getDate().toString());
+        return scoreObj;
+    }
+
+    /** Build a "progress" entry (story position, counters and saved game state). */
+    @SuppressWarnings("unchecked")
+    static JSONObject progressToJson(Progress p) {
+        JSONObject jo = new JSONObject();
+        jo.put("userUUID", p.getUserUUID() == null ? null : p.getUserUUID().toString());
+        jo.put("progressUUID", p.getProgressUUID() == null ? null : p.getProgressUUID().toString());
+        jo.put("c", Integer.valueOf(p.getStoryPos()));
+        jo.put("answered", Integer.valueOf(p.getQuestionsAnswered()));
+        jo.put("hints", Integer.valueOf(p.getHintsUsed()));
+
+        // Save complete game state for save/restore functionality
+        jo.put("currentRoomID", p.getCurrentRoomID());
+        jo.put("timeRemainingSeconds", Long.valueOf(p.getTimeRemainingSeconds()));
+        jo.put("difficulty", p.getDifficulty());
+        return jo;
     }
 
     /**
-     * Escape a string according to JSON rules.
-     * 
-     * All characters between 0x00 and 0x1F (inclusive) are escaped as well as the
-     * following characters: \", \, \b, \f, \n, \r, \t
-     * 
-     * @param s the string to escape
-     * @return the escaped string
-     */
-    private String escapeJson(String s) {
-        if (s == null)
-            return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            switch (c) {
-                case '"':
-                    sb.append("\\\"");
-                    break;
-                case '\\':
-                    sb.append("\\\\");
-                    break;
-                case '\b':
-                    sb.append("\\b");
-                    break;
-                case '\f':
-                    sb.append("\\f");
-                    break;
-                case '\n':
-                    sb.append("\\n");
-                    break;
-                case '\r':
-                    sb.append("\\r");
-                    break;
-                case '\t':
-                    sb.append("\\t");
-                    break;
-                default:
-                    if (c < 0x20 || c > 0x7F) {
-                        sb.append(String.format("\\u%04x", (int) c));
-                    } else
-                        sb.append(c);
-            }
+     * Build the full "leaderboard" array (always a fresh array): the top
+     * LeaderboardView.N overall plus the top N of each difficulty.
+     */
+    @SuppressWarnings("unchecked")
+    static JSONArray leaderboardToJson(Leaderboard leaderboard) {
+        JSONArray leaderboardArray = new JSONArray();
+        if (leaderboard == null)
+            return leaderboardArray;
+        ArrayList<Score> scores = leaderboard.topNPerDifficulty(LeaderboardView.N);
+        if (scores == null)
+            return leaderboardArray;
+        for (Score s : scores) {
+            JSONObject entryObj = new JSONObject();
+            entryObj.put("username", s.getUsername());
+            entryObj.put("difficulty", s.getDifficulty() == null ? null : s.getDifficulty().toString());
+            entryObj.put("timeLeftSec", s.getTimeLeftSec());
+            entryObj.put("score", s.getScore());
+            entryObj.put("date", (s.getDate() == null) ? null : s.getDate().toString());
+            leaderboardArray.add(entryObj);
         }
-        return sb.toString();
+        return leaderboardArray;
+    }
 
+    /** Build a "savedData" entry. */
+    @SuppressWarnings("unchecked")
+    static JSONObject savedDataToJson(SavedData data) {
+        JSONObject saveObj = new JSONObject();
+        saveObj.put("room", data.room);
+        saveObj.put("score", data.score);
+        saveObj.put("hints", data.hints);
+        saveObj.put("puzzle", data.puzzle);
+        // lets the retention policy age savedData entries out
+        saveObj.put(HistoryArchive.SAVED_AT, System.currentTimeMillis());
+        return saveObj;
+    }
+
+    /*
+     * I/O & PRINT HELPERS
+     */
+
+    /**
+     * Write a JSON object/array to disk, streamed through JsonStreamWriter.
+     * Pretty output preserves order within a single run and uses two-space
+     * indentation to keep diffs short; compact output has no whitespace.
+     *
+     * The file is written to a temp file and renamed over the old one while
+     * holding its CrossProcessLock, so other processes never read a
+     * half-written file, and the version stamp is bumped for them.
+     */
+    private void writeFile(Path file, Object jsonData) {
+        Path tmp = DataRoot.withSuffix(file, ".tmp");
+        CrossProcessLock fileLock = CrossProcessLock.forFile(file);
+        fileLock.lock();
+        try {
+            JsonStreamWriter.writeFile(jsonData, tmp, !compactOutput, true);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            fileLock.bump();
+            System.out.println("Saved to " + file);
+        } catch (Exception e) {
+            System.out.println("Error saving to " + file);
+            e.printStackTrace();
+        } finally {
+            fileLock.unlock();
+        }
     }
 
     /**
@@ -575,9 +854,6 @@ public class GameDataWriter {
 
     }
 
-    // minimal cleanup helper (same path our writer uses)
-    private static final String PLAYER_PATH = "escaperoom/src/main/resources/json/playerData.json";
-
     /**
      * Helper to remove a user from playerData.json by username.
      * 
@@ -591,7 +867,8 @@ public class GameDataWriter {
     private static void removeUserByUsername(String uname) throws Exception {
         var parser = new org.json.simple.parser.JSONParser();
         org.json.simple.JSONObject root;
-        try (java.io.FileReader r = new java.io.FileReader(PLAYER_PATH)) {
+        Path playerPath = DataRoot.playerData();
+        try (java.io.Reader r = Files.newBufferedReader(playerPath)) {
             root = (org.json.simple.JSONObject) parser.parse(r);
         }
         var users = (org.json.simple.JSONArray) root.getOrDefault("users", new org.json.simple.JSONArray());
@@ -606,6 +883,7 @@ public class GameDataWriter {
         }
         root.put("users", users);
         GameDataWriter gw = new GameDataWriter();
-        gw.writeFile(PLAYER_PATH, root); // writeFile(...) already pretty-prints
+        gw.writeFile(playerPath, root); // writeFile(...) already pretty-prints
+        PlayerDocumentStore.forPath(playerPath).invalidate();
     }
 }
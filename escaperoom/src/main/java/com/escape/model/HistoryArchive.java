@@ -0,0 +1,319 @@
+package com.escape.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Cold storage for old "scores" and "savedData" entries.
+ *
+ * compact() applies a RetentionPolicy to playerData.json: entries past the
+ * limits are appended to gzip-compressed, month-partitioned segments next to
+ * it, then removed from the hot file:
+ * archive/scores-2026-10.jsonl.gz
+ * archive/savedData-2026-10.jsonl.gz
+ * archive/scores-undated.jsonl.gz (entries without a readable date)
+ *
+ * Each segment holds one compact JSON entry per line. Every compaction adds a
+ * new gzip member to the end of the segment, so segments are append-only and
+ * are read back with a plain GZIPInputStream.
+ *
+ * The removal is recorded as a "trim" record (the indexes that were moved),
+ * so it replays from the journal like any other save. Archiving happens
+ * before the trim; a crash in between can leave an entry in both places,
+ * never in neither.
+ *
+ * query() streams the segments back, skipping partitions outside the
+ * requested date range, so archived history stays queryable.
+ *
+ * @author Rudra Patel
+ */
+public class HistoryArchive {
+
+    static final String DIR = "archive";
+    static final String UNDATED = "undated";
+    static final String SAVED_AT = "savedAt";
+
+    private static final Map<Path, HistoryArchive> ARCHIVES = new HashMap<>();
+
+    private final Path playerPath;
+    private final Path dir;
+
+    private HistoryArchive(Path playerPath) {
+        this.playerPath = playerPath;
+        this.dir = playerPath.getParent().resolve(DIR);
+    }
+
+    /**
+     * Returns the archive that belongs to the given playerData.json.
+     *
+     * @param playerPath path of playerData.json
+     * @return the shared archive for that file
+     */
+    public static HistoryArchive forPath(String playerPath) {
+        return forPath(Path.of(playerPath));
+    }
+
+    /**
+     * Returns the archive for the given playerData.json, on any FileSystem.
+     *
+     * @param playerPath the playerData.json file
+     * @return the shared archive for that file
+     */
+    public static synchronized HistoryArchive forPath(Path playerPath) {
+        return ARCHIVES.computeIfAbsent(playerPath.toAbsolutePath().normalize(), HistoryArchive::new);
+    }
+
+    /**
+     * Move entries past the policy's limits out of playerData.json.
+     *
+     * @param policy retention limits
+     * @return number of entries archived
+     */
+    public synchronized int compact(RetentionPolicy policy) {
+        if (policy == null || !policy.isEnabled())
+            return 0;
+        int[] moved = { 0 };
+        PlayerDocumentStore.forPath(playerPath).transact(root -> {
+            List<PlayerDocumentStore.Mutation> trims = new ArrayList<>();
+            for (String array : new String[] { "scores", "savedData" }) {
+                List<Integer> evict = select(root, array, policy);
+                if (evict.isEmpty())
+                    continue;
+                JSONArray entries = (JSONArray) root.get(array);
+                List<JSONObject> out = new ArrayList<>();
+                for (int i : evict)
+                    out.add((JSONObject) entries.get(i));
+                if (!append(array, out))
+                    continue; // leave them in the hot file
+                trims.add(new PlayerDocumentStore.Mutation(GameDataWriter.OP_TRIM, trimRecord(array, evict)));
+                moved[0] += evict.size();
+            }
+            return trims;
+        });
+        if (moved[0] > 0)
+            System.out.println("Archived " + moved[0] + " history entr" + (moved[0] == 1 ? "y" : "ies") + " to " + dir);
+        return moved[0];
+    }
+
+    /**
+     * Read archived entries back.
+     *
+     * @param array  "scores" or "savedData"
+     * @param from   earliest month to include (null = no lower bound)
+     * @param to     latest month to include (null = no upper bound)
+     * @param filter which entries to return
+     * @return matching entries, oldest partition first; undated entries last
+     */
+    public List<JSONObject> query(String array, Date from, Date to, Predicate<JSONObject> filter) {
+        String lo = from == null ? null : month(from);
+        String hi = to == null ? null : month(to);
+        TreeMap<String, Path> segments = new TreeMap<>();
+        try (var files = Files.list(dir)) {
+            files.forEach(f -> {
+                String name = f.getFileName().toString();
+                String prefix = array + "-";
+                if (name.startsWith(prefix) && name.endsWith(".jsonl.gz"))
+                    segments.put(name.substring(prefix.length(), name.length() - ".jsonl.gz".length()), f);
+            });
+        } catch (IOException none) {
+            return new ArrayList<>(); // nothing archived yet
+        }
+
+        List<JSONObject> out = new ArrayList<>();
+        Path undated = segments.remove(UNDATED);
+        for (Map.Entry<String, Path> e : segments.entrySet()) {
+            String partition = e.getKey();
+            if ((lo != null && partition.compareTo(lo) < 0) || (hi != null && partition.compareTo(hi) > 0))
+                continue;
+            read(e.getValue(), filter, out);
+        }
+        if (undated != null && from == null && to == null)
+            read(undated, filter, out);
+        return out;
+    }
+
+    /**
+     * Remove the entries listed in a "trim" record from root.
+     * Called from GameDataWriter.applyRecord.
+     *
+     * @param root playerData.json root
+     * @param data {"array": "...", "indexes": [ascending ints]}
+     */
+    static void applyTrim(JSONObject root, JSONObject data) {
+        Object arr = root.get(String.valueOf(data.get("array")));
+        Object idx = data.get("indexes");
+        if (!(arr instanceof JSONArray) || !(idx instanceof List))
+            return;
+        JSONArray entries = (JSONArray) arr;
+        List<?> indexes = (List<?>) idx;
+        for (int k = indexes.size() - 1; k >= 0; k--) {
+            int i = ((Number) indexes.get(k)).intValue();
+            if (i >= 0 && i < entries.size())
+                entries.remove(i);
+        }
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    /**
+     * Indexes (ascending) of entries in root[array] that the policy evicts.
+     */
+    private static List<Integer> select(JSONObject root, String array, RetentionPolicy policy) {
+        List<Integer> evict = new ArrayList<>();
+        Object arr = root.get(array);
+        if (!(arr instanceof JSONArray))
+            return evict;
+        JSONArray entries = (JSONArray) arr;
+        long cutoff = policy.getMaxAgeDays() > 0
+                ? System.currentTimeMillis() - policy.getMaxAgeDays() * 86_400_000L
+                : Long.MIN_VALUE;
+        boolean scores = "scores".equals(array);
+
+        // Entries are appended in time order, so the newest are at the end
+        Map<String, Integer> remaining = new HashMap<>();
+        if (scores && policy.getScoresPerUser() > 0) {
+            for (Object o : entries) {
+                if (o instanceof JSONObject)
+                    remaining.merge(userOf(o), 1, Integer::sum);
+            }
+        }
+        int savedLimit = policy.getSavedDataEntries();
+
+        for (int i = 0; i < entries.size(); i++) {
+            Object o = entries.get(i);
+            if (!(o instanceof JSONObject))
+                continue;
+            boolean old = false;
+            if (scores && policy.getScoresPerUser() > 0) {
+                String user = userOf(o);
+                int left = remaining.get(user);
+                remaining.put(user, left - 1);
+                old = left > policy.getScoresPerUser();
+            } else if (!scores && savedLimit > 0) {
+                old = entries.size() - i > savedLimit;
+            }
+            Date when = dateOf(array, (JSONObject) o);
+            if (when != null && when.getTime() < cutoff)
+                old = true;
+            if (old)
+                evict.add(i);
+        }
+        return evict;
+    }
+
+    /** Append entries to their month segments; one gzip member per segment. */
+    private boolean append(String array, List<JSONObject> entries) {
+        Map<String, StringBuilder> byPartition = new TreeMap<>();
+        for (JSONObject e : entries) {
+            Date when = dateOf(array, e);
+            String partition = when == null ? UNDATED : month(when);
+            byPartition.computeIfAbsent(partition, k -> new StringBuilder())
+                    .append(JsonStreamWriter.toString(e, false)).append('\n');
+        }
+        try {
+            Files.createDirectories(dir);
+            for (Map.Entry<String, StringBuilder> p : byPartition.entrySet()) {
+                Path segment = dir.resolve(array + "-" + p.getKey() + ".jsonl.gz");
+                try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+                        GZIPOutputStream gz = new GZIPOutputStream(Channels.newOutputStream(ch))) {
+                    Writer w = new OutputStreamWriter(gz, StandardCharsets.UTF_8);
+                    w.write(p.getValue().toString());
+                    w.flush();
+                    gz.finish();
+                    ch.force(true);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error archiving " + array + " to " + dir + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void read(Path segment, Predicate<JSONObject> filter, List<JSONObject> out) {
+        JSONParser parser = new JSONParser();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(segment)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                try {
+                    JSONObject e = (JSONObject) parser.parse(line);
+                    if (filter == null || filter.test(e))
+                        out.add(e);
+                } catch (org.json.simple.parser.ParseException bad) {
+                    // skip a damaged line, keep reading
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading archive " + segment + ": " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject trimRecord(String array, List<Integer> indexes) {
+        JSONObject rec = new JSONObject();
+        rec.put("array", array);
+        JSONArray idx = new JSONArray();
+        idx.addAll(indexes);
+        rec.put("indexes", idx);
+        return rec;
+    }
+
+    private static String userOf(Object entry) {
+        Object u = entry instanceof JSONObject ? ((JSONObject) entry).get("username") : null;
+        return u == null ? "" : u.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /** When an entry was recorded, or null if unknown. */
+    private static Date dateOf(String array, JSONObject entry) {
+        if (!"scores".equals(array)) {
+            Object at = entry.get(SAVED_AT);
+            return at instanceof Number ? new Date(((Number) at).longValue()) : null;
+        }
+        Object d = entry.get("date");
+        if (d == null)
+            return null;
+        // Score dates are written with Date.toString()
+        SimpleDateFormat f = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+        try {
+            return f.parse(d.toString());
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private static String month(Date d) {
+        SimpleDateFormat f = new SimpleDateFormat("yyyy-MM", Locale.ROOT);
+        f.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return f.format(d);
+    }
+}
@@ -0,0 +1,276 @@
+package com.escape.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Embedded, file-backed PlayerStore with hash-indexed lookups.
+ *
+ * Player data is kept in a "store" directory next to playerData.json, one
+ * IndexedRecordFile per table:
+ * users.rec userID -> user entry (same JSON shape as playerData.json)
+ * usernames.rec lower-cased username -> userID (secondary index)
+ * progress.rec userUUID -> progress entry
+ * scores.rec lower-cased username -> every score entry (history)
+ * leaderboard.rec "leaderboard" -> leaderboard array
+ * savedData.rec "savedData" -> every saved-game snapshot
+ *
+ * Logging in or loading a save is a hash lookup and one positional read,
+ * instead of parsing every account in playerData.json, so it stays flat as
+ * the number of accounts grows.
+ *
+ * A user save writes users.rec first and the username index second;
+ * findUser() checks that the record it lands on still carries that name, so
+ * a crash in between never returns the wrong account.
+ *
+ * Records are read and written with PlayerDataCodec, straight between the
+ * record text and User/Progress/Score.
+ *
+ * The default store imports playerData.json (accounts, progress, score
+ * history, leaderboard) the first time it is opened empty.
+ *
+ * @author Rudra Patel
+ */
+public class IndexedPlayerStore implements PlayerStore {
+
+    static final String DIR = "store";
+    private static final String LEADERBOARD_KEY = "leaderboard";
+    private static final String SAVED_DATA_KEY = "savedData";
+
+    private final Path dir;
+    private final IndexedRecordFile users;
+    private final IndexedRecordFile usernames;
+    private final IndexedRecordFile progress;
+    private final IndexedRecordFile scores;
+    private final IndexedRecordFile leaderboard;
+    private final IndexedRecordFile savedData;
+
+    /**
+     * Open the store next to playerData.json, importing playerData.json if
+     * the store is new.
+     *
+     * @throws IOException if the store files cannot be opened
+     */
+    public IndexedPlayerStore() throws IOException {
+        this(DataRoot.get().resolve(DIR));
+        if (users.size() == 0)
+            importFrom(new JsonPlayerStore());
+    }
+
+    /**
+     * Open (or create) a store in the given directory.
+     *
+     * @param dir directory holding the .rec files
+     * @throws IOException if the store files cannot be opened
+     */
+    public IndexedPlayerStore(Path dir) throws IOException {
+        this.dir = dir;
+        this.users = new IndexedRecordFile(dir.resolve("users.rec"), false);
+        this.usernames = new IndexedRecordFile(dir.resolve("usernames.rec"), false);
+        this.progress = new IndexedRecordFile(dir.resolve("progress.rec"), false);
+        this.scores = new IndexedRecordFile(dir.resolve("scores.rec"), true);
+        this.leaderboard = new IndexedRecordFile(dir.resolve("leaderboard.rec"), false);
+        this.savedData = new IndexedRecordFile(dir.resolve("savedData.rec"), true);
+    }
+
+    /**
+     * Copy everything another store holds into this one.
+     *
+     * @param source the store to copy from
+     * @return number of accounts imported
+     */
+    public int importFrom(PlayerStore source) {
+        ArrayList<User> all = source.getUsers();
+        saveUsers(all);
+        for (User u : all) {
+            Progress p = source.loadProgress(u.userID);
+            if (p != null)
+                saveProgress(p);
+            for (Score s : source.getScoreHistory(u.getUsername()))
+                saveScore(s);
+        }
+        saveLeaderboard(source.getLeaderboard());
+        if (!all.isEmpty())
+            System.out.println("Imported " + all.size() + " account(s) into " + dir);
+        return all.size();
+    }
+
+    @Override
+    public ArrayList<User> getUsers() {
+        ArrayList<User> out = new ArrayList<>();
+        for (String id : users.keys()) {
+            User u = decodeUser(users.getText(id));
+            if (u != null)
+                out.add(u);
+        }
+        return out;
+    }
+
+    @Override
+    public User findUser(String username) {
+        if (username == null)
+            return null;
+        Object id = usernames.get(fold(username));
+        User u = id == null ? null : decodeUser(users.getText(id.toString()));
+        return u != null && username.equalsIgnoreCase(u.getUsername()) ? u : null;
+    }
+
+    @Override
+    public synchronized void saveUser(User user) {
+        if (user == null)
+            return;
+        IndexedRecordFile.Json entry = new IndexedRecordFile.Json(PlayerDataCodec.encode(user));
+        String name = user.getUsername() == null ? null : fold(user.getUsername());
+        String id = user.userID != null ? user.userID.toString() : null;
+
+        // Same account under another id (matched by username): replace it
+        Object existing = name == null ? null : usernames.get(name);
+        if (id == null)
+            id = existing != null ? existing.toString() : UUID.randomUUID().toString();
+        Map<String, Object> userRecords = new LinkedHashMap<>();
+        if (existing != null && !existing.toString().equals(id))
+            userRecords.put(existing.toString(), null);
+        userRecords.put(id, entry);
+
+        // Renamed account: its old name no longer points here
+        Map<String, Object> nameRecords = new LinkedHashMap<>();
+        User before = decodeUser(users.getText(id));
+        if (before != null && before.getUsername() != null && !fold(before.getUsername()).equals(name))
+            nameRecords.put(fold(before.getUsername()), null);
+        if (name != null)
+            nameRecords.put(name, id);
+
+        if (users.putAll(userRecords))
+            usernames.putAll(nameRecords);
+    }
+
+    @Override
+    public void saveUsers(List<User> list) {
+        if (list == null)
+            return;
+        for (User u : list)
+            saveUser(u);
+    }
+
+    @Override
+    public Progress loadProgress(UUID userId) {
+        if (userId == null)
+            return null;
+        String json = progress.getText(userId.toString());
+        if (json == null)
+            return null;
+        try {
+            Progress p = PlayerDataCodec.decodeProgress(json);
+            if (p != null)
+                p.setUserUUID(userId);
+            return p;
+        } catch (IOException e) {
+            System.out.println("Bad progress record for " + userId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void saveProgress(Progress p) {
+        if (p != null && p.getUserUUID() != null)
+            progress.put(p.getUserUUID().toString(), new IndexedRecordFile.Json(PlayerDataCodec.encode(p)));
+    }
+
+    @Override
+    public boolean saveGame(User user, Progress p) {
+        boolean ok = true;
+        if (p != null && p.getUserUUID() != null)
+            ok &= progress.put(p.getUserUUID().toString(), new IndexedRecordFile.Json(PlayerDataCodec.encode(p)));
+        if (user != null)
+            saveUser(user);
+        return ok;
+    }
+
+    @Override
+    public void saveScore(Score score) {
+        if (score != null)
+            scores.put(fold(String.valueOf(score.getUsername())),
+                    new IndexedRecordFile.Json(PlayerDataCodec.encode(score)));
+    }
+
+    @Override
+    public ArrayList<Score> getScoreHistory(String username) {
+        ArrayList<Score> out = new ArrayList<>();
+        if (username == null)
+            return out;
+        for (String json : scores.getAllText(fold(username))) {
+            try {
+                Score s = PlayerDataCodec.decodeScore(json);
+                if (s != null)
+                    out.add(s);
+            } catch (IOException e) {
+                System.out.println("Bad score record for " + username + ": " + e.getMessage());
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public Path getLockPath() {
+        return dir;
+    }
+
+    @Override
+    public Leaderboard getLeaderboard() {
+        String json = leaderboard.getText(LEADERBOARD_KEY);
+        if (json == null)
+            return new Leaderboard();
+        try {
+            return PlayerDataCodec.decodeLeaderboard(json);
+        } catch (IOException e) {
+            System.out.println("Bad leaderboard record: " + e.getMessage());
+            return new Leaderboard();
+        }
+    }
+
+    @Override
+    public void saveLeaderboard(Leaderboard lb) {
+        if (lb != null)
+            leaderboard.put(LEADERBOARD_KEY, new IndexedRecordFile.Json(PlayerDataCodec.encode(lb)));
+    }
+
+    @Override
+    public boolean recordResult(Score score, Leaderboard lb) {
+        boolean ok = true;
+        if (score != null)
+            ok &= scores.put(fold(String.valueOf(score.getUsername())),
+                    new IndexedRecordFile.Json(PlayerDataCodec.encode(score)));
+        if (lb != null)
+            ok &= leaderboard.put(LEADERBOARD_KEY, new IndexedRecordFile.Json(PlayerDataCodec.encode(lb)));
+        return ok;
+    }
+
+    @Override
+    public void saveSavedData(SavedData data) {
+        if (data != null)
+            savedData.put(SAVED_DATA_KEY, GameDataWriter.savedDataToJson(data));
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private static String fold(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static User decodeUser(String json) {
+        if (json == null)
+            return null;
+        try {
+            return PlayerDataCodec.decodeUser(json);
+        } catch (IOException e) {
+            System.out.println("Bad user record: " + e.getMessage());
+            return null;
+        }
+    }
+}
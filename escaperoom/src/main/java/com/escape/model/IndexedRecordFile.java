@@ -0,0 +1,422 @@
+package com.escape.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * An append-only file of keyed JSON records with an in-memory hash index.
+ *
+ * Each record is one line:
+ * "key"<TAB>{compact json value}
+ * JsonStreamWriter escapes tabs, newlines and every non-ASCII char, so the
+ * first raw tab always ends the key, the file is pure ASCII and a char offset
+ * is a byte offset.
+ *
+ * Opening the file scans it once and remembers, per key, where its records
+ * start and how long they are; values are not parsed. A get() is then one
+ * positional read of one line and a parse of just that value, no matter how
+ * many records the file holds. A put() appends a line and fsyncs; a value of
+ * null is a tombstone that removes the key.
+ *
+ * In single mode the newest record of a key wins. In multi mode (score
+ * history) every record of a key is kept, in order.
+ *
+ * Replaced and removed records stay in the file until compact() rewrites the
+ * live ones into a new file (temp file + atomic rename). That happens on its
+ * own once more than half the file is dead.
+ *
+ * Values are normally json-simple objects, parsed on get() and serialized on
+ * put(). PlayerDataCodec can skip both: getText() returns a value's JSON
+ * text unparsed, and a value wrapped in Json is written as is.
+ *
+ * A line cut short by a crash (no trailing newline) is dropped by the next
+ * write.
+ *
+ * Processes sharing the directory coordinate through a CrossProcessLock
+ * (users.rec.lock, ...): appends and compaction hold it, and each commit
+ * bumps its version stamp. Every call first compares that stamp with the one
+ * this process last saw; if it moved, the records other processes appended
+ * are indexed (or, after another process compacted, the file is reopened),
+ * so every process answers from the same data.
+ *
+ * @author Rudra Patel
+ */
+final class IndexedRecordFile implements Closeable {
+
+    private static final long COMPACT_MIN_BYTES = 64 * 1024;
+
+    /** A value that is already compact, ASCII-only JSON text. */
+    static final class Json {
+        final String text;
+
+        Json(String text) {
+            this.text = text;
+        }
+    }
+
+    private final Path file;
+    private final boolean multi;
+    private final CrossProcessLock fileLock;
+    // key -> where its live records start and end, oldest first
+    private final Map<String, List<long[]>> index = new LinkedHashMap<>();
+    private FileChannel channel;
+    private Object fileKey;
+    private long liveBytes;
+    private long indexedEnd;   // end of the last complete line indexed
+    private long seenVersion = -1;
+
+    /**
+     * Open (or create) a record file and index it.
+     *
+     * @param file  the file
+     * @param multi true to keep every record of a key, false for newest-wins
+     * @throws IOException if the file cannot be opened or read
+     */
+    IndexedRecordFile(Path file, boolean multi) throws IOException {
+        this.file = file;
+        this.multi = multi;
+        this.fileLock = CrossProcessLock.forFile(file);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        seenVersion = fileLock.version();
+        open();
+    }
+
+    /**
+     * @param key the key
+     * @return newest value of the key, or null if it has none
+     */
+    synchronized Object get(String key) {
+        catchUp();
+        List<long[]> slots = index.get(key);
+        return slots == null ? null : read(slots.get(slots.size() - 1));
+    }
+
+    /**
+     * @param key the key
+     * @return every value of the key, oldest first
+     */
+    synchronized List<Object> getAll(String key) {
+        catchUp();
+        List<long[]> slots = index.get(key);
+        if (slots == null)
+            return new ArrayList<>();
+        List<Object> out = new ArrayList<>(slots.size());
+        for (long[] slot : slots) {
+            Object v = read(slot);
+            if (v != null)
+                out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * @param key the key
+     * @return newest value of the key as JSON text, or null if it has none
+     */
+    synchronized String getText(String key) {
+        catchUp();
+        List<long[]> slots = index.get(key);
+        return slots == null ? null : readText(slots.get(slots.size() - 1));
+    }
+
+    /**
+     * @param key the key
+     * @return every value of the key as JSON text, oldest first
+     */
+    synchronized List<String> getAllText(String key) {
+        catchUp();
+        List<long[]> slots = index.get(key);
+        if (slots == null)
+            return new ArrayList<>();
+        List<String> out = new ArrayList<>(slots.size());
+        for (long[] slot : slots) {
+            String v = readText(slot);
+            if (v != null)
+                out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * @return every live key, in first-written order
+     */
+    synchronized Set<String> keys() {
+        catchUp();
+        return Collections.unmodifiableSet(new LinkedHashSet<>(index.keySet()));
+    }
+
+    /**
+     * @return number of live keys
+     */
+    synchronized int size() {
+        catchUp();
+        return index.size();
+    }
+
+    /**
+     * Append one record (in multi mode, add another value to the key).
+     *
+     * @param key   the key
+     * @param value JSON value, or null to remove the key
+     * @return true once the record is on disk
+     */
+    boolean put(String key, Object value) {
+        Map<String, Object> one = new LinkedHashMap<>();
+        one.put(key, value);
+        return putAll(one);
+    }
+
+    /**
+     * Append several records with a single write and fsync.
+     *
+     * @param records key -> JSON value (null removes the key)
+     * @return true once the records are on disk
+     */
+    synchronized boolean putAll(Map<String, Object> records) {
+        if (records.isEmpty())
+            return true;
+        fileLock.lock();
+        try {
+            return putAllLocked(records);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private boolean putAllLocked(Map<String, Object> records) {
+        catchUp();
+        StringBuilder sb = new StringBuilder();
+        List<String> keys = new ArrayList<>(records.size());
+        List<long[]> spans = new ArrayList<>(records.size());
+        try {
+            if (channel.size() > indexedEnd) {
+                System.out.println("Dropping incomplete record at the end of " + file);
+                channel.truncate(indexedEnd);
+            }
+            long pos = indexedEnd;
+            for (Map.Entry<String, Object> r : records.entrySet()) {
+                int start = sb.length();
+                sb.append(JsonStreamWriter.toString(r.getKey(), false))
+                        .append('\t')
+                        .append(r.getValue() instanceof Json ? ((Json) r.getValue()).text
+                                : JsonStreamWriter.toString(r.getValue(), false))
+                        .append('\n');
+                keys.add(r.getKey());
+                spans.add(new long[] { pos + start, sb.length() - start });
+            }
+            ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.US_ASCII));
+            while (buf.hasRemaining())
+                channel.write(buf, pos + buf.position());
+            channel.force(false);
+            indexedEnd = pos + buf.limit();
+        } catch (IOException e) {
+            System.out.println("Error writing " + file + ": " + e.getMessage());
+            return false;
+        }
+        seenVersion = fileLock.bump();
+        int i = 0;
+        for (Object value : records.values())
+            index(keys.get(i), spans.get(i++), value == null);
+        compactIfWasteful();
+        return true;
+    }
+
+    /**
+     * Rewrite the file with only its live records.
+     *
+     * @return true if the file was rewritten
+     */
+    synchronized boolean compact() {
+        fileLock.lock();
+        try {
+            catchUp();
+            return compactLocked();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private boolean compactLocked() {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (List<long[]> slots : index.values()) {
+                    for (long[] slot : slots)
+                        channel.transferTo(slot[0], slot[1], out);
+                }
+                out.force(true);
+            }
+            channel.close();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            seenVersion = fileLock.bump();
+            open();
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error compacting " + file + ": " + e.getMessage());
+            try {
+                if (!channel.isOpen())
+                    open();
+            } catch (IOException ignore) {
+                // left closed; later calls report their own errors
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    /** Open the channel and rebuild the index from the file. */
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        fileKey = currentFileKey();
+        index.clear();
+        liveBytes = 0;
+        indexedEnd = 0;
+        scan();
+    }
+
+    /**
+     * Index complete lines from indexedEnd to the end of the file. A partial
+     * last line (a write in progress, or a crash) is left for later.
+     */
+    private void scan() throws IOException {
+        JSONParser parser = new JSONParser();
+        long pos = indexedEnd;
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(pos)), 1 << 16);
+        int b;
+        while ((b = in.read()) != -1) {
+            pos++;
+            if (b != '\n') {
+                line.write(b);
+                continue;
+            }
+            String text = line.toString(StandardCharsets.US_ASCII);
+            line.reset();
+            int tab = text.indexOf('\t');
+            if (tab > 0) {
+                try {
+                    String key = (String) parser.parse(text.substring(0, tab));
+                    index(key, new long[] { indexedEnd, pos - indexedEnd }, "null".equals(text.substring(tab + 1)));
+                } catch (ParseException | ClassCastException bad) {
+                    // skip a damaged record
+                }
+            }
+            indexedEnd = pos;
+        }
+    }
+
+    /**
+     * Pick up commits made by other processes since we last looked.
+     */
+    private void catchUp() {
+        long v = fileLock.version();
+        if (v == seenVersion)
+            return;
+        try {
+            Object key = currentFileKey();
+            if (key == null || !key.equals(fileKey)) {
+                // compacted elsewhere: the file we have open was replaced
+                channel.close();
+                open();
+            } else {
+                scan();
+            }
+            seenVersion = v;
+        } catch (IOException e) {
+            System.out.println("Error refreshing " + file + ": " + e.getMessage());
+        }
+    }
+
+    private Object currentFileKey() {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void index(String key, long[] slot, boolean tombstone) {
+        List<long[]> old = tombstone || !multi ? index.remove(key) : null;
+        if (old != null) {
+            for (long[] s : old)
+                liveBytes -= s[1];
+        }
+        if (tombstone)
+            return;
+        index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(slot);
+        liveBytes += slot[1];
+    }
+
+    private Object read(long[] slot) {
+        String text = readText(slot);
+        if (text == null)
+            return null;
+        try {
+            return new JSONParser().parse(text);
+        } catch (ParseException e) {
+            System.out.println("Error reading " + file + " at " + slot[0] + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String readText(long[] slot) {
+        ByteBuffer buf = ByteBuffer.allocate((int) slot[1]);
+        try {
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, slot[0] + buf.position()) < 0)
+                    break;
+            }
+            String line = new String(buf.array(), 0, buf.position(), StandardCharsets.US_ASCII);
+            return line.substring(line.indexOf('\t') + 1).trim();
+        } catch (IOException e) {
+            System.out.println("Error reading " + file + " at " + slot[0] + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void compactIfWasteful() {
+        try {
+            long size = channel.size();
+            if (size > COMPACT_MIN_BYTES && liveBytes * 2 < size)
+                compact();
+        } catch (IOException ignore) {
+            // try again on the next write
+        }
+    }
+
+    /** Only used by tests. */
+    synchronized long fileSize() throws IOException {
+        return channel.size();
+    }
+
+}
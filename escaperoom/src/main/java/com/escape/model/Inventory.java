@@ -23,6 +23,9 @@ public class Inventory {
      */
     private int capacity;
 
+    // Change counter, bumped by every mutation (see User.isDirty)
+    private volatile long version = 1;
+
     /**
      * Constructs an inventory with a specified capacity.
      * 
@@ -42,6 +45,7 @@ public class Inventory {
     public boolean addItem(String item) {
         if (items.size() < capacity) {
             items.add(item);
+            version++;
             return true;
         }
         return false;
@@ -54,7 +58,10 @@ public class Inventory {
      * @return true if removed, false if item not found
      */
     public boolean removeItem(String item) {
-        return items.remove(item);
+        if (!items.remove(item))
+            return false;
+        version++;
+        return true;
     }
 
     /**
@@ -99,8 +106,17 @@ public class Inventory {
      */
     public void clearItems() {
         if (items != null) {
+            if (!items.isEmpty())
+                version++;
             items.clear();
             System.out.println("[Inventory] All items cleared");
         }
     }
+
+    /**
+     * @return change counter; it grows with every change to the items
+     */
+    public long getVersion() {
+        return version;
+    }
 }
\ No newline at end of file
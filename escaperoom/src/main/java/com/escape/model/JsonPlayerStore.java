@@ -0,0 +1,170 @@
+package com.escape.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * PlayerStore backed by playerData.json, through GameDataLoader and
+ * GameDataWriter.
+ *
+ * In journal mode (GameDataWriter.setJournalEnabled, a process-wide switch)
+ * every save is appended to playerData.json.journal and the snapshot is only
+ * rewritten on compaction; otherwise each save rewrites the file. The sharded
+ * layout and retention policy switches of GameDataWriter apply to both.
+ *
+ * Lookups by username scan the "users" array, which is fine for a few
+ * hundred accounts; IndexedPlayerStore is the backend for more.
+ *
+ * @author Rudra Patel
+ */
+public class JsonPlayerStore implements PlayerStore {
+
+    private final GameDataLoader loader;
+    private final GameDataWriter writer;
+
+    /**
+     * Store on the default data directory.
+     */
+    public JsonPlayerStore() {
+        loader = new GameDataLoader();
+        writer = new GameDataWriter();
+    }
+
+    /**
+     * Store on its own data directory, on any java.nio FileSystem.
+     *
+     * @param root directory holding playerData.json
+     */
+    public JsonPlayerStore(Path root) {
+        loader = new GameDataLoader(root);
+        writer = new GameDataWriter(root);
+    }
+
+    @Override
+    public ArrayList<User> getUsers() {
+        return loader.getUsers();
+    }
+
+    @Override
+    public User findUser(String username) {
+        if (username == null)
+            return null;
+        for (User u : loader.getUsers()) {
+            if (u.getUsername() != null && u.getUsername().equalsIgnoreCase(username))
+                return u;
+        }
+        return null;
+    }
+
+    @Override
+    public SessionBootstrap hydrate(String username) {
+        return loader.hydrate(username);
+    }
+
+    @Override
+    public void saveUser(User user) {
+        if (user != null)
+            writer.saveUser(user);
+    }
+
+    @Override
+    public void saveUsers(List<User> users) {
+        if (users != null && !users.isEmpty())
+            writer.saveUsers(new ArrayList<>(users));
+    }
+
+    @Override
+    public Progress loadProgress(UUID userId) {
+        return loader.loadProgressForUser(userId);
+    }
+
+    @Override
+    public void saveProgress(Progress p) {
+        writer.saveProgress(p);
+    }
+
+    @Override
+    public boolean saveGame(User user, Progress p) {
+        // One batch, so a save is a single write of playerData.json
+        GameDataWriter.Batch batch = writer.begin();
+        if (p != null)
+            batch.stageProgress(p);
+        if (user != null)
+            batch.stageUser(user);
+        return batch.commit();
+    }
+
+    @Override
+    public void saveScore(Score score) {
+        if (score != null)
+            writer.saveScore(score);
+    }
+
+    @Override
+    public ArrayList<Score> getScoreHistory(String username) {
+        return loader.getScoreHistory(username);
+    }
+
+    @Override
+    public Leaderboard getLeaderboard() {
+        Leaderboard lb = loader.getLeaderboard();
+        return lb == null ? new Leaderboard() : lb;
+    }
+
+    @Override
+    public Path getLockPath() {
+        return writer.getPlayerPath();
+    }
+
+    @Override
+    public long getScoresVersion() {
+        return GameDataWriter.scoresStamp(writer.getPlayerPath()).version();
+    }
+
+    @Override
+    public void scanScores(Consumer<Score> visitor) {
+        loader.scanScores(visitor);
+    }
+
+    @Override
+    public Leaderboard getTopScores(Difficulty difficulty) {
+        // the small view file; playerData.json is only parsed to rebuild it
+        LeaderboardView view = LeaderboardView.forPath(writer.getPlayerPath());
+        Leaderboard top = view.read(difficulty);
+        if (top != null)
+            return top;
+        view.write(getLeaderboard());
+        top = view.read(difficulty);
+        return top == null ? PlayerStore.super.getTopScores(difficulty) : top;
+    }
+
+    @Override
+    public void saveLeaderboard(Leaderboard leaderboard) {
+        if (leaderboard != null)
+            writer.saveLeaderboard(leaderboard);
+    }
+
+    @Override
+    public boolean recordResult(Score score, Leaderboard leaderboard) {
+        GameDataWriter.Batch batch = writer.begin();
+        if (score != null)
+            batch.stageScore(score);
+        if (leaderboard != null)
+            batch.stageLeaderboard(leaderboard);
+        boolean ok = batch.commit();
+        // Keep the hot file small: archive history past the retention policy
+        writer.compactHistory();
+        return ok;
+    }
+
+    @Override
+    public void saveSavedData(SavedData data) {
+        if (data == null)
+            return;
+        writer.saveSavedData(data);
+        writer.compactHistory();
+    }
+}
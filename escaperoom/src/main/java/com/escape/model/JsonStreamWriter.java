@@ -0,0 +1,216 @@
+package com.escape.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams json-simple values (JSONObject / JSONArray / String / Number /
+ * Boolean / null) straight into a Writer.
+ *
+ * Nothing is built up per level: every token goes to the (buffered) Writer as
+ * soon as it is produced, so saving a large "scores" or "users" array costs
+ * one pass over the document and no intermediate Strings.
+ *
+ * Two modes:
+ * pretty - two-space indentation, one entry per line (the diff-friendly format
+ * playerData.json has always used)
+ * compact - no whitespace at all; used for journal lines and whenever
+ * GameDataWriter is switched to compact output
+ *
+ * Escaping is table driven: each ASCII char maps to either null (copy as is)
+ * or its escape sequence, and runs of plain chars are copied with a single
+ * write() call. Control chars and anything above 0x7F become \\uXXXX.
+ *
+ * @author Rudra Patel
+ */
+public final class JsonStreamWriter {
+
+    // Escape sequence per ASCII char, or null if the char is written unchanged
+    private static final String[] ESCAPES = new String[128];
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    static {
+        for (int c = 0; c < 0x20; c++)
+            ESCAPES[c] = unicodeEscape((char) c);
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\f'] = "\\f";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['\t'] = "\\t";
+    }
+
+    private final Writer out;
+    private final boolean pretty;
+
+    private JsonStreamWriter(Writer out, boolean pretty) {
+        this.out = out;
+        this.pretty = pretty;
+    }
+
+    /**
+     * Serialize a value into the given writer. The writer is not flushed or
+     * closed; wrap it in a BufferedWriter if it is unbuffered.
+     *
+     * @param json   value to write
+     * @param out    destination
+     * @param pretty true for indented output, false for compact
+     * @throws IOException if the writer fails
+     */
+    public static void write(Object json, Writer out, boolean pretty) throws IOException {
+        new JsonStreamWriter(out, pretty).value(json, 0);
+        if (pretty)
+            out.write(System.lineSeparator());
+    }
+
+    /**
+     * Serialize a value to a String (small payloads such as journal lines).
+     *
+     * @param json   value to write
+     * @param pretty true for indented output, false for compact
+     * @return the JSON text
+     */
+    public static String toString(Object json, boolean pretty) {
+        StringWriter sw = new StringWriter();
+        try {
+            write(json, sw, pretty);
+        } catch (IOException e) {
+            // StringWriter does not throw
+        }
+        return sw.toString();
+    }
+
+    /**
+     * Serialize a value into a file, optionally fsync'ing it before returning.
+     *
+     * @param json   value to write
+     * @param file   destination (truncated)
+     * @param pretty true for indented output, false for compact
+     * @param sync   true to force the bytes to disk
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeFile(Object json, Path file, boolean pretty, boolean sync) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                Writer w = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(ch),
+                        StandardCharsets.UTF_8), 1 << 16)) {
+            write(json, w, pretty);
+            w.flush();
+            if (sync)
+                ch.force(true);
+        }
+    }
+
+    /**
+     * Write s with JSON escaping applied (no surrounding quotes).
+     *
+     * @param s   the string to escape
+     * @param out destination
+     * @throws IOException if the writer fails
+     */
+    static void escape(String s, Writer out) throws IOException {
+        int len = s.length();
+        int run = 0; // start of the current run of plain chars
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            String esc;
+            if (c < 128) {
+                esc = ESCAPES[c];
+                if (esc == null)
+                    continue; // ASCII fast path
+            } else {
+                esc = unicodeEscape(c);
+            }
+            if (i > run)
+                out.write(s, run, i - run);
+            out.write(esc);
+            run = i + 1;
+        }
+        if (run < len)
+            out.write(s, run, len - run);
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private void value(Object json, int indent) throws IOException {
+        if (json == null) {
+            out.write("null");
+        } else if (json instanceof Map) {
+            object((Map<?, ?>) json, indent);
+        } else if (json instanceof List) {
+            array((List<?>) json, indent);
+        } else if (json instanceof String) {
+            string((String) json);
+        } else {
+            out.write(json.toString());
+        }
+    }
+
+    private void object(Map<?, ?> obj, int indent) throws IOException {
+        out.write('{');
+        newline();
+        Iterator<? extends Map.Entry<?, ?>> it = obj.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<?, ?> e = it.next();
+            pad(indent + 1);
+            string(e.getKey() == null ? "null" : e.getKey().toString());
+            out.write(pretty ? ": " : ":");
+            value(e.getValue(), indent + 1);
+            if (it.hasNext())
+                out.write(',');
+            newline();
+        }
+        pad(indent);
+        out.write('}');
+    }
+
+    private void array(List<?> arr, int indent) throws IOException {
+        out.write('[');
+        newline();
+        int n = arr.size();
+        for (int i = 0; i < n; i++) {
+            pad(indent + 1);
+            value(arr.get(i), indent + 1);
+            if (i < n - 1)
+                out.write(',');
+            newline();
+        }
+        pad(indent);
+        out.write(']');
+    }
+
+    private void string(String s) throws IOException {
+        out.write('"');
+        escape(s, out);
+        out.write('"');
+    }
+
+    private void newline() throws IOException {
+        if (pretty)
+            out.write('\n');
+    }
+
+    private void pad(int indent) throws IOException {
+        if (!pretty)
+            return;
+        for (int i = 0; i < indent; i++)
+            out.write("  ");
+    }
+
+    private static String unicodeEscape(char c) {
+        return new String(new char[] { '\\', 'u',
+                HEX[(c >> 12) & 0xF], HEX[(c >> 8) & 0xF], HEX[(c >> 4) & 0xF], HEX[c & 0xF] });
+    }
+}
@@ -0,0 +1,478 @@
+package com.escape.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A small pull tokenizer for JSON text, used by PlayerDataCodec.
+ *
+ * The caller walks the document with beginObject()/nextName()/endObject(),
+ * beginArray()/hasNext()/endArray() and reads values with nextString(),
+ * nextLong() or skipValue(). Nothing is built for the parts that are
+ * skipped, numbers are parsed straight from the char buffer (no boxing), and
+ * object keys come from a small cache, so the same key seen again in the
+ * next record is not allocated again.
+ *
+ * It reads from a Reader through its own buffer, so a whole file can be
+ * streamed, or from a String. Malformed input throws an IOException that
+ * names the offset.
+ *
+ * Like json-simple, nextString() accepts any scalar (a number comes back as
+ * its text) and nextLong() accepts numeric strings, so documents written by
+ * either side read the same.
+ *
+ * @author Rudra Patel
+ */
+final class JsonTokenizer implements Closeable {
+
+    /** What the next call will find. */
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // what the enclosing container expects next
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private static final int NAME_CACHE = 64;
+
+    private final Reader in;
+    private char[] buf;
+    private int pos;
+    private int limit;
+    private long consumed; // chars dropped from buf before pos 0, for error offsets
+
+    private int[] stack = new int[16];
+    private int depth = 1;
+    private Token peeked;
+
+    private char[] scratch = new char[64];
+    private int scratchLen;
+    private final String[] names = new String[NAME_CACHE];
+
+    /**
+     * @param in source; read through an internal buffer
+     */
+    JsonTokenizer(Reader in) {
+        this.in = in;
+        this.buf = new char[8192];
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @param json the whole document
+     */
+    JsonTokenizer(String json) {
+        this.in = null;
+        this.buf = json.toCharArray();
+        this.limit = buf.length;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @return the kind of the next token, without consuming it
+     * @throws IOException on malformed input
+     */
+    Token peek() throws IOException {
+        if (peeked != null)
+            return peeked;
+        int ctx = stack[depth - 1];
+        int c;
+        switch (ctx) {
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']')
+                    return peeked = Token.END_ARRAY;
+                if (ctx == NONEMPTY_ARRAY) {
+                    if (c != ',')
+                        throw syntax("expected ',' or ']'");
+                } else {
+                    pos--;
+                }
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}')
+                    return peeked = Token.END_OBJECT;
+                if (ctx == NONEMPTY_OBJECT) {
+                    if (c != ',')
+                        throw syntax("expected ',' or '}'");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"')
+                    throw syntax("expected a name");
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':')
+                    throw syntax("expected ':'");
+                break;
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default: // NONEMPTY_DOCUMENT
+                if (nextNonWhitespace() != -1)
+                    throw syntax("trailing data");
+                return peeked = Token.END_DOCUMENT;
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return peeked = Token.NULL;
+            case -1:
+                throw syntax("unexpected end of input");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return peeked = Token.NUMBER;
+                }
+                throw syntax("unexpected character '" + (char) c + "'");
+        }
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * @return true if the current object or array has another element
+     * @throws IOException on malformed input
+     */
+    boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+    }
+
+    /**
+     * @return the next object key; repeated keys return the same String
+     * @throws IOException on malformed input
+     */
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        readString();
+        int h = 0;
+        for (int i = 0; i < scratchLen; i++)
+            h = 31 * h + scratch[i];
+        int slot = h & (NAME_CACHE - 1);
+        String cached = names[slot];
+        if (cached != null && cached.length() == scratchLen && matches(cached))
+            return cached;
+        return names[slot] = new String(scratch, 0, scratchLen);
+    }
+
+    /**
+     * Read a scalar as text: strings as is, numbers and booleans as written.
+     *
+     * @return the text, or null for a JSON null or a container (skipped)
+     * @throws IOException on malformed input
+     */
+    String nextString() throws IOException {
+        switch (peek()) {
+            case STRING:
+                peeked = null;
+                readString();
+                return new String(scratch, 0, scratchLen);
+            case NUMBER:
+            case BOOLEAN:
+                peeked = null;
+                readLiteral();
+                return new String(scratch, 0, scratchLen);
+            case NULL:
+                peeked = null;
+                readLiteral();
+                return null;
+            default:
+                skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Read a number as a long. Fractions are truncated; numeric strings are
+     * parsed; anything else reads as 0, as GameDataLoader's toLong does.
+     *
+     * @return the value
+     * @throws IOException on malformed input
+     */
+    long nextLong() throws IOException {
+        Token t = peek();
+        if (t == Token.NUMBER || t == Token.STRING) {
+            peeked = null;
+            if (t == Token.STRING)
+                readString();
+            else
+                readLiteral();
+            return parseLong(t == Token.NUMBER);
+        }
+        skipValue();
+        return 0L;
+    }
+
+    /**
+     * Skip the next value, including everything nested in it.
+     *
+     * @throws IOException on malformed input
+     */
+    void skipValue() throws IOException {
+        int nested = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nested++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nested++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nested--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nested--;
+                    break;
+                case NAME:
+                    peeked = null;
+                    readString();
+                    break;
+                case STRING:
+                    peeked = null;
+                    readString();
+                    break;
+                case END_DOCUMENT:
+                    return;
+                default:
+                    peeked = null;
+                    readLiteral();
+            }
+        } while (nested > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null)
+            in.close();
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private void expect(Token t) throws IOException {
+        if (peek() != t)
+            throw syntax("expected " + t + " but was " + peeked);
+        peeked = null;
+    }
+
+    private void push(int ctx) {
+        if (depth == stack.length)
+            stack = java.util.Arrays.copyOf(stack, depth * 2);
+        stack[depth++] = ctx;
+    }
+
+    private boolean matches(String s) {
+        for (int i = 0; i < scratchLen; i++) {
+            if (s.charAt(i) != scratch[i])
+                return false;
+        }
+        return true;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill())
+                return -1;
+            char c = buf[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                return c;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (in == null)
+            return false;
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0)
+            return false;
+        limit = n;
+        return true;
+    }
+
+    /** Read the rest of a string (opening quote already consumed) into scratch. */
+    private void readString() throws IOException {
+        scratchLen = 0;
+        while (true) {
+            if (pos == limit && !fill())
+                throw syntax("unterminated string");
+            // copy a run of plain chars in one go
+            int start = pos;
+            while (pos < limit) {
+                char c = buf[pos];
+                if (c == '"' || c == '\\')
+                    break;
+                pos++;
+            }
+            append(buf, start, pos - start);
+            if (pos == limit)
+                continue;
+            char c = buf[pos++];
+            if (c == '"')
+                return;
+            appendChar(readEscape());
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = nextChar();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int v = 0;
+                for (int i = 0; i < 4; i++) {
+                    int h = Character.digit(nextChar(), 16);
+                    if (h < 0)
+                        throw syntax("bad \\u escape");
+                    v = (v << 4) | h;
+                }
+                return (char) v;
+            default:
+                throw syntax("bad escape");
+        }
+    }
+
+    /** Read a number or true/false/null into scratch. */
+    private void readLiteral() throws IOException {
+        scratchLen = 0;
+        while (true) {
+            if (pos == limit && !fill())
+                break;
+            char c = buf[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t')
+                break;
+            appendChar(c);
+            pos++;
+        }
+        if (scratchLen == 0)
+            throw syntax("expected a value");
+        if (scratch[0] == 't' && !scratchIs("true") || scratch[0] == 'f' && !scratchIs("false")
+                || scratch[0] == 'n' && !scratchIs("null"))
+            throw syntax("unexpected literal");
+    }
+
+    private long parseLong(boolean number) {
+        // fast path: optional sign and up to 18 digits
+        int i = 0;
+        boolean neg = scratchLen > 0 && scratch[0] == '-';
+        if (neg)
+            i++;
+        long v = 0;
+        boolean digits = i < scratchLen && scratchLen - i <= 18;
+        for (int j = i; digits && j < scratchLen; j++) {
+            char c = scratch[j];
+            if (c < '0' || c > '9')
+                digits = false;
+            else
+                v = v * 10 + (c - '0');
+        }
+        if (digits)
+            return neg ? -v : v;
+        String text = new String(scratch, 0, scratchLen);
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // json-simple reads fractions as Double; a numeric string is not converted
+            if (number) {
+                try {
+                    return (long) Double.parseDouble(text);
+                } catch (NumberFormatException ignore) {
+                    // fall through
+                }
+            }
+            return 0L;
+        }
+    }
+
+    private int nextChar() throws IOException {
+        if (pos == limit && !fill())
+            throw syntax("unexpected end of input");
+        return buf[pos++];
+    }
+
+    private boolean scratchIs(String s) {
+        return scratchLen == s.length() && matches(s);
+    }
+
+    private void append(char[] src, int from, int len) {
+        ensure(len);
+        System.arraycopy(src, from, scratch, scratchLen, len);
+        scratchLen += len;
+    }
+
+    private void appendChar(char c) {
+        ensure(1);
+        scratch[scratchLen++] = c;
+    }
+
+    private void ensure(int more) {
+        if (scratchLen + more > scratch.length)
+            scratch = java.util.Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLen + more));
+    }
+
+    private IOException syntax(String message) {
+        return new IOException(message + " at offset " + (consumed + pos));
+    }
+}
@@ -10,19 +10,48 @@ package com.escape.model;
  * @author Rudra Patel
  * @version 1.3
  */
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class Leaderboard {
 
+    /**
+     * One entry in the order-statistic tree: a treap ordered by score
+     * (best first), then by insertion order, with subtree sizes so ranks
+     * and top-N walks take O(log n + k).
+     */
+    private static final class Node {
+        final Score score;
+        // score value when inserted; the Score itself may change later
+        final long key;
+        final long seq;
+        final int priority;
+        Node left, right;
+        int size = 1;
+
+        Node(Score score, long seq) {
+            this.score = score;
+            this.key = score == null ? Long.MIN_VALUE : score.getScore();
+            this.seq = seq;
+            this.priority = Long.hashCode(seq * 0x9E3779B97F4A7C15L);
+        }
+    }
+
     // Primary storage: Score objects (best → worst)
-    private final ArrayList<Score> entries = new ArrayList<>();
+    private Node root;
+    // username → its best-ranked entry, for replace/remove/rank without a scan
+    private final Map<String, Node> byUsername = new HashMap<>();
+    // entries that have a username; more than byUsername.size() if the
+    // bulk setters were given a username twice
+    private int named;
+    // tiebreak: equal scores keep the order they were added in
+    private long nextSeq;
 
     public Leaderboard() { }
 
@@ -35,49 +64,51 @@ public class Leaderboard {
 
     /**
      * Compatibility: accept a List of Score objects and replace internal entries.
-     * GameDataLoader uses reflection and may call setLB with a List&lt;Score&gt;.
+     * Older callers pass an untyped List here; GameDataLoader uses setEntries.
      */
     public void setLB(List<?> scores) {
-        entries.clear();
+        clear();
         if (scores == null) return;
         for (Object o : scores) {
-            if (o instanceof Score) entries.add((Score) o);
+            if (o instanceof Score) insert((Score) o);
             else {
                 // If loader passed a List of Maps or raw JSON objects, try best-effort mapping:
                 // ignore other types for now.
             }
         }
-        sortByScoreDescending();
     }
 
     /**
-     * New bulk setter using a typed list.
+     * New bulk setter using a typed list. Like setLB, every entry is kept,
+     * even several for one username; addOrReplace and removeByUsername then
+     * act on that player's best-ranked entry.
      */
     public void setEntries(List<Score> scores) {
-        entries.clear();
-        if (scores != null) entries.addAll(scores);
-        sortByScoreDescending();
+        clear();
+        if (scores != null) {
+            for (Score s : scores) insert(s);
+        }
     }
 
     /**
      * Add a Score to the leaderboard, or replace an existing entry for the same username.
-     * Keeps the list sorted (best → worst).
+     * Keeps the list sorted (best → worst). O(log n).
      */
     public void addOrReplace(Score s) {
         if (s == null) return;
         String uname = safeGetUsername(s);
-        boolean replaced = false;
-        for (int i = 0; i < entries.size(); i++) {
-            Score existing = entries.get(i);
-            String eName = safeGetUsername(existing);
-            if (eName != null && uname != null && eName.equals(uname)) {
-                entries.set(i, s);
-                replaced = true;
-                break;
-            }
+        Node existing = uname == null ? null : byUsername.get(uname);
+        if (existing == null) {
+            insert(s);
+            return;
         }
-        if (!replaced) entries.add(s);
-        sortByScoreDescending();
+        // the replacement keeps the old entry's place among equal scores
+        root = remove(root, existing);
+        Node n = new Node(s, existing.seq);
+        root = insert(root, n);
+        byUsername.put(uname, n);
+        // a duplicate may now rank above the replacement
+        if (named > byUsername.size()) remap(uname);
     }
 
     /**
@@ -92,16 +123,10 @@ public class Leaderboard {
      */
     public boolean removeByUsername(String username) {
         if (username == null) return false;
-        Iterator<Score> it = entries.iterator();
-        while (it.hasNext()) {
-            Score s = it.next();
-            String uname = safeGetUsername(s);
-            if (username.equals(uname)) {
-                it.remove();
-                return true;
-            }
-        }
-        return false;
+        Node n = byUsername.get(username);
+        if (n == null) return false;
+        unlink(n);
+        return true;
     }
 
     /**
@@ -111,12 +136,11 @@ public class Leaderboard {
     public boolean removeByUserID(UUID userID) {
         if (userID == null) return false;
         String idStr = userID.toString();
-        Iterator<Score> it = entries.iterator();
-        while (it.hasNext()) {
-            Score s = it.next();
-            String found = tryExtractIdString(s);
+        // ids are not indexed; this is a scan, as before
+        for (Node n : nodes(size())) {
+            String found = tryExtractIdString(n.score);
             if (found != null && found.equals(idStr)) {
-                it.remove();
+                unlink(n);
                 return true;
             }
         }
@@ -124,21 +148,91 @@ public class Leaderboard {
     }
 
     /**
-     * Return top N Score entries (best → worst).
+     * Return top N Score entries (best → worst); walks only those N entries.
      */
     public ArrayList<Score> topN(int n) {
-        if (n <= 0) return new ArrayList<>();
-        int max = Math.min(n, entries.size());
         ArrayList<Score> out = new ArrayList<>();
-        for (int i = 0; i < max; i++) out.add(entries.get(i));
+        for (Node node : nodes(n)) out.add(node.score);
+        return out;
+    }
+
+    /**
+     * The entries worth keeping when the leaderboard is saved: the best n
+     * overall plus the best n of each difficulty, so every difficulty's board
+     * survives even when another difficulty fills the overall top n.
+     *
+     * @param n entries kept per list
+     * @return those entries, best → worst, each once
+     */
+    public ArrayList<Score> topNPerDifficulty(int n) {
+        ArrayList<Score> out = new ArrayList<>();
+        if (n <= 0) return out;
+        int[] kept = new int[Difficulty.values().length];
+        int seen = 0, full = 0;
+        ArrayList<Node> stack = new ArrayList<>();
+        Node cur = root;
+        // stops once the overall list and every difficulty have n entries
+        while (full < kept.length + 1 && (cur != null || !stack.isEmpty())) {
+            while (cur != null) {
+                stack.add(cur);
+                cur = cur.left;
+            }
+            Node next = stack.remove(stack.size() - 1);
+            cur = next.right;
+            Difficulty d = next.score == null ? null : next.score.getDifficulty();
+            boolean overall = seen++ < n;
+            boolean own = d != null && kept[d.ordinal()] < n;
+            if (overall && seen == n) full++;
+            if (own && ++kept[d.ordinal()] == n) full++;
+            if (overall || own) out.add(next.score);
+        }
         return out;
     }
 
+    /**
+     * The entry of a player. O(1).
+     *
+     * @param username the player
+     * @return their entry, or null if they have none
+     */
+    public Score getEntry(String username) {
+        Node n = username == null ? null : byUsername.get(username);
+        return n == null ? null : n.score;
+    }
+
+    /**
+     * Rank of a player's entry, 1 being the best. O(log n).
+     *
+     * @param username the player
+     * @return their rank, or -1 if they have no entry
+     */
+    public int rankOf(String username) {
+        Node target = username == null ? null : byUsername.get(username);
+        if (target == null) return -1;
+        int rank = 1;
+        Node n = root;
+        while (n != null) {
+            int c = compare(target, n);
+            if (c < 0) {
+                n = n.left;
+            } else {
+                rank += size(n.left);
+                if (c == 0) return rank;
+                rank++;
+                n = n.right;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Removes all leaderboard entries.
      */
     public void clear() {
-        entries.clear();
+        root = null;
+        byUsername.clear();
+        named = 0;
+        nextSeq = 0;
     }
 
     /**
@@ -146,7 +240,7 @@ public class Leaderboard {
      * @return the number of leaderboard entries
      */
     public int size() {
-        return entries.size();
+        return size(root);
     }
 
     /**
@@ -155,62 +249,185 @@ public class Leaderboard {
      */
     @Override
     public String toString() {
-        return "Leaderboard{entries=" + entries.size() + "}";
+        return "Leaderboard{entries=" + size() + "}";
     }
 
     /* ----------------- Helpers ----------------- */
 
     /**
-     * Sorts the leaderboard entries by their score in descending order.
-     * This ensures that the highest-scoring entries are always at the front of the list.
+     * Adds a new entry behind any equal scores. Entries without a username
+     * are kept but never replaced.
      */
-    private void sortByScoreDescending() {
-        Collections.sort(entries, (Score a, Score b) -> {
-            long av = (a == null ? Long.MIN_VALUE : a.getScore());
-            long bv = (b == null ? Long.MIN_VALUE : b.getScore());
-            // larger first
-            return Long.compare(bv, av);
-        });
+    private void insert(Score s) {
+        Node n = new Node(s, nextSeq++);
+        root = insert(root, n);
+        String uname = safeGetUsername(s);
+        if (uname != null) {
+            named++;
+            // bulk setters may list a username twice; both stay, the map
+            // points at the better-ranked one
+            Node old = byUsername.get(uname);
+            if (old == null || compare(n, old) < 0) byUsername.put(uname, n);
+        }
+    }
+
+    private void unlink(Node n) {
+        root = remove(root, n);
+        String uname = safeGetUsername(n.score);
+        if (uname == null) return;
+        named--;
+        if (byUsername.get(uname) != n) return;
+        byUsername.remove(uname);
+        if (named > byUsername.size()) remap(uname);
+    }
+
+    /**
+     * Points a username at its best-ranked entry again. A scan, but only
+     * needed while some username has more than one entry.
+     */
+    private void remap(String uname) {
+        for (Node n : nodes(size())) {
+            if (uname.equals(safeGetUsername(n.score))) {
+                byUsername.put(uname, n);
+                return;
+            }
+        }
+        byUsername.remove(uname);
+    }
+
+    /**
+     * Orders entries by score, larger first, then by insertion order.
+     */
+    private static int compare(Node a, Node b) {
+        int c = Long.compare(b.key, a.key);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static Node update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    private static Node insert(Node t, Node n) {
+        if (t == null) return n;
+        if (compare(n, t) < 0) {
+            t.left = insert(t.left, n);
+            if (t.left.priority > t.priority) t = rotateRight(t);
+        } else {
+            t.right = insert(t.right, n);
+            if (t.right.priority > t.priority) t = rotateLeft(t);
+        }
+        return update(t);
+    }
+
+    private static Node remove(Node t, Node n) {
+        if (t == null) return null;
+        int c = compare(n, t);
+        if (c < 0) {
+            t.left = remove(t.left, n);
+        } else if (c > 0) {
+            t.right = remove(t.right, n);
+        } else {
+            if (t.left == null) return t.right;
+            if (t.right == null) return t.left;
+            if (t.left.priority > t.right.priority) {
+                t = rotateRight(t);
+                t.right = remove(t.right, n);
+            } else {
+                t = rotateLeft(t);
+                t.left = remove(t.left, n);
+            }
+        }
+        return update(t);
+    }
+
+    private static Node rotateRight(Node t) {
+        Node l = t.left;
+        t.left = l.right;
+        l.right = update(t);
+        return update(l);
+    }
+
+    private static Node rotateLeft(Node t) {
+        Node r = t.right;
+        t.right = r.left;
+        r.left = update(t);
+        return update(r);
+    }
+
+    /**
+     * The first n entries, best → worst, by an in-order walk that stops early.
+     */
+    private List<Node> nodes(int n) {
+        List<Node> out = new ArrayList<>(Math.max(0, Math.min(n, size())));
+        ArrayList<Node> stack = new ArrayList<>();
+        Node cur = root;
+        while (out.size() < n && (cur != null || !stack.isEmpty())) {
+            while (cur != null) {
+                stack.add(cur);
+                cur = cur.left;
+            }
+            Node next = stack.remove(stack.size() - 1);
+            out.add(next);
+            cur = next.right;
+        }
+        return out;
     }
 
     /**
      * Returns the username associated with the given Score object, or null if
-     * unable to access the username (e.g. if the object is null, or if
-     * the object does not have a getUsername() method).
+     * the score is null.
      */
     private static String safeGetUsername(Score s) {
-        if (s == null) return null;
-        try {
-            Method m = s.getClass().getMethod("getUsername");
-            Object v = m.invoke(s);
-            return v == null ? null : v.toString();
-        } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException t) {
-            return null;
-        }
+        return s == null ? null : s.getUsername();
     }
 
+    // Getter/field names that may hold a user id, in lookup order
+    private static final String[] ID_METHODS = {"getUserID", "getUserId", "getUser"};
+    private static final String[] ID_FIELDS = {"userID", "userId", "id"};
+
+    /**
+     * The id accessors that exist on each Score class, resolved once per class
+     * into MethodHandles so lookups never repeat.
+     */
+    private static final ClassValue<List<MethodHandle>> ID_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected List<MethodHandle> computeValue(Class<?> type) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            List<MethodHandle> found = new ArrayList<>();
+            for (String mn : ID_METHODS) {
+                try {
+                    found.add(lookup.unreflect(type.getMethod(mn)));
+                } catch (NoSuchMethodException | IllegalAccessException ignored) {}
+            }
+            for (String fn : ID_FIELDS) {
+                try {
+                    Field f = type.getDeclaredField(fn);
+                    f.setAccessible(true);
+                    found.add(lookup.unreflectGetter(f));
+                } catch (NoSuchFieldException | IllegalAccessException | RuntimeException ignored) {}
+            }
+            return found;
+        }
+    };
+
     /**
      * Try to extract an ID from Score (UUID or string) and return it as a string.
      * Returns null if not found.
      */
     private static String tryExtractIdString(Score s) {
         if (s == null) return null;
-        String[] methodNames = {"getUserID", "getUserId", "getUser"};
-        for (String mn : methodNames) {
+        for (MethodHandle accessor : ID_ACCESSORS.get(s.getClass())) {
             try {
-                Method m = s.getClass().getMethod(mn);
-                Object v = m.invoke(s);
+                Object v = accessor.invoke(s);
                 if (v != null) return v.toString();
-            } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException ignored) {}
-        }
-        String[] fieldNames = {"userID", "userId", "id"};
-        for (String fn : fieldNames) {
-            try {
-                Field f = s.getClass().getDeclaredField(fn);
-                f.setAccessible(true);
-                Object v = f.get(s);
-                if (v != null) return v.toString();
-            } catch (IllegalAccessException | IllegalArgumentException | NoSuchFieldException ignored) {}
+            } catch (Throwable ignored) {
+                // e.g. Score.getUserId() is not implemented; try the next one
+            }
         }
         return null;
     }
@@ -244,6 +461,6 @@ public class Leaderboard {
     }
 
     public ArrayList<Score> getAllScores() {
-        return new ArrayList<>(entries);   // return a copy
+        return topN(size());   // return a copy
     }
 }
@@ -0,0 +1,226 @@
+package com.escape.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Leaderboards partitioned by difficulty (plus overall) and by rolling time
+ * window (last 24 hours, last 7 days, all time), kept in memory and updated
+ * one result at a time.
+ *
+ * Each partition is its own Leaderboard, so EASY and HARD runs are ranked
+ * separately and the daily board does not have to be filtered out of the
+ * global one. A partition holds each player's latest result that falls in
+ * it, the same rule endGame() uses when it merges a result into the saved
+ * leaderboard: a worse run replaces a better earlier one.
+ *
+ * The partitions are seeded from the store's score history the first time
+ * they are asked for; after that EscapeRoomFacade.endGame() hands every new
+ * result to record(), which adds it to each partition it belongs to in
+ * O(log n). Windowed entries are not swept on a timer: each window keeps its
+ * entries in a queue by date, and a query first drops the ones that have aged
+ * out. Queries therefore cost O(log n + k) and never go back to the history.
+ *
+ * Other processes sharing the data directory (kiosks) record results too.
+ * The store's scores version (PlayerStore.getScoresVersion) moves by one for
+ * each of this process's own score commits; if it moved further, someone
+ * else wrote, and the partitions are seeded again on the next query.
+ *
+ * @author Rudra Patel
+ */
+public final class LeaderboardEngine {
+
+    /** The time windows a leaderboard can be asked for. */
+    public enum Window {
+        TODAY(24L * 60 * 60 * 1000),
+        THIS_WEEK(7L * 24 * 60 * 60 * 1000),
+        ALL_TIME(0);
+
+        // length of the window; 0 = unbounded
+        private final long millis;
+
+        Window(long millis) {
+            this.millis = millis;
+        }
+
+        /**
+         * @param date when a result was recorded (null = unknown)
+         * @param now  the current time
+         * @return true if a result from that date is inside this window
+         */
+        boolean contains(Date date, long now) {
+            return millis == 0 || (date != null && date.getTime() > now - millis);
+        }
+    }
+
+    private static final Map<PlayerStore, LeaderboardEngine> ENGINES = new WeakHashMap<>();
+    // index of the overall partition, after the difficulties
+    private static final int OVERALL = Difficulty.values().length;
+
+    private final PlayerStore store;
+    private final LongSupplier clock;
+    // [window][difficulty or OVERALL]; null until seeded
+    private Leaderboard[][] boards;
+    // windowed results by date, oldest first, for lazy eviction
+    private List<PriorityQueue<Score>> expiry;
+    // store scores version the partitions are in sync with
+    private long version;
+
+    LeaderboardEngine(PlayerStore store, LongSupplier clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    /**
+     * @param store the player store the results are saved to
+     * @return the engine kept for it
+     */
+    public static synchronized LeaderboardEngine forStore(PlayerStore store) {
+        return ENGINES.computeIfAbsent(store, s -> new LeaderboardEngine(s, System::currentTimeMillis));
+    }
+
+    /**
+     * Drop every engine's partitions, e.g. after player data was restored
+     * from a backup. They are seeded again on next use.
+     */
+    public static synchronized void invalidateAll() {
+        for (LeaderboardEngine e : ENGINES.values())
+            e.invalidate();
+    }
+
+    /**
+     * Add a result that was just saved to the store. Before the first query
+     * there is nothing to update: seeding will read it from the store. If
+     * other writes happened since the last sync, the partitions are dropped
+     * and seeded again on the next query instead.
+     *
+     * @param score the saved result
+     */
+    public synchronized void record(Score score) {
+        if (boards == null)
+            return;
+        long now = store.getScoresVersion();
+        if (now != version && now != version + 1) {
+            invalidate();
+            return;
+        }
+        version = now;
+        apply(score, clock.getAsLong());
+    }
+
+    /**
+     * The best results of one partition.
+     *
+     * @param difficulty a difficulty, or null for all of them
+     * @param window     the time window
+     * @param n          how many entries
+     * @return up to n entries, best first
+     */
+    public synchronized Leaderboard top(Difficulty difficulty, Window window, int n) {
+        Leaderboard lb = new Leaderboard();
+        lb.setEntries(board(difficulty, window).topN(n));
+        return lb;
+    }
+
+    /**
+     * @param username   the player
+     * @param difficulty a difficulty, or null for all of them
+     * @param window     the time window
+     * @return the player's 1-based rank in that partition, or -1 if absent
+     */
+    public synchronized int rankOf(String username, Difficulty difficulty, Window window) {
+        return board(difficulty, window).rankOf(username);
+    }
+
+    /**
+     * @param difficulty a difficulty, or null for all of them
+     * @param window     the time window
+     * @return number of players in that partition
+     */
+    public synchronized int size(Difficulty difficulty, Window window) {
+        return board(difficulty, window).size();
+    }
+
+    /**
+     * Forget the partitions; the next query seeds them again.
+     */
+    public synchronized void invalidate() {
+        boards = null;
+        expiry = null;
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    /**
+     * A partition, seeded if needed and with aged-out entries dropped.
+     */
+    private Leaderboard board(Difficulty difficulty, Window window) {
+        long now = clock.getAsLong();
+        if (boards != null && store.getScoresVersion() != version)
+            invalidate(); // another process recorded results
+        if (boards == null)
+            seed(now);
+        evict(window, now);
+        return boards[window.ordinal()][difficulty == null ? OVERALL : difficulty.ordinal()];
+    }
+
+    private void seed(long now) {
+        // before the scan: a commit racing with it makes the next query reseed
+        version = store.getScoresVersion();
+        boards = new Leaderboard[Window.values().length][OVERALL + 1];
+        expiry = new ArrayList<>();
+        for (Window w : Window.values()) {
+            for (int d = 0; d <= OVERALL; d++)
+                boards[w.ordinal()][d] = new Leaderboard();
+            expiry.add(new PriorityQueue<>(Comparator.comparing(Score::getDate)));
+        }
+        try {
+            store.scanScores(s -> apply(s, now));
+        } catch (RuntimeException e) {
+            System.out.println("Error reading score history for leaderboards: " + e.getMessage());
+        }
+    }
+
+    private void apply(Score s, long now) {
+        if (s == null || s.getUsername() == null)
+            return;
+        for (Window w : Window.values()) {
+            if (!w.contains(s.getDate(), now))
+                continue;
+            Leaderboard[] row = boards[w.ordinal()];
+            put(row[OVERALL], s);
+            if (s.getDifficulty() != null)
+                put(row[s.getDifficulty().ordinal()], s);
+            if (w.millis > 0)
+                expiry.get(w.ordinal()).add(s);
+        }
+    }
+
+    // A player's latest result wins; history can arrive slightly out of order
+    private static void put(Leaderboard lb, Score s) {
+        Score current = lb.getEntry(s.getUsername());
+        if (current != null && current.getDate() != null && s.getDate() != null
+                && current.getDate().after(s.getDate()))
+            return;
+        lb.addOrReplace(s);
+    }
+
+    private void evict(Window w, long now) {
+        PriorityQueue<Score> queue = expiry.get(w.ordinal());
+        Leaderboard[] row = boards[w.ordinal()];
+        while (!queue.isEmpty() && !w.contains(queue.peek().getDate(), now)) {
+            Score old = queue.poll();
+            // only if it is still the player's entry, not replaced since
+            if (row[OVERALL].getEntry(old.getUsername()) == old)
+                row[OVERALL].removeByUsername(old.getUsername());
+            if (old.getDifficulty() != null && row[old.getDifficulty().ordinal()].getEntry(old.getUsername()) == old)
+                row[old.getDifficulty().ordinal()].removeByUsername(old.getUsername());
+        }
+    }
+}
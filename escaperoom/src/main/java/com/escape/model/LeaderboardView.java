@@ -0,0 +1,206 @@
+package com.escape.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Materialized top-N leaderboard: leaderboard.view.json next to
+ * playerData.json, holding the best N entries overall and per difficulty.
+ *
+ * The leaderboard screens only need a handful of rows, but reading them from
+ * playerData.json means parsing every user, progress entry and score. The
+ * view is a few hundred bytes instead. GameDataWriter rewrites it each time a
+ * leaderboard record is saved (saveLeaderboard, endGame), from the entries it
+ * just wrote and while still holding the leaderboard lock, so views are
+ * written in the same order as the leaderboards they come from.
+ *
+ * The saved leaderboard keeps the top N of each difficulty as well as the top
+ * N overall (Leaderboard.topNPerDifficulty), so each difficulty's list is its
+ * own top N, not the slice of the overall top N that happens to match.
+ *
+ * A missing view (older data, a restored backup) is rebuilt from
+ * playerData.json on first read; see JsonPlayerStore.getTopScores.
+ *
+ * @author Rudra Patel
+ */
+public final class LeaderboardView {
+
+    static final String FILE = "leaderboard.view.json";
+    static final String OVERALL = "overall";
+    // rows kept per list; the screens show Leaderboard.getLB(), the top 10,
+    // and the saved leaderboard keeps this many per difficulty too
+    static final int N = 10;
+
+    private static final Map<Path, LeaderboardView> VIEWS = new HashMap<>();
+
+    private final Path file;
+    // Parsed view and the stamp of the file it came from
+    private JSONObject cached;
+    private FileTime cachedModified;
+    private long cachedSize = -1;
+
+    private LeaderboardView(Path playerPath) {
+        this.file = playerPath.resolveSibling(FILE);
+    }
+
+    /**
+     * @param playerPath the playerData.json file
+     * @return the view kept next to it
+     */
+    public static synchronized LeaderboardView forPath(Path playerPath) {
+        return VIEWS.computeIfAbsent(playerPath.toAbsolutePath().normalize(), LeaderboardView::new);
+    }
+
+    /**
+     * @return path of the view file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Rebuild the view from leaderboard entries (as GameDataWriter saves
+     * them) and replace the file atomically.
+     *
+     * @param entries "leaderboard" entries, any order
+     * @return true if the view reached disk
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized boolean write(JSONArray entries) {
+        List<JSONObject> sorted = new ArrayList<>();
+        if (entries != null) {
+            for (Object o : entries)
+                if (o instanceof JSONObject)
+                    sorted.add((JSONObject) o);
+        }
+        // stable, so equal scores keep the leaderboard's order
+        sorted.sort((a, b) -> Long.compare(scoreOf(b), scoreOf(a)));
+
+        JSONObject view = new JSONObject();
+        view.put("n", N);
+        view.put(OVERALL, new JSONArray());
+        for (Difficulty d : Difficulty.values())
+            view.put(d.name(), new JSONArray());
+        for (JSONObject e : sorted) {
+            add((JSONArray) view.get(OVERALL), e);
+            Object d = e.get("difficulty");
+            if (d != null && view.get(d.toString().toUpperCase()) instanceof JSONArray)
+                add((JSONArray) view.get(d.toString().toUpperCase()), e);
+        }
+
+        Path tmp = DataRoot.withSuffix(file, ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            JsonStreamWriter.writeFile(view, tmp, !GameDataWriter.isCompactOutput(), true);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            cached = view;
+            stamp();
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing " + file + ": " + e.getMessage());
+            cached = null;
+            return false;
+        }
+    }
+
+    /**
+     * Rebuild the view from a whole leaderboard.
+     *
+     * @param leaderboard the leaderboard
+     * @return true if the view reached disk
+     */
+    public boolean write(Leaderboard leaderboard) {
+        return write(GameDataWriter.leaderboardToJson(leaderboard));
+    }
+
+    /**
+     * Read one list of the view.
+     *
+     * @param difficulty a difficulty, or null for the overall list
+     * @return that list (best first), or null if there is no view on disk
+     */
+    public synchronized Leaderboard read(Difficulty difficulty) {
+        JSONObject view = load();
+        if (view == null)
+            return null;
+        Object list = view.get(difficulty == null ? OVERALL : difficulty.name());
+        ArrayList<Score> scores = new ArrayList<>();
+        if (list instanceof JSONArray) {
+            for (Object o : (JSONArray) list)
+                if (o instanceof JSONObject)
+                    scores.add(GameDataLoader.scoreFrom((JSONObject) o));
+        }
+        Leaderboard lb = new Leaderboard();
+        lb.setEntries(scores);
+        return lb;
+    }
+
+    /**
+     * Remove the view, e.g. after playerData.json was replaced underneath it.
+     * The next read through JsonPlayerStore rebuilds it.
+     */
+    public synchronized void delete() {
+        cached = null;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("Error deleting " + file + ": " + e.getMessage());
+        }
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    @SuppressWarnings("unchecked")
+    private static void add(JSONArray list, JSONObject entry) {
+        if (list.size() < N)
+            list.add(entry);
+    }
+
+    private static long scoreOf(JSONObject entry) {
+        Object v = entry.get("score");
+        return v instanceof Number ? ((Number) v).longValue() : Long.MIN_VALUE;
+    }
+
+    private JSONObject load() {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (cached != null && attrs.lastModifiedTime().equals(cachedModified) && attrs.size() == cachedSize)
+                return cached;
+            try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                Object parsed = new JSONParser().parse(r);
+                cached = parsed instanceof JSONObject ? (JSONObject) parsed : null;
+            }
+            cachedModified = attrs.lastModifiedTime();
+            cachedSize = attrs.size();
+            return cached;
+        } catch (NoSuchFileException none) {
+            cached = null;
+            return null;
+        } catch (Exception e) {
+            System.out.println("Unreadable " + file + " - rebuilding: " + e.getMessage());
+            cached = null;
+            return null;
+        }
+    }
+
+    private void stamp() throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        cachedModified = attrs.lastModifiedTime();
+        cachedSize = attrs.size();
+    }
+}
@@ -0,0 +1,134 @@
+package com.escape.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Background threads for player-data I/O, so the JavaFX thread never parses
+ * or writes files.
+ *
+ * Work is submitted under a key (normally the user's id). Tasks with the same
+ * key run one after another in submission order, so a user's saves can never
+ * overtake each other; tasks with different keys run in parallel on a small
+ * pool.
+ *
+ * At most CAPACITY tasks may be queued or running. submit() blocks the caller
+ * while the queue is full, so a burst of saves slows the producer down
+ * instead of piling up unbounded work and memory.
+ *
+ * Pending work is finished before the JVM exits (shutdown hook), or on demand
+ * with flush().
+ *
+ * @author Rudra Patel
+ */
+public final class PersistenceExecutor {
+
+    static final int CAPACITY = 64;
+    private static final int THREADS = 2;
+
+    private static final PersistenceExecutor SHARED = new PersistenceExecutor(THREADS, CAPACITY);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> SHARED.flush(5, TimeUnit.SECONDS),
+                "persistence-flush"));
+    }
+
+    private final ExecutorService pool;
+    private final Semaphore slots;
+    private final int capacity;
+    // key -> last task submitted under it
+    private final ConcurrentHashMap<Object, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    PersistenceExecutor(int threads, int capacity) {
+        AtomicInteger n = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "persistence-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.slots = new Semaphore(capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the executor the game shares
+     */
+    public static PersistenceExecutor shared() {
+        return SHARED;
+    }
+
+    /**
+     * Run a task after every earlier task with the same key.
+     * Blocks while CAPACITY tasks are already pending.
+     *
+     * @param key  ordering key (e.g. the user's id); null shares one lane
+     * @param task the work; its exceptions fail the returned future only
+     * @return completes with the task's result
+     */
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+        Object lane = key == null ? "" : key;
+        slots.acquireUninterruptibly();
+        CompletableFuture<T> next;
+        try {
+            next = chain(lane, task);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        next.whenComplete((r, e) -> {
+            slots.release();
+            tails.remove(lane, next);
+            if (e != null)
+                System.out.println("Background save failed: " + e.getMessage());
+        });
+        return next;
+    }
+
+    /**
+     * Wait until everything submitted so far has finished.
+     *
+     * @param timeout how long to wait at most
+     * @param unit    unit of timeout
+     * @return true if all work finished in time
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        List<CompletableFuture<?>> pending = new ArrayList<>(tails.values());
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                    .handle((r, e) -> null)
+                    .get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            System.out.println("Timed out waiting for " + pending.size() + " background save(s)");
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return number of tasks queued or running
+     */
+    public int pending() {
+        return capacity - slots.availablePermits();
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> chain(Object lane, Supplier<T> task) {
+        return (CompletableFuture<T>) tails.compute(lane, (k, prev) -> prev == null
+                ? CompletableFuture.supplyAsync(task, pool)
+                // run after the previous task, whether it worked or not
+                : prev.handleAsync((r, e) -> task.get(), pool));
+    }
+}
@@ -0,0 +1,450 @@
+package com.escape.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Online backups of player data (playerData.json, its journal and the
+ * players/ shards), taken while saves keep going.
+ *
+ * A backup has two steps:
+ * 1. The cut: holding playerData.json's CrossProcessLock, every file is
+ * hard-linked into a staging directory and the journal's length is noted.
+ * This takes a few milliseconds whatever the size of the data. Writers
+ * replace playerData.json and the shards by renaming a new file over them,
+ * so a link keeps the old version unchanged. The journal is only ever
+ * appended to, so its first bytes up to the noted length do not change
+ * either.
+ * 2. The copy: a background thread copies the staged files into
+ * backups/gen-<millis>/, at most bytesPerSecond so gameplay saves keep their
+ * disk time, and writes a MANIFEST with each file's CRC32C and size. The
+ * directory is renamed into place only once it is complete.
+ *
+ * The newest `generations` backups are kept and older ones deleted. Settings
+ * come from -Descaperoom.backupGenerations (default 5) and
+ * -Descaperoom.backupRate (bytes per second, default 4 MiB, 0 = unthrottled).
+ *
+ * restore() checks a generation against its MANIFEST, then puts its files
+ * back under the same lock and bumps the version stamp, so this and other
+ * processes reload instead of writing their old copy back.
+ *
+ * From the command line:
+ * java com.escape.model.PlayerDataBackup [backup | list | verify gen | restore gen]
+ *
+ * @author Rudra Patel
+ */
+public final class PlayerDataBackup {
+
+    static final String DIR = "backups";
+    static final String MANIFEST = "MANIFEST";
+    private static final String GEN_PREFIX = "gen-";
+    private static final int CHUNK = 64 * 1024;
+
+    private static final Map<Path, PlayerDataBackup> BACKUPS = new HashMap<>();
+
+    // Backups are rare; one daemon thread copies them one after another
+    private static final ExecutorService COPIER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "playerData-backup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Path snapshot;
+    private final Path journal;
+    private final Path shards;
+    private final Path dir;
+    private volatile int generations = Integer.getInteger("escaperoom.backupGenerations", 5);
+    private volatile long bytesPerSecond = Long.getLong("escaperoom.backupRate", 4L << 20);
+
+    private PlayerDataBackup(Path snapshotPath) {
+        this.snapshot = snapshotPath;
+        this.journal = DataRoot.withSuffix(snapshotPath, PlayerDataJournal.SUFFIX);
+        Path parent = snapshot.getParent();
+        this.shards = parent.resolve(PlayerShards.DIR);
+        this.dir = parent.resolve(DIR);
+    }
+
+    /**
+     * Returns the backup set for the given playerData.json.
+     *
+     * @param snapshotPath path of playerData.json
+     * @return the shared instance for that file
+     */
+    public static PlayerDataBackup forPath(String snapshotPath) {
+        return forPath(Path.of(snapshotPath));
+    }
+
+    /**
+     * Returns the backup set for the given playerData.json, on any FileSystem.
+     *
+     * @param snapshotPath the playerData.json file
+     * @return the shared instance for that file
+     */
+    public static synchronized PlayerDataBackup forPath(Path snapshotPath) {
+        return BACKUPS.computeIfAbsent(snapshotPath.toAbsolutePath().normalize(), PlayerDataBackup::new);
+    }
+
+    /**
+     * @return the backup set for the default playerData.json (see DataRoot)
+     */
+    public static PlayerDataBackup shared() {
+        return forPath(DataRoot.playerData());
+    }
+
+    /**
+     * @param keep number of backups to keep (at least 1)
+     */
+    public void setGenerations(int keep) {
+        generations = Math.max(1, keep);
+    }
+
+    /**
+     * @param rate copy speed limit in bytes per second, 0 for none
+     */
+    public void setBytesPerSecond(long rate) {
+        bytesPerSecond = Math.max(0, rate);
+    }
+
+    /**
+     * Take the cut now, on the calling thread, and copy it in the background.
+     *
+     * @return completes with the new generation's directory, or null if the
+     *         backup failed
+     */
+    public CompletableFuture<Path> backupAsync() {
+        Path staging;
+        Map<String, Long> files;
+        try {
+            Files.createDirectories(dir);
+            staging = Files.createTempDirectory(dir, ".staging-");
+            files = cut(staging);
+        } catch (IOException e) {
+            System.out.println("Error starting backup of " + snapshot + ": " + e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(() -> copy(staging, files), COPIER);
+    }
+
+    /**
+     * Back up and wait for the copy to finish.
+     *
+     * @return the new generation's directory, or null if the backup failed
+     */
+    public Path backup() {
+        return backupAsync().join();
+    }
+
+    /**
+     * @return the backups on disk, newest first
+     */
+    public List<Path> generations() {
+        List<Path> out = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, GEN_PREFIX + "*")) {
+            for (Path p : ds)
+                out.add(p);
+        } catch (NoSuchFileException e) {
+            return out;
+        } catch (IOException e) {
+            System.out.println("Error listing " + dir + ": " + e.getMessage());
+        }
+        out.sort(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed());
+        return out;
+    }
+
+    /**
+     * Check every file of a backup against its MANIFEST.
+     *
+     * @param generation a directory returned by generations()
+     * @return true if all files are present with the recorded size and CRC
+     */
+    public boolean verify(Path generation) {
+        Map<String, long[]> manifest = readManifest(generation);
+        if (manifest == null)
+            return false;
+        for (Map.Entry<String, long[]> e : manifest.entrySet()) {
+            Path f = generation.resolve(e.getKey());
+            try {
+                if (Files.size(f) != e.getValue()[1] || crcOf(f) != e.getValue()[0]) {
+                    System.out.println("Backup file " + f + " does not match its checksum");
+                    return false;
+                }
+            } catch (IOException ex) {
+                System.out.println("Backup file " + f + " is unreadable: " + ex.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replace the live player data with a backup. Files the backup does not
+     * have (a journal, shards created since) are removed.
+     *
+     * @param generation a directory returned by generations()
+     * @return true if the backup verified and was put back
+     */
+    public boolean restore(Path generation) {
+        if (!verify(generation))
+            return false;
+        Map<String, long[]> manifest = readManifest(generation);
+        String snapshotName = snapshot.getFileName().toString();
+        String journalName = journal.getFileName().toString();
+
+        CrossProcessLock fileLock = CrossProcessLock.forFile(snapshot);
+        fileLock.lock();
+        try {
+            if (manifest.containsKey(snapshotName))
+                putBack(generation.resolve(snapshotName), snapshot);
+            if (manifest.containsKey(journalName))
+                putBack(generation.resolve(journalName), journal);
+            else
+                Files.deleteIfExists(journal);
+
+            for (Path live : listShards())
+                if (!manifest.containsKey(PlayerShards.DIR + "/" + live.getFileName()))
+                    Files.deleteIfExists(live);
+            for (String name : manifest.keySet())
+                if (name.startsWith(PlayerShards.DIR + "/")) {
+                    Files.createDirectories(shards);
+                    putBack(generation.resolve(name), shards.resolve(name.substring(PlayerShards.DIR.length() + 1)));
+                }
+
+            fileLock.bump();
+            PlayerDocumentStore.forPath(snapshot.toString()).invalidate();
+            LeaderboardView.forPath(snapshot).delete();
+            LeaderboardEngine.invalidateAll();
+            System.out.println("Restored " + snapshot + " from " + generation.getFileName());
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error restoring " + generation + ": " + e.getMessage());
+            return false;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Command line entry point, see the class comment.
+     */
+    public static void main(String[] args) {
+        PlayerDataBackup b = shared();
+        String cmd = args.length > 0 ? args[0] : "backup";
+        Path gen = args.length > 1 ? b.dir.resolve(args[1]) : null;
+        switch (cmd) {
+            case "list":
+                for (Path p : b.generations())
+                    System.out.println(p.getFileName());
+                break;
+            case "verify":
+                System.out.println(gen != null && b.verify(gen) ? "OK" : "FAILED");
+                break;
+            case "restore":
+                System.out.println(gen != null && b.restore(gen) ? "Restored" : "Restore failed");
+                break;
+            default:
+                System.out.println("Backed up to " + b.backup());
+        }
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    /**
+     * Link every live file into staging while writers are held off.
+     *
+     * @return staged file (relative name) -> bytes to copy
+     */
+    private Map<String, Long> cut(Path staging) throws IOException {
+        Map<String, Long> files = new LinkedHashMap<>();
+        CrossProcessLock fileLock = CrossProcessLock.forFile(snapshot);
+        fileLock.lock();
+        try {
+            stage(snapshot, staging, snapshot.getFileName().toString(), files);
+            stage(journal, staging, journal.getFileName().toString(), files);
+            for (Path shard : listShards())
+                stage(shard, staging, PlayerShards.DIR + "/" + shard.getFileName(), files);
+        } finally {
+            fileLock.unlock();
+        }
+        return files;
+    }
+
+    private static void stage(Path live, Path staging, String name, Map<String, Long> files) throws IOException {
+        Path target = staging.resolve(name);
+        Files.createDirectories(target.getParent());
+        try {
+            long size = Files.size(live);
+            try {
+                Files.createLink(target, live);
+            } catch (UnsupportedOperationException | IOException e) {
+                // no hard links here: copy while still holding the lock
+                Files.copy(live, target);
+            }
+            files.put(name, size);
+        } catch (NoSuchFileException e) {
+            // nothing to back up (no journal, or a shard just removed)
+        }
+    }
+
+    /**
+     * Copy the staged files into a new generation and rotate old ones out.
+     * Runs on the COPIER thread.
+     */
+    private Path copy(Path staging, Map<String, Long> files) {
+        Path partial = staging.resolveSibling(staging.getFileName() + ".partial");
+        try {
+            Files.createDirectories(partial);
+            StringBuilder manifest = new StringBuilder();
+            long[] copied = { 0 };
+            long started = System.nanoTime();
+            for (Map.Entry<String, Long> e : files.entrySet()) {
+                Path target = partial.resolve(e.getKey());
+                Files.createDirectories(target.getParent());
+                long crc = throttledCopy(staging.resolve(e.getKey()), target, e.getValue(), copied, started);
+                manifest.append(String.format("%08x %d %s%n", crc, e.getValue(), e.getKey()));
+            }
+            Files.writeString(partial.resolve(MANIFEST), manifest, StandardCharsets.UTF_8);
+
+            Path gen = nextGenerationDir();
+            Files.move(partial, gen, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Backed up " + snapshot + " to " + gen.getFileName());
+            rotate();
+            return gen;
+        } catch (IOException | InterruptedException e) {
+            System.out.println("Error backing up " + snapshot + ": " + e.getMessage());
+            deleteTree(partial);
+            return null;
+        } finally {
+            deleteTree(staging);
+        }
+    }
+
+    /**
+     * Copy the first length bytes of from, no faster than bytesPerSecond
+     * averaged over the whole backup.
+     *
+     * @return CRC32C of the bytes copied
+     */
+    private long throttledCopy(Path from, Path to, long length, long[] copied, long started)
+            throws IOException, InterruptedException {
+        CRC32C crc = new CRC32C();
+        byte[] buf = new byte[CHUNK];
+        try (InputStream in = Files.newInputStream(from); OutputStream out = Files.newOutputStream(to)) {
+            long left = length;
+            while (left > 0) {
+                int n = in.read(buf, 0, (int) Math.min(buf.length, left));
+                if (n < 0)
+                    throw new IOException(from + " is shorter than " + length + " bytes");
+                crc.update(buf, 0, n);
+                out.write(buf, 0, n);
+                left -= n;
+                copied[0] += n;
+
+                long rate = bytesPerSecond;
+                if (rate > 0) {
+                    long dueNanos = copied[0] * 1_000_000_000L / rate;
+                    long aheadMs = (dueNanos - (System.nanoTime() - started)) / 1_000_000;
+                    if (aheadMs > 0)
+                        Thread.sleep(aheadMs);
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    private Path nextGenerationDir() {
+        long stamp = System.currentTimeMillis();
+        Path gen;
+        while (Files.exists(gen = dir.resolve(String.format("%s%013d", GEN_PREFIX, stamp))))
+            stamp++;
+        return gen;
+    }
+
+    private void rotate() {
+        List<Path> all = generations();
+        for (int i = generations; i < all.size(); i++)
+            deleteTree(all.get(i));
+    }
+
+    /**
+     * @return relative name -> {crc, size}, or null if the MANIFEST is missing
+     *         or unreadable
+     */
+    private static Map<String, long[]> readManifest(Path generation) {
+        Map<String, long[]> out = new LinkedHashMap<>();
+        try {
+            for (String line : Files.readAllLines(generation.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+                if (line.isBlank())
+                    continue;
+                String[] parts = line.split(" ", 3);
+                out.put(parts[2], new long[] { Long.parseLong(parts[0], 16), Long.parseLong(parts[1]) });
+            }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Backup " + generation + " has no readable " + MANIFEST);
+            return null;
+        }
+    }
+
+    private static long crcOf(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buf = new byte[CHUNK];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) > 0)
+                crc.update(buf, 0, n);
+        }
+        return crc.getValue();
+    }
+
+    /** Copy a backed-up file over a live one: temp file + atomic rename. */
+    private static void putBack(Path from, Path live) throws IOException {
+        Path tmp = DataRoot.withSuffix(live, ".restore");
+        Files.copy(from, tmp, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(tmp, live, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Path> listShards() throws IOException {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(shards))
+            return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(shards, "*.json")) {
+            for (Path p : ds)
+                out.add(p);
+        }
+        return out;
+    }
+
+    private static void deleteTree(Path root) {
+        if (!Files.exists(root))
+            return;
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    System.out.println("Could not delete " + p + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Could not delete " + root + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package com.escape.model;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Reads and writes the playerData.json records (users, progress, scores,
+ * leaderboard) straight to and from User, Progress and Score, with no
+ * JSONObject/HashMap or boxed numbers in between.
+ *
+ * Decoding walks a JsonTokenizer and sets fields as their keys come by, in
+ * whatever order the file has them; unknown keys are skipped without being
+ * built. The result is the same object GameDataLoader's userFrom,
+ * progressFrom and scoreFrom would make from the json-simple tree,
+ * including their defaults for missing or malformed values.
+ *
+ * Encoding writes the same keys GameDataWriter's userToJson, progressToJson,
+ * scoreToJson and leaderboardToJson produce, as compact JSON, escaped by
+ * JsonStreamWriter. Either side can read what the other wrote.
+ *
+ * @author Rudra Patel
+ */
+public final class PlayerDataCodec {
+
+    /** Decodes one array element; returns null to skip it. */
+    @FunctionalInterface
+    interface Decoder<T> {
+        T read(JsonTokenizer in) throws IOException;
+    }
+
+    private PlayerDataCodec() {
+    }
+
+    /* ========================= STREAMING ========================= */
+
+    /**
+     * Stream playerData.json once, decoding each entry of the top-level
+     * array {@code key} and passing it to the visitor. Everything else in the
+     * file is skipped, and the scan stops after that array.
+     *
+     * @param file    playerData.json
+     * @param key     top-level array (users, progress, scores, leaderboard)
+     * @param decoder e.g. PlayerDataCodec::readScore
+     * @param visitor returns false to stop early
+     * @return false if the file could not be read or parsed
+     */
+    static <T> boolean scanArray(Path file, String key, Decoder<T> decoder, Predicate<T> visitor) {
+        try (JsonTokenizer in = new JsonTokenizer(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            if (in.peek() != JsonTokenizer.Token.BEGIN_OBJECT)
+                return true;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!key.equals(in.nextName()) || in.peek() != JsonTokenizer.Token.BEGIN_ARRAY) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                while (in.hasNext()) {
+                    T item = decoder.read(in);
+                    if (item != null && !visitor.test(item))
+                        return true;
+                }
+                return true;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error scanning " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /* ========================= DECODING ========================= */
+
+    /**
+     * Decode a "users" entry, like GameDataLoader.userFrom.
+     *
+     * @param in positioned at the entry
+     * @return the user, or null if the entry is not an object
+     * @throws IOException on malformed input
+     */
+    static User readUser(JsonTokenizer in) throws IOException {
+        if (in.peek() != JsonTokenizer.Token.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+        String id = null, username = null, password = null, email = null;
+        boolean hasInventory = false;
+        int capacity = 0;
+        List<String> items = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "userID":
+                    id = in.nextString();
+                    break;
+                case "username":
+                    username = in.nextString();
+                    break;
+                case "password":
+                    password = in.nextString();
+                    break;
+                case "email":
+                    email = in.nextString();
+                    break;
+                case "inventory":
+                    if (in.peek() != JsonTokenizer.Token.BEGIN_OBJECT) {
+                        in.skipValue();
+                        break;
+                    }
+                    hasInventory = true;
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String field = in.nextName();
+                        if (field.equals("capacity")) {
+                            capacity = (int) in.nextLong();
+                        } else if (field.equals("items") && in.peek() == JsonTokenizer.Token.BEGIN_ARRAY) {
+                            items = new ArrayList<>();
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                String item = in.nextString();
+                                if (item != null)
+                                    items.add(item);
+                            }
+                            in.endArray();
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        User u = new User(uuidOrNull(id), username, password, email);
+        if (hasInventory) {
+            // If capacity is zero, pick a sensible default based on items length
+            if (capacity <= 0)
+                capacity = items == null ? 26 : Math.max(26, items.size());
+            Inventory inv = new Inventory(capacity);
+            if (items != null) {
+                for (String item : items)
+                    inv.addItem(item);
+            }
+            u.setInventory(inv);
+        }
+        u.markSaved(u.getVersion());
+        return u;
+    }
+
+    /**
+     * Decode a "progress" entry, like GameDataLoader.progressFrom.
+     *
+     * @param in positioned at the entry
+     * @return the progress (user id null if missing), or null if not an object
+     * @throws IOException on malformed input
+     */
+    static Progress readProgress(JsonTokenizer in) throws IOException {
+        if (in.peek() != JsonTokenizer.Token.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+        String userId = null, progressId = null, roomID = null, difficulty = null;
+        int c = 0, answered = 0, hints = 0;
+        long timeRemaining = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "userUUID":
+                    userId = in.nextString();
+                    break;
+                case "progressUUID":
+                    progressId = in.nextString();
+                    break;
+                case "c":
+                    c = (int) in.nextLong();
+                    break;
+                case "answered":
+                    answered = (int) in.nextLong();
+                    break;
+                case "hints":
+                    hints = (int) in.nextLong();
+                    break;
+                case "currentRoomID":
+                    roomID = in.nextString();
+                    break;
+                case "timeRemainingSeconds":
+                    timeRemaining = in.nextLong();
+                    break;
+                case "difficulty":
+                    difficulty = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        UUID pid = uuidOrNull(progressId);
+        Progress p = new Progress(pid == null ? UUID.randomUUID() : pid, uuidOrNull(userId));
+        p.setStoryPos(c);
+        p.setQuestionsAnswered(answered);
+        p.setHintsUsed(hints);
+        p.setCurrentRoomID(roomID);
+        p.setTimeRemainingSeconds(timeRemaining);
+        p.setDifficulty(difficulty);
+        p.markSaved(p.getVersion());
+        return p;
+    }
+
+    /**
+     * Decode a "scores" or "leaderboard" entry, like GameDataLoader.scoreFrom.
+     *
+     * @param in positioned at the entry
+     * @return the score, or null if the entry is not an object
+     * @throws IOException on malformed input
+     */
+    static Score readScore(JsonTokenizer in) throws IOException {
+        if (in.peek() != JsonTokenizer.Token.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+        String username = null, difficulty = null, date = null;
+        long timeSeconds = 0, timeLeftSec = 0, score = 0;
+        boolean hasTimeSeconds = false, hasTimeLeftSec = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "username":
+                    username = in.nextString();
+                    break;
+                case "difficulty":
+                    difficulty = in.nextString();
+                    break;
+                case "timeSeconds":
+                    hasTimeSeconds = true;
+                    timeSeconds = in.nextLong();
+                    break;
+                case "timeLeftSec":
+                    hasTimeLeftSec = true;
+                    timeLeftSec = in.nextLong();
+                    break;
+                case "date":
+                    date = in.nextString();
+                    break;
+                case "score":
+                    score = in.nextLong();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Score s = new Score();
+        s.setUsername(username);
+        s.setDifficulty(difficulty);
+        // the two time keys are aliases; timeLeftSec wins, as in scoreFrom
+        if (hasTimeSeconds)
+            s.setTimeSeconds(timeSeconds);
+        if (hasTimeLeftSec)
+            s.setTimeLeftSec(timeLeftSec);
+        s.setDate(date);
+        s.setScore(score);
+        s.markSaved(s.getVersion());
+        return s;
+    }
+
+    /**
+     * @param json one "users" entry
+     * @return the user, or null if json is not an object
+     * @throws IOException on malformed input
+     */
+    static User decodeUser(String json) throws IOException {
+        return readUser(new JsonTokenizer(json));
+    }
+
+    /**
+     * @param json one "progress" entry
+     * @return the progress, or null if json is not an object
+     * @throws IOException on malformed input
+     */
+    static Progress decodeProgress(String json) throws IOException {
+        return readProgress(new JsonTokenizer(json));
+    }
+
+    /**
+     * @param json one "scores" or "leaderboard" entry
+     * @return the score, or null if json is not an object
+     * @throws IOException on malformed input
+     */
+    static Score decodeScore(String json) throws IOException {
+        return readScore(new JsonTokenizer(json));
+    }
+
+    /**
+     * @param json a "leaderboard" array
+     * @return its entries (empty if json is not an array)
+     * @throws IOException on malformed input
+     */
+    static Leaderboard decodeLeaderboard(String json) throws IOException {
+        JsonTokenizer in = new JsonTokenizer(json);
+        ArrayList<Score> list = new ArrayList<>();
+        if (in.peek() == JsonTokenizer.Token.BEGIN_ARRAY) {
+            in.beginArray();
+            while (in.hasNext()) {
+                Score s = readScore(in);
+                if (s != null)
+                    list.add(s);
+            }
+            in.endArray();
+        }
+        Leaderboard lb = new Leaderboard();
+        lb.setEntries(list);
+        return lb;
+    }
+
+    /* ========================= ENCODING ========================= */
+
+    /**
+     * Write a "users" entry (same keys as GameDataWriter.userToJson).
+     *
+     * @param user the user
+     * @param out  destination
+     * @throws IOException if the writer fails
+     */
+    static void writeUser(User user, Writer out) throws IOException {
+        out.write('{');
+        field(out, "userID", user.userID == null ? null : user.userID.toString(), false);
+        field(out, "username", user.getUsername(), true);
+        field(out, "password", user.getPassword(), true);
+        field(out, "email", user.getEmail(), true);
+        out.write(",\"inventory\":{\"capacity\":");
+        Inventory inv = user.getInventory();
+        boolean hasItems = inv != null && inv.getItems() != null;
+        out.write(Integer.toString(hasItems ? inv.getCapacity() : 0));
+        out.write(",\"items\":[");
+        if (hasItems) {
+            boolean first = true;
+            for (String item : inv.getItems()) {
+                if (!first)
+                    out.write(',');
+                string(out, item);
+                first = false;
+            }
+        }
+        out.write("]}}");
+    }
+
+    /**
+     * Write a "progress" entry (same keys as GameDataWriter.progressToJson).
+     *
+     * @param p   the progress
+     * @param out destination
+     * @throws IOException if the writer fails
+     */
+    static void writeProgress(Progress p, Writer out) throws IOException {
+        out.write('{');
+        field(out, "userUUID", p.getUserUUID() == null ? null : p.getUserUUID().toString(), false);
+        field(out, "progressUUID", p.getProgressUUID() == null ? null : p.getProgressUUID().toString(), true);
+        field(out, "c", p.getStoryPos());
+        field(out, "answered", p.getQuestionsAnswered());
+        field(out, "hints", p.getHintsUsed());
+        field(out, "currentRoomID", p.getCurrentRoomID(), true);
+        field(out, "timeRemainingSeconds", p.getTimeRemainingSeconds());
+        field(out, "difficulty", p.getDifficulty(), true);
+        out.write('}');
+    }
+
+    /**
+     * Write a "scores" entry (same keys as GameDataWriter.scoreToJson).
+     *
+     * @param s   the score
+     * @param out destination
+     * @throws IOException if the writer fails
+     */
+    static void writeScore(Score s, Writer out) throws IOException {
+        writeScore(s, "timeSeconds", out);
+    }
+
+    /**
+     * Write a "leaderboard" array (same shape as GameDataWriter.leaderboardToJson).
+     *
+     * @param lb  the leaderboard (null writes an empty array)
+     * @param out destination
+     * @throws IOException if the writer fails
+     */
+    static void writeLeaderboard(Leaderboard lb, Writer out) throws IOException {
+        out.write('[');
+        List<Score> entries = lb == null ? null : lb.topNPerDifficulty(LeaderboardView.N);
+        if (entries != null) {
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0)
+                    out.write(',');
+                writeScore(entries.get(i), "timeLeftSec", out);
+            }
+        }
+        out.write(']');
+    }
+
+    /**
+     * @param user the user
+     * @return its compact "users" entry
+     */
+    public static String encode(User user) {
+        StringWriter sw = new StringWriter(160);
+        try {
+            writeUser(user, sw);
+        } catch (IOException e) {
+            // StringWriter does not throw
+        }
+        return sw.toString();
+    }
+
+    /**
+     * @param p the progress
+     * @return its compact "progress" entry
+     */
+    public static String encode(Progress p) {
+        StringWriter sw = new StringWriter(200);
+        try {
+            writeProgress(p, sw);
+        } catch (IOException e) {
+            // StringWriter does not throw
+        }
+        return sw.toString();
+    }
+
+    /**
+     * @param s the score
+     * @return its compact "scores" entry
+     */
+    public static String encode(Score s) {
+        StringWriter sw = new StringWriter(120);
+        try {
+            writeScore(s, sw);
+        } catch (IOException e) {
+            // StringWriter does not throw
+        }
+        return sw.toString();
+    }
+
+    /**
+     * @param lb the leaderboard
+     * @return its compact "leaderboard" array
+     */
+    public static String encode(Leaderboard lb) {
+        StringWriter sw = new StringWriter();
+        try {
+            writeLeaderboard(lb, sw);
+        } catch (IOException e) {
+            // StringWriter does not throw
+        }
+        return sw.toString();
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private static void writeScore(Score s, String timeKey, Writer out) throws IOException {
+        out.write('{');
+        field(out, "username", s.getUsername(), false);
+        field(out, "difficulty", s.getDifficulty() == null ? null : s.getDifficulty().toString(), true);
+        field(out, timeKey, s.getTimeLeftSec());
+        field(out, "score", s.getScore());
+        field(out, "date", s.getDate() == null ? null : s.getDate().toString(), true);
+        out.write('}');
+    }
+
+    private static void field(Writer out, String key, String value, boolean comma) throws IOException {
+        if (comma)
+            out.write(',');
+        out.write('"');
+        out.write(key);
+        out.write("\":");
+        string(out, value);
+    }
+
+    private static void field(Writer out, String key, long value) throws IOException {
+        out.write(",\"");
+        out.write(key);
+        out.write("\":");
+        out.write(Long.toString(value));
+    }
+
+    private static void string(Writer out, String s) throws IOException {
+        if (s == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        JsonStreamWriter.escape(s, out);
+        out.write('"');
+    }
+
+    private static UUID uuidOrNull(String s) {
+        if (s == null || s.isEmpty())
+            return null;
+        try {
+            return UUID.fromString(s);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
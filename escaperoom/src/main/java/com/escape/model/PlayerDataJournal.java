@@ -0,0 +1,329 @@
+package com.escape.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Append-only write-ahead journal for playerData.json.
+ *
+ * Each save is written as one line next to the snapshot
+ * (playerData.json.journal):
+ * {"seq": 12, "op": "progress", "data": { ...same shape as the JSON entry... }}
+ *
+ * Reading the current state means "snapshot + replay": GameDataLoader (and
+ * the writer's own read step) call replay(), which folds every record whose
+ * seq is newer than the snapshot's "journalSeq" into the parsed root using
+ * GameDataWriter.applyRecord. Once the log grows past COMPACT_THRESHOLD
+ * records a background thread folds it into a fresh snapshot (temp file +
+ * atomic rename) and truncates the log.
+ *
+ * The snapshot stores the seq of the last folded record, so a crash between
+ * writing the snapshot and truncating the log never applies a record twice.
+ *
+ * Appends happen inside PlayerDocumentStore's cross-process lock, and
+ * compaction takes the same lock, so processes sharing the directory never
+ * interleave partial lines or fold a log another process is still writing.
+ * When the store notices another process's commit it calls forgetTail(), and
+ * the next append rescans the log for the last seq in use.
+ *
+ * @author Rudra Patel
+ */
+public class PlayerDataJournal {
+
+    static final String SUFFIX = ".journal";
+    static final String SEQ_KEY = "journalSeq";
+
+    // Records after which the log is folded into a fresh snapshot
+    static final int COMPACT_THRESHOLD = 256;
+
+    private static final Map<Path, PlayerDataJournal> JOURNALS = new HashMap<>();
+
+    // One daemon thread is plenty: compaction is rare and per-file serialized
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "playerData-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Path snapshot;
+    private final Path log;
+    private long nextSeq = -1;
+    private int pending;
+    private boolean compactionQueued;
+    private boolean tornTail;
+
+    private PlayerDataJournal(Path snapshotPath) {
+        this.snapshot = snapshotPath;
+        this.log = DataRoot.withSuffix(snapshotPath, SUFFIX);
+    }
+
+    /**
+     * Returns the journal that belongs to the given snapshot file.
+     *
+     * @param snapshotPath path of the playerData.json snapshot
+     * @return the shared journal for that file
+     */
+    public static PlayerDataJournal forPath(String snapshotPath) {
+        return forPath(Path.of(snapshotPath));
+    }
+
+    /**
+     * Returns the journal that belongs to the given snapshot, on any
+     * FileSystem.
+     *
+     * @param snapshotPath the playerData.json snapshot
+     * @return the shared journal for that file
+     */
+    public static synchronized PlayerDataJournal forPath(Path snapshotPath) {
+        return JOURNALS.computeIfAbsent(snapshotPath.toAbsolutePath().normalize(), PlayerDataJournal::new);
+    }
+
+    /**
+     * Append one mutation record and flush it to disk.
+     * Cost is proportional to the record, not to the snapshot.
+     *
+     * @param op   record kind (GameDataWriter.OP_*)
+     * @param data record payload
+     * @return true once the record is durably on disk
+     */
+    public boolean append(String op, Object data) {
+        return append(List.of(new PlayerDocumentStore.Mutation(op, data)));
+    }
+
+    /**
+     * Append several mutation records with a single write and fsync.
+     *
+     * @param records records to append, in order
+     * @return true once every record is durably on disk
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized boolean append(List<PlayerDocumentStore.Mutation> records) {
+        if (records.isEmpty())
+            return true;
+        if (nextSeq < 0)
+            nextSeq = scanLastSeq() + 1;
+        if (!Files.exists(log))
+            pending = 0;
+
+        StringBuilder lines = new StringBuilder();
+        if (tornTail) {
+            // terminate the torn line so this record starts on its own
+            lines.append('\n');
+        }
+        long seq = nextSeq;
+        for (PlayerDocumentStore.Mutation m : records) {
+            JSONObject rec = new JSONObject();
+            rec.put("seq", seq++);
+            rec.put("op", m.op);
+            rec.put("data", m.data);
+            lines.append(JsonStreamWriter.toString(rec, false)).append('\n');
+        }
+
+        try (FileChannel out = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+                Writer w = new OutputStreamWriter(Channels.newOutputStream(out), StandardCharsets.UTF_8)) {
+            w.write(lines.toString());
+            w.flush();
+            out.force(true);
+        } catch (IOException e) {
+            System.out.println("Error appending to " + log + ": " + e.getMessage());
+            nextSeq = -1; // rescan the tail (it may be torn) before the next append
+            return false;
+        }
+        tornTail = false;
+        nextSeq = seq;
+        pending += records.size();
+
+        if (pending >= COMPACT_THRESHOLD && !compactionQueued) {
+            compactionQueued = true;
+            COMPACTOR.execute(this::compact);
+        }
+        return true;
+    }
+
+    /**
+     * Fold the log into a fresh snapshot and truncate the log.
+     * Safe to call from any thread or process; appends wait while the fold
+     * runs.
+     */
+    public void compact() {
+        // cross-process lock first, then ours: the same order as appends
+        CrossProcessLock fileLock = CrossProcessLock.forFile(snapshot);
+        fileLock.lock();
+        try {
+            synchronized (this) {
+                compactLocked(fileLock);
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private void compactLocked(CrossProcessLock fileLock) {
+        compactionQueued = false;
+        if (!Files.exists(log))
+            return;
+
+        JSONObject root = readSnapshot();
+        replay(root, snapshot);
+
+        Path tmp = DataRoot.withSuffix(snapshot, ".tmp");
+        try {
+            JsonStreamWriter.writeFile(root, tmp, !GameDataWriter.isCompactOutput(), true);
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(log);
+            pending = 0;
+            fileLock.bump();
+            System.out.println("Compacted journal into " + snapshot);
+        } catch (IOException e) {
+            System.out.println("Error compacting " + log + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return seq of the last record appended by this process, or -1 if none
+     */
+    public synchronized long lastSeq() {
+        return nextSeq < 0 ? -1 : nextSeq - 1;
+    }
+
+    /**
+     * Forget the cached tail position; the next append rescans the log.
+     * Called when another process may have appended.
+     */
+    synchronized void forgetTail() {
+        nextSeq = -1;
+        pending = 0;
+    }
+
+    /**
+     * @return number of records appended since the last compaction
+     */
+    public synchronized int pendingRecords() {
+        return pending;
+    }
+
+    /**
+     * Fold any journal records newer than the snapshot into root.
+     * Does nothing when no journal file exists next to the snapshot.
+     *
+     * @param root         parsed snapshot (mutated in place)
+     * @param snapshotPath path of the snapshot the root was read from
+     */
+    public static void replay(JSONObject root, String snapshotPath) {
+        if (snapshotPath != null)
+            replay(root, Path.of(snapshotPath));
+    }
+
+    /**
+     * Same as {@link #replay(JSONObject, String)}, for a snapshot on any
+     * FileSystem.
+     */
+    @SuppressWarnings("unchecked")
+    public static void replay(JSONObject root, Path snapshotPath) {
+        if (root == null || snapshotPath == null)
+            return;
+        Path log = DataRoot.withSuffix(snapshotPath, SUFFIX);
+        if (!Files.exists(log))
+            return;
+
+        long applied = toLong(root.get(SEQ_KEY));
+        JSONParser parser = new JSONParser();
+        try (BufferedReader r = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                JSONObject rec;
+                try {
+                    rec = (JSONObject) parser.parse(line);
+                } catch (Exception torn) {
+                    // A line torn by a crash mid-append; the record never completed
+                    continue;
+                }
+                long seq = toLong(rec.get("seq"));
+                if (seq <= applied)
+                    continue;
+                GameDataWriter.applyRecord(root, String.valueOf(rec.get("op")), rec.get("data"));
+                applied = seq;
+            }
+        } catch (IOException e) {
+            System.out.println("Error replaying " + log + ": " + e.getMessage());
+        }
+        root.put(SEQ_KEY, applied);
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private JSONObject readSnapshot() {
+        if (!Files.exists(snapshot))
+            return new JSONObject();
+        try (BufferedReader r = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+            Object parsed = new JSONParser().parse(r);
+            return parsed instanceof JSONObject ? (JSONObject) parsed : new JSONObject();
+        } catch (Exception e) {
+            System.out.println("Error reading " + snapshot + " - starting from empty object: " + e.getMessage());
+            return new JSONObject();
+        }
+    }
+
+    /** Highest seq already used, from the log tail or the snapshot. */
+    private long scanLastSeq() {
+        JSONObject root = readSnapshot();
+        long last = toLong(root.get(SEQ_KEY));
+        if (!Files.exists(log))
+            return last;
+        JSONParser parser = new JSONParser();
+        try (BufferedReader r = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                try {
+                    last = Math.max(last, toLong(((JSONObject) parser.parse(line)).get("seq")));
+                    pending++;
+                } catch (Exception torn) {
+                    continue;
+                }
+            }
+            long size = Files.size(log);
+            if (size > 0) {
+                try (var ch = java.nio.channels.FileChannel.open(log)) {
+                    java.nio.ByteBuffer b = java.nio.ByteBuffer.allocate(1);
+                    ch.read(b, size - 1);
+                    tornTail = b.get(0) != '\n';
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error scanning " + log + ": " + e.getMessage());
+        }
+        return last;
+    }
+
+    private static long toLong(Object n) {
+        if (n instanceof Number)
+            return ((Number) n).longValue();
+        try {
+            return n == null ? 0L : Long.parseLong(n.toString());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.escape.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Process-wide, in-memory copy of playerData.json shared by GameDataLoader
+ * and GameDataWriter.
+ *
+ * The file is parsed once (snapshot + any journal records) and then served
+ * from memory. Writer mutations are applied to the in-memory document and
+ * written through to disk (full rewrite, or a journal append in journal
+ * mode), so later reads see them without a reparse.
+ *
+ * Every access stats the snapshot and journal (mtime + size). If either
+ * changed behind our back - someone edited the file, or the journal was
+ * compacted - the document is reloaded before use.
+ *
+ * All access goes through read()/apply(), which hold the store's lock, so
+ * callers never see a half-applied mutation.
+ *
+ * Several processes may share the file. Writes hold a CrossProcessLock
+ * (playerData.json.lock) from reload to commit, and the snapshot is replaced
+ * by writing a temp file and renaming it over, so a reader only ever sees a
+ * complete old or complete new file. Every commit bumps the version stamp in
+ * the lock file; a copy loaded at an older version is stale, and a writer
+ * holding one reloads and re-applies its records on top of the fresh
+ * document instead of writing its old copy back over the other process's
+ * changes.
+ *
+ * Group commit: apply() calls that arrive while a write is in progress queue
+ * up, and whichever caller takes the lock next writes all of them in one
+ * rewrite (or journal append) and one fsync. Callers in different sessions
+ * (holding different PlayerLocks stripes) thus share a disk write instead of
+ * each waiting for their own.
+ *
+ * @author Rudra Patel
+ */
+public class PlayerDocumentStore {
+
+    private static final Map<Path, PlayerDocumentStore> STORES = new HashMap<>();
+
+    /**
+     * One mutation record: a GameDataWriter.OP_* kind plus its JSON payload.
+     */
+    public static final class Mutation {
+        final String op;
+        final Object data;
+
+        public Mutation(String op, Object data) {
+            this.op = op;
+            this.data = data;
+        }
+    }
+
+    private final Path snapshot;
+    private final Path journal;
+    private final CrossProcessLock fileLock;
+    // apply() calls waiting for the next write, guarded by itself
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+
+    private JSONObject root;
+    // Stamp of the files the in-memory root corresponds to
+    private FileTime snapshotModified;
+    private long snapshotSize = -1;
+    private long journalSize = -1;
+    private long version = -1;
+    private int loads;
+    private int staleMerges;
+
+    private PlayerDocumentStore(Path path) {
+        this.snapshot = path;
+        this.journal = DataRoot.withSuffix(path, PlayerDataJournal.SUFFIX);
+        this.fileLock = CrossProcessLock.forFile(snapshot);
+    }
+
+    /**
+     * Returns the store for the given playerData.json path.
+     *
+     * @param path path of the playerData.json snapshot
+     * @return the shared store for that file
+     */
+    public static PlayerDocumentStore forPath(String path) {
+        return forPath(Path.of(path));
+    }
+
+    /**
+     * Returns the store for the given playerData.json, on any FileSystem.
+     *
+     * @param path the playerData.json snapshot
+     * @return the shared store for that file
+     */
+    public static synchronized PlayerDocumentStore forPath(Path path) {
+        return STORES.computeIfAbsent(path.toAbsolutePath().normalize(), PlayerDocumentStore::new);
+    }
+
+    /**
+     * @return the store for the default playerData.json (see DataRoot)
+     */
+    public static PlayerDocumentStore shared() {
+        return forPath(DataRoot.playerData());
+    }
+
+    /**
+     * @return true if the snapshot or its journal exists on disk
+     */
+    public boolean exists() {
+        return Files.exists(snapshot) || Files.exists(journal);
+    }
+
+    /**
+     * Run a read-only function against the current document.
+     * The function must not keep or mutate the root it is given.
+     *
+     * @param reader builds a result from the document
+     * @return the reader's result
+     */
+    public synchronized <T> T read(Function<JSONObject, T> reader) {
+        refreshIfStale();
+        return reader.apply(root);
+    }
+
+    /**
+     * @return true if a parsed copy is in memory and still matches the disk
+     */
+    public synchronized boolean isWarm() {
+        return root != null && !changedOnDisk();
+    }
+
+    /**
+     * @return true if there is a journal next to the snapshot
+     */
+    public boolean hasJournal() {
+        return Files.exists(journal);
+    }
+
+    /**
+     * @return path of the snapshot file
+     */
+    public Path snapshotPath() {
+        return snapshot;
+    }
+
+    /**
+     * Apply mutations to the in-memory document and write them through.
+     *
+     * All mutations go out in a single write (one rewrite or one journal
+     * append) followed by one fsync, possibly together with those of other
+     * threads that were waiting at the same time. Each caller's records stay
+     * in order, and callers are written in the order they arrived.
+     *
+     * @param mutations records to apply, in order
+     * @return true if the mutations reached disk
+     */
+    public boolean apply(List<Mutation> mutations) {
+        if (mutations == null || mutations.isEmpty())
+            return true;
+        Pending mine = new Pending(mutations);
+        synchronized (pending) {
+            pending.add(mine);
+        }
+        synchronized (this) {
+            if (mine.done)
+                return mine.written; // an earlier lock holder wrote it for us
+            List<Pending> group;
+            List<Mutation> all = new ArrayList<>();
+            synchronized (pending) {
+                group = new ArrayList<>(pending);
+                pending.clear();
+            }
+            for (Pending p : group)
+                all.addAll(p.mutations);
+            boolean written = false;
+            fileLock.lock();
+            try {
+                written = applyLocked(all);
+            } finally {
+                fileLock.unlock();
+                for (Pending p : group) {
+                    p.written = written;
+                    p.done = true;
+                }
+            }
+            return written;
+        }
+    }
+
+    /** One apply() call waiting in the group commit queue. */
+    private static final class Pending {
+        final List<Mutation> mutations;
+        // set under the store's lock, read under it
+        boolean done;
+        boolean written;
+
+        Pending(List<Mutation> mutations) {
+            this.mutations = mutations;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean applyLocked(List<Mutation> mutations) {
+        if (root != null && changedOnDisk()) {
+            // another process committed since we loaded: merge onto its version
+            staleMerges++;
+            root = null;
+        }
+        refreshIfStale();
+        for (Mutation m : mutations)
+            GameDataWriter.applyRecord(root, m.op, m.data);
+
+        boolean written = true;
+        if (GameDataWriter.isJournalEnabled()) {
+            PlayerDataJournal journal = PlayerDataJournal.forPath(snapshot);
+            written = journal.append(mutations);
+            // the in-memory root now includes these records; a later full
+            // rewrite must say so or replay would apply them a second time
+            root.put(PlayerDataJournal.SEQ_KEY, journal.lastSeq());
+        } else {
+            written = writeSnapshot();
+        }
+        if (written) {
+            version = fileLock.bump();
+            stamp();
+        } else {
+            // never let memory run ahead of what is actually on disk
+            root = null;
+        }
+        return written;
+    }
+
+    /**
+     * Plan mutations against the current document and apply them, all under
+     * the store's lock, so nothing can change in between.
+     *
+     * @param planner looks at the document (without changing it) and returns
+     *                the mutations to apply
+     * @return true if the planned mutations reached disk
+     */
+    public synchronized boolean transact(Function<JSONObject, List<Mutation>> planner) {
+        fileLock.lock();
+        try {
+            refreshIfStale();
+            List<Mutation> planned = planner.apply(root);
+            return planned == null || planned.isEmpty() || applyLocked(planned);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Apply a single mutation and write it through.
+     *
+     * @param op   record kind (GameDataWriter.OP_*)
+     * @param data record payload
+     * @return true if the mutation reached disk
+     */
+    public boolean apply(String op, Object data) {
+        return apply(List.of(new Mutation(op, data)));
+    }
+
+    /**
+     * Drop the in-memory document; the next access reloads from disk.
+     */
+    public synchronized void invalidate() {
+        root = null;
+    }
+
+    /**
+     * @return how many times the file has been parsed (for tests/diagnostics)
+     */
+    synchronized int loadCount() {
+        return loads;
+    }
+
+    /**
+     * @return how many writes found their copy stale and merged onto a newer
+     *         version written by another process (for tests/diagnostics)
+     */
+    synchronized int staleMergeCount() {
+        return staleMerges;
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private void refreshIfStale() {
+        if (root != null && !changedOnDisk())
+            return;
+        // read the version first: a commit racing with the load makes the
+        // copy look stale next time, never fresh when it is not
+        version = fileLock.version();
+        PlayerDataJournal.forPath(snapshot).forgetTail();
+        root = load();
+        loads++;
+        stamp();
+    }
+
+    private boolean changedOnDisk() {
+        if (fileLock.version() != version)
+            return true;
+        try {
+            BasicFileAttributes a = Files.readAttributes(snapshot, BasicFileAttributes.class);
+            if (a.size() != snapshotSize || !a.lastModifiedTime().equals(snapshotModified))
+                return true;
+        } catch (IOException missing) {
+            if (snapshotSize != -1)
+                return true;
+        }
+        return journalSizeOnDisk() != journalSize;
+    }
+
+    private void stamp() {
+        try {
+            BasicFileAttributes a = Files.readAttributes(snapshot, BasicFileAttributes.class);
+            snapshotSize = a.size();
+            snapshotModified = a.lastModifiedTime();
+        } catch (IOException missing) {
+            snapshotSize = -1;
+            snapshotModified = null;
+        }
+        journalSize = journalSizeOnDisk();
+    }
+
+    private long journalSizeOnDisk() {
+        try {
+            return Files.size(journal);
+        } catch (IOException missing) {
+            return -1;
+        }
+    }
+
+    private JSONObject load() {
+        // Hold the journal's lock so a background compaction cannot swap the
+        // snapshot and drop the log between our two reads
+        synchronized (PlayerDataJournal.forPath(snapshot)) {
+            return loadSnapshotAndJournal();
+        }
+    }
+
+    private JSONObject loadSnapshotAndJournal() {
+        JSONObject doc;
+        try (BufferedReader r = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+            Object parsed = new JSONParser().parse(r);
+            doc = parsed instanceof JSONObject ? (JSONObject) parsed : new JSONObject();
+        } catch (NoSuchFileException fnf) {
+            doc = new JSONObject(); // start from an empty JSON object
+        } catch (Exception e) {
+            System.out.println("Error reading " + snapshot + " - returning empty object: " + e.getMessage());
+            doc = new JSONObject();
+        }
+        PlayerDataJournal.replay(doc, snapshot);
+        return doc;
+    }
+
+    private boolean writeSnapshot() {
+        Path tmp = DataRoot.withSuffix(snapshot, ".tmp");
+        try {
+            JsonStreamWriter.writeFile(root, tmp, !GameDataWriter.isCompactOutput(), true);
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Saved to " + snapshot);
+            return true;
+        } catch (Exception e) {
+            System.out.println("Error saving to " + snapshot);
+            e.printStackTrace();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.escape.model;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process locks for one playerData.json: a fixed set of striped locks for
+ * per-player records, and one lock for the leaderboard.
+ *
+ * A player's saves (user entry, progress, shard, scores) hold that player's
+ * stripe, so two saves of the same player never interleave and reach disk in
+ * the order they were made, while saves of different players go ahead side
+ * by side. Players are mapped onto STRIPES locks, so memory stays flat
+ * however many players there are.
+ *
+ * Every record of a player takes its stripe from one canonical key, their
+ * userID (see keyOf). Records that only carry a username (scores, endGame)
+ * are resolved to the id through remember(), which the writer calls for
+ * every user record it saves and the facade calls at login and sign-up. A
+ * username not seen yet falls back to the folded name.
+ *
+ * Lock order, to stay deadlock free: stripes in ascending index, then the
+ * leaderboard lock, then PlayerDocumentStore / CrossProcessLock. Nothing
+ * takes a stripe while holding a later lock.
+ *
+ * @author Rudra Patel
+ */
+final class PlayerLocks {
+
+    static final int STRIPES = 64;
+
+    private static final Map<Path, PlayerLocks> LOCKS = new HashMap<>();
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantLock leaderboard = new ReentrantLock();
+    // folded username -> userID, so username-only records find the id's stripe
+    private final Map<String, String> ids = new ConcurrentHashMap<>();
+
+    private PlayerLocks() {
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new ReentrantLock();
+    }
+
+    /**
+     * @param playerPath the playerData.json file
+     * @return the locks shared by everything writing that file
+     */
+    static synchronized PlayerLocks forPath(Path playerPath) {
+        return LOCKS.computeIfAbsent(playerPath.toAbsolutePath().normalize(), k -> new PlayerLocks());
+    }
+
+    /**
+     * Record which userID a username belongs to.
+     *
+     * @param userId   the player's id (ignored if null)
+     * @param username their username (ignored if null)
+     */
+    void remember(Object userId, String username) {
+        if (userId != null && username != null)
+            ids.put(fold(username), userId.toString().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * The canonical lock key of a player: their userID, or the id remembered
+     * for their username, or (never seen) the folded username.
+     *
+     * @param userId   the player's id, or null if the record has none
+     * @param username their username, or null
+     * @return the key, or null if both are null
+     */
+    String keyOf(Object userId, String username) {
+        if (userId != null)
+            return userId.toString().toLowerCase(Locale.ROOT);
+        if (username == null)
+            return null;
+        String name = fold(username);
+        return ids.getOrDefault(name, name);
+    }
+
+    /**
+     * Run body holding the stripes of every given player.
+     *
+     * @param keys canonical keys from keyOf (null entries are ignored)
+     * @param body the work
+     * @return what body returned
+     */
+    <T> T withPlayers(Iterable<?> keys, Supplier<T> body) {
+        TreeSet<Integer> held = new TreeSet<>();
+        for (Object k : keys)
+            if (k != null)
+                held.add(stripeOf(k));
+        for (int i : held)
+            stripes[i].lock();
+        try {
+            return body.get();
+        } finally {
+            for (int i : held.descendingSet())
+                stripes[i].unlock();
+        }
+    }
+
+    /**
+     * @param key a canonical key from keyOf
+     * @return that player's stripe
+     */
+    ReentrantLock forPlayer(Object key) {
+        return stripes[stripeOf(key)];
+    }
+
+    /**
+     * Run body holding the leaderboard lock. Keep body short: it should
+     * only merge and write the leaderboard.
+     */
+    <T> T withLeaderboard(Supplier<T> body) {
+        leaderboard.lock();
+        try {
+            return body.get();
+        } finally {
+            leaderboard.unlock();
+        }
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private static String fold(String username) {
+        // usernames are case-insensitive, so "Ana" and "ana" are one player
+        return "name:" + username.toLowerCase(Locale.ROOT);
+    }
+
+    private static int stripeOf(Object key) {
+        int h = key.toString().hashCode();
+        h ^= h >>> 16;
+        return (h * 0x9E3779B9 >>> 16) & (STRIPES - 1);
+    }
+}
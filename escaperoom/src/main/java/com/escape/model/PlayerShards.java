@@ -0,0 +1,353 @@
+package com.escape.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Sharded layout for player data.
+ *
+ * Instead of keeping every player's progress and inventory inside
+ * playerData.json, each user gets a small file of their own:
+ * players/<userUUID>.json -> {"userUUID": "...", "progress": {...}, "inventory": {...}}
+ *
+ * playerData.json stays as the small global file: the user index (id,
+ * username, password, email - no inventory), scores, leaderboard and
+ * savedData. It is marked with "layout": "sharded" once migrated.
+ *
+ * A progress save, or a user save whose index entry did not change, only
+ * rewrites that user's shard (temp file + atomic rename, fsync'd), so players
+ * no longer contend on, or rewrite, each other's data. Each shard has its own
+ * CrossProcessLock, so processes sharing the directory do not lose each
+ * other's shard updates either.
+ *
+ * Migration from the monolithic file runs automatically the first time the
+ * sharded layout is used (or explicitly via migrate()): shards are written
+ * first, then the global file drops "progress" and the inventories. Running
+ * it twice is harmless.
+ *
+ * Enable with GameDataWriter.setShardedLayout(true) or
+ * -Descaperoom.sharded=true.
+ *
+ * @author Rudra Patel
+ */
+public class PlayerShards {
+
+    static final String DIR = "players";
+    static final String LAYOUT_KEY = "layout";
+    static final String LAYOUT_SHARDED = "sharded";
+
+    private static final Map<Path, PlayerShards> SHARDS = new HashMap<>();
+
+    private final Path globalPath;
+    private final Path dir;
+    // Striped per-user locks so different players' shards are written in parallel
+    private final PlayerLocks locks;
+
+    private PlayerShards(Path globalPath) {
+        this.globalPath = globalPath;
+        this.dir = globalPath.getParent().resolve(DIR);
+        this.locks = PlayerLocks.forPath(globalPath);
+    }
+
+    /**
+     * Returns the shard set that belongs to the given global playerData.json.
+     *
+     * @param globalPath path of playerData.json
+     * @return the shared instance for that file
+     */
+    public static PlayerShards forPath(String globalPath) {
+        return forPath(Path.of(globalPath));
+    }
+
+    /**
+     * Returns the shard set for the given playerData.json, on any FileSystem.
+     *
+     * @param globalPath the playerData.json file
+     * @return the shared instance for that file
+     */
+    public static synchronized PlayerShards forPath(Path globalPath) {
+        return SHARDS.computeIfAbsent(globalPath.toAbsolutePath().normalize(), PlayerShards::new);
+    }
+
+    /**
+     * @param userId the user
+     * @return path of that user's shard file
+     */
+    public Path shardFile(UUID userId) {
+        return dir.resolve(userId + ".json");
+    }
+
+    /**
+     * Read a user's shard.
+     *
+     * @param userId the user
+     * @return the parsed shard, or null if the user has none
+     */
+    public JSONObject readShard(UUID userId) {
+        if (userId == null)
+            return null;
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            return readFile(shardFile(userId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Split records between the shards and the global file.
+     *
+     * Progress records and user inventories are written to the user's shard
+     * here. User index entries are passed on only when they differ from what
+     * the global file already holds. Records without a userUUID/userID stay
+     * global.
+     *
+     * The caller runs ensureMigrated() first, before taking any player lock:
+     * migrate() locks every player it moves.
+     *
+     * @param records mutation records, in order
+     * @param global  receives the records that still belong in playerData.json
+     * @return true if every shard write reached disk
+     */
+    @SuppressWarnings("unchecked")
+    boolean route(List<PlayerDocumentStore.Mutation> records, List<PlayerDocumentStore.Mutation> global) {
+        PlayerDocumentStore store = PlayerDocumentStore.forPath(globalPath);
+        boolean ok = true;
+        for (PlayerDocumentStore.Mutation m : records) {
+            if (GameDataWriter.OP_PROGRESS.equals(m.op)) {
+                JSONObject p = (JSONObject) m.data;
+                UUID id = uuid(p.get("userUUID"));
+                if (id == null) {
+                    global.add(m);
+                    continue;
+                }
+                ok &= updateShard(id, shard -> shard.put("progress", p));
+            } else if (GameDataWriter.OP_USER.equals(m.op)) {
+                JSONObject u = (JSONObject) m.data;
+                UUID id = uuid(u.get("userID"));
+                if (id == null) {
+                    global.add(m);
+                    continue;
+                }
+                Object inventory = u.get("inventory");
+                ok &= updateShard(id, shard -> shard.put("inventory", inventory));
+
+                JSONObject indexEntry = new JSONObject(u);
+                indexEntry.remove("inventory");
+                boolean unchanged = store.read(root -> indexEntry.equals(findUser(root, indexEntry.get("userID"))));
+                if (!unchanged)
+                    global.add(new PlayerDocumentStore.Mutation(GameDataWriter.OP_USER, indexEntry));
+            } else {
+                global.add(m);
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Move progress and inventories out of a monolithic playerData.json into
+     * per-user shards. Does nothing if the file is already sharded.
+     *
+     * @return true if the file is sharded afterwards
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized boolean migrate() {
+        PlayerDocumentStore store = PlayerDocumentStore.forPath(globalPath);
+
+        // Copy out what has to move while holding the store's lock
+        Map<UUID, JSONObject> shards = new HashMap<>();
+        boolean sharded = store.read(root -> {
+            if (LAYOUT_SHARDED.equals(root.get(LAYOUT_KEY)))
+                return true;
+            Object progress = root.get("progress");
+            if (progress instanceof JSONArray) {
+                for (Object o : (JSONArray) progress) {
+                    if (!(o instanceof JSONObject))
+                        continue;
+                    UUID id = uuid(((JSONObject) o).get("userUUID"));
+                    if (id != null)
+                        shardOf(shards, id).put("progress", new JSONObject((JSONObject) o));
+                }
+            }
+            Object users = root.get("users");
+            if (users instanceof JSONArray) {
+                for (Object o : (JSONArray) users) {
+                    if (!(o instanceof JSONObject))
+                        continue;
+                    UUID id = uuid(((JSONObject) o).get("userID"));
+                    Object inv = ((JSONObject) o).get("inventory");
+                    if (id != null && inv != null)
+                        shardOf(shards, id).put("inventory", inv);
+                }
+            }
+            return false;
+        });
+        if (sharded)
+            return true;
+
+        boolean ok = true;
+        for (Map.Entry<UUID, JSONObject> e : shards.entrySet()) {
+            JSONObject moved = e.getValue();
+            ok &= updateShard(e.getKey(), shard -> shard.putAll(moved));
+        }
+        if (!ok) {
+            System.out.println("Shard migration incomplete - keeping monolithic " + globalPath);
+            return false;
+        }
+        ok = store.apply(GameDataWriter.OP_LAYOUT, LAYOUT_SHARDED);
+        if (ok)
+            System.out.println("Migrated " + shards.size() + " player(s) to shards in " + dir);
+        return ok;
+    }
+
+    /**
+     * Fold the records of a migration into a root: drop "progress" entries that
+     * carry a userUUID and inventories of users that have a userID, and mark
+     * the layout. Used by GameDataWriter.applyRecord so journal replay agrees.
+     *
+     * @param root playerData.json root
+     */
+    @SuppressWarnings("unchecked")
+    static void stripShardedFields(JSONObject root) {
+        Object progress = root.get("progress");
+        if (progress instanceof JSONArray)
+            ((JSONArray) progress).removeIf(o -> o instanceof JSONObject
+                    && uuid(((JSONObject) o).get("userUUID")) != null);
+        Object users = root.get("users");
+        if (users instanceof JSONArray) {
+            for (Object o : (JSONArray) users) {
+                if (o instanceof JSONObject && uuid(((JSONObject) o).get("userID")) != null)
+                    ((JSONObject) o).remove("inventory");
+            }
+        }
+        root.put(LAYOUT_KEY, LAYOUT_SHARDED);
+    }
+
+    /**
+     * Migrate first if the global file is still monolithic.
+     */
+    void ensureMigrated() {
+        boolean sharded = PlayerDocumentStore.forPath(globalPath)
+                .read(root -> LAYOUT_SHARDED.equals(root.get(LAYOUT_KEY)));
+        if (!sharded)
+            migrate();
+    }
+
+    /**
+     * Collect the users' ids that have shard files (used for diagnostics).
+     *
+     * @return ids of every shard on disk
+     */
+    public List<UUID> shardIds() {
+        List<UUID> ids = new ArrayList<>();
+        try (var files = Files.list(dir)) {
+            files.forEach(f -> {
+                String name = f.getFileName().toString();
+                if (name.endsWith(".json")) {
+                    UUID id = uuid(name.substring(0, name.length() - 5));
+                    if (id != null)
+                        ids.add(id);
+                }
+            });
+        } catch (IOException none) {
+            // no shard directory yet
+        }
+        return ids;
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    @SuppressWarnings("unchecked")
+    private boolean updateShard(UUID userId, Consumer<JSONObject> change) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            Path file = shardFile(userId);
+            // other processes sharing the directory may update the same shard
+            CrossProcessLock fileLock = CrossProcessLock.forFile(file);
+            fileLock.lock();
+            try {
+                JSONObject shard = readFile(file);
+                if (shard == null) {
+                    shard = new JSONObject();
+                    shard.put("userUUID", userId.toString());
+                }
+                change.accept(shard);
+
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.createDirectories(dir);
+                JsonStreamWriter.writeFile(shard, tmp, !GameDataWriter.isCompactOutput(), true);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return true;
+            } catch (IOException e) {
+                System.out.println("Error saving shard " + file + ": " + e.getMessage());
+                return false;
+            } finally {
+                fileLock.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(UUID userId) {
+        // same key GameDataWriter uses, so a writer already holding it re-enters
+        return locks.forPlayer(locks.keyOf(userId, null));
+    }
+
+    private static JSONObject readFile(Path file) {
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Object parsed = new JSONParser().parse(r);
+            return parsed instanceof JSONObject ? (JSONObject) parsed : null;
+        } catch (NoSuchFileException missing) {
+            return null;
+        } catch (Exception e) {
+            System.out.println("Error reading shard " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static JSONObject findUser(JSONObject root, Object userID) {
+        Object users = root.get("users");
+        if (!(users instanceof JSONArray) || userID == null)
+            return null;
+        for (Object o : (JSONArray) users) {
+            if (o instanceof JSONObject && userID.equals(((JSONObject) o).get("userID")))
+                return (JSONObject) o;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject shardOf(Map<UUID, JSONObject> shards, UUID id) {
+        return shards.computeIfAbsent(id, k -> new JSONObject());
+    }
+
+    private static UUID uuid(Object s) {
+        if (s == null)
+            return null;
+        try {
+            return UUID.fromString(s.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.escape.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Where player data lives: accounts, saved progress, score history and the
+ * leaderboard.
+ *
+ * The game, Accounts and the login/sign-up screens only talk to this
+ * interface; which backend sits behind it is picked once by PlayerStores:
+ * json - playerData.json rewritten on each save (JsonPlayerStore)
+ * journal - playerData.json plus an append-only journal (JsonPlayerStore)
+ * indexed - hash-indexed record files, one lookup per read (IndexedPlayerStore)
+ *
+ * Game content (rooms, puzzles, story) is not player data and still comes
+ * from GameDataLoader.
+ *
+ * Backends fail quietly like the rest of the persistence code: a failed save
+ * is logged and reported through the boolean results, a failed read returns
+ * null or an empty list.
+ *
+ * @author Rudra Patel
+ */
+public interface PlayerStore {
+
+    /**
+     * @return every account, with inventories
+     */
+    ArrayList<User> getUsers();
+
+    /**
+     * Look up one account by username (case-insensitive).
+     *
+     * @param username the username
+     * @return the user, or null if there is none
+     */
+    User findUser(String username);
+
+    /**
+     * Insert or replace one account (matched by userID, then username).
+     *
+     * @param user the account
+     */
+    void saveUser(User user);
+
+    /**
+     * Insert or replace several accounts.
+     *
+     * @param users the accounts
+     */
+    void saveUsers(List<User> users);
+
+    /**
+     * @param userId the user
+     * @return that user's saved progress, or null if they have none
+     */
+    Progress loadProgress(UUID userId);
+
+    /**
+     * Resolve everything a login needs: the user with their inventory and
+     * their saved progress (with its room, timer and difficulty).
+     *
+     * This default looks the pieces up one after another; backends that
+     * can answer from a single read override it.
+     *
+     * @param username the username (case-insensitive)
+     * @return the session bootstrap, or null if there is no such user
+     */
+    default SessionBootstrap hydrate(String username) {
+        long start = System.nanoTime();
+        User u = findUser(username);
+        if (u == null)
+            return null;
+        Progress saved = u.userID == null ? null : loadProgress(u.userID);
+        return new SessionBootstrap(u, saved, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /**
+     * Replace the saved progress of p's user.
+     *
+     * @param p the progress snapshot
+     */
+    void saveProgress(Progress p);
+
+    /**
+     * Save a game: progress and the user (inventory) together.
+     *
+     * @param user the player, may be null
+     * @param p    their progress, may be null
+     * @return true if everything reached disk
+     */
+    boolean saveGame(User user, Progress p);
+
+    /**
+     * Append one entry to the score history.
+     *
+     * @param score the finished game
+     */
+    void saveScore(Score score);
+
+    /**
+     * @param username the player (case-insensitive)
+     * @return every score recorded for them, oldest first
+     */
+    ArrayList<Score> getScoreHistory(String username);
+
+    /**
+     * @return the current leaderboard (empty if none was saved)
+     */
+    Leaderboard getLeaderboard();
+
+    /**
+     * @return the path whose PlayerLocks guard this store's player records
+     *         and leaderboard
+     */
+    default Path getLockPath() {
+        return DataRoot.playerData();
+    }
+
+    /**
+     * Version of the score history, for caches of it (LeaderboardEngine):
+     * it changes whenever scores are added, by this process or another one.
+     *
+     * This default never changes; a store only written by this process needs
+     * nothing more.
+     *
+     * @return the current version
+     */
+    default long getScoresVersion() {
+        return 0;
+    }
+
+    /**
+     * Visit every recorded score once (LeaderboardEngine seeds from this).
+     *
+     * This default walks each user's history; backends that can stream all
+     * scores in one pass override it.
+     *
+     * @param visitor called with each score
+     */
+    default void scanScores(Consumer<Score> visitor) {
+        for (User u : getUsers()) {
+            if (u != null && u.getUsername() != null)
+                getScoreHistory(u.getUsername()).forEach(visitor);
+        }
+    }
+
+    /**
+     * The few best entries the leaderboard screens show.
+     *
+     * This default filters the whole leaderboard; backends that keep a
+     * smaller materialized view read that instead.
+     *
+     * @param difficulty a difficulty, or null for the overall list
+     * @return the top entries (up to LeaderboardView.N), best first
+     */
+    default Leaderboard getTopScores(Difficulty difficulty) {
+        ArrayList<Score> top = new ArrayList<>();
+        for (Score s : getLeaderboard().getAllScores()) {
+            if (top.size() < LeaderboardView.N && (difficulty == null || difficulty == s.getDifficulty()))
+                top.add(s);
+        }
+        Leaderboard lb = new Leaderboard();
+        lb.setEntries(top);
+        return lb;
+    }
+
+    /**
+     * Replace the leaderboard.
+     *
+     * @param leaderboard the new leaderboard
+     */
+    void saveLeaderboard(Leaderboard leaderboard);
+
+    /**
+     * Record a finished game: the score history entry and the updated
+     * leaderboard together.
+     *
+     * @param score       the finished game
+     * @param leaderboard the leaderboard including it
+     * @return true if everything reached disk
+     */
+    boolean recordResult(Score score, Leaderboard leaderboard);
+
+    /**
+     * Append a saved-game snapshot.
+     *
+     * @param data the snapshot
+     */
+    void saveSavedData(SavedData data);
+}
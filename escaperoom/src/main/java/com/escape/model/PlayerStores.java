@@ -0,0 +1,71 @@
+package com.escape.model;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Picks the PlayerStore the whole game shares.
+ *
+ * The backend comes from -Descaperoom.store=json|journal|indexed (json if
+ * unset) and is opened on first use. Tests and tools can swap it with set().
+ *
+ * @author Rudra Patel
+ */
+public final class PlayerStores {
+
+    public static final String JSON = "json";
+    public static final String JOURNAL = "journal";
+    public static final String INDEXED = "indexed";
+
+    private static PlayerStore current;
+
+    private PlayerStores() {
+    }
+
+    /**
+     * @return the shared store, opened on first use
+     */
+    public static synchronized PlayerStore get() {
+        if (current == null)
+            current = open(System.getProperty("escaperoom.store", JSON));
+        return current;
+    }
+
+    /**
+     * Replace the shared store (null reopens the configured one on next use).
+     *
+     * @param store the store to use from now on
+     */
+    public static synchronized void set(PlayerStore store) {
+        current = store;
+    }
+
+    /**
+     * Open a backend by name. Falls back to the JSON store if the name is
+     * unknown or the indexed store cannot be opened.
+     *
+     * @param kind json, journal or indexed
+     * @return the opened store
+     */
+    public static PlayerStore open(String kind) {
+        String k = kind == null ? JSON : kind.trim().toLowerCase(Locale.ROOT);
+        switch (k) {
+            case JOURNAL:
+                // journal mode is process-wide, like the other writer switches
+                GameDataWriter.setJournalEnabled(true);
+                return new JsonPlayerStore();
+            case INDEXED:
+                try {
+                    return new IndexedPlayerStore();
+                } catch (IOException e) {
+                    System.out.println("Could not open indexed player store, using JSON: " + e.getMessage());
+                    return new JsonPlayerStore();
+                }
+            case JSON:
+                return new JsonPlayerStore();
+            default:
+                System.out.println("Unknown player store '" + kind + "', using JSON");
+                return new JsonPlayerStore();
+        }
+    }
+}
@@ -24,6 +24,11 @@ public class Progress {
     private long timeRemainingSeconds;   // How much time is left on the timer
     private String difficulty;           // Game difficulty level
 
+    // Change tracking: every mutator bumps version; savedVersion is the one
+    // last written out, so unchanged progress is not saved again
+    private volatile long version = 1;
+    private volatile long savedVersion;
+
     public Progress(UUID progressUUID, UUID userUUID) {
         if (progressUUID == null) progressUUID = UUID.randomUUID();
         if (userUUID == null)     userUUID     = UUID.randomUUID();
@@ -35,10 +40,10 @@ public class Progress {
     }
 
     public UUID getProgressUUID() { return progressUUID; }
-    public void setProgressUUID(UUID progressUUID) { this.progressUUID = progressUUID; }
+    public void setProgressUUID(UUID progressUUID) { this.progressUUID = progressUUID; version++; }
 
     public UUID getUserUUID() { return userUUID; }
-    public void setUserUUID(UUID userUUID) { this.userUUID = userUUID; }
+    public void setUserUUID(UUID userUUID) { this.userUUID = userUUID; version++; }
 
     public int getStoryPos() { return storyPos; }
 
@@ -48,6 +53,7 @@ public class Progress {
     public void setStoryPos(int pos) {
         if (pos < 0) pos = 0;
         if (pos > TOTAL_BEATS) pos = TOTAL_BEATS;
+        if (storyPos != pos) version++;
         storyPos = pos;
     }
 
@@ -56,6 +62,7 @@ public class Progress {
      */
     public void advanceStory() {
         questionsAnswered++;
+        version++;
         if (storyPos < TOTAL_BEATS) {
             storyPos++;
         }
@@ -79,13 +86,19 @@ public class Progress {
 
     /** Setter used when restoring from a save file. */
     public void setQuestionsAnswered(int questionsAnswered) {
-        this.questionsAnswered = Math.max(0, questionsAnswered);
+        int value = Math.max(0, questionsAnswered);
+        if (this.questionsAnswered != value) version++;
+        this.questionsAnswered = value;
     }
 
-    public void useHint() { hintsUsed++; }
+    public void useHint() { hintsUsed++; version++; }
     public int getHintsUsed() { return hintsUsed; }
     /** Setter used when restoring from a save file. */
-    public void setHintsUsed(int hintsUsed) { this.hintsUsed = Math.max(0, hintsUsed); }
+    public void setHintsUsed(int hintsUsed) {
+        int value = Math.max(0, hintsUsed);
+        if (this.hintsUsed != value) version++;
+        this.hintsUsed = value;
+    }
 
     /**
      * Backward-compat alias: returns questionsAnswered).
@@ -100,6 +113,7 @@ public class Progress {
                 hintedPuzzles.add(puzzleTitle);
             }
             hintsUsed++; // keep your counter consistent
+            version++;
         }
 
         /** Titles of puzzles where a hint was used (persisted). */
@@ -110,6 +124,7 @@ public class Progress {
         /** Used by loader to restore hinted puzzles list. */
         public void setHintedPuzzles(java.util.List<String> titles) {
             this.hintedPuzzles = (titles == null) ? new java.util.ArrayList<>() : new java.util.ArrayList<>(titles);
+            version++;
         }
 
     // Getters and setters for save/restore state
@@ -118,6 +133,8 @@ public class Progress {
     }
 
     public void setCurrentRoomID(String currentRoomID) {
+        // saveGame() sets this on every save; only a different room is a change
+        if (!java.util.Objects.equals(this.currentRoomID, currentRoomID)) version++;
         this.currentRoomID = currentRoomID;
     }
 
@@ -126,6 +143,7 @@ public class Progress {
     }
 
     public void setTimeRemainingSeconds(long timeRemainingSeconds) {
+        if (this.timeRemainingSeconds != timeRemainingSeconds) version++;
         this.timeRemainingSeconds = timeRemainingSeconds;
     }
 
@@ -134,9 +152,19 @@ public class Progress {
     }
 
     public void setDifficulty(String difficulty) {
+        if (!java.util.Objects.equals(this.difficulty, difficulty)) version++;
         this.difficulty = difficulty;
     }
 
+    /** Change counter; grows with every change to this progress. */
+    public long getVersion() { return version; }
+
+    /** True if this progress changed since it was last saved or loaded. */
+    public boolean isDirty() { return version != savedVersion; }
+
+    /** Record that the progress as of version (from getVersion()) is on disk. */
+    void markSaved(long version) { savedVersion = version; }
+
     /**
      * Resets all progress to initial state (used when game is completed).
      * Clears story position, questions answered, hints used, room, timer, and difficulty.
@@ -149,6 +177,7 @@ public class Progress {
         this.currentRoomID = null;
         this.timeRemainingSeconds = 0;
         this.difficulty = null;
+        version++;
         System.out.println("[Progress] Reset to initial state");
     }
 
@@ -0,0 +1,74 @@
+package com.escape.model;
+
+/**
+ * How much history playerData.json keeps in its append-only arrays.
+ *
+ * scoresPerUser - keep only the newest N "scores" entries per username
+ * maxAgeDays - archive "scores"/"savedData" entries older than D days
+ * savedDataEntries - keep only the newest N "savedData" entries
+ *
+ * A limit of 0 means "no limit". Entries past any limit are moved to the
+ * HistoryArchive by GameDataWriter.compactHistory(); they are not deleted.
+ *
+ * Defaults come from system properties (all off unless set):
+ * -Descaperoom.retain.scoresPerUser=N
+ * -Descaperoom.retain.days=D
+ * -Descaperoom.retain.savedData=N
+ *
+ * @author Rudra Patel
+ */
+public class RetentionPolicy {
+
+    /** Keeps everything; compaction is a no-op. */
+    public static final RetentionPolicy KEEP_ALL = new RetentionPolicy(0, 0, 0);
+
+    private final int scoresPerUser;
+    private final int maxAgeDays;
+    private final int savedDataEntries;
+
+    /**
+     * @param scoresPerUser    newest scores kept per user (0 = all)
+     * @param maxAgeDays       entries older than this many days are archived (0 = never)
+     * @param savedDataEntries newest savedData entries kept (0 = all)
+     */
+    public RetentionPolicy(int scoresPerUser, int maxAgeDays, int savedDataEntries) {
+        this.scoresPerUser = Math.max(0, scoresPerUser);
+        this.maxAgeDays = Math.max(0, maxAgeDays);
+        this.savedDataEntries = Math.max(0, savedDataEntries);
+    }
+
+    /**
+     * @return the policy configured through escaperoom.retain.* properties
+     */
+    public static RetentionPolicy fromSystemProperties() {
+        return new RetentionPolicy(
+                Integer.getInteger("escaperoom.retain.scoresPerUser", 0),
+                Integer.getInteger("escaperoom.retain.days", 0),
+                Integer.getInteger("escaperoom.retain.savedData", 0));
+    }
+
+    public int getScoresPerUser() {
+        return scoresPerUser;
+    }
+
+    public int getMaxAgeDays() {
+        return maxAgeDays;
+    }
+
+    public int getSavedDataEntries() {
+        return savedDataEntries;
+    }
+
+    /**
+     * @return true if any limit is set
+     */
+    public boolean isEnabled() {
+        return scoresPerUser > 0 || maxAgeDays > 0 || savedDataEntries > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionPolicy{scoresPerUser=" + scoresPerUser + ", maxAgeDays=" + maxAgeDays
+                + ", savedDataEntries=" + savedDataEntries + "}";
+    }
+}
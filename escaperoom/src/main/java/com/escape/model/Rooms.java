@@ -281,8 +281,8 @@ public class Rooms {
                             System.out.println("Hint: " + puzzle.getHint());
                             // track *which* puzzle used a hint:
                             progress.addHintFor(puzzle.getTitle());
-                            // persist immediately if we want:
-                            try { if (facade != null) facade.saveProgressForCurrentUser(progress); } catch (Throwable ignored) {}
+                            // autosaved (debounced), so hint spamming does not hammer the disk
+                            try { if (facade != null) facade.autosaveProgress(progress); } catch (Throwable ignored) {}
                             break;
 
                     case "3":
@@ -1,6 +1,12 @@
 package com.escape.model;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
@@ -20,6 +26,13 @@ public class Score {
     private long timeLeftSec;
     private Date date;
     private long scoreValue;
+
+    // Change tracking (see isDirty): a saved score is not appended again
+    private volatile long version = 1;
+    private volatile long savedVersion;
+
+    // Date.toString() form, as GameDataWriter saves "date"
+    private static final DateTimeFormatter SAVED_DATE = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
     
     /** Required for GameDataLoader reflection. */
     public Score() { }
@@ -36,7 +49,7 @@ public class Score {
         this.username = username;
         this.difficulty = difficulty;
         this.timeLeftSec = timeLeftSec;
-        this.date = new Date();
+        this.date = date == null ? new Date() : date;
         this.scoreValue = scoreValue; // default until set
     }
 
@@ -81,6 +94,7 @@ public class Score {
     // Setters (needed by GameDataLoader)
     public void setUsername(String username) {
         this.username = username;
+        version++;
     }
 
     /**
@@ -97,6 +111,7 @@ public class Score {
             } catch (IllegalArgumentException e) {
                 this.difficulty = Difficulty.EASY; // default
             }
+            version++;
         }
     }
 
@@ -108,6 +123,7 @@ public class Score {
      */
     public void setDifficulty(Difficulty difficulty) {
         this.difficulty = difficulty;
+        version++;
     }
 
     /**
@@ -118,6 +134,7 @@ public class Score {
      */
     public void setTimeLeftSec(long timeLeftSec) {
         this.timeLeftSec = timeLeftSec;
+        version++;
     }
 
     /**
@@ -129,17 +146,35 @@ public class Score {
      */
     public void setTimeSeconds(long timeSeconds) {
         this.timeLeftSec = timeSeconds; // alias for loader compatibility
+        version++;
     }
 
     /**
-     * Sets the date of the score object to the current date.
-     * Currently, parsing of dateStr is not implemented and will be ignored.
+     * Sets the date of the score object from a saved date string: the
+     * Date.toString() form GameDataWriter stores, or an ISO date. Anything
+     * else (or null) sets the current date.
      * 
-     * @param dateStr the date string to be parsed (not implemented)
+     * @param dateStr the date string to be parsed
      */
     public void setDate(String dateStr) {
-        // For now, just set current date. Can parse dateStr if needed.
-        this.date = new Date();
+        this.date = parseDate(dateStr);
+        version++;
+    }
+
+    private static Date parseDate(String dateStr) {
+        if (dateStr != null) {
+            try {
+                return Date.from(ZonedDateTime.parse(dateStr, SAVED_DATE).toInstant());
+            } catch (DateTimeParseException notSaved) {
+                // older or hand-written entries
+            }
+            try {
+                return Date.from(LocalDate.parse(dateStr).atStartOfDay(ZoneId.systemDefault()).toInstant());
+            } catch (DateTimeParseException unknown) {
+                // fall through to now
+            }
+        }
+        return new Date();
     }
 
     /**
@@ -149,6 +184,7 @@ public class Score {
      */
     public void setDate(Date date) {
         this.date = date;
+        version++;
     }
 
     /**
@@ -161,6 +197,30 @@ public class Score {
      */
     public void setScore(long score) {
         this.scoreValue = score;
+        version++;
+    }
+
+    /**
+     * @return change counter; it grows with every setter call
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true if this score changed since it was last saved or loaded
+     */
+    public boolean isDirty() {
+        return version != savedVersion;
+    }
+
+    /**
+     * Record that the score as of the given version is on disk.
+     *
+     * @param version value of getVersion() when it was serialized
+     */
+    void markSaved(long version) {
+        savedVersion = version;
     }
 
     /**
@@ -0,0 +1,114 @@
+package com.escape.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Everything a session needs at login, resolved from player data in one
+ * read: the user, their inventory, their saved progress and the room, timer
+ * and difficulty that progress was saved at.
+ *
+ * Built by PlayerStore.hydrate() and handed to EscapeRoomFacade, which
+ * adopts the user and progress as the session's live objects and uses the
+ * rest to resume the game, so login no longer re-reads the file for each
+ * piece. The fields are fixed at hydration; the inventory and saved state
+ * are copies and do not follow later changes to the live objects.
+ *
+ * @author Rudra Patel
+ */
+public final class SessionBootstrap {
+
+    private final User user;
+    private final Progress progress;
+    private final boolean restored;
+    private final List<String> inventory;
+    private final String savedRoomID;
+    private final long timeRemainingSeconds;
+    private final Difficulty difficulty;
+    private final double hydrateMillis;
+
+    /**
+     * @param user          the account
+     * @param saved         their saved progress, or null for a first login
+     * @param hydrateMillis how long the read took
+     */
+    SessionBootstrap(User user, Progress saved, double hydrateMillis) {
+        this.user = user;
+        this.restored = saved != null;
+        this.progress = saved != null ? saved : new Progress(UUID.randomUUID(), user.userID);
+        this.inventory = Collections.unmodifiableList(user.getCollectedLetters());
+        this.savedRoomID = progress.getCurrentRoomID();
+        this.timeRemainingSeconds = progress.getTimeRemainingSeconds();
+        this.difficulty = difficultyOf(progress.getDifficulty());
+        this.hydrateMillis = hydrateMillis;
+    }
+
+    /**
+     * @return the account, with inventory
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * @return the saved progress, or a fresh one on a first login
+     */
+    public Progress getProgress() {
+        return progress;
+    }
+
+    /**
+     * @return true if getProgress() came from a save
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * @return the collected letters at login
+     */
+    public List<String> getInventory() {
+        return inventory;
+    }
+
+    /**
+     * @return the room the game was saved in, or null
+     */
+    public String getSavedRoomID() {
+        return savedRoomID;
+    }
+
+    /**
+     * @return seconds left on the timer when the game was saved (0 if none)
+     */
+    public long getTimeRemainingSeconds() {
+        return timeRemainingSeconds;
+    }
+
+    /**
+     * @return the difficulty the game was saved at, or null
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * @return how long hydration took, in milliseconds
+     */
+    public double getHydrateMillis() {
+        return hydrateMillis;
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private static Difficulty difficultyOf(String name) {
+        if (name == null)
+            return null;
+        try {
+            return Difficulty.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
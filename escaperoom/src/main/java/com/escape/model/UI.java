@@ -85,8 +85,7 @@ public class UI
      * Display the leaderboard.
      */
     private void displayLeaderboard() {
-        GameDataLoader loader = new GameDataLoader();
-        Leaderboard leaderboard = loader.getLeaderboard();
+        Leaderboard leaderboard = facade.getLeaderboard();
 
         if(leaderboard.size() == 0) {
             System.out.println("Leaderboard cannot be loaded!");
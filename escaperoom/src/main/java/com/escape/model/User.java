@@ -27,6 +27,11 @@ public class User {
     private String email;
     private Inventory inventory;
 
+    // Change tracking for the user's own fields; the inventory tracks its
+    // own. Saved as a (version, inventory version) pair, see getVersion().
+    private volatile long version = 1;
+    private volatile long savedVersion;
+
     /**
      * Returns the username (same as getUser but clearer name for writers/loaders).
      * 
@@ -61,7 +66,11 @@ public class User {
      * @param email the new email
      */
     public void setEmail(String email) {
+        String old = this.email;
         this.email = email;
+        version++;
+        // keep Accounts' email index in step
+        Accounts.emailChanged(this, old);
     }
 
     /**
@@ -130,6 +139,7 @@ public class User {
      */
     public void setInventory(Inventory inventory) {
         this.inventory = inventory;
+        version++;
     }
 
     /**
@@ -150,12 +160,40 @@ public class User {
         if (letter == null)
             return false;
         if (this.inventory == null)
-            this.inventory = new Inventory(26);
+            setInventory(new Inventory(26));
         if (this.inventory.hasItem(letter))
             return false; // avoid duplicates
         return this.inventory.addItem(letter);
     }
 
+    /**
+     * Change counter covering the user and their inventory. Replacing the
+     * inventory bumps the user's own counter, so the pair never repeats.
+     *
+     * @return (user version, inventory version) packed into one long
+     */
+    public long getVersion() {
+        Inventory inv = inventory;
+        return (version << 32) | (inv == null ? 0 : inv.getVersion() & 0xffffffffL);
+    }
+
+    /**
+     * @return true if the user or their inventory changed since they were
+     *         last saved or loaded
+     */
+    public boolean isDirty() {
+        return getVersion() != savedVersion;
+    }
+
+    /**
+     * Record that the user as of the given version is on disk.
+     *
+     * @param version value of getVersion() when it was serialized
+     */
+    void markSaved(long version) {
+        savedVersion = version;
+    }
+
     /**
      * TESTING THE USER CLASS CODE BELOW
      */
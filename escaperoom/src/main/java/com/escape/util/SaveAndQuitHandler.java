@@ -1,6 +1,7 @@
 package com.escape.util;
 
 import com.escape.App;
+import javafx.application.Platform;
 import javafx.scene.control.Alert;
 
 import java.io.IOException;
@@ -35,9 +36,18 @@ public class SaveAndQuitHandler {
 
             System.out.println("[SaveAndQuit] Starting save and quit for user: " + App.currentUser.getUsername());
 
-            // 1. Save complete game state (timer, room, difficulty, progress, letters)
-            App.gameFacade.saveGame();
-            System.out.println("[SaveAndQuit] Game state saved successfully");
+            // 1. Save complete game state (timer, room, difficulty, progress, letters).
+            // The state is captured now; the write finishes in the background
+            // and is flushed before the JVM exits.
+            String username = App.currentUser.getUsername();
+            App.gameFacade.saveGameAsync().whenComplete((ok, err) -> Platform.runLater(() -> {
+                if (err == null && Boolean.TRUE.equals(ok)) {
+                    System.out.println("[SaveAndQuit] Game state saved successfully for " + username);
+                } else {
+                    System.err.println("[SaveAndQuit] Save failed for " + username);
+                    showError("Your progress could not be saved.");
+                }
+            }));
 
             // 2. Logout user
             App.gameFacade.logout();
@@ -73,8 +83,11 @@ public class SaveAndQuitHandler {
      */
     public static void quickSave() {
         if (App.gameFacade != null && App.currentUser != null) {
-            App.gameFacade.saveGame();
-            System.out.println("[QuickSave] Progress saved for " + App.currentUser.getUsername());
+            String username = App.currentUser.getUsername();
+            App.gameFacade.saveGameAsync().thenAccept(ok -> {
+                if (Boolean.TRUE.equals(ok))
+                    System.out.println("[QuickSave] Progress saved for " + username);
+            });
         }
     }
     
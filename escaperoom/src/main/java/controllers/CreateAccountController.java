@@ -6,8 +6,8 @@ import java.util.ResourceBundle;
 
 import com.escape.App;
 import com.escape.model.Accounts;
-import com.escape.model.GameDataWriter;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Label;
@@ -121,24 +121,42 @@ public class CreateAccountController implements Initializable {
         }
 
         Accounts accounts = Accounts.getInstance();
-        if (accounts.getUser(username) != null) {
+        if (!accounts.isUsernameAvailable(username)) {
             welcomeCreateAccountLabel.setText("[ Username Taken ]");
             welcomeCreateAccountLabel.setTextFill(javafx.scene.paint.Color.web("#ff0000"));
             return;
         }
 
-        if (accounts.getUserByEmail(email) != null) {
+        if (!accounts.isEmailAvailable(email)) {
             welcomeCreateAccountLabel.setText("[ Email Taken ]");
             welcomeCreateAccountLabel.setTextFill(javafx.scene.paint.Color.web("#ff0000"));
             return;
         }
 
-        // Create Account
-        accounts.createAccount(username, password, email);
+        // Ensure gameFacade exists
+        if (App.gameFacade == null) {
+            App.gameFacade = new com.escape.model.EscapeRoomFacade();
+        }
+
+        // Create and save the account on the persistence threads; only the
+        // result comes back to the FX thread
+        App.gameFacade.createAccountAsync(username, password, email)
+                .whenComplete((ok, err) -> Platform.runLater(() -> showCreateResult(ok, err)));
+    }
 
-        // Save Data
-        GameDataWriter writer = new GameDataWriter();
-        writer.saveAccounts(accounts);
+    private void showCreateResult(Boolean created, Throwable err) {
+        if (err != null) {
+            // rejected or not saved (e.g. disk error), not a name clash
+            System.out.println("Account creation failed: " + err.getMessage());
+            welcomeCreateAccountLabel.setText("[ Account Not Saved - Try Again ]");
+            welcomeCreateAccountLabel.setTextFill(javafx.scene.paint.Color.web("#ff0000"));
+            return;
+        }
+        if (!Boolean.TRUE.equals(created)) {
+            welcomeCreateAccountLabel.setText("[ Username Taken ]");
+            welcomeCreateAccountLabel.setTextFill(javafx.scene.paint.Color.web("#ff0000"));
+            return;
+        }
 
         // Success Feedback
         welcomeCreateAccountLabel.setText("[ Account Created ]");
@@ -353,17 +353,19 @@ public class FinalPuzzleController {
         System.out.println("[FinalPuzzle] Puzzle complete! Player has escaped!");
         
         if (App.gameFacade != null) {
-            // End the game first (this calculates final score and updates leaderboard)
-            try {
-                App.gameFacade.endGame();
-                System.out.println("[FinalPuzzle] Game ended, score recorded");
-            } catch (Exception e) {
-                System.err.println("[FinalPuzzle] Error ending game: " + e.getMessage());
-            }
+            // End the game first (this calculates final score and updates leaderboard).
+            // Both writes go to the user's persistence lane, so the reset is
+            // written after the score even though neither blocks this thread.
+            App.gameFacade.endGameAsync().whenComplete((ok, err) -> {
+                if (err != null)
+                    System.err.println("[FinalPuzzle] Error ending game: " + err.getMessage());
+                else
+                    System.out.println("[FinalPuzzle] Game ended, score recorded");
+            });
             
             // Now reset the save data so they can play again
-            App.gameFacade.resetGameState();
-            System.out.println("[FinalPuzzle] Save data reset - user can start a new game");
+            App.gameFacade.resetGameStateAsync().thenAccept(ok ->
+                    System.out.println("[FinalPuzzle] Save data reset - user can start a new game"));
         }
     }
 
@@ -5,9 +5,10 @@ import java.net.URL;
 import java.util.ResourceBundle;
 
 import com.escape.App;
-import com.escape.model.Accounts;
+import com.escape.model.SessionBootstrap;
 import com.escape.model.User;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.PasswordField;
@@ -44,36 +45,43 @@ public class LoginController implements Initializable {
         }
     }
 
-    private void verifyAndLogin() throws IOException {
+    private void verifyAndLogin() {
         String username = usernameField.getText();
         String password = passwordField.getText();
 
-        User user = Accounts.getInstance().getUser(username);
-        if (user != null && user.getPassword().equals(password)) {
+        // Ensure gameFacade exists
+        if (App.gameFacade == null) {
+            App.gameFacade = new com.escape.model.EscapeRoomFacade();
+        }
+
+        // Account lookup and progress restore run on the persistence
+        // threads; only the result comes back to the FX thread
+        enterButtonLabel.setDisable(true);
+        App.gameFacade.loginAsync(username, password).whenComplete((user, err) -> Platform.runLater(() -> {
+            enterButtonLabel.setDisable(false);
+            if (err != null)
+                System.err.println("[Login] Lookup failed: " + err.getMessage());
+            showLoginResult(err == null ? user : null, username);
+        }));
+    }
+
+    private void showLoginResult(User user, String username) {
+        if (user != null) {
             // Login successful
             enterButtonLabel.setText("[ Access Granted ]");
             enterButtonLabel.setTextFill(javafx.scene.paint.Color.LIME);
 
-            // Set global user
+            // Set global user (the facade already has it, with its progress);
+            // room, timer and difficulty come from the one read login made
             App.currentUser = user;
-            
-            // Ensure gameFacade exists
-            if (App.gameFacade == null) {
-                App.gameFacade = new com.escape.model.EscapeRoomFacade();
-            }
-            
-            App.gameFacade.setCurrentUser(user);
-            
-            // Restore user's progress to check if they have a saved game
-            App.gameFacade.restoreProgressForCurrentUser();
-            com.escape.model.Progress progress = App.gameFacade.getProgress();
+            SessionBootstrap boot = App.gameFacade.getSessionBootstrap();
             
             System.out.println("[Login] User logged in: " + username);
-            if (progress != null) {
-                System.out.println("[Login] Progress found - StoryPos: " + progress.getStoryPos() 
-                    + ", Room: " + progress.getCurrentRoomID() 
-                    + ", Difficulty: " + progress.getDifficulty()
-                    + ", TimeRemaining: " + progress.getTimeRemainingSeconds());
+            if (boot != null && boot.isRestored()) {
+                System.out.println("[Login] Progress found - StoryPos: " + boot.getProgress().getStoryPos() 
+                    + ", Room: " + boot.getSavedRoomID() 
+                    + ", Difficulty: " + boot.getDifficulty()
+                    + ", TimeRemaining: " + boot.getTimeRemainingSeconds());
             } else {
                 System.out.println("[Login] No progress found for user");
             }
@@ -86,10 +94,11 @@ public class LoginController implements Initializable {
                     // Check if user has saved progress
                     // Consider saved game if: has room ID, difficulty, or non-default time
                     // (Don't rely solely on storyPos since user might save before solving puzzles)
-                    boolean hasSavedGame = progress != null && (
-                        (progress.getCurrentRoomID() != null && !progress.getCurrentRoomID().isEmpty()) ||
-                        (progress.getDifficulty() != null && !progress.getDifficulty().isEmpty()) ||
-                        progress.getTimeRemainingSeconds() > 0
+                    String savedRoom = boot == null ? null : boot.getSavedRoomID();
+                    boolean hasSavedGame = boot != null && (
+                        (savedRoom != null && !savedRoom.isEmpty()) ||
+                        boot.getDifficulty() != null ||
+                        boot.getTimeRemainingSeconds() > 0
                     );
                     
                     System.out.println("[Login] hasSavedGame check: " + hasSavedGame);
@@ -97,23 +106,14 @@ public class LoginController implements Initializable {
                     if (hasSavedGame) {
                         // User has saved game - restore everything and skip difficulty menu
                         System.out.println("[Login] *** RESTORING SAVED GAME ***");
-                        System.out.println("  Story Position: " + progress.getStoryPos());
-                        System.out.println("  Room: " + progress.getCurrentRoomID());
-                        System.out.println("  Time Remaining: " + progress.getTimeRemainingSeconds() + " seconds");
-                        System.out.println("  Difficulty: " + progress.getDifficulty());
+                        System.out.println("  Story Position: " + boot.getProgress().getStoryPos());
+                        System.out.println("  Room: " + savedRoom);
+                        System.out.println("  Time Remaining: " + boot.getTimeRemainingSeconds() + " seconds");
+                        System.out.println("  Difficulty: " + boot.getDifficulty());
                         
                         // Restore difficulty from saved progress
-                        String savedDifficulty = progress.getDifficulty();
-                        if (savedDifficulty != null && !savedDifficulty.isEmpty()) {
-                            try {
-                                App.currentDifficulty = com.escape.model.Difficulty.valueOf(savedDifficulty);
-                            } catch (IllegalArgumentException ex) {
-                                System.err.println("[Login] Invalid difficulty: " + savedDifficulty);
-                                App.currentDifficulty = com.escape.model.Difficulty.EASY;
-                            }
-                        } else {
-                            App.currentDifficulty = com.escape.model.Difficulty.EASY;
-                        }
+                        App.currentDifficulty = boot.getDifficulty() != null ? boot.getDifficulty()
+                                : com.escape.model.Difficulty.EASY;
                         
                         // Start game with saved difficulty
                         App.gameFacade.startGame(App.currentDifficulty);
@@ -134,14 +134,14 @@ public class LoginController implements Initializable {
                         System.out.println("[Login] Progress bar synced: " + progressPercent + "%");
                         
                         // Restore timer to saved time
-                        if (App.gameFacade.getTimer() != null && progress.getTimeRemainingSeconds() > 0) {
-                            App.gameFacade.getTimer().setRemainingSeconds(progress.getTimeRemainingSeconds());
+                        long timeLeft = boot.getTimeRemainingSeconds();
+                        if (App.gameFacade.getTimer() != null && timeLeft > 0) {
+                            App.gameFacade.getTimer().setRemainingSeconds(timeLeft);
                             App.gameFacade.getTimer().start();
-                            System.out.println("[Login] Timer restored to " + progress.getTimeRemainingSeconds() + " seconds");
+                            System.out.println("[Login] Timer restored to " + timeLeft + " seconds");
                         }
                         
                         // Navigate to the saved room or ChamberHall if no specific room saved
-                        String savedRoom = progress.getCurrentRoomID();
                         if (savedRoom != null && !savedRoom.isEmpty()) {
                             // Map room IDs to their FXML files
                             String fxmlFile = mapRoomIDToFXML(savedRoom);
@@ -171,7 +171,7 @@ public class LoginController implements Initializable {
                     new java.util.TimerTask() {
                         @Override
                         public void run() {
-                            javafx.application.Platform.runLater(() -> {
+                            Platform.runLater(() -> {
                                 enterButtonLabel.setText("[ Login ]");
                                 enterButtonLabel.setTextFill(javafx.scene.paint.Color.LIME);
                             });
@@ -0,0 +1,89 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit tests for {@link AccountFilter}.
+ */
+public class AccountFilterTest {
+
+    private Path dir;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("accountfilter");
+        file = dir.resolve(AccountFilter.FILE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator)
+                Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private static List<User> users(String prefix, int n) {
+        List<User> list = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            list.add(new User(UUID.randomUUID(), prefix + i, "pw", prefix + i + "@example.com"));
+        return list;
+    }
+
+    @Test
+    public void knownNames_alwaysMatchIgnoringCase() {
+        AccountFilter filter = AccountFilter.open(file, users("Player", 500));
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(filter.mightContainUsername("player" + i));
+            assertTrue(filter.mightContainEmail("PLAYER" + i + "@EXAMPLE.COM"));
+        }
+    }
+
+    @Test
+    public void unknownNames_rarelyMatch() {
+        AccountFilter filter = AccountFilter.open(file, users("player", 500));
+
+        int hits = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContainUsername("stranger" + i))
+                hits++;
+        }
+        assertTrue("false positive rate too high: " + hits, hits < 300);
+    }
+
+    @Test
+    public void addedNames_persistAndAreSeenByOtherInstances() {
+        AccountFilter first = AccountFilter.open(file, users("player", 10));
+        AccountFilter second = AccountFilter.open(file, List.of());
+        assertFalse(second.mightContainUsername("newcomer"));
+
+        first.add(new User(UUID.randomUUID(), "Newcomer", "pw", "new@example.com"));
+
+        assertTrue(second.mightContainUsername("newcomer"));
+        assertTrue(second.mightContainEmail("new@example.com"));
+        AccountFilter reopened = AccountFilter.open(file, List.of());
+        assertTrue(reopened.mightContainUsername("player3"));
+        assertTrue(reopened.mightContainUsername("NEWCOMER"));
+    }
+
+    @Test
+    public void manyAdds_markFilterOverfull() {
+        AccountFilter filter = AccountFilter.open(file, List.of());
+        assertFalse(filter.isOverfull());
+        for (User u : users("late", 200))
+            filter.add(u);
+        assertTrue(filter.isOverfull());
+
+        AccountFilter rebuilt = AccountFilter.open(file, users("late", 200));
+        assertFalse(rebuilt.isOverfull());
+        assertTrue(rebuilt.mightContainUsername("late199"));
+    }
+}
@@ -1,16 +1,25 @@
 package com.escape.model;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.UUID;
 
 public class AccountsTest {
 
     private Accounts accounts;
+    private Path dataRoot;
 
     @Before
-    public void setUp() {
+    public void setUp() throws Exception {
+        // Own player store, so accounts saved by other tests don't count as taken
+        dataRoot = Files.createTempDirectory("accounts");
+        PlayerStores.set(new JsonPlayerStore(dataRoot));
         // Reset singleton instance before each test
         accounts = Accounts.getInstance();
         // Clear all accounts for clean test state
@@ -20,6 +29,14 @@ public class AccountsTest {
         }
     }
 
+    @After
+    public void tearDown() throws Exception {
+        PlayerStores.set(null);
+        try (var walk = Files.walk(dataRoot)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
     /**
      * Tests that getInstance returns the same singleton instance.
      */
@@ -284,4 +301,95 @@ public class AccountsTest {
         assertNotNull(accounts.getUser("user3"));
         assertEquals(2, accounts.getAccounts().size());
     }
+
+    /**
+     * Tests that getUserByEmail ignores case and getUserById finds the same
+     * account.
+     */
+    @Test
+    public void getUserByEmailAndId_shouldUseIndexes() {
+        accounts.createAccount("mailuser", "pass", "Mail.User@Example.com");
+        User user = accounts.getUser("mailuser");
+
+        assertSame(user, accounts.getUserByEmail("mail.user@example.COM"));
+        assertSame(user, accounts.getUserById(user.userID));
+        assertNull(accounts.getUserByEmail("other@example.com"));
+        assertNull(accounts.getUserById(UUID.randomUUID()));
+    }
+
+    /**
+     * Tests that deleteAccount removes the account from every index.
+     */
+    @Test
+    public void deleteAccount_shouldClearAllIndexes() {
+        accounts.createAccount("GoneUser", "pass", "gone@example.com");
+        UUID id = accounts.getUser("GoneUser").userID;
+
+        accounts.deleteAccount("GoneUser");
+
+        assertNull(accounts.getUserCaseInsensitive("goneuser"));
+        assertNull(accounts.getUserByEmail("gone@example.com"));
+        assertNull(accounts.getUserById(id));
+    }
+
+    /**
+     * Tests that a registered account sharing a case-folded name becomes
+     * visible once the earlier account is deleted.
+     */
+    @Test
+    public void register_shouldTakeOverKeyWhenEarlierAccountDeleted() {
+        accounts.createAccount("Shared", "pass1", "a@example.com");
+        User later = new User(UUID.randomUUID(), "SHARED", "pass2", "b@example.com");
+        accounts.register(later);
+        accounts.register(later);
+
+        assertEquals("Shared", accounts.getUserCaseInsensitive("shared").getUsername());
+        assertEquals(2, accounts.getAccounts().size());
+
+        accounts.deleteAccount("Shared");
+
+        assertSame(later, accounts.getUserCaseInsensitive("shared"));
+        assertSame(later, accounts.getUser("SHARED"));
+    }
+
+    /**
+     * Tests that changing a user's email moves them to the new email key at
+     * once, and frees the old one.
+     */
+    @Test
+    public void setEmail_shouldRekeyEmailIndex() {
+        accounts.createAccount("mover", "pass", "old@example.com");
+        User user = accounts.getUser("mover");
+
+        user.setEmail("New@Example.com");
+
+        assertSame(user, accounts.getUserByEmail("new@example.com"));
+        assertNull(accounts.getUserByEmail("old@example.com"));
+        assertFalse(accounts.isEmailAvailable("new@example.com"));
+        assertTrue(accounts.isEmailAvailable("old@example.com"));
+    }
+
+    /**
+     * Tests that the sign-up filter lives with the active player store and
+     * follows it when the store is switched.
+     */
+    @Test
+    public void filter_shouldFollowActivePlayerStore() throws Exception {
+        accounts.createAccount("filtered", "pass", "filtered@example.com");
+        assertTrue(Files.exists(dataRoot.resolve(AccountFilter.FILE)));
+
+        Path other = Files.createTempDirectory("accounts-other");
+        try {
+            JsonPlayerStore otherStore = new JsonPlayerStore(other);
+            otherStore.saveUser(new User(UUID.randomUUID(), "elsewhere", "pass", "e@example.com"));
+            PlayerStores.set(otherStore);
+
+            assertFalse(accounts.isUsernameAvailable("elsewhere"));
+            assertTrue(Files.exists(other.resolve(AccountFilter.FILE)));
+        } finally {
+            try (var walk = Files.walk(other)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for {@link Autosave}.
+ *
+ * <p>
+ * The autosaver reads a controllable clock; each test moves it and calls
+ * flushDue() instead of waiting for the timer.
+ * </p>
+ */
+public class AutosaveTest {
+
+    private PersistenceExecutor executor;
+    private List<Integer> written;
+    private final AtomicLong now = new AtomicLong(1_800_000_000_000L);
+
+    @Before
+    public void setUp() {
+        executor = new PersistenceExecutor(1, 16);
+        written = new CopyOnWriteArrayList<>();
+    }
+
+    // Move the clock and run whatever became due.
+    private void advance(Autosave autosave, long millis) {
+        now.addAndGet(millis);
+        autosave.flushDue();
+        assertTrue(executor.flush(5, TimeUnit.SECONDS));
+    }
+
+    // A burst of requests becomes one write of the newest state.
+    @Test
+    public void request_coalescesBurstIntoOneWrite() {
+        Autosave autosave = new Autosave(executor, now::get, 100, 5000);
+        for (int i = 1; i <= 20; i++) {
+            int state = i;
+            autosave.request("ana", () -> written.add(state));
+        }
+        advance(autosave, 99);
+        assertTrue(written.isEmpty());
+
+        advance(autosave, 1);
+        assertEquals(List.of(20), written);
+        assertEquals(0, autosave.pendingCount());
+    }
+
+    // Steady activity never goes quiet, but saves still happen by maxStale.
+    @Test
+    public void request_isNotDelayedPastMaxStaleness() {
+        Autosave autosave = new Autosave(executor, now::get, 100, 250);
+        // a request every 20 ms for 700 ms
+        for (int state = 1; state <= 35; state++) {
+            int s = state;
+            autosave.request("ana", () -> written.add(s));
+            advance(autosave, 20);
+        }
+        // due at 250 ms (last request at 240) and at 510 ms (last at 500)
+        assertEquals(List.of(13, 26), written);
+        assertEquals(1, autosave.pendingCount());
+    }
+
+    // flush() writes a pending save right away; keys are independent.
+    @Test
+    public void flush_writesPendingSaveNow() throws Exception {
+        Autosave autosave = new Autosave(executor, now::get, 10_000, 60_000);
+        autosave.request("ana", () -> written.add(1));
+        autosave.request("ben", () -> written.add(2));
+        assertEquals(2, autosave.pendingCount());
+
+        assertTrue(autosave.flush("ana").get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1), written);
+        assertEquals(1, autosave.pendingCount());
+        // nothing pending: completes at once
+        assertTrue(autosave.flush("ana").get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1), written);
+    }
+}
@@ -0,0 +1,101 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Unit tests for {@link ContentPack}.
+ */
+public class ContentPackTest {
+
+    private Path dir;
+    private Path gameJson;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("contentpack");
+        gameJson = dir.resolve("game.json");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(gameJson);
+        Files.deleteIfExists(ContentPack.packFileFor(gameJson));
+        Files.deleteIfExists(dir);
+    }
+
+    private static JSONObject game(String roomTitle) {
+        JSONObject puzzle = new JSONObject();
+        puzzle.put("id", "p1");
+        puzzle.put("category", "NUMBER");
+        puzzle.put("title", "Add up");
+        puzzle.put("hint", "Use math");
+
+        JSONArray puzzles = new JSONArray();
+        puzzles.add(puzzle);
+
+        JSONObject room = new JSONObject();
+        room.put("roomID", "room1");
+        room.put("title", roomTitle);
+        room.put("puzzles", puzzles);
+
+        JSONArray rooms = new JSONArray();
+        rooms.add(room);
+
+        JSONObject story = new JSONObject();
+        story.put("intro", "Wake up – ünïcödé");
+
+        JSONObject root = new JSONObject();
+        root.put("rooms", rooms);
+        root.put("story", story);
+        return root;
+    }
+
+    // Compiled content reads back field for field.
+    @Test
+    public void fromJson_roundTripsRoomsPuzzlesAndStory() {
+        ContentPack pack = ContentPack.fromJson(game("Lab"));
+
+        assertEquals(1, pack.roomCount());
+        assertEquals("room1", pack.roomId(0));
+        assertEquals("Lab", pack.roomTitle(0));
+        assertEquals(1, pack.puzzleCount(0));
+
+        int p = pack.firstPuzzle(0);
+        assertEquals("p1", pack.puzzle(p, ContentPack.P_ID));
+        assertEquals("Use math", pack.puzzle(p, ContentPack.P_HINT));
+        assertNull(pack.puzzle(p, ContentPack.P_SOLUTION));
+
+        assertTrue(pack.hasStory());
+        assertEquals("Wake up – ünïcödé", pack.story(0));
+        assertNull(pack.story(1));
+    }
+
+    // forSource writes a pack file and reuses it while game.json is unchanged.
+    @Test
+    public void forSource_writesPackAndReusesIt() throws Exception {
+        Files.writeString(gameJson, game("Lab").toJSONString());
+
+        ContentPack first = ContentPack.forSource(gameJson);
+        assertTrue(Files.exists(ContentPack.packFileFor(gameJson)));
+        assertSame(first, ContentPack.forSource(gameJson));
+    }
+
+    // Editing game.json makes the pack stale; it is rebuilt from the JSON.
+    @Test
+    public void forSource_rebuildsStalePack() throws Exception {
+        Files.writeString(gameJson, game("Lab").toJSONString());
+        assertEquals("Lab", ContentPack.forSource(gameJson).roomTitle(0));
+
+        Files.writeString(gameJson, game("Library").toJSONString());
+        Files.setLastModifiedTime(gameJson, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertEquals("Library", ContentPack.forSource(gameJson).roomTitle(0));
+    }
+}
@@ -0,0 +1,102 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link GameContent} and {@link GameContentWatcher}.
+ */
+public class GameContentTest {
+
+    private Path dir;
+    private Path gameJson;
+    private long modified = System.currentTimeMillis();
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("gamecontent");
+        gameJson = dir.resolve("game.json");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // later tests get the real game.json again
+        GameContent.reset();
+        Files.deleteIfExists(gameJson);
+        Files.deleteIfExists(ContentPack.packFileFor(gameJson));
+        Files.deleteIfExists(dir);
+    }
+
+    private void write(String json) throws Exception {
+        Files.writeString(gameJson, json);
+        // a new stamp every write, so the pack is always rebuilt
+        modified += 2000;
+        Files.setLastModifiedTime(gameJson, FileTime.fromMillis(modified));
+    }
+
+    private static String game(String roomTitle) {
+        return "{\"story\":{\"intro\":\"Wake up\"},\"rooms\":[{\"roomID\":\"room1\",\"title\":\"" + roomTitle
+                + "\",\"puzzles\":[{\"id\":\"p1\",\"category\":\"NUMBER\",\"solution\":\"42\"}]}]}";
+    }
+
+    // A session's snapshot is unchanged by a reload; new sessions see the edit.
+    @Test
+    public void reload_swapsSnapshotButKeepsOldOneReadable() throws Exception {
+        write(game("Old Hall"));
+        assertTrue(GameContent.reload(gameJson));
+        GameContent session = GameContent.current();
+
+        write(game("New Hall"));
+        assertTrue(GameContent.reload(gameJson));
+        GameContent next = GameContent.current();
+
+        assertNotSame(session, next);
+        assertTrue(next.version() > session.version());
+        GameDataLoader loader = new GameDataLoader();
+        assertEquals("Old Hall", loader.getRooms(session).get(0).getTitle());
+        assertEquals("New Hall", loader.getRooms(next).get(0).getTitle());
+        assertEquals("Wake up", loader.getStory(next).getIntro());
+    }
+
+    // Broken or incomplete edits are rejected and the old snapshot stays.
+    @Test
+    public void reload_rejectsInvalidContent() throws Exception {
+        write(game("Hall"));
+        assertTrue(GameContent.reload(gameJson));
+        GameContent good = GameContent.current();
+
+        write("{\"rooms\": [ {\"roomID\": ");
+        assertFalse(GameContent.reload(gameJson));
+        write("{\"story\":{},\"rooms\":[{\"roomID\":\"room1\",\"puzzles\":[{\"id\":\"p1\"}]}]}");
+        assertFalse(GameContent.reload(gameJson));
+        write("{\"story\":{},\"rooms\":[]}");
+        assertFalse(GameContent.reload(gameJson));
+
+        assertSame(good, GameContent.current());
+        assertEquals("Hall", good.pack().roomTitle(0));
+    }
+
+    // Several quick writes end in one callback, after they stop.
+    @Test
+    public void watcher_firesAfterChange() throws Exception {
+        write(game("Hall"));
+        CountDownLatch changed = new CountDownLatch(1);
+        GameContentWatcher w = GameContentWatcher.start(gameJson, changed::countDown);
+        assertNotNull(w);
+        try {
+            Files.writeString(dir.resolve("other.txt"), "not watched");
+            for (int i = 0; i < 3; i++)
+                write(game("Hall " + i));
+            assertTrue(changed.await(10, TimeUnit.SECONDS));
+        } finally {
+            w.close();
+            Files.deleteIfExists(dir.resolve("other.txt"));
+        }
+    }
+}
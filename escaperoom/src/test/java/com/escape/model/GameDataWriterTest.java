@@ -17,17 +17,12 @@ import java.util.*;
  * Unit tests for {@link GameDataWriter}.
  *
  * <p>
- * These tests create/overwrite JSON fixtures at the same relative paths the
- * writer
- * uses so we can exercise real file I/O without changing production code.
- * </p>
- *
- * <p>
- * Fixture roots (created per test):
+ * Each test gets its own data root (a temp directory) holding the fixtures,
+ * so these tests exercise real file I/O without touching the working tree:
  * </p>
  * <ul>
- * <li>escaperoom/src/main/resources/json/playerData.json</li>
- * <li>escaperoom/src/main/resources/json/game.json</li>
+ * <li>&lt;root&gt;/playerData.json</li>
+ * <li>&lt;root&gt;/game.json</li>
  * </ul>
  *
  * <p>
@@ -44,9 +39,9 @@ import java.util.*;
  */
 public class GameDataWriterTest {
 
-    private static final Path JSON_DIR = Path.of("escaperoom", "src", "main", "resources", "json");
-    private static final Path PLAYER_JSON = JSON_DIR.resolve("playerData.json");
-    private static final Path GAME_JSON = JSON_DIR.resolve("game.json");
+    private Path jsonDir;
+    private Path playerJson;
+    private Path gameJson;
 
     private final JSONParser parser = new JSONParser();
     private GameDataWriter writer;
@@ -54,9 +49,10 @@ public class GameDataWriterTest {
     // Build a clean JSON sandbox before each test.
     @Before
     public void setUp() throws Exception {
-        writer = new GameDataWriter();
-
-        Files.createDirectories(JSON_DIR);
+        jsonDir = Files.createTempDirectory("writer");
+        playerJson = DataRoot.playerData(jsonDir);
+        gameJson = jsonDir.resolve("game.json");
+        writer = new GameDataWriter(jsonDir);
 
         // Minimal, empty playerData.json so writer can mutate/merge
         JSONObject player = new JSONObject();
@@ -65,37 +61,36 @@ public class GameDataWriterTest {
         player.put("leaderboard", new JSONArray());
         player.put("savedData", new JSONArray());
         player.put("progress", new JSONArray());
-        try (FileWriter fw = new FileWriter(PLAYER_JSON.toFile())) {
+        try (FileWriter fw = new FileWriter(playerJson.toFile())) {
             fw.write(player.toJSONString());
         }
 
         // Minimal game.json (will be overwritten by saveRooms as needed)
         JSONObject game = new JSONObject();
         game.put("rooms", new JSONArray());
-        try (FileWriter fw = new FileWriter(GAME_JSON.toFile())) {
+        try (FileWriter fw = new FileWriter(gameJson.toFile())) {
             fw.write(game.toJSONString());
         }
     }
 
-    // Clean up generated files (kept shallow so git status stays clean).
+    // Remove the data root and everything written into it.
     @After
     public void tearDown() throws Exception {
-        // inspect the JSON after a run
-        Files.deleteIfExists(PLAYER_JSON);
-        Files.deleteIfExists(GAME_JSON);
-        // Do not remove directories; they’re harmless and simplify reruns.
+        try (var walk = Files.walk(jsonDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
     }
 
     // helpers
 
     private JSONObject readPlayerJson() throws Exception {
-        try (FileReader fr = new FileReader(PLAYER_JSON.toFile())) {
+        try (FileReader fr = new FileReader(playerJson.toFile())) {
             return (JSONObject) parser.parse(fr);
         }
     }
 
     private JSONObject readGameJson() throws Exception {
-        try (FileReader fr = new FileReader(GAME_JSON.toFile())) {
+        try (FileReader fr = new FileReader(gameJson.toFile())) {
             return (JSONObject) parser.parse(fr);
         }
     }
@@ -300,4 +295,151 @@ public class GameDataWriterTest {
         assertEquals(2, ((Number) only.get("hints")).intValue());
         assertEquals("p1", only.get("puzzle"));
     }
+
+    // Batch
+
+    // A batch applies every staged record in one commit and reports its latency.
+    @Test
+    public void batch_commitsAllStagedRecordsTogether() throws Exception {
+        UUID uid = UUID.randomUUID();
+        Progress p = new Progress(UUID.randomUUID(), uid);
+        p.setStoryPos(3);
+
+        GameDataWriter.Batch batch = writer.begin()
+                .stageProgress(p)
+                .stageUser(new User(uid, "batcher", "pw", "b@example.com"))
+                .stageScore(new Score("batcher", Difficulty.EASY, 10, new Date(0L), 10));
+        assertEquals(3, batch.size());
+
+        // nothing is written until commit
+        assertEquals(0, ((JSONArray) readPlayerJson().get("users")).size());
+
+        assertTrue(batch.commit());
+        assertEquals(0, batch.size());
+        assertTrue(batch.getLatencyMillis() >= 0);
+
+        JSONObject root = readPlayerJson();
+        assertEquals(1, ((JSONArray) root.get("users")).size());
+        assertEquals(1, ((JSONArray) root.get("scores")).size());
+        assertEquals(1, ((JSONArray) root.get("progress")).size());
+    }
+
+    // Data root
+
+    // Writers on different roots run side by side without seeing each other.
+    @Test
+    public void separateRoots_areIsolatedUnderParallelSaves() throws Exception {
+        Path other = Files.createTempDirectory("writer");
+        try {
+            GameDataWriter otherWriter = new GameDataWriter(other);
+            Thread t = new Thread(() -> {
+                for (int i = 0; i < 20; i++)
+                    otherWriter.saveUser(new User(UUID.randomUUID(), "other" + i, "pw", "o@example.com"));
+            });
+            t.start();
+            for (int i = 0; i < 20; i++)
+                writer.saveUser(new User(UUID.randomUUID(), "mine" + i, "pw", "m@example.com"));
+            t.join();
+
+            ArrayList<User> mine = new GameDataLoader(jsonDir).getUsers();
+            ArrayList<User> theirs = new GameDataLoader(other).getUsers();
+            assertEquals(20, mine.size());
+            assertEquals(20, theirs.size());
+            assertTrue(mine.stream().allMatch(u -> u.getUsername().startsWith("mine")));
+            assertTrue(theirs.stream().allMatch(u -> u.getUsername().startsWith("other")));
+        } finally {
+            try (var walk = Files.walk(other)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    // Different players save side by side; each player's saves land in order.
+    @Test
+    public void concurrentPlayers_noLostOrReorderedSaves() throws Exception {
+        int players = 8;
+        int saves = 10;
+        List<UUID> ids = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < players; t++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            String name = "player" + t;
+            threads.add(new Thread(() -> {
+                writer.saveUser(new User(id, name, "pw", name + "@example.com"));
+                Progress p = new Progress(UUID.randomUUID(), id);
+                for (int i = 1; i <= saves; i++) {
+                    p.setTimeRemainingSeconds(i);
+                    writer.saveProgress(p);
+                }
+            }));
+        }
+        for (Thread t : threads)
+            t.start();
+        for (Thread t : threads)
+            t.join();
+
+        JSONObject root;
+        try (FileReader fr = new FileReader(playerJson.toFile())) {
+            root = (JSONObject) parser.parse(fr);
+        }
+        assertEquals(players, ((JSONArray) root.get("users")).size());
+        JSONArray progress = (JSONArray) root.get("progress");
+        assertEquals(players, progress.size());
+        for (Object o : progress) {
+            JSONObject p = (JSONObject) o;
+            assertTrue(ids.contains(UUID.fromString((String) p.get("userUUID"))));
+            assertEquals(saves, ((Number) p.get("timeRemainingSeconds")).intValue());
+        }
+    }
+
+    // A player's user, progress and score records all lock the same stripe.
+    @Test
+    public void playerRecords_shareOneCanonicalStripe() {
+        UUID id = UUID.randomUUID();
+        writer.saveUser(new User(id, "Quinn", "pw", "q@example.com"));
+
+        PlayerLocks locks = PlayerLocks.forPath(playerJson);
+        String byId = locks.keyOf(id, null);
+        assertEquals(byId, locks.keyOf(null, "quinn"));
+        assertEquals(byId, locks.keyOf(id, "Quinn"));
+        assertSame(locks.forPlayer(byId), locks.forPlayer(locks.keyOf(null, "QUINN")));
+    }
+
+    // Clean records are skipped; only the ones that changed are written.
+    @Test
+    public void saves_skipUnchangedRecords() throws Exception {
+        User a = new User(UUID.randomUUID(), "alice", "pw", "a@example.com");
+        User b = new User(UUID.randomUUID(), "bob", "pw", "b@example.com");
+        Score s = new Score("alice", Difficulty.EASY, 100, new Date(), 100);
+        assertTrue(a.isDirty());
+        writer.saveUsers(new ArrayList<>(List.of(a, b)));
+        writer.saveScore(s);
+        writer.saveScore(s);
+        assertFalse(a.isDirty());
+        assertFalse(s.isDirty());
+        for (User u : new GameDataLoader(jsonDir).getUsers())
+            assertFalse(u.isDirty());
+
+        JSONObject root;
+        try (FileReader fr = new FileReader(playerJson.toFile())) {
+            root = (JSONObject) parser.parse(fr);
+        }
+        assertEquals(1, ((JSONArray) root.get("scores")).size());
+
+        // nothing changed: no write at all
+        Files.delete(playerJson);
+        PlayerDocumentStore.forPath(playerJson).invalidate();
+        writer.saveUsers(new ArrayList<>(List.of(a, b)));
+        assertFalse(Files.exists(playerJson));
+
+        // one inventory change: only that user is written
+        a.addCollectedLetter("E");
+        assertTrue(a.isDirty());
+        writer.saveUsers(new ArrayList<>(List.of(a, b)));
+        ArrayList<User> users = new GameDataLoader(jsonDir).getUsers();
+        assertEquals(1, users.size());
+        assertEquals("alice", users.get(0).getUsername());
+        assertEquals(List.of("E"), users.get(0).getCollectedLetters());
+    }
 }
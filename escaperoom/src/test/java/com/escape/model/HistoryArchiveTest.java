@@ -0,0 +1,138 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit tests for {@link HistoryArchive} and {@link RetentionPolicy}.
+ *
+ * <p>
+ * Each test gets its own data root (a temp directory) holding playerData.json;
+ * archive segments go to the archive/ directory next to it.
+ * </p>
+ */
+public class HistoryArchiveTest {
+
+    private Path jsonDir;
+    private Path playerJson;
+    private Path archiveDir;
+
+    private GameDataWriter writer;
+    private HistoryArchive archive;
+
+    @Before
+    public void setUp() throws Exception {
+        jsonDir = Files.createTempDirectory("history");
+        playerJson = DataRoot.playerData(jsonDir);
+        archiveDir = jsonDir.resolve(HistoryArchive.DIR);
+        JSONObject player = new JSONObject();
+        player.put("scores", new JSONArray());
+        player.put("savedData", new JSONArray());
+        try (FileWriter fw = new FileWriter(playerJson.toFile())) {
+            fw.write(player.toJSONString());
+        }
+        writer = new GameDataWriter(jsonDir);
+        archive = HistoryArchive.forPath(playerJson);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        GameDataWriter.setRetentionPolicy(RetentionPolicy.KEEP_ALL);
+        try (var walk = Files.walk(jsonDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private JSONObject readPlayerJson() throws Exception {
+        try (FileReader fr = new FileReader(playerJson.toFile())) {
+            return (JSONObject) new JSONParser().parse(fr);
+        }
+    }
+
+    private static Score score(String user, long score, Date date) {
+        Score s = new Score(user, Difficulty.EASY, score, date, score);
+        s.setDate(date); // the constructor stamps "now"
+        return s;
+    }
+
+    // Only the newest N scores per user stay hot; the rest is archived and still queryable.
+    @Test
+    public void keepLastNPerUser_archivesOlderScores() throws Exception {
+        writer.saveScore(score("ana", 1, new Date()));
+        writer.saveScore(score("ben", 9, new Date()));
+        writer.saveScore(score("ana", 2, new Date()));
+        writer.saveScore(score("ana", 3, new Date()));
+
+        GameDataWriter.setRetentionPolicy(new RetentionPolicy(1, 0, 0));
+        assertEquals(2, writer.compactHistory());
+
+        JSONArray hot = (JSONArray) readPlayerJson().get("scores");
+        assertEquals(2, hot.size());
+        assertTrue(Files.isDirectory(archiveDir));
+
+        ArrayList<Score> history = new GameDataLoader(jsonDir).getScoreHistory("ANA");
+        assertEquals(3, history.size());
+        assertEquals(1, history.get(0).getScore());
+        assertEquals(3, history.get(2).getScore());
+
+        // nothing left to move
+        assertEquals(0, writer.compactHistory());
+    }
+
+    // Scores older than D days land in their month partition.
+    @Test
+    public void maxAge_archivesIntoMonthPartitions() throws Exception {
+        Calendar old = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        old.set(2020, Calendar.MARCH, 15, 12, 0, 0);
+        writer.saveScore(score("ana", 5, old.getTime()));
+        writer.saveScore(score("ana", 6, new Date()));
+
+        assertEquals(1, archive.compact(new RetentionPolicy(0, 30, 0)));
+
+        assertTrue(Files.exists(archiveDir.resolve("scores-2020-03.jsonl.gz")));
+        Calendar from = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        from.set(2020, Calendar.JANUARY, 1);
+        Calendar to = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        to.set(2020, Calendar.DECEMBER, 31);
+        assertEquals(1, archive.query("scores", from.getTime(), to.getTime(), null).size());
+        assertEquals(0, archive.query("scores", new Date(), null, null).size());
+    }
+
+    // savedData keeps its newest N entries; repeated compactions append to the segment.
+    @Test
+    public void savedDataLimit_appendsToSegment() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            SavedData sd = new SavedData();
+            sd.score = i;
+            writer.saveSavedData(sd);
+        }
+        assertEquals(2, archive.compact(new RetentionPolicy(0, 0, 1)));
+
+        SavedData sd = new SavedData();
+        sd.score = 3;
+        writer.saveSavedData(sd);
+        assertEquals(1, archive.compact(new RetentionPolicy(0, 0, 1)));
+
+        assertEquals(1, ((JSONArray) readPlayerJson().get("savedData")).size());
+        List<JSONObject> archived = archive.query("savedData", null, null, null);
+        assertEquals(3, archived.size());
+        assertEquals(0L, archived.get(0).get("score"));
+    }
+
+    // A disabled policy never touches the file.
+    @Test
+    public void keepAll_isNoOp() throws Exception {
+        writer.saveScore(score("ana", 1, new Date()));
+        assertEquals(0, archive.compact(RetentionPolicy.KEEP_ALL));
+        assertFalse(Files.exists(archiveDir));
+    }
+}
@@ -0,0 +1,145 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Unit tests for {@link IndexedPlayerStore} and {@link IndexedRecordFile}.
+ */
+public class IndexedPlayerStoreTest {
+
+    private Path dir;
+    private IndexedPlayerStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("playerstore");
+        store = new IndexedPlayerStore(dir);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator)
+                Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private static User user(String name) {
+        User u = new User(UUID.randomUUID(), name, "pw", name + "@example.com");
+        u.setInventory(new Inventory(26));
+        return u;
+    }
+
+    @Test
+    public void findUser_isCaseInsensitiveAndSurvivesReopen() throws IOException {
+        User ana = user("Ana");
+        ana.getInventory().addItem("A");
+        store.saveUser(ana);
+        store.saveUser(user("bob"));
+
+        assertEquals(ana.userID, store.findUser("ana").userID);
+        assertEquals(ana.userID, store.findUser("ANA").userID);
+        assertNull(store.findUser("carol"));
+
+        IndexedPlayerStore reopened = new IndexedPlayerStore(dir);
+        User back = reopened.findUser("Ana");
+        assertNotNull(back);
+        assertEquals("pw", back.getPassword());
+        assertTrue(back.getInventory().getItems().contains("A"));
+        assertEquals(2, reopened.getUsers().size());
+    }
+
+    @Test
+    public void saveUser_replacesByIdAndDropsOldName() {
+        User ana = user("ana");
+        store.saveUser(ana);
+        store.saveUser(new User(ana.userID, "anna", "pw", "ana@example.com"));
+
+        assertNull(store.findUser("ana"));
+        assertEquals(ana.userID, store.findUser("anna").userID);
+        assertEquals(1, store.getUsers().size());
+    }
+
+    @Test
+    public void progress_roundTrips() {
+        User ana = user("ana");
+        Progress p = new Progress(UUID.randomUUID(), ana.userID);
+        p.setStoryPos(3);
+        p.setHintsUsed(1);
+        p.setCurrentRoomID("room2");
+        assertTrue(store.saveGame(ana, p));
+
+        Progress back = store.loadProgress(ana.userID);
+        assertNotNull(back);
+        assertEquals(3, back.getStoryPos());
+        assertEquals(1, back.getHintsUsed());
+        assertEquals("room2", back.getCurrentRoomID());
+        assertNull(store.loadProgress(UUID.randomUUID()));
+    }
+
+    @Test
+    public void scores_keepHistoryAndLeaderboardIsReplaced() {
+        Score first = new Score("ana", Difficulty.EASY, 100, new Date(), 500);
+        Score second = new Score("Ana", Difficulty.HARD, 50, new Date(), 900);
+        Leaderboard lb = new Leaderboard();
+        lb.setEntries(new ArrayList<>(List.of(first)));
+        assertTrue(store.recordResult(first, lb));
+        lb.setEntries(new ArrayList<>(List.of(second)));
+        assertTrue(store.recordResult(second, lb));
+
+        List<Score> history = store.getScoreHistory("ANA");
+        assertEquals(2, history.size());
+        assertEquals(500, history.get(0).getScore());
+        assertEquals(900, history.get(1).getScore());
+
+        List<Score> entries = store.getLeaderboard().getLB();
+        assertEquals(1, entries.size());
+        assertEquals(900, entries.get(0).getScore());
+    }
+
+    @Test
+    public void recordFile_dropsTornTailOnOpen() throws IOException {
+        Path file = dir.resolve("torn.rec");
+        try (IndexedRecordFile f = new IndexedRecordFile(file, false)) {
+            f.put("a", "1");
+        }
+        Files.writeString(file, "\"b\"\t\"unfinished", StandardOpenOption.APPEND);
+
+        try (IndexedRecordFile f = new IndexedRecordFile(file, false)) {
+            assertEquals("1", f.get("a"));
+            assertNull(f.get("b"));
+            f.put("c", "3");
+            assertEquals("3", f.get("c"));
+        }
+        try (IndexedRecordFile f = new IndexedRecordFile(file, false)) {
+            assertEquals(new HashSet<>(List.of("a", "c")), f.keys());
+        }
+    }
+
+    @Test
+    public void recordFile_compactsDeadRecords() throws IOException {
+        Path file = dir.resolve("churn.rec");
+        try (IndexedRecordFile f = new IndexedRecordFile(file, false)) {
+            String payload = "x".repeat(1000);
+            for (int i = 0; i < 500; i++)
+                f.put("k" + (i % 5), payload + i);
+            assertTrue("file should have been compacted", f.fileSize() < 200_000);
+            assertEquals(5, f.size());
+            assertEquals(payload + 499, f.get("k4"));
+            f.put("k0", null);
+            assertNull(f.get("k0"));
+        }
+        try (IndexedRecordFile f = new IndexedRecordFile(file, false)) {
+            assertEquals(4, f.size());
+            assertEquals("x".repeat(1000) + 498, f.get("k3"));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Unit tests for {@link JsonStreamWriter}.
+ */
+public class JsonStreamWriterTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private static JSONObject sample() {
+        JSONObject o = new JSONObject();
+        JSONArray arr = new JSONArray();
+        arr.add(1L);
+        arr.add("two");
+        o.put("list", arr);
+        return o;
+    }
+
+    // Pretty mode keeps the two-space, one-entry-per-line layout.
+    @Test
+    public void pretty_usesTwoSpaceIndentation() {
+        String out = JsonStreamWriter.toString(sample(), true);
+        assertEquals("{\n  \"list\": [\n    1,\n    \"two\"\n  ]\n}" + NL, out);
+    }
+
+    // Compact mode emits no whitespace.
+    @Test
+    public void compact_hasNoWhitespace() {
+        assertEquals("{\"list\":[1,\"two\"]}", JsonStreamWriter.toString(sample(), false));
+    }
+
+    // Quotes, backslashes, control chars and non-ASCII are escaped.
+    @Test
+    public void escapes_specialAndNonAsciiChars() {
+        String out = JsonStreamWriter.toString("a\"b\\c\n\u0001é", false);
+        assertEquals("\"a\\\"b\\\\c\\n\\u0001\\u00e9\"", out);
+    }
+
+    // Output parses back to the same document.
+    @Test
+    public void output_roundTripsThroughParser() throws Exception {
+        JSONObject o = sample();
+        o.put("name", "Zoë \"Z\" \t");
+        o.put("empty", new JSONObject());
+        o.put("none", null);
+
+        for (boolean pretty : new boolean[] { true, false }) {
+            Object parsed = new JSONParser().parse(JsonStreamWriter.toString(o, pretty));
+            assertEquals(o, parsed);
+        }
+    }
+}
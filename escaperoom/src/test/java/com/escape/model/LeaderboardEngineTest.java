@@ -0,0 +1,137 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.escape.model.LeaderboardEngine.Window;
+
+/**
+ * Unit tests for {@link LeaderboardEngine}.
+ *
+ * <p>
+ * Each test records a score history into its own data root and reads the
+ * partitions back through an engine with a controllable clock.
+ * </p>
+ */
+public class LeaderboardEngineTest {
+
+    private static final long HOUR = 60L * 60 * 1000;
+
+    private Path jsonDir;
+    private JsonPlayerStore store;
+    private final AtomicLong now = new AtomicLong(1_800_000_000_000L);
+    private LeaderboardEngine engine;
+
+    @Before
+    public void setUp() throws Exception {
+        jsonDir = Files.createTempDirectory("lbengine");
+        store = new JsonPlayerStore(jsonDir);
+        engine = new LeaderboardEngine(store, now::get);
+
+        store.saveScore(score("ana", Difficulty.HARD, 900, 1));
+        store.saveScore(score("ben", Difficulty.EASY, 1500, 3));
+        store.saveScore(score("cy", Difficulty.HARD, 700, 50));
+        store.saveScore(score("dee", Difficulty.MEDIUM, 1100, 24 * 10));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (var walk = Files.walk(jsonDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    private Score score(String name, Difficulty d, long value, long hoursAgo) {
+        return new Score(name, d, 60, new Date(now.get() - hoursAgo * HOUR), value);
+    }
+
+    private static List<String> names(Leaderboard lb) {
+        List<String> out = new ArrayList<>();
+        for (Score s : lb.getAllScores())
+            out.add(s.getUsername());
+        return out;
+    }
+
+    // The history lands in each difficulty and window it belongs to.
+    @Test
+    public void partitions_seededFromHistory() {
+        assertEquals(List.of("ben", "ana"), names(engine.top(null, Window.TODAY, 10)));
+        assertEquals(List.of("ben", "ana", "cy"), names(engine.top(null, Window.THIS_WEEK, 10)));
+        assertEquals(List.of("ben", "dee", "ana", "cy"), names(engine.top(null, Window.ALL_TIME, 10)));
+        assertEquals(List.of("ana", "cy"), names(engine.top(Difficulty.HARD, Window.ALL_TIME, 10)));
+        assertEquals(List.of("ana"), names(engine.top(Difficulty.HARD, Window.TODAY, 10)));
+        assertEquals(2, engine.rankOf("ana", null, Window.TODAY));
+        assertEquals(-1, engine.rankOf("dee", null, Window.THIS_WEEK));
+    }
+
+    // New results update every partition without going back to disk.
+    @Test
+    public void record_updatesPartitionsWithoutRescan() {
+        engine.top(null, Window.ALL_TIME, 10);
+        PlayerDocumentStore doc = PlayerDocumentStore.forPath(DataRoot.playerData(jsonDir));
+        doc.invalidate();
+        int loads = doc.loadCount();
+
+        // replaces ana's HARD run with a better EASY one
+        engine.record(score("ana", Difficulty.EASY, 1700, 0));
+        assertEquals(List.of("ana", "ben"), names(engine.top(null, Window.TODAY, 10)));
+        assertEquals(List.of("ana", "ben"), names(engine.top(Difficulty.EASY, Window.THIS_WEEK, 10)));
+        // her HARD run still counts on the HARD boards
+        assertEquals(List.of("ana"), names(engine.top(Difficulty.HARD, Window.TODAY, 10)));
+        assertEquals(1, engine.rankOf("ana", null, Window.ALL_TIME));
+        assertEquals(loads, doc.loadCount());
+    }
+
+    // Entries leave a window once they age out of it, on the next query.
+    @Test
+    public void windows_evictExpiredEntriesLazily() {
+        assertEquals(2, engine.size(null, Window.TODAY));
+
+        // ben's run is now 25 hours old, ana's 23
+        now.addAndGet(22 * HOUR);
+        assertEquals(List.of("ana"), names(engine.top(null, Window.TODAY, 10)));
+        assertEquals(0, engine.size(Difficulty.EASY, Window.TODAY));
+        assertEquals(1, engine.size(Difficulty.HARD, Window.TODAY));
+
+        now.addAndGet(24 * 7 * HOUR);
+        assertEquals(0, engine.size(null, Window.THIS_WEEK));
+        assertEquals(4, engine.size(null, Window.ALL_TIME));
+    }
+
+    // A player's latest result replaces their earlier one, even a better one.
+    @Test
+    public void record_latestResultWins() {
+        engine.top(null, Window.ALL_TIME, 10);
+        Score worse = score("ben", Difficulty.EASY, 200, 0);
+        store.saveScore(worse);
+        engine.record(worse);
+
+        assertEquals(200, engine.top(Difficulty.EASY, Window.TODAY, 10).getAllScores().get(0).getScore());
+        assertEquals(List.of("dee", "ana", "cy", "ben"), names(engine.top(null, Window.ALL_TIME, 10)));
+    }
+
+    // Results saved by another process show up on the next query.
+    @Test
+    public void foreignScores_reseedPartitions() {
+        assertEquals(2, engine.size(null, Window.TODAY));
+
+        // a second store on the same directory stands in for another kiosk
+        new JsonPlayerStore(jsonDir).saveScore(score("eve", Difficulty.HARD, 2000, 0));
+        assertEquals(List.of("eve", "ben", "ana"), names(engine.top(null, Window.TODAY, 10)));
+
+        // and a local record() after a foreign write does not skip it either
+        new JsonPlayerStore(jsonDir).saveScore(score("fay", Difficulty.EASY, 50, 0));
+        Score own = score("gus", Difficulty.EASY, 60, 0);
+        store.saveScore(own);
+        engine.record(own);
+        assertEquals(List.of("ben", "gus", "fay"), names(engine.top(Difficulty.EASY, Window.TODAY, 10)));
+    }
+}
@@ -16,6 +16,7 @@ import static org.junit.Assert.*;
  *   <li>Bulk setters accept/ignore inputs as documented and keep sorting.</li>
  *   <li>Removal by username and by userID behaves correctly (including reflection path).</li>
  *   <li>Boundary behavior of topN(), clear(), size(), toString(), getLB() (copy) is correct.</li>
+ *   <li>rankOf() and the order survive many random updates (checked against a sorted list).</li>
  *   <li>Null/invalid inputs are handled defensively without throwing.</li>
  * </ul>
  * </p>
@@ -241,4 +242,78 @@ public class LeaderboardTest {
         assertEquals(2, lb.size());
         assertEquals(2, lb.topN(10).size());
     }
+
+    // ---------- rankOf / order under load ----------
+
+    // rankOf is 1-based, follows replacements and removals, -1 when absent.
+    @Test
+    public void rankOf_tracksUpdates() {
+        lb.addOrReplace(makeScore("A", 10));
+        lb.addOrReplace(makeScore("B", 30));
+        lb.addOrReplace(makeScore("C", 20));
+        assertEquals(1, lb.rankOf("B"));
+        assertEquals(2, lb.rankOf("C"));
+        assertEquals(3, lb.rankOf("A"));
+
+        lb.addOrReplace(makeScore("A", 40));
+        assertEquals(1, lb.rankOf("A"));
+        assertEquals(2, lb.rankOf("B"));
+
+        assertTrue(lb.removeByUsername("B"));
+        assertEquals(-1, lb.rankOf("B"));
+        assertEquals(2, lb.rankOf("C"));
+        assertEquals(-1, lb.rankOf(null));
+    }
+
+    // Random adds, replaces and removes match a plain list sorted after each
+    // step; equal scores keep the order their players were first added in.
+    @Test
+    public void randomUpdates_matchSortedList() {
+        Random rnd = new Random(42);
+        List<Score> model = new ArrayList<>();
+        Map<String, Integer> added = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = "p" + rnd.nextInt(300);
+            if (rnd.nextInt(5) == 0) {
+                added.remove(name);
+                assertEquals(model.removeIf(s -> s.getUsername().equals(name)), lb.removeByUsername(name));
+                continue;
+            }
+            Score s = makeScore(name, rnd.nextInt(50));
+            model.removeIf(m -> m.getUsername().equals(name));
+            model.add(s);
+            added.putIfAbsent(name, i);
+            model.sort(Comparator.comparingLong((Score m) -> -m.getScore())
+                    .thenComparing(m -> added.get(m.getUsername())));
+            lb.addOrReplace(s);
+        }
+
+        assertEquals(model.size(), lb.size());
+        assertEquals(model, lb.getAllScores());
+        assertEquals(model.subList(0, 10), lb.topN(10));
+        for (int j = 0; j < model.size(); j++)
+            assertEquals(j + 1, lb.rankOf(model.get(j).getUsername()));
+    }
+
+    // The bulk setters keep every entry, even two for one username; replace,
+    // remove and rank act on that player's best-ranked entry.
+    @Test
+    public void setEntries_keepsDuplicateUsernames() {
+        Score high = makeScore("A", 30), low = makeScore("A", 10);
+        lb.setEntries(List.of(low, makeScore("B", 20), high));
+        assertEquals(3, lb.size());
+        assertEquals(List.of(high, lb.getAllScores().get(1), low), lb.getAllScores());
+        assertEquals(1, lb.rankOf("A"));
+
+        lb.addOrReplace(makeScore("A", 5));
+        assertEquals(3, lb.size());
+        assertEquals(2, lb.rankOf("A")); // now the 10, ahead of the new 5
+
+        assertTrue(lb.removeByUsername("A"));
+        assertEquals(2, lb.size());
+        assertEquals(5, lb.getEntry("A").getScore());
+        assertTrue(lb.removeByUsername("A"));
+        assertFalse(lb.removeByUsername("A"));
+        assertEquals(1, lb.size());
+    }
 }
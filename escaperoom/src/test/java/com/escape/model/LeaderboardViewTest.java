@@ -0,0 +1,112 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Unit tests for {@link LeaderboardView} and PlayerStore.getTopScores().
+ *
+ * <p>
+ * Each test saves a leaderboard of mixed difficulties into its own data root
+ * and reads the top lists back through the view.
+ * </p>
+ */
+public class LeaderboardViewTest {
+
+    private Path jsonDir;
+    private JsonPlayerStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        jsonDir = Files.createTempDirectory("lbview");
+        store = new JsonPlayerStore(jsonDir);
+
+        Leaderboard lb = new Leaderboard();
+        for (int i = 0; i < 15; i++) {
+            Difficulty d = Difficulty.values()[i % Difficulty.values().length];
+            lb.addOrReplace(new Score("p" + i, d, 60, new Date(), 100L * i));
+        }
+        store.saveLeaderboard(lb);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (var walk = Files.walk(jsonDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    private static List<String> names(Leaderboard lb) {
+        List<String> out = new ArrayList<>();
+        for (Score s : lb.getAllScores())
+            out.add(s.getUsername());
+        return out;
+    }
+
+    // Saving a leaderboard writes the overall and per-difficulty top lists.
+    @Test
+    public void saveLeaderboard_writesSortedTopLists() {
+        LeaderboardView view = LeaderboardView.forPath(DataRoot.playerData(jsonDir));
+        assertTrue(Files.exists(view.getFile()));
+
+        Leaderboard overall = view.read(null);
+        assertEquals(LeaderboardView.N, overall.getAllScores().size());
+        assertEquals("p14", overall.getAllScores().get(0).getUsername());
+        long last = Long.MAX_VALUE;
+        for (Score s : overall.getAllScores()) {
+            assertTrue(s.getScore() <= last);
+            last = s.getScore();
+        }
+
+        for (Difficulty d : Difficulty.values()) {
+            for (Score s : view.read(d).getAllScores())
+                assertEquals(d, s.getDifficulty());
+        }
+    }
+
+    // A difficulty crowded out of the overall top N still gets its own top N.
+    @Test
+    public void difficultyLists_areNotCutByOverallTopN() {
+        LeaderboardView view = LeaderboardView.forPath(DataRoot.playerData(jsonDir));
+        // EASY runs are p0, p3, ... p12; only p6, p9, p12 are in the overall top 10
+        assertEquals(List.of("p12", "p9", "p6", "p3", "p0"), names(view.read(Difficulty.EASY)));
+        assertEquals(names(view.read(Difficulty.EASY)), names(store.getTopScores(Difficulty.EASY)));
+
+        // and it survives a load / save round trip of the leaderboard
+        store.saveLeaderboard(store.getLeaderboard());
+        assertEquals(5, view.read(Difficulty.EASY).size());
+    }
+
+    // The screens read the view, not playerData.json.
+    @Test
+    public void getTopScores_doesNotParsePlayerData() {
+        List<String> all = names(store.getLeaderboard());
+        PlayerDocumentStore doc = PlayerDocumentStore.forPath(DataRoot.playerData(jsonDir));
+        doc.invalidate();
+        int loads = doc.loadCount();
+
+        assertEquals(all.subList(0, LeaderboardView.N), names(store.getTopScores(null)));
+        store.getTopScores(null);
+        store.getTopScores(Difficulty.HARD);
+        assertEquals(loads, doc.loadCount());
+    }
+
+    // A missing view (older data, restored backup) is rebuilt on first read.
+    @Test
+    public void getTopScores_rebuildsMissingView() {
+        LeaderboardView view = LeaderboardView.forPath(DataRoot.playerData(jsonDir));
+        List<String> before = names(store.getTopScores(Difficulty.EASY));
+        view.delete();
+        assertFalse(Files.exists(view.getFile()));
+
+        assertEquals(before, names(store.getTopScores(Difficulty.EASY)));
+        assertTrue(Files.exists(view.getFile()));
+    }
+}
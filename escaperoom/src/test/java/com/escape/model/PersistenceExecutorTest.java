@@ -0,0 +1,105 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link PersistenceExecutor}.
+ */
+public class PersistenceExecutorTest {
+
+    private PersistenceExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new PersistenceExecutor(2, 2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.flush(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void sameKey_runsInSubmissionOrder() throws Exception {
+        executor = new PersistenceExecutor(4, 64);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            futures.add(executor.submit("ana", () -> {
+                seen.add(n);
+                return n;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 50; i++)
+            assertEquals(Integer.valueOf(i), seen.get(i));
+    }
+
+    @Test
+    public void failedTask_doesNotBlockItsLane() throws Exception {
+        CompletableFuture<Object> bad = executor.submit("ana", () -> {
+            throw new IllegalStateException("disk full");
+        });
+        CompletableFuture<String> next = executor.submit("ana", () -> "saved");
+
+        assertEquals("saved", next.get(5, TimeUnit.SECONDS));
+        assertTrue(bad.isCompletedExceptionally());
+    }
+
+    @Test
+    public void fullQueue_blocksSubmitterUntilSpaceFrees() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("a", () -> await(release));
+        executor.submit("b", () -> await(release));
+        assertEquals(2, executor.pending());
+
+        AtomicInteger submitted = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            executor.submit("c", () -> true);
+            submitted.incrementAndGet();
+        });
+        producer.start();
+        producer.join(300);
+        assertEquals("third submit should wait for a free slot", 0, submitted.get());
+
+        release.countDown();
+        producer.join(5000);
+        assertEquals(1, submitted.get());
+    }
+
+    @Test
+    public void flush_waitsForPendingWork() {
+        AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            executor.submit("k" + i, () -> {
+                sleep(100);
+                return done.incrementAndGet();
+            });
+        }
+        assertTrue(executor.flush(5, TimeUnit.SECONDS));
+        assertEquals(2, done.get());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
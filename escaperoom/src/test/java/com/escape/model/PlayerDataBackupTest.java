@@ -0,0 +1,123 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for {@link PlayerDataBackup}.
+ */
+public class PlayerDataBackupTest {
+
+    private Path dir;
+    private Path data;
+    private Path journal;
+    private PlayerDataBackup backups;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("backup");
+        data = dir.resolve("playerData.json");
+        journal = Path.of(data + PlayerDataJournal.SUFFIX);
+        backups = PlayerDataBackup.forPath(data.toString());
+        backups.setBytesPerSecond(0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /** Replace the file the way the writers do: temp file + rename. */
+    private static void save(Path file, String text) throws Exception {
+        Path tmp = Path.of(file + ".tmp");
+        Files.writeString(tmp, text);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Saves made after the cut are not in the backup.
+    @Test
+    public void backup_isPointInTime() throws Exception {
+        save(data, "{\"users\":[\"before\"]}");
+        Files.writeString(journal, "{\"seq\":1}\n");
+
+        CompletableFuture<Path> pending = backups.backupAsync();
+        save(data, "{\"users\":[\"after\"]}");
+        Files.writeString(journal, "{\"seq\":2}\n", StandardOpenOption.APPEND);
+        Path gen = pending.join();
+
+        assertNotNull(gen);
+        assertEquals("{\"users\":[\"before\"]}", Files.readString(gen.resolve("playerData.json")));
+        assertEquals("{\"seq\":1}\n", Files.readString(gen.resolve(journal.getFileName().toString())));
+        assertTrue(backups.verify(gen));
+        // staging links are cleaned up
+        try (Stream<Path> s = Files.list(dir.resolve(PlayerDataBackup.DIR))) {
+            assertEquals(1, s.count());
+        }
+    }
+
+    // Only the newest N generations are kept.
+    @Test
+    public void backup_rotatesGenerations() throws Exception {
+        backups.setGenerations(2);
+        for (int i = 0; i < 3; i++) {
+            save(data, "{\"n\":" + i + "}");
+            assertNotNull(backups.backup());
+        }
+        List<Path> gens = backups.generations();
+        assertEquals(2, gens.size());
+        assertEquals("{\"n\":2}", Files.readString(gens.get(0).resolve("playerData.json")));
+        assertEquals("{\"n\":1}", Files.readString(gens.get(1).resolve("playerData.json")));
+    }
+
+    // Restore puts files back and drops ones the backup did not have.
+    @Test
+    public void restore_replacesLiveDataAndRejectsCorruptBackup() throws Exception {
+        save(data, "{\"users\":[\"old\"]}");
+        Path shard = dir.resolve(PlayerShards.DIR).resolve("u1.json");
+        Files.createDirectories(shard.getParent());
+        save(shard, "{\"progress\":1}");
+        Path gen = backups.backup();
+
+        save(data, "{\"users\":[\"new\"]}");
+        save(shard, "{\"progress\":2}");
+        Files.writeString(journal, "{\"seq\":9}\n");
+        Path extraShard = shard.resolveSibling("u2.json");
+        save(extraShard, "{}");
+
+        assertTrue(backups.restore(gen));
+        assertEquals("{\"users\":[\"old\"]}", Files.readString(data));
+        assertEquals("{\"progress\":1}", Files.readString(shard));
+        assertFalse(Files.exists(journal));
+        assertFalse(Files.exists(extraShard));
+
+        Files.writeString(gen.resolve("playerData.json"), "{\"users\":[\"bad\"]}");
+        assertFalse(backups.verify(gen));
+        assertFalse(backups.restore(gen));
+        assertEquals("{\"users\":[\"old\"]}", Files.readString(data));
+    }
+
+    // The copy is paced to the configured rate.
+    @Test
+    public void backup_throttlesCopy() throws Exception {
+        save(data, "x".repeat(256 * 1024));
+        backups.setBytesPerSecond(1024 * 1024);
+        long t0 = System.nanoTime();
+        Path gen = backups.backup();
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+
+        assertNotNull(gen);
+        assertTrue("copy took " + ms + " ms", ms >= 200);
+        assertTrue(backups.verify(gen));
+    }
+}
@@ -0,0 +1,155 @@
+package com.escape.model;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Compares {@link PlayerDataCodec} with the json-simple path on a generated
+ * playerData.json. Not a unit test; run it by hand:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:json-simple.jar \
+ *     com.escape.model.PlayerDataCodecBenchmark [users]
+ * </pre>
+ *
+ * Each case reads every user, progress and score entry into model objects
+ * (decode), or writes every user back out as JSON text (encode), and reports
+ * the median time and the bytes allocated per run.
+ */
+public class PlayerDataCodecBenchmark {
+
+    private static final int WARMUP = 10;
+    private static final int RUNS = 25;
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Path file = Files.createTempFile("playerData-bench", ".json");
+        try {
+            List<User> users = generate(n, file);
+            System.out.printf("playerData.json: %d users, %d scores, %,d bytes%n", n, n * 4, Files.size(file));
+
+            report("decode  json-simple", () -> {
+                JSONObject root;
+                try (Reader r = Files.newBufferedReader(file)) {
+                    root = (JSONObject) new JSONParser().parse(r);
+                }
+                int count = 0;
+                for (Object o : (JSONArray) root.get("users"))
+                    count += GameDataLoader.userFrom((JSONObject) o) != null ? 1 : 0;
+                for (Object o : (JSONArray) root.get("progress")) {
+                    JSONObject one = new JSONObject();
+                    JSONArray arr = new JSONArray();
+                    arr.add(o);
+                    one.put("progress", arr);
+                    count += GameDataLoader.progressFrom(one,
+                            UUID.fromString((String) ((JSONObject) o).get("userUUID"))) != null ? 1 : 0;
+                }
+                for (Object o : (JSONArray) root.get("scores"))
+                    count += GameDataLoader.scoreFrom((JSONObject) o) != null ? 1 : 0;
+                return count;
+            });
+            report("decode  codec", () -> {
+                int[] count = new int[1];
+                PlayerDataCodec.scanArray(file, "users", PlayerDataCodec::readUser, u -> ++count[0] > 0);
+                PlayerDataCodec.scanArray(file, "progress", PlayerDataCodec::readProgress, p -> ++count[0] > 0);
+                PlayerDataCodec.scanArray(file, "scores", PlayerDataCodec::readScore, s -> ++count[0] > 0);
+                return count[0];
+            });
+            report("encode  json-simple", () -> {
+                int len = 0;
+                for (User u : users)
+                    len += JsonStreamWriter.toString(GameDataWriter.userToJson(u), false).length();
+                return len;
+            });
+            report("encode  codec", () -> {
+                int len = 0;
+                for (User u : users)
+                    len += PlayerDataCodec.encode(u).length();
+                return len;
+            });
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private interface Case {
+        int run() throws Exception;
+    }
+
+    private static void report(String name, Case c) throws Exception {
+        for (int i = 0; i < WARMUP; i++)
+            c.run();
+        long[] times = new long[RUNS];
+        long allocated = 0;
+        int result = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long before = allocatedBytes();
+            long t0 = System.nanoTime();
+            result = c.run();
+            times[i] = System.nanoTime() - t0;
+            allocated += allocatedBytes() - before;
+        }
+        Arrays.sort(times);
+        System.out.printf("%-22s %8.2f ms  %,14d B/run  (%d)%n", name, times[RUNS / 2] / 1e6,
+                allocated / RUNS, result);
+    }
+
+    /**
+     * Bytes allocated by this thread so far, through reflection because the
+     * module does not read java.management; 0 where unavailable.
+     */
+    private static long allocatedBytes() {
+        try {
+            Object mx = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean").invoke(null);
+            return (Long) Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getCurrentThreadAllocatedBytes").invoke(mx);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<User> generate(int n, Path file) throws Exception {
+        Random rnd = new Random(42);
+        List<User> users = new ArrayList<>(n);
+        JSONArray ua = new JSONArray(), pa = new JSONArray(), sa = new JSONArray();
+        Difficulty[] diffs = Difficulty.values();
+        for (int i = 0; i < n; i++) {
+            User u = new User(UUID.randomUUID(), "player" + i, "secret" + i, "player" + i + "@example.com");
+            Inventory inv = new Inventory(26);
+            for (int k = 0; k < rnd.nextInt(8); k++)
+                inv.addItem(String.valueOf((char) ('A' + rnd.nextInt(26))));
+            u.setInventory(inv);
+            users.add(u);
+            ua.add(GameDataWriter.userToJson(u));
+
+            Progress p = new Progress(UUID.randomUUID(), u.userID);
+            p.setStoryPos(rnd.nextInt(10));
+            p.setHintsUsed(rnd.nextInt(5));
+            p.setCurrentRoomID("room" + (1 + rnd.nextInt(3)));
+            p.setTimeRemainingSeconds(rnd.nextInt(3600));
+            p.setDifficulty(diffs[rnd.nextInt(diffs.length)].toString());
+            pa.add(GameDataWriter.progressToJson(p));
+
+            for (int s = 0; s < 4; s++) {
+                Difficulty d = diffs[rnd.nextInt(diffs.length)];
+                long left = rnd.nextInt(3600);
+                sa.add(GameDataWriter.scoreToJson(new Score(u.getUsername(), d, left, new Date(),
+                        Score.calculateScore(left, d))));
+            }
+        }
+        JSONObject root = new JSONObject();
+        root.put("users", ua);
+        root.put("progress", pa);
+        root.put("scores", sa);
+        JsonStreamWriter.writeFile(root, file, true, false);
+        return users;
+    }
+}
@@ -0,0 +1,222 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit tests for {@link PlayerDataCodec} and {@link JsonTokenizer}: records
+ * must read and write the same as the json-simple path.
+ */
+public class PlayerDataCodecTest {
+
+    private static User sampleUser() {
+        User u = new User(UUID.randomUUID(), "Zoë \"z\"", "p\\w\n", "zoe@example.com");
+        Inventory inv = new Inventory(30);
+        inv.addItem("A");
+        inv.addItem("Ω");
+        u.setInventory(inv);
+        return u;
+    }
+
+    @Test
+    public void user_roundTripsBothWays() throws Exception {
+        User u = sampleUser();
+
+        // codec -> json-simple
+        JSONObject parsed = (JSONObject) new JSONParser().parse(PlayerDataCodec.encode(u));
+        User viaSimple = GameDataLoader.userFrom(parsed);
+        // json-simple -> codec (pretty, keys in HashMap order)
+        String pretty = JsonStreamWriter.toString(GameDataWriter.userToJson(u), true);
+        User viaCodec = PlayerDataCodec.decodeUser(pretty);
+
+        for (User back : List.of(viaSimple, viaCodec)) {
+            assertEquals(u.userID, back.userID);
+            assertEquals(u.getUsername(), back.getUsername());
+            assertEquals(u.getPassword(), back.getPassword());
+            assertEquals(u.getEmail(), back.getEmail());
+            assertEquals(30, back.getInventory().getCapacity());
+            assertEquals(List.of("A", "Ω"), back.getInventory().getItems());
+        }
+    }
+
+    @Test
+    public void progress_matchesProgressFrom() throws Exception {
+        Progress p = new Progress(UUID.randomUUID(), UUID.randomUUID());
+        p.setStoryPos(4);
+        p.setQuestionsAnswered(2);
+        p.setHintsUsed(3);
+        p.setCurrentRoomID("room2");
+        p.setTimeRemainingSeconds(1234);
+        p.setDifficulty("HARD");
+
+        Progress back = PlayerDataCodec.decodeProgress(PlayerDataCodec.encode(p));
+        JSONObject root = new JSONObject();
+        JSONArray arr = new JSONArray();
+        arr.add(new JSONParser().parse(PlayerDataCodec.encode(p)));
+        root.put("progress", arr);
+        Progress simple = GameDataLoader.progressFrom(root, p.getUserUUID());
+
+        for (Progress q : List.of(back, simple)) {
+            assertEquals(p.getProgressUUID(), q.getProgressUUID());
+            assertEquals(p.getUserUUID(), q.getUserUUID());
+            assertEquals(4, q.getStoryPos());
+            assertEquals(2, q.getQuestionsAnswered());
+            assertEquals(3, q.getHintsUsed());
+            assertEquals("room2", q.getCurrentRoomID());
+            assertEquals(1234, q.getTimeRemainingSeconds());
+            assertEquals("HARD", q.getDifficulty());
+        }
+    }
+
+    @Test
+    public void score_readsLooseValuesLikeScoreFrom() throws Exception {
+        String json = "{\"username\":\"ana\",\"difficulty\":\"medium\",\"timeSeconds\":\"90\","
+                + "\"score\":12.9,\"date\":null,\"extra\":{\"a\":[1,{\"b\":null}]}}";
+        Score codec = PlayerDataCodec.decodeScore(json);
+        Score simple = GameDataLoader.scoreFrom((JSONObject) new JSONParser().parse(json));
+
+        assertEquals(simple.getUsername(), codec.getUsername());
+        assertEquals(simple.getDifficulty(), codec.getDifficulty());
+        assertEquals(90, codec.getTimeLeftSec());
+        assertEquals(simple.getTimeLeftSec(), codec.getTimeLeftSec());
+        assertEquals(12, codec.getScore());
+        assertEquals(simple.getScore(), codec.getScore());
+    }
+
+    @Test
+    public void leaderboard_usesTimeLeftSec() throws Exception {
+        Leaderboard lb = new Leaderboard();
+        lb.setEntries(new ArrayList<>(List.of(new Score("ana", Difficulty.EASY, 300, new Date(), 300))));
+        String json = PlayerDataCodec.encode(lb);
+
+        JSONObject entry = (JSONObject) ((JSONArray) new JSONParser().parse(json)).get(0);
+        assertEquals(300L, entry.get("timeLeftSec"));
+        assertEquals(300, PlayerDataCodec.decodeLeaderboard(json).getLB().get(0).getTimeLeftSec());
+    }
+
+    @Test
+    public void scanArray_skipsOtherSectionsAndStopsEarly() throws Exception {
+        Path file = Files.createTempFile("playerData", ".json");
+        try {
+            JSONObject root = new JSONObject();
+            root.put("savedData", new JSONParser().parse("[{\"room\":\"r\",\"nested\":[[],{}]}]"));
+            JSONArray scores = new JSONArray();
+            for (int i = 0; i < 5; i++)
+                scores.add(GameDataWriter.scoreToJson(new Score("p" + i, Difficulty.HARD, 10 + i, new Date(), i)));
+            root.put("scores", scores);
+            JsonStreamWriter.writeFile(root, file, true, false);
+
+            List<String> seen = new ArrayList<>();
+            assertTrue(PlayerDataCodec.scanArray(file, "scores", PlayerDataCodec::readScore, s -> {
+                seen.add(s.getUsername());
+                return seen.size() < 3;
+            }));
+            assertEquals(List.of("p0", "p1", "p2"), seen);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Unknown fields of an entry, nested ones included, are skipped.
+    @Test
+    public void scanArray_skipsUnknownNestedFields() throws Exception {
+        Path file = Files.createTempFile("playerData", ".json");
+        try {
+            Files.writeString(file, "{\"scores\":[{\"username\":\"u0\",\"meta\":{\"tags\":[]},\"timeSeconds\":300},"
+                    + "{\"meta\":{\"tags\":[{}]},\"username\":\"u1\",\"timeSeconds\":45}]}");
+            List<Score> seen = new ArrayList<>();
+            assertTrue(PlayerDataCodec.scanArray(file, "scores", PlayerDataCodec::readScore, seen::add));
+            assertEquals(2, seen.size());
+            assertEquals("u1", seen.get(1).getUsername());
+            assertEquals(45, seen.get(1).getTimeLeftSec());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // The loader's streaming queries answer without parsing the document.
+    @Test
+    public void loader_streamsScoreAndProgress() throws Exception {
+        Path dir = Files.createTempDirectory("codec");
+        Path playerJson = DataRoot.playerData(dir);
+        UUID target = UUID.randomUUID();
+        try {
+            JSONObject root = new JSONObject();
+            JSONArray scores = new JSONArray();
+            long[] times = { 300, 45, 120 };
+            for (int i = 0; i < times.length; i++)
+                scores.add(GameDataWriter.scoreToJson(new Score("u" + i, Difficulty.EASY, times[i], new Date(), 10 * i)));
+            root.put("scores", scores);
+            JSONArray progress = new JSONArray();
+            for (UUID id : new UUID[] { UUID.randomUUID(), target, UUID.randomUUID() }) {
+                Progress p = new Progress(UUID.randomUUID(), id);
+                p.setStoryPos(id.equals(target) ? 4 : 1);
+                progress.add(GameDataWriter.progressToJson(p));
+            }
+            root.put("progress", progress);
+            JsonStreamWriter.writeFile(root, playerJson, true, false);
+            PlayerDocumentStore.forPath(playerJson).invalidate();
+
+            GameDataLoader loader = new GameDataLoader(dir);
+            assertEquals("u1", loader.getScore().getUsername());
+            assertEquals(45, loader.getScore().getTimeLeftSec());
+            assertEquals(4, loader.loadProgressForUser(target).getStoryPos());
+            assertNull(loader.loadProgressForUser(UUID.randomUUID()));
+            // nothing was parsed into the shared store
+            assertFalse(PlayerDocumentStore.forPath(playerJson).isWarm());
+        } finally {
+            try (var walk = Files.walk(dir)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void tokenizer_handlesBufferBoundaries() throws Exception {
+        String json = "{\"k\\u0041y\" : [ -12 , \"a\\\"b\" , true , null , 3.5e1 ] }";
+        // a reader that hands out one char at a time
+        Reader slow = new Reader() {
+            private final StringReader r = new StringReader(json);
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return r.read(cbuf, off, Math.min(1, len));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        JsonTokenizer in = new JsonTokenizer(slow);
+        in.beginObject();
+        assertEquals("kAy", in.nextName());
+        in.beginArray();
+        assertEquals(-12, in.nextLong());
+        assertEquals("a\"b", in.nextString());
+        assertEquals("true", in.nextString());
+        assertNull(in.nextString());
+        assertEquals(35, in.nextLong());
+        in.endArray();
+        in.endObject();
+        assertEquals(JsonTokenizer.Token.END_DOCUMENT, in.peek());
+    }
+
+    @Test(expected = IOException.class)
+    public void tokenizer_rejectsMalformedInput() throws Exception {
+        JsonTokenizer in = new JsonTokenizer("{\"a\":1 \"b\":2}");
+        in.beginObject();
+        in.nextName();
+        in.nextLong();
+        in.nextName();
+    }
+}
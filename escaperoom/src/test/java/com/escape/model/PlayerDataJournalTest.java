@@ -0,0 +1,122 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit tests for {@link PlayerDataJournal} and the writer's journal mode.
+ *
+ * <p>
+ * Each test gets its own data root (a temp directory) holding playerData.json
+ * and the journal file that sits next to it.
+ * </p>
+ */
+public class PlayerDataJournalTest {
+
+    private Path jsonDir;
+    private Path playerJson;
+    private Path journal;
+
+    private final JSONParser parser = new JSONParser();
+    private GameDataWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        jsonDir = Files.createTempDirectory("journal");
+        playerJson = DataRoot.playerData(jsonDir);
+        journal = DataRoot.withSuffix(playerJson, PlayerDataJournal.SUFFIX);
+        writer = new GameDataWriter(jsonDir);
+
+        JSONObject player = new JSONObject();
+        player.put("users", new JSONArray());
+        player.put("scores", new JSONArray());
+        player.put("progress", new JSONArray());
+        try (FileWriter fw = new FileWriter(playerJson.toFile())) {
+            fw.write(player.toJSONString());
+        }
+        GameDataWriter.setJournalEnabled(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        GameDataWriter.setJournalEnabled(false);
+        try (var walk = Files.walk(jsonDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private JSONObject readPlayerJson() throws Exception {
+        try (FileReader fr = new FileReader(playerJson.toFile())) {
+            return (JSONObject) parser.parse(fr);
+        }
+    }
+
+    private static Progress makeProgress(UUID user, int pos) {
+        Progress p = new Progress(UUID.randomUUID(), user);
+        p.setStoryPos(pos);
+        p.setQuestionsAnswered(pos);
+        return p;
+    }
+
+    // A journal-mode save appends one record and leaves the snapshot untouched.
+    @Test
+    public void journalMode_appendsRecordInsteadOfRewritingSnapshot() throws Exception {
+        String before = Files.readString(playerJson);
+
+        writer.saveProgress(makeProgress(UUID.randomUUID(), 2));
+
+        assertEquals(before, Files.readString(playerJson));
+        assertTrue(Files.exists(journal));
+        assertEquals(1, Files.readAllLines(journal).size());
+    }
+
+    // The loader sees journal records through snapshot + replay.
+    @Test
+    public void loader_replaysJournalOnRead() {
+        UUID user = UUID.randomUUID();
+        writer.saveProgress(makeProgress(user, 1));
+        writer.saveProgress(makeProgress(user, 4));
+
+        Progress p = new GameDataLoader(jsonDir).loadProgressForUser(user);
+        assertNotNull(p);
+        assertEquals(4, p.getStoryPos());
+    }
+
+    // compact() folds the log into the snapshot and removes the log.
+    @Test
+    public void compact_foldsLogIntoSnapshot() throws Exception {
+        writer.saveScore(new Score("ana", Difficulty.EASY, 100, new Date(0L), 100));
+        writer.saveScore(new Score("ben", Difficulty.HARD, 50, new Date(0L), 100));
+
+        PlayerDataJournal.forPath(playerJson).compact();
+
+        assertFalse(Files.exists(journal));
+        JSONArray scores = (JSONArray) readPlayerJson().get("scores");
+        assertEquals(2, scores.size());
+    }
+
+    // A full rewrite after journal saves records the folded seq, so replay never
+    // applies the same append twice.
+    @Test
+    public void directWriteAfterJournal_doesNotDoubleApply() throws Exception {
+        writer.saveScore(new Score("ana", Difficulty.EASY, 100, new Date(0L), 100));
+
+        GameDataWriter.setJournalEnabled(false);
+        writer.saveScore(new Score("ben", Difficulty.EASY, 90, new Date(0L), 90));
+
+        JSONObject root = readPlayerJson();
+        assertEquals(2, ((JSONArray) root.get("scores")).size());
+
+        PlayerDataJournal.replay(root, playerJson);
+        assertEquals(2, ((JSONArray) root.get("scores")).size());
+    }
+}
@@ -0,0 +1,150 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+import java.io.File;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-process stress test for {@link PlayerDocumentStore} and
+ * {@link IndexedRecordFile}: several JVMs write to one data directory at once,
+ * then the test counts lost updates.
+ *
+ * <p>
+ * Each worker process (this class's main method) adds its own users, so
+ * every committed user must be present at the end. A missing one is an
+ * update another process overwrote.
+ * </p>
+ */
+public class PlayerDataStressTest {
+
+    private static final int WORKERS = 4;
+    private static final int USERS_PER_WORKER = 80;
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("stress");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (var files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    @Test
+    public void snapshotWrites_loseNoUpdatesAcrossProcesses() throws Exception {
+        Path player = dir.resolve("playerData.json");
+        runWorkers("json", player, false);
+
+        Set<String> names = new HashSet<>();
+        try (Reader r = Files.newBufferedReader(player)) {
+            JSONObject root = (JSONObject) new JSONParser().parse(r);
+            for (Object o : (JSONArray) root.get("users"))
+                names.add(String.valueOf(((JSONObject) o).get("username")));
+        }
+        assertEquals("lost updates", 0, WORKERS * USERS_PER_WORKER - names.size());
+    }
+
+    @Test
+    public void journalWrites_loseNoUpdatesAcrossProcesses() throws Exception {
+        Path player = dir.resolve("playerData.json");
+        runWorkers("json", player, true);
+
+        JSONObject root = new JSONObject();
+        if (Files.exists(player)) {
+            try (Reader r = Files.newBufferedReader(player)) {
+                root = (JSONObject) new JSONParser().parse(r);
+            }
+        }
+        PlayerDataJournal.replay(root, player.toString());
+        int users = root.get("users") == null ? 0 : ((JSONArray) root.get("users")).size();
+        assertEquals("lost updates", 0, WORKERS * USERS_PER_WORKER - users);
+    }
+
+    @Test
+    public void indexedStore_losesNoUpdatesAcrossProcesses() throws Exception {
+        Path store = dir.resolve("store");
+        runWorkers("indexed", store, false);
+
+        IndexedPlayerStore reopened = new IndexedPlayerStore(store);
+        assertEquals("lost updates", 0, WORKERS * USERS_PER_WORKER - reopened.getUsers().size());
+        assertNotNull(reopened.findUser("w0-u0"));
+    }
+
+    /** Start the workers together and wait for all of them. */
+    private void runWorkers(String mode, Path target, boolean journal) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> procs = new ArrayList<>();
+        for (int w = 0; w < WORKERS; w++) {
+            ProcessBuilder pb = new ProcessBuilder(java, "-cp", classPath(),
+                    "-Descaperoom.journal=" + journal,
+                    PlayerDataStressTest.class.getName(), mode, target.toString(), "w" + w,
+                    String.valueOf(USERS_PER_WORKER));
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(dir.resolve("worker" + w + ".log").toFile());
+            procs.add(pb.start());
+        }
+        for (int w = 0; w < WORKERS; w++) {
+            Process p = procs.get(w);
+            assertTrue("worker timed out", p.waitFor(120, TimeUnit.SECONDS));
+            assertEquals("worker " + w + " failed:\n" + Files.readString(dir.resolve("worker" + w + ".log")),
+                    0, p.exitValue());
+        }
+    }
+
+    /** Test and main classes plus dependencies, whether run on the class or module path. */
+    private static String classPath() {
+        StringJoiner cp = new StringJoiner(File.pathSeparator);
+        for (String prop : new String[] { "jdk.module.path", "surefire.test.class.path", "java.class.path" }) {
+            String v = System.getProperty(prop);
+            if (v != null && !v.isEmpty())
+                cp.add(v);
+        }
+        return cp.toString();
+    }
+
+    /**
+     * Worker process: add users one commit at a time.
+     *
+     * @param args mode (json|indexed), target path, worker id, user count
+     */
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        String mode = args[0];
+        String target = args[1];
+        String worker = args[2];
+        int count = Integer.parseInt(args[3]);
+
+        IndexedPlayerStore indexed = "indexed".equals(mode) ? new IndexedPlayerStore(Path.of(target)) : null;
+        PlayerDocumentStore store = PlayerDocumentStore.forPath(target);
+        for (int i = 0; i < count; i++) {
+            User u = new User(UUID.randomUUID(), worker + "-u" + i, "pw", worker + i + "@example.com");
+            boolean ok;
+            if (indexed != null) {
+                indexed.saveUser(u);
+                ok = indexed.findUser(u.getUsername()) != null;
+            } else {
+                ok = store.apply(GameDataWriter.OP_USER, GameDataWriter.userToJson(u));
+            }
+            if (!ok) {
+                System.out.println("commit failed for " + u.getUsername());
+                System.exit(1);
+            }
+        }
+        if (GameDataWriter.isJournalEnabled())
+            PlayerDataJournal.forPath(target).compact();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit tests for {@link PlayerDocumentStore}.
+ *
+ * <p>
+ * Each test gets its own data root (a temp directory) holding playerData.json.
+ * </p>
+ */
+public class PlayerDocumentStoreTest {
+
+    private Path jsonDir;
+    private Path playerJson;
+
+    private PlayerDocumentStore store;
+    private GameDataLoader loader;
+    private GameDataWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        jsonDir = Files.createTempDirectory("docstore");
+        playerJson = DataRoot.playerData(jsonDir);
+        writeFixture(new JSONArray());
+        store = PlayerDocumentStore.forPath(playerJson);
+        loader = new GameDataLoader(jsonDir);
+        writer = new GameDataWriter(jsonDir);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (var walk = Files.walk(jsonDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void writeFixture(JSONArray users) throws Exception {
+        JSONObject player = new JSONObject();
+        player.put("users", users);
+        player.put("progress", new JSONArray());
+        try (FileWriter fw = new FileWriter(playerJson.toFile())) {
+            fw.write(player.toJSONString());
+        }
+    }
+
+    // Repeated reads are served from memory.
+    @Test
+    public void repeatedReads_parseFileOnce() {
+        loader.getUsers();
+        int loads = store.loadCount();
+
+        loader.getUsers();
+        loader.getLeaderboard();
+        loader.loadProgressForUser(UUID.randomUUID());
+
+        assertEquals(loads, store.loadCount());
+    }
+
+    // Reads see the writer's changes without a reparse, and the change is on disk.
+    @Test
+    public void writerChanges_visibleWithoutReparse() throws Exception {
+        loader.getUsers();
+        int loads = store.loadCount();
+
+        writer.saveUser(new User(UUID.randomUUID(), "zed", "pw", "z@example.com"));
+
+        assertEquals(1, loader.getUsers().size());
+        assertEquals(loads, store.loadCount());
+        assertTrue(Files.readString(playerJson).contains("\"zed\""));
+    }
+
+    // An edit made behind the store's back is picked up by the mtime/size check.
+    @Test
+    public void externalEdit_isDetected() throws Exception {
+        assertTrue(loader.getUsers().isEmpty());
+
+        JSONObject u = new JSONObject();
+        u.put("userID", UUID.randomUUID().toString());
+        u.put("username", "outsider");
+        JSONArray users = new JSONArray();
+        users.add(u);
+        writeFixture(users);
+
+        ArrayList<User> reloaded = loader.getUsers();
+        assertEquals(1, reloaded.size());
+        assertEquals("outsider", reloaded.get(0).getUsername());
+    }
+}
@@ -0,0 +1,148 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit tests for {@link PlayerShards} and the writer/loader sharded layout.
+ *
+ * <p>
+ * Each test gets its own data root (a temp directory) holding playerData.json;
+ * shards go to the players/ directory next to it.
+ * </p>
+ */
+public class PlayerShardsTest {
+
+    private Path jsonDir;
+    private Path playerJson;
+    private Path shardDir;
+
+    private final UUID ana = UUID.randomUUID();
+    private GameDataWriter writer;
+    private GameDataLoader loader;
+    private PlayerShards shards;
+
+    // Monolithic fixture: one user with inventory and one progress entry.
+    @Before
+    public void setUp() throws Exception {
+        jsonDir = Files.createTempDirectory("shards");
+        playerJson = DataRoot.playerData(jsonDir);
+        shardDir = jsonDir.resolve(PlayerShards.DIR);
+
+        JSONObject inv = new JSONObject();
+        inv.put("capacity", 26);
+        JSONArray items = new JSONArray();
+        items.add("A");
+        inv.put("items", items);
+
+        JSONObject user = new JSONObject();
+        user.put("userID", ana.toString());
+        user.put("username", "ana");
+        user.put("password", "pw");
+        user.put("email", "ana@example.com");
+        user.put("inventory", inv);
+        JSONArray users = new JSONArray();
+        users.add(user);
+
+        JSONObject progress = new JSONObject();
+        progress.put("userUUID", ana.toString());
+        progress.put("progressUUID", UUID.randomUUID().toString());
+        progress.put("c", 2);
+        JSONArray progressArr = new JSONArray();
+        progressArr.add(progress);
+
+        JSONObject player = new JSONObject();
+        player.put("users", users);
+        player.put("progress", progressArr);
+        try (FileWriter fw = new FileWriter(playerJson.toFile())) {
+            fw.write(player.toJSONString());
+        }
+
+        writer = new GameDataWriter(jsonDir);
+        loader = new GameDataLoader(jsonDir);
+        shards = PlayerShards.forPath(playerJson);
+        GameDataWriter.setShardedLayout(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        GameDataWriter.setShardedLayout(false);
+        try (var walk = Files.walk(jsonDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private JSONObject readPlayerJson() throws Exception {
+        try (FileReader fr = new FileReader(playerJson.toFile())) {
+            return (JSONObject) new JSONParser().parse(fr);
+        }
+    }
+
+    // Migration moves progress and inventory into the user's shard.
+    @Test
+    public void migrate_movesProgressAndInventoryToShards() throws Exception {
+        assertTrue(shards.migrate());
+
+        JSONObject root = readPlayerJson();
+        assertEquals(PlayerShards.LAYOUT_SHARDED, root.get(PlayerShards.LAYOUT_KEY));
+        assertNull(((JSONObject) ((JSONArray) root.get("users")).get(0)).get("inventory"));
+        assertTrue(((JSONArray) root.get("progress")).isEmpty());
+
+        JSONObject shard = shards.readShard(ana);
+        assertNotNull(shard.get("progress"));
+        assertNotNull(shard.get("inventory"));
+
+        // loader still sees the same data
+        assertEquals(2, loader.loadProgressForUser(ana).getStoryPos());
+        assertTrue(loader.getUsers().get(0).getInventory().getItems().contains("A"));
+    }
+
+    // After migration a progress save leaves the global file untouched.
+    @Test
+    public void saveProgress_touchesOnlyTheUsersShard() throws Exception {
+        shards.migrate();
+        String global = Files.readString(playerJson);
+
+        Progress p = new Progress(UUID.randomUUID(), ana);
+        p.setStoryPos(5);
+        writer.saveProgress(p);
+
+        assertEquals(global, Files.readString(playerJson));
+        assertEquals(5, loader.loadProgressForUser(ana).getStoryPos());
+    }
+
+    // An inventory-only change rewrites the shard but not the user index.
+    @Test
+    public void saveUser_inventoryChangeSkipsGlobalFile() throws Exception {
+        shards.migrate();
+        String global = Files.readString(playerJson);
+
+        User u = loader.getUsers().get(0);
+        u.getInventory().addItem("B");
+        writer.saveUser(u);
+
+        assertEquals(global, Files.readString(playerJson));
+        assertTrue(loader.getUsers().get(0).getInventory().getItems().contains("B"));
+    }
+
+    // The first sharded save migrates a monolithic file on its own.
+    @Test
+    public void firstSave_migratesAutomatically() throws Exception {
+        UUID ben = UUID.randomUUID();
+        Progress p = new Progress(UUID.randomUUID(), ben);
+        writer.saveProgress(p);
+
+        assertEquals(PlayerShards.LAYOUT_SHARDED, readPlayerJson().get(PlayerShards.LAYOUT_KEY));
+        assertTrue(Files.exists(shards.shardFile(ana)));
+        assertTrue(Files.exists(shards.shardFile(ben)));
+    }
+}
@@ -210,6 +210,24 @@ public class ProgressTest {
         assertTrue(p.getHintedPuzzles().isEmpty());
     }
 
+    // Change tracking
+
+    @Test
+    public void restoreSetters_bumpVersionOnlyOnChange() {
+        p.setQuestionsAnswered(3);
+        p.setHintsUsed(2);
+        p.markSaved(p.getVersion());
+
+        // restoring the values it already has does not make it dirty
+        p.setQuestionsAnswered(3);
+        p.setHintsUsed(2);
+        assertFalse(p.isDirty());
+
+        p.setHintsUsed(-5);
+        assertTrue(p.isDirty());
+        assertEquals(0, p.getHintsUsed());
+    }
+
     // toString sanity
 
     @Test
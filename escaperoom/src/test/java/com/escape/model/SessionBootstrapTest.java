@@ -0,0 +1,218 @@
+package com.escape.model;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Unit tests for {@link SessionBootstrap} and PlayerStore.hydrate().
+ *
+ * <p>
+ * Each test saves one player (inventory + progress with room, timer and
+ * difficulty) into its own data root and hydrates them back.
+ * </p>
+ */
+public class SessionBootstrapTest {
+
+    private Path jsonDir;
+    private JsonPlayerStore store;
+    private final UUID ana = UUID.randomUUID();
+
+    @Before
+    public void setUp() throws Exception {
+        jsonDir = Files.createTempDirectory("bootstrap");
+        store = new JsonPlayerStore(jsonDir);
+
+        User u = new User(ana, "Ana", "pw", "ana@example.com");
+        u.addCollectedLetter("E");
+        Progress p = new Progress(UUID.randomUUID(), ana);
+        p.setStoryPos(3);
+        p.setCurrentRoomID("room2");
+        p.setTimeRemainingSeconds(512);
+        p.setDifficulty("HARD");
+        assertTrue(store.saveGame(u, p));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        GameDataWriter.setShardedLayout(false);
+        try (var walk = Files.walk(jsonDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    private static void assertHydrated(SessionBootstrap boot) {
+        assertNotNull(boot);
+        assertEquals("Ana", boot.getUser().getUsername());
+        assertEquals(List.of("E"), boot.getInventory());
+        assertTrue(boot.isRestored());
+        assertEquals(3, boot.getProgress().getStoryPos());
+        assertEquals("room2", boot.getSavedRoomID());
+        assertEquals(512, boot.getTimeRemainingSeconds());
+        assertEquals(Difficulty.HARD, boot.getDifficulty());
+        // straight from disk: nothing to save back
+        assertFalse(boot.getUser().isDirty());
+        assertFalse(boot.getProgress().isDirty());
+    }
+
+    // User, inventory and progress come from one parse of playerData.json.
+    @Test
+    public void hydrate_resolvesEverythingFromOneRead() {
+        PlayerDocumentStore doc = PlayerDocumentStore.forPath(DataRoot.playerData(jsonDir));
+        doc.invalidate();
+        int loads = doc.loadCount();
+
+        assertHydrated(store.hydrate("ANA"));
+        assertEquals(loads + 1, doc.loadCount());
+        assertNull(store.hydrate("nobody"));
+    }
+
+    // Sharded layout: the index entry plus the user's one shard.
+    @Test
+    public void hydrate_readsUsersShardInShardedLayout() {
+        GameDataWriter.setShardedLayout(true);
+        assertHydrated(store.hydrate("ana"));
+    }
+
+    // A first login gets a fresh progress and no saved state.
+    @Test
+    public void hydrate_withoutSaveGivesFreshProgress() {
+        store.saveUser(new User(UUID.randomUUID(), "ben", "pw", "ben@example.com"));
+        SessionBootstrap boot = store.hydrate("ben");
+        assertNotNull(boot);
+        assertFalse(boot.isRestored());
+        assertEquals(0, boot.getProgress().getStoryPos());
+        assertNull(boot.getSavedRoomID());
+        assertNull(boot.getDifficulty());
+    }
+
+    // Login keeps the Accounts instance as the session user and copies the
+    // hydrated inventory onto it.
+    @Test
+    public void login_keepsAccountsUserAndAdoptsSavedInventory() throws Exception {
+        String name = "dana_" + UUID.randomUUID().toString().substring(0, 8);
+        UUID id = UUID.randomUUID();
+        User saved = new User(id, name, "pw", "dana@example.com");
+        saved.addCollectedLetter("S");
+        assertTrue(store.saveGame(saved, new Progress(UUID.randomUUID(), id)));
+
+        User live = new User(id, name, "pw", "dana@example.com");
+        live.markSaved(live.getVersion());
+        Accounts.getInstance().register(live);
+        PlayerStores.set(store);
+        try {
+            EscapeRoomFacade facade = new EscapeRoomFacade();
+            assertSame(live, facade.loginAsync(name, "pw").get());
+            assertSame(live, facade.getCurrentUser());
+            assertSame(live, facade.getSessionBootstrap().getUser());
+            assertEquals(List.of("S"), live.getCollectedLetters());
+            assertFalse(live.isDirty());
+        } finally {
+            PlayerStores.set(null);
+        }
+    }
+
+    // An account whose first save has not landed yet still logs in.
+    @Test
+    public void login_fallsBackToAccountsUserWithoutStoredRecord() {
+        String name = "eli_" + UUID.randomUUID().toString().substring(0, 8);
+        User pending = new User(UUID.randomUUID(), name, "pw", "eli@example.com");
+        Accounts.getInstance().register(pending);
+        PlayerStores.set(store);
+        try {
+            EscapeRoomFacade facade = new EscapeRoomFacade();
+            facade.login(name, "pw");
+            assertSame(pending, facade.getCurrentUser());
+            assertFalse(facade.getSessionBootstrap().isRestored());
+
+            facade.logout();
+            facade.login(name, "wrong");
+            assertNull(facade.getCurrentUser());
+        } finally {
+            PlayerStores.set(null);
+        }
+    }
+
+    // A login waits for the same player's save that is still being written,
+    // so it cannot hydrate the progress from before it.
+    @Test
+    public void loginAsync_queuesBehindThePlayersPendingSave() throws Exception {
+        String name = "fay_" + UUID.randomUUID().toString().substring(0, 8);
+        User live = new User(UUID.randomUUID(), name, "pw", "fay@example.com");
+        Accounts.getInstance().register(live);
+        CountDownLatch writing = new CountDownLatch(1);
+        PlayerStores.set(new JsonPlayerStore(jsonDir) {
+            @Override
+            public boolean saveGame(User user, Progress p) {
+                try {
+                    writing.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.saveGame(user, p);
+            }
+        });
+        try {
+            EscapeRoomFacade playing = new EscapeRoomFacade();
+            playing.login(name, "pw");
+            live.addCollectedLetter("Z");
+            CompletableFuture<Boolean> save = playing.saveGameAsync();
+
+            CompletableFuture<User> login = new EscapeRoomFacade().loginAsync(name, "pw");
+            try {
+                login.get(200, TimeUnit.MILLISECONDS);
+                fail("login ran before the pending save");
+            } catch (TimeoutException expected) {
+            }
+            writing.countDown();
+            assertTrue(save.get(5, TimeUnit.SECONDS));
+            assertSame(live, login.get(5, TimeUnit.SECONDS));
+        } finally {
+            writing.countDown();
+            PlayerStores.set(null);
+        }
+    }
+
+    // A taken name and an account that could not be saved are reported apart.
+    @Test
+    public void createAccountAsync_tellsTakenNameFromSaveFailure() throws Exception {
+        String name = "gil_" + UUID.randomUUID().toString().substring(0, 8);
+        PlayerStores.set(store);
+        try {
+            EscapeRoomFacade facade = new EscapeRoomFacade();
+            assertTrue(facade.createAccountAsync(name, "pw", name + "@example.com").get());
+            assertNotNull(store.findUser(name));
+            assertFalse(facade.createAccountAsync(name, "pw", "other@example.com").get());
+        } finally {
+            PlayerStores.set(null);
+        }
+
+        String lost = "hal_" + UUID.randomUUID().toString().substring(0, 8);
+        PlayerStores.set(new JsonPlayerStore(jsonDir) {
+            @Override
+            public void saveUser(User user) {
+                // the write never lands
+            }
+        });
+        try {
+            new EscapeRoomFacade().createAccountAsync(lost, "pw", lost + "@example.com").get();
+            fail("an unsaved account was reported as created");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+            // and the name is free to try again
+            assertNull(Accounts.getInstance().getUser(lost));
+        } finally {
+            PlayerStores.set(null);
+        }
+    }
+}